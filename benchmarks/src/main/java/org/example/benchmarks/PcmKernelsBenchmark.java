@@ -0,0 +1,152 @@
+package org.example.benchmarks;
+
+import org.example.util.PcmKernels;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Random;
+
+/**
+ * Throughput of each {@link PcmKernels} kernel on one thread, in samples per second, so the score is
+ * what one core can process. Every invocation runs the kernel over {@link #SAMPLES} samples in
+ * frames of {@code frameSamples}, the size the relay sees them in: 320 is a 20 ms frame at 16 kHz.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OperationsPerInvocation(PcmKernelsBenchmark.SAMPLES)
+@Threads(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"--add-modules", "jdk.incubator.vector"})
+public class PcmKernelsBenchmark {
+    static final int SAMPLES = 7680;
+
+    @Param({"scalar", "vector"})
+    private String kernels;
+
+    @Param({"320", "7680"})
+    private int frameSamples;
+
+    private PcmKernels pcmKernels;
+    private float gain = 1.25f;
+    private short[] samples;
+    private float[] floats;
+    private ByteBuffer[] frames;
+
+    @Setup
+    public void setUp() {
+        pcmKernels = kernels.equals("vector") ? PcmKernels.vector() : PcmKernels.scalar();
+        if (pcmKernels == null) {
+            throw new IllegalStateException("Vector API kernels are not available on this JVM or CPU");
+        }
+        if (SAMPLES % frameSamples != 0) {
+            throw new IllegalArgumentException("frameSamples must divide " + SAMPLES);
+        }
+        // Speech-like levels with the occasional clipped sample
+        Random random = new Random(42);
+        samples = new short[SAMPLES];
+        for (int i = 0; i < SAMPLES; i++) {
+            samples[i] = (short) Math.max(Short.MIN_VALUE, Math.min(Short.MAX_VALUE, random.nextGaussian() * 6000));
+        }
+        floats = new float[SAMPLES];
+        pcmKernels.toFloat(samples, 0, floats, 0, SAMPLES);
+        ByteBuffer pcm = ByteBuffer.allocate(SAMPLES * 2);
+        pcmKernels.encode(samples, 0, SAMPLES, pcm, ByteOrder.LITTLE_ENDIAN);
+        frames = new ByteBuffer[SAMPLES / frameSamples];
+        for (int i = 0; i < frames.length; i++) {
+            frames[i] = pcm.slice(i * frameSamples * 2, frameSamples * 2);
+        }
+    }
+
+    @Benchmark
+    public void decodeLittleEndian() {
+        for (int i = 0; i < frames.length; i++) {
+            pcmKernels.decode(frames[i], ByteOrder.LITTLE_ENDIAN, samples, i * frameSamples);
+        }
+    }
+
+    @Benchmark
+    public void decodeBigEndian() {
+        for (int i = 0; i < frames.length; i++) {
+            pcmKernels.decode(frames[i], ByteOrder.BIG_ENDIAN, samples, i * frameSamples);
+        }
+    }
+
+    @Benchmark
+    public void encodeLittleEndian() {
+        for (int i = 0; i < frames.length; i++) {
+            pcmKernels.encode(samples, i * frameSamples, frameSamples, frames[i], ByteOrder.LITTLE_ENDIAN);
+        }
+    }
+
+    @Benchmark
+    public void swapByteOrder() {
+        for (ByteBuffer frame : frames) {
+            pcmKernels.swapByteOrder(frame);
+        }
+    }
+
+    @Benchmark
+    public void applyGain() {
+        // Alternating gains keep the samples from all saturating however many invocations run
+        gain = gain == 1.25f ? 0.8f : 1.25f;
+        for (int offset = 0; offset < SAMPLES; offset += frameSamples) {
+            pcmKernels.applyGain(samples, offset, frameSamples, gain);
+        }
+    }
+
+    @Benchmark
+    public void peak(Blackhole blackhole) {
+        for (int offset = 0; offset < SAMPLES; offset += frameSamples) {
+            blackhole.consume(pcmKernels.peak(samples, offset, frameSamples));
+        }
+    }
+
+    @Benchmark
+    public void rms(Blackhole blackhole) {
+        for (int offset = 0; offset < SAMPLES; offset += frameSamples) {
+            blackhole.consume(pcmKernels.rms(samples, offset, frameSamples));
+        }
+    }
+
+    @Benchmark
+    public void peakOfBytes(Blackhole blackhole) {
+        for (ByteBuffer frame : frames) {
+            blackhole.consume(pcmKernels.peak(frame, ByteOrder.LITTLE_ENDIAN));
+        }
+    }
+
+    @Benchmark
+    public void rmsOfBytes(Blackhole blackhole) {
+        for (ByteBuffer frame : frames) {
+            blackhole.consume(pcmKernels.rms(frame, ByteOrder.LITTLE_ENDIAN));
+        }
+    }
+
+    @Benchmark
+    public void toFloat() {
+        for (int offset = 0; offset < SAMPLES; offset += frameSamples) {
+            pcmKernels.toFloat(samples, offset, floats, offset, frameSamples);
+        }
+    }
+
+    @Benchmark
+    public void toPcm16() {
+        for (int offset = 0; offset < SAMPLES; offset += frameSamples) {
+            pcmKernels.toPcm16(floats, offset, samples, offset, frameSamples);
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package org.example.benchmarks;
+
+import org.example.util.G711;
+import org.example.util.PcmDecimator;
+import org.example.util.PcmKernels;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Base64;
+import java.util.Random;
+
+import static org.example.constants.NovaSonicConstants.OUTPUT_AUDIO_SAMPLE_RATE;
+import static org.example.constants.NovaSonicConstants.TELEPHONY_SAMPLE_RATE;
+
+/**
+ * Per-call transcoding cost on the telephony endpoint, in 20 ms frames per second on one thread.
+ * Dividing a score by 50 gives the number of calls one core can keep up with in that direction:
+ * {@code inbound} is a gateway media payload decoded to PCM, {@code outbound} is 24 kHz response
+ * audio decimated to 8 kHz and encoded, each including the base64 step.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@Threads(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"--add-modules", "jdk.incubator.vector"})
+public class TelephonyTranscodeBenchmark {
+    private static final int FRAME_MILLIS = 20;
+
+    @Param({"audio/x-mulaw", "audio/x-alaw"})
+    private String encoding;
+
+    private G711 law;
+    private PcmDecimator decimator;
+    private String inboundPayload;
+    private String outboundPcm;
+    private byte[] inboundPcm;
+    private short[] outboundSamples;
+    private short[] decimated;
+    private byte[] outboundCodes;
+
+    @Setup
+    public void setUp() {
+        law = G711.forMediaType(encoding);
+        decimator = new PcmDecimator(OUTPUT_AUDIO_SAMPLE_RATE / TELEPHONY_SAMPLE_RATE);
+        Random random = new Random(42);
+
+        short[] speech = new short[OUTPUT_AUDIO_SAMPLE_RATE * FRAME_MILLIS / 1000];
+        for (int i = 0; i < speech.length; i++) {
+            speech[i] = (short) Math.max(Short.MIN_VALUE, Math.min(Short.MAX_VALUE, random.nextGaussian() * 6000));
+        }
+        ByteBuffer pcm = ByteBuffer.allocate(speech.length * 2);
+        PcmKernels.get().encode(speech, 0, speech.length, pcm, ByteOrder.LITTLE_ENDIAN);
+        outboundPcm = Base64.getEncoder().encodeToString(pcm.array());
+
+        byte[] codes = new byte[TELEPHONY_SAMPLE_RATE * FRAME_MILLIS / 1000];
+        random.nextBytes(codes);
+        inboundPayload = Base64.getEncoder().encodeToString(codes);
+
+        inboundPcm = new byte[codes.length * 2];
+        outboundSamples = new short[speech.length];
+        decimated = new short[decimator.maxOutput(speech.length)];
+        outboundCodes = new byte[decimated.length];
+    }
+
+    @Benchmark
+    public byte[] inbound() {
+        byte[] codes = Base64.getDecoder().decode(inboundPayload);
+        law.decodeToPcm(codes, 0, codes.length, inboundPcm, 0);
+        return inboundPcm;
+    }
+
+    @Benchmark
+    public void outbound(Blackhole blackhole) {
+        byte[] pcm = Base64.getDecoder().decode(outboundPcm);
+        PcmKernels.get().decode(ByteBuffer.wrap(pcm), ByteOrder.LITTLE_ENDIAN, outboundSamples, 0);
+        int count = decimator.process(outboundSamples, 0, outboundSamples.length, decimated, 0);
+        law.encode(decimated, 0, count, outboundCodes, 0);
+        blackhole.consume(Base64.getEncoder().encode(ByteBuffer.wrap(outboundCodes, 0, count)));
+    }
+}
@@ -0,0 +1,99 @@
+#!/bin/bash
+
+# Drain test: two nodes behind a local HAProxy, steady load through the proxy, then node 1 is drained
+# through the admin endpoint on its management port (node port + 100). Node 1 should report not-ready, stop
+# receiving sessions and reach zero active sessions while node 2 takes the load.
+#
+# Needs haproxy, curl and python3, plus the server and load generator builds:
+#   mvn install -DskipTests && mvn -f loadgen/pom.xml package
+
+set -euo pipefail
+
+GREEN='\033[0;32m'
+BLUE='\033[0;34m'
+RED='\033[0;31m'
+NC='\033[0m' # No Color
+
+JVM_JAR=target/NovaSonicPlayground-1.0-SNAPSHOT-exec.jar
+LOADGEN_JAR=loadgen/target/NovaSonicLoadGenerator-1.0-SNAPSHOT-jar-with-dependencies.jar
+SESSIONS=${SESSIONS:-20}
+DRAIN_TIMEOUT=${DRAIN_TIMEOUT:-20s}
+WORK_DIR=$(mktemp -d)
+PIDS=()
+
+function cleanup {
+    for pid in "${PIDS[@]}"; do
+        kill "$pid" 2>/dev/null || true
+    done
+    rm -rf "$WORK_DIR"
+}
+trap cleanup EXIT
+
+for artifact in "$JVM_JAR" "$LOADGEN_JAR"; do
+    if [ ! -e "$artifact" ]; then
+        echo -e "${RED}Error: $artifact not found, see the build steps at the top of this script${NC}"
+        exit 1
+    fi
+done
+
+function readiness {
+    curl -s "http://localhost:$(( $1 + 100 ))/actuator/health/readiness"
+}
+
+function active_sessions {
+    readiness "$1" | python3 -c 'import json,sys; print(json.load(sys.stdin)["components"]["sessionCapacity"]["details"]["activeSessions"])'
+}
+
+# 4 seconds of 16 kHz 16-bit mono silence; the fake stream answers every 2 seconds of audio
+python3 - "$WORK_DIR/utterance.wav" <<'PY'
+import sys, wave
+with wave.open(sys.argv[1], "wb") as out:
+    out.setnchannels(1)
+    out.setsampwidth(2)
+    out.setframerate(16000)
+    out.writeframes(b"\0\0" * 16000 * 4)
+PY
+
+for port in 8101 8102; do
+    java -jar "$JVM_JAR" --server.port=$port --management.server.port=$(( port + 100 )) --novasonic.bedrock.mode=fake \
+        --novasonic.admission.max-streams-per-address=0 --novasonic.session.drain-timeout="$DRAIN_TIMEOUT" \
+        > "$WORK_DIR/node-$port.log" 2>&1 &
+    PIDS+=($!)
+done
+for port in 8101 8102; do
+    until curl -sf "http://localhost:$(( port + 100 ))/actuator/health/readiness" > /dev/null; do
+        sleep 0.5
+    done
+done
+haproxy -f drain-test-haproxy.cfg > "$WORK_DIR/haproxy.log" 2>&1 &
+PIDS+=($!)
+sleep 3
+
+echo -e "${BLUE}Running $SESSIONS sessions through the proxy${NC}"
+java -jar "$LOADGEN_JAR" --url ws://localhost:8008/ws/audio --wav "$WORK_DIR/utterance.wav" \
+    --sessions "$SESSIONS" --duration 60s --interval 5s --report drain-test-report.json > "$WORK_DIR/loadgen.log" 2>&1 &
+LOADGEN_PID=$!
+PIDS+=($LOADGEN_PID)
+sleep 15
+echo "Active sessions before drain: node1=$(active_sessions 8101) node2=$(active_sessions 8102)"
+
+echo -e "${BLUE}Draining node 1${NC}"
+curl -s -X POST "http://localhost:8201/actuator/drain"
+echo
+if curl -sf "http://localhost:8201/actuator/health/readiness" > /dev/null; then
+    echo -e "${RED}Node 1 still reports ready while draining${NC}"
+    exit 1
+fi
+
+# Wait for the drain deadline plus one poll interval
+sleep $(( ${DRAIN_TIMEOUT%s} + 2 ))
+node1=$(active_sessions 8101)
+node2=$(active_sessions 8102)
+echo "Active sessions after drain: node1=$node1 node2=$node2"
+wait "$LOADGEN_PID" || true
+
+if [ "$node1" -ne 0 ]; then
+    echo -e "${RED}Node 1 still holds $node1 sessions after the drain deadline${NC}"
+    exit 1
+fi
+echo -e "${GREEN}Node 1 drained; load generator report in drain-test-report.json${NC}"
@@ -6,14 +6,13 @@ import TranscriptionView from './components/TranscriptionView';
 import ASRView from './components/ASRView';
 import ConfigPanel from './components/ConfigPanel';
 import WebSocketEventManager from './lib/WebSocketEventManager';
+import useTranscriptHistory from './lib/useTranscriptHistory';
 
 function App() {
-  const [messages, setMessages] = useState([]);
+  const { messages, hasOlder, loadingOlder, append, loadOlder, setFollowing, reset } = useTranscriptHistory();
   const [isProcessing, setIsProcessing] = useState(false);
   const [error, setError] = useState(null);
   const wsManagerRef = useRef(null);
-  const messageCounter = useRef(0);
-  const MAX_MESSAGES = 100; // Limit message history for performance
   const [wsInitialized, setWsInitialized] = useState(false);
   const [config, setConfig] = useState({
     maxTokens: 1024,
@@ -28,25 +27,8 @@ function App() {
     console.log('Initializing WebSocket Manager');
     wsManagerRef.current = wsManager;
 
-    wsManager.onTranscriptionUpdate = (message) => {
-      // Create unique message ID using timestamp, role, and counter
-      messageCounter.current += 1;
-      const messageId = `${Date.now()}-${message.role}-${messageCounter.current}`;
-      const newMessage = {
-        id: messageId,
-        text: message.text,
-        role: message.role,
-        timestamp: Date.now()
-      };
-
-      setMessages(prev => {
-        const newMessages = [...prev, newMessage];
-        // Keep only the last N messages if limit exceeded
-        return newMessages.length > MAX_MESSAGES 
-          ? newMessages.slice(-MAX_MESSAGES) 
-          : newMessages;
-      });
-    };
+    // Buffered and appended once per animation frame
+    wsManager.onTranscriptionUpdate = append;
 
     wsManager.onStatusChange = (data) => {
       console.log('WebSocket status change:', data);
@@ -69,7 +51,7 @@ function App() {
       setError(message);
       setIsProcessing(false);
     };
-  }, []);
+  }, [append]);
 
   // Load configuration on component mount
   useEffect(() => {
@@ -94,8 +76,7 @@ function App() {
 
   const handleNewSession = async () => {
     try {
-      setMessages([]); // Clear messages
-      messageCounter.current = 0; // Reset message counter
+      reset(); // Clear messages
       if (wsInitialized) {
         await wsManagerRef.current.resetNovaSonicSession();
       }
@@ -123,6 +104,10 @@ function App() {
               isConnected={wsInitialized}
               wsManager={wsManagerRef.current}
               isProcessing={isProcessing}
+              hasOlder={hasOlder}
+              loadingOlder={loadingOlder}
+              onLoadOlder={loadOlder}
+              onFollowChange={setFollowing}
             />
           </div>
           <div className="asr-view-container">
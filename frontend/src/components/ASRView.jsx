@@ -1,9 +1,9 @@
-import { useEffect, useRef } from 'react';
+import { useEffect, useMemo, useRef } from 'react';
 
 const ASRView = ({ messages }) => {
   const containerRef = useRef(null);
-  const userMessages = messages.filter(msg => msg.role === 'USER');
-  const textContent = userMessages.map(msg => msg.text).join('\n');
+  const userMessages = useMemo(() => messages.filter(msg => msg.role === 'USER'), [messages]);
+  const textContent = useMemo(() => userMessages.map(msg => msg.text).join('\n'), [userMessages]);
 
   // Auto-scroll to bottom when new messages are added
   useEffect(() => {
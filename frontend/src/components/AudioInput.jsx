@@ -26,7 +26,7 @@ const AudioInput = ({ wsManager, isProcessing }) => {
 
       // Initialize audio player on user gesture
       try {
-        await wsManager.audioPlayer.start();
+        await wsManager.startAudioPlayer();
       } catch (error) {
         console.error('Error initializing audio:', error);
         setRecordingError('Error initializing audio. Please try again.');
@@ -12,7 +12,8 @@ const ConfigPanel = ({ onConfigChange, disabled, isConnected, onNewSession }) =>
     topT: 0.7,
     systemPrompt: '',
     language: 'en-US',
-    useFeminineVoice: false
+    useFeminineVoice: false,
+    outputSampleRate: 24000
   });
   const [isLoading, setIsLoading] = useState(true);
   const [error, setError] = useState(null);
@@ -46,7 +47,7 @@ const ConfigPanel = ({ onConfigChange, disabled, isConnected, onNewSession }) =>
     
     // Convert numeric values
     let parsedValue = value;
-    if (name === 'maxTokens') {
+    if (name === 'maxTokens' || name === 'outputSampleRate') {
       parsedValue = value === '' ? '' : parseInt(value, 10);
       if (isNaN(parsedValue)) parsedValue = '';
     } else if (name === 'topP' || name === 'topT') {
@@ -197,6 +198,21 @@ const ConfigPanel = ({ onConfigChange, disabled, isConnected, onNewSession }) =>
           </div>
         )}
 
+        <div className="form-group">
+          <label htmlFor="outputSampleRate">Response Audio:</label>
+          <select
+            id="outputSampleRate"
+            name="outputSampleRate"
+            value={config.outputSampleRate}
+            onChange={handleInputChange}
+            className="voice-select"
+          >
+            <option value={24000}>24 kHz</option>
+            <option value={16000}>16 kHz</option>
+            <option value={8000}>8 kHz (low bandwidth)</option>
+          </select>
+        </div>
+
         <div className="form-group">
           <label htmlFor="systemPrompt">System Prompt:</label>
           <textarea
@@ -1,10 +1,21 @@
-import React, { useEffect, useRef, memo } from 'react';
+import React, { useCallback, useEffect, useLayoutEffect, useMemo, useRef, useState, memo } from 'react';
 import AudioInput from './AudioInput';
 
+// Height assumed for a message until it has been rendered and measured
+const ESTIMATED_ROW_HEIGHT = 64;
+// Messages rendered above and below the visible ones, so fast scrolling does not show gaps
+const OVERSCAN_ROWS = 6;
+// Distance from the bottom within which the view keeps following new messages
+const FOLLOW_THRESHOLD_PX = 40;
+// Distance from the top at which older turns are paged in
+const LOAD_OLDER_THRESHOLD_PX = 200;
+// Only messages this recent fade in; older ones scrolled back into view appear at once
+const FRESH_MESSAGE_MS = 1000;
+
 // Memoized message component for better performance
 const Message = memo(({ message, isLoading, isLast }) => (
-  <div 
-    className={`message-wrapper ${message.role === 'USER' ? 'user' : 'assistant'}`}
+  <div
+    className={`message-wrapper ${message.role === 'USER' ? 'user' : 'assistant'}${Date.now() - message.timestamp < FRESH_MESSAGE_MS ? ' fresh' : ''}`}
   >
     <div className="message-bubble">
       {message.text}
@@ -16,46 +27,210 @@ const Message = memo(({ message, isLoading, isLast }) => (
 ));
 
 /**
- * Component for displaying transcription results in a chat-like interface
+ * Offsets of every message from the top of the list, from measured heights where known.
  */
-const TranscriptionView = ({ messages, isLoading, error, isConnected, wsManager, isProcessing }) => {
+const computeLayout = (messages, heights) => {
+  const offsets = new Array(messages.length + 1);
+  const indexById = new Map();
+  const ids = new Array(messages.length);
+  offsets[0] = 0;
+  for (let i = 0; i < messages.length; i++) {
+    ids[i] = messages[i].id;
+    indexById.set(messages[i].id, i);
+    offsets[i + 1] = offsets[i] + (heights.get(messages[i].id) ?? ESTIMATED_ROW_HEIGHT);
+  }
+  return { offsets, ids, indexById, totalHeight: offsets[messages.length] };
+};
+
+// Index of the message at a given offset from the top of the list
+const indexAt = (offsets, offset) => {
+  let low = 0;
+  let high = offsets.length - 2;
+  while (low < high) {
+    const mid = (low + high + 1) >> 1;
+    if (offsets[mid] <= offset) {
+      low = mid;
+    } else {
+      high = mid - 1;
+    }
+  }
+  return Math.max(0, low);
+};
+
+// The message at the top of the viewport, and how far the viewport top is below it
+const anchorAt = (layout, scrollTop) => {
+  if (layout.ids.length === 0) {
+    return null;
+  }
+  const index = indexAt(layout.offsets, scrollTop);
+  return { id: layout.ids[index], delta: scrollTop - layout.offsets[index] };
+};
+
+/**
+ * Component for displaying transcription results in a chat-like interface. Only the messages in and
+ * near the viewport are rendered, so the cost of a frame does not grow with the conversation: new
+ * messages mount a row each, and the rest of the window is memoized. The view follows the live end
+ * of the conversation until the user scrolls up, keeps the message they are reading in place while
+ * messages are added or removed around it, and asks for older turns when scrolled near the top.
+ */
+const TranscriptionView = ({ messages, isLoading, error, isConnected, wsManager, isProcessing,
+                             hasOlder, loadingOlder, onLoadOlder, onFollowChange }) => {
   const chatContainerRef = useRef(null);
+  const heights = useRef(new Map());
+  const rows = useRef(new Map());
+  const following = useRef(true);
+  // The message the user is reading, kept in place when messages are added or removed above it
+  const anchor = useRef(null);
+  const scrollFrame = useRef(null);
+  const [layoutVersion, setLayoutVersion] = useState(0);
+  const [viewport, setViewport] = useState({ scrollTop: 0, height: 0 });
+
+  // eslint-disable-next-line react-hooks/exhaustive-deps
+  const layout = useMemo(() => computeLayout(messages, heights.current), [messages, layoutVersion]);
+
+  const first = Math.max(0, indexAt(layout.offsets, viewport.scrollTop) - OVERSCAN_ROWS);
+  const last = Math.min(messages.length, indexAt(layout.offsets, viewport.scrollTop + viewport.height) + 1 + OVERSCAN_ROWS);
+
+  const setRowRef = useCallback((id, element) => {
+    if (element) {
+      rows.current.set(id, element);
+    } else {
+      rows.current.delete(id);
+    }
+  }, []);
+
+  const layoutRef = useRef(layout);
+  layoutRef.current = layout;
+
+  const readViewport = useCallback(() => {
+    scrollFrame.current = null;
+    const container = chatContainerRef.current;
+    if (!container) {
+      return;
+    }
+    const { scrollTop, clientHeight } = container;
+    setViewport(prev => prev.scrollTop === scrollTop && prev.height === clientHeight ? prev : { scrollTop, height: clientHeight });
+    if (scrollTop <= LOAD_OLDER_THRESHOLD_PX && hasOlder && !loadingOlder) {
+      onLoadOlder?.();
+    }
+  }, [hasOlder, loadingOlder, onLoadOlder]);
+
+  const handleScroll = useCallback(() => {
+    const container = chatContainerRef.current;
+    if (!container) {
+      return;
+    }
+    // Where the user is reading is noted straight away, so messages appended before the next
+    // frame cannot pull the view back; rendering the new window waits for the frame
+    const { scrollTop, scrollHeight, clientHeight } = container;
+    const isFollowing = scrollHeight - scrollTop - clientHeight <= FOLLOW_THRESHOLD_PX;
+    if (isFollowing !== following.current) {
+      following.current = isFollowing;
+      onFollowChange?.(isFollowing);
+    }
+    anchor.current = anchorAt(layoutRef.current, scrollTop);
+    if (scrollFrame.current === null) {
+      scrollFrame.current = requestAnimationFrame(readViewport);
+    }
+  }, [onFollowChange, readViewport]);
 
-  // Auto-scroll to bottom when new messages are added
   useEffect(() => {
-    if (chatContainerRef.current) {
-      chatContainerRef.current.scrollTop = chatContainerRef.current.scrollHeight;
+    const container = chatContainerRef.current;
+    if (!container) {
+      return undefined;
     }
-  }, [messages]);
+    const observer = new ResizeObserver(() => handleScroll());
+    observer.observe(container);
+    return () => observer.disconnect();
+  }, [handleScroll]);
+
+  useEffect(() => () => {
+    if (scrollFrame.current !== null) {
+      cancelAnimationFrame(scrollFrame.current);
+    }
+  }, []);
+
+  useLayoutEffect(() => {
+    const container = chatContainerRef.current;
+    if (!container) {
+      return;
+    }
+    // Measure the rendered messages; a changed height lays the list out again before paint
+    let changed = false;
+    rows.current.forEach((element, id) => {
+      const height = element.offsetHeight;
+      if (heights.current.get(id) !== height) {
+        heights.current.set(id, height);
+        changed = true;
+      }
+    });
+    if (heights.current.size > messages.length * 2) {
+      // Forget the heights of messages that have been trimmed
+      const live = new Set(messages.map(message => message.id));
+      heights.current.forEach((height, id) => live.has(id) || heights.current.delete(id));
+    }
+    if (changed) {
+      setLayoutVersion(version => version + 1);
+      return;
+    }
+
+    if (following.current) {
+      container.scrollTop = container.scrollHeight;
+    } else if (anchor.current) {
+      const index = layout.indexById.get(anchor.current.id);
+      if (index !== undefined) {
+        const scrollTop = layout.offsets[index] + anchor.current.delta;
+        if (Math.abs(container.scrollTop - scrollTop) > 1) {
+          container.scrollTop = scrollTop;
+        }
+      }
+    }
+    anchor.current = anchorAt(layout, container.scrollTop);
+    if (container.scrollTop !== viewport.scrollTop || container.clientHeight !== viewport.height) {
+      handleScroll();
+    }
+  });
 
   return (
     <div className="chat-section">
       <div className="chat-header">
         <h3>Conversation</h3>
         <div className="voice-control-bar">
-          <AudioInput 
+          <AudioInput
             wsManager={wsManager}
             isProcessing={isProcessing}
           />
         </div>
       </div>
-      
-      <div className="chat-container" ref={chatContainerRef}>
+
+      {loadingOlder && (
+        <div className="history-status">Loading earlier messages...</div>
+      )}
+      <div className="chat-container" ref={chatContainerRef} onScroll={handleScroll}>
         {error ? (
           <div className="error-message">{error}</div>
         ) : (
-          <div className="messages-list">
-            {messages.map((message, index) => (
-              <Message
-                key={message.id || index}
-                message={message}
-                isLoading={isLoading}
-                isLast={index === messages.length - 1}
-              />
-            ))}
+          <>
+            <div className="messages-list" style={{ height: layout.totalHeight }}>
+              <div className="messages-window" style={{ transform: `translateY(${layout.offsets[first]}px)` }}>
+                {messages.slice(first, last).map((message, i) => (
+                  <div
+                    key={message.id}
+                    className="message-row"
+                    ref={element => setRowRef(message.id, element)}
+                  >
+                    <Message
+                      message={message}
+                      isLoading={isLoading}
+                      isLast={first + i === messages.length - 1}
+                    />
+                  </div>
+                ))}
+              </div>
+            </div>
             {messages.length === 0 && !isLoading && (
               <div className={`placeholder ${!isConnected ? 'highlight-action' : ''}`}>
-                {!isConnected 
+                {!isConnected
                   ? "Please click 'New Session' in the configuration panel to begin conversation"
                   : "Record audio to test Nova Sonic"
                 }
@@ -66,7 +241,7 @@ const TranscriptionView = ({ messages, isLoading, error, isConnected, wsManager,
                 Processing audio...
               </div>
             )}
-          </div>
+          </>
         )}
       </div>
     </div>
@@ -0,0 +1,71 @@
+/* eslint-disable no-restricted-globals */
+import AudioRingBuffer from './AudioRingBuffer';
+
+// Longest wait for the worklet to make room in a full ring before checking for a flush again; the
+// worklet signals when it reads, so this only matters while playback is stopped
+const FULL_RING_WAIT_MS = 20;
+
+// Decodes base64 16-bit PCM from the server into playback samples off the main thread. With shared
+// memory the samples go straight into the playback ring; without it they are transferred to the
+// worklet over its own port, so they still never pass through the main thread. Every chunk carries
+// the flush generation it was received under, and chunks from before a flush are dropped.
+let ring = null;
+let ringGeneration = 0;
+let workletPort = null;
+let scratch = new Float32Array(0);
+
+self.onmessage = (event) => {
+    switch (event.data.type) {
+        case "ring":
+            ring = new AudioRingBuffer(event.data);
+            break;
+        case "port":
+            workletPort = event.data.port;
+            break;
+        case "audio":
+            play(event.data.data, event.data.generation);
+            break;
+        default:
+            console.error("Unknown audio decode worker message type: " + event.data.type);
+    }
+};
+
+function play(base64, generation) {
+    if (ring !== null) {
+        if (generation !== ring.generation()) {
+            return;  // Received before a barge-in
+        }
+        const bytes = atob(base64);
+        const length = bytes.length >> 1;
+        if (scratch.length < length) {
+            scratch = new Float32Array(length);
+        }
+        decode(bytes, scratch, length);
+        if (generation !== ringGeneration) {
+            ring.startGeneration(generation);
+            ringGeneration = generation;
+        }
+        let written = ring.write(scratch, 0, length);
+        while (written < length) {
+            ring.waitForSpace(FULL_RING_WAIT_MS);
+            if (generation !== ring.generation()) {
+                return;  // Flushed while waiting; the rest of the chunk is stale
+            }
+            written += ring.write(scratch, written, length - written);
+        }
+    }
+    else if (workletPort !== null) {
+        const bytes = atob(base64);
+        const samples = new Float32Array(bytes.length >> 1);
+        decode(bytes, samples, samples.length);
+        workletPort.postMessage({samples: samples, generation: generation}, [samples.buffer]);
+    }
+}
+
+function decode(bytes, destination, length) {
+    for (let i = 0; i < length; i++) {
+        // Little-endian, sign-extended from the high byte
+        const sample = (bytes.charCodeAt(2 * i + 1) << 24 >> 16) | bytes.charCodeAt(2 * i);
+        destination[i] = sample / 32768.0;
+    }
+}
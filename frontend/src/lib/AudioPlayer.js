@@ -1,5 +1,11 @@
 import ObjectExt from "./../util/ObjectsExt";
+import AudioRingBuffer from "./AudioRingBuffer";
 const AudioPlayerWorkletUrl = new URL('./AudioPlayerProcessor.worklet.js', import.meta.url).toString();
+// Rate of the server's response audio unless the session negotiated another
+export const DEFAULT_OUTPUT_SAMPLE_RATE = 24000;
+// Audio the playback ring holds; the server sends a response faster than it plays, and the decode
+// worker waits for room beyond this
+const RING_SECONDS = 16;
 
 export default class AudioPlayer {
     constructor() {
@@ -17,14 +23,19 @@ export default class AudioPlayer {
         }
     }
 
-    async start() {
-        this.audioContext = new AudioContext({"sampleRate": 24000});
+    /**
+     * Starts playback at the rate of the audio that will be played, so the browser does not resample it.
+     */
+    async start(sampleRate = DEFAULT_OUTPUT_SAMPLE_RATE) {
+        this.sampleRate = sampleRate;
+        this.audioContext = new AudioContext({"sampleRate": sampleRate});
         this.analyser = this.audioContext.createAnalyser();
         this.analyser.fftSize = 512;
 
         // Chrome caches worklet code more aggressively, so add a nocache parameter to make sure we get the latest
         await this.audioContext.audioWorklet.addModule(AudioPlayerWorkletUrl); // + "?nocache=" + Date.now());
         this.workletNode = new AudioWorkletNode(this.audioContext, "audio-player-processor");
+        this.#startDecodeWorker(sampleRate);
         this.workletNode.connect(this.analyser);
         this.analyser.connect(this.audioContext.destination);
         this.recorderNode = this.audioContext.createScriptProcessor(512, 1, 1);
@@ -43,9 +54,51 @@ export default class AudioPlayer {
         console.log("Initialized");
     }
 
+    /**
+     * Lets a context that was created without a user gesture start playing; call from one.
+     */
+    async resume() {
+        if (ObjectExt.exists(this.audioContext) && this.audioContext.state === "suspended") {
+            await this.audioContext.resume();
+        }
+    }
+
+    /**
+     * Decodes the server's audio in a worker that hands the samples to the worklet without the main
+     * thread. SharedArrayBuffer needs a cross-origin isolated page (see src/setupProxy.js); elsewhere
+     * the worker transfers each chunk to the worklet over a port of its own.
+     */
+    #startDecodeWorker(sampleRate) {
+        this.decodeWorker = new Worker(new URL('./AudioDecodeWorker.js', import.meta.url));
+        // Flush generation of the ring without shared memory, which the worklet owns
+        this.generation = 0;
+        if (window.crossOriginIsolated) {
+            const memory = AudioRingBuffer.allocate(RING_SECONDS * sampleRate);
+            this.ring = new AudioRingBuffer(memory);
+            this.workletNode.port.postMessage({type: "ring", ...memory});
+            this.decodeWorker.postMessage({type: "ring", ...memory});
+        }
+        else {
+            console.warn("The page is not cross-origin isolated; audio chunks will be posted to the player");
+            const channel = new MessageChannel();
+            this.workletNode.port.postMessage({type: "port", port: channel.port1}, [channel.port1]);
+            this.decodeWorker.postMessage({type: "port", port: channel.port2}, [channel.port2]);
+        }
+    }
+
+    /**
+     * Drops the audio received so far, whether it is queued for playback or still waiting to be decoded.
+     */
     bargeIn() {
+        if (ObjectExt.exists(this.ring)) {
+            // One atomic increment of the shared flush generation
+            this.ring.flush();
+            return;
+        }
+        this.generation += 1;
         this.workletNode.port.postMessage({
             type: "barge-in",
+            generation: this.generation,
         })
     }
 
@@ -66,11 +119,17 @@ export default class AudioPlayer {
             this.recorderNode.disconnect();
         }
 
+        if (ObjectExt.exists(this.decodeWorker)) {
+            this.decodeWorker.terminate();
+        }
+
         this.initialized = false;
         this.audioContext = null;
         this.analyser = null;
         this.workletNode = null;
         this.recorderNode = null;
+        this.decodeWorker = null;
+        this.ring = null;
     }
 
     #maybeOverrideInitialBufferLength() {
@@ -91,14 +150,19 @@ export default class AudioPlayer {
         });
     }
 
-    playAudio(samples) {
+    /**
+     * Queues base64 encoded 16-bit PCM at the player's rate, as the server sends it, for decoding and playback.
+     */
+    playAudio(base64Pcm) {
         if (!this.initialized) {
             console.error("The audio player is not initialized. Call init() before attempting to play audio.");
             return;
         }
-        this.workletNode.port.postMessage({
+        this.decodeWorker.postMessage({
             type: "audio",
-            audioData: samples,
+            data: base64Pcm,
+            // Chunks received before the next barge-in are dropped at that barge-in, wherever they are
+            generation: ObjectExt.exists(this.ring) ? this.ring.generation() : this.generation,
         });
     }
 
@@ -1,67 +1,102 @@
-// Audio sample buffer to minimize reallocations
-class ExpandableBuffer {
+// Positions in the ring's index array, as laid out by AudioRingBuffer.js, which this worklet cannot import
+const WRITE_INDEX = 0;
+const READ_INDEX = 1;
+const GENERATION = 2;
+const START_INDEX = 3;
+const START_GENERATION = 4;
+const INDEX_COUNT = 5;
+// Initial capacity of the local ring used when the page has no shared memory; it grows as needed
+const LOCAL_RING_SECONDS = 16;
 
-    constructor() {
-        // Start with one second's worth of buffered audio capacity before needing to expand
-        this.buffer = new Float32Array(24000);
-        this.readIndex = 0;
-        this.writeIndex = 0;
+function capacityFor(samples) {
+    let capacity = 1;
+    while (capacity < samples) {
+        capacity *= 2;
+    }
+    return capacity;
+}
+
+// Reading end of the playback ring. The decode worker writes into it from shared memory; without
+// shared memory this worklet allocates it and writes the samples the worker transfers to it.
+class PlaybackRing {
+
+    constructor(indices, samples) {
+        this.indices = new Int32Array(indices);
+        this.samples = new Float32Array(samples);
+        this.mask = this.samples.length - 1;
         this.underflowedSamples = 0;
         this.isInitialBuffering = true;
-        this.initialBufferLength = 24000;  // One second
-        this.lastWriteTime = 0;
+        // The generation whose audio this reader has started on
+        this.readGeneration = 0;
+        // sampleRate is the rate of the AudioContext, which the player creates at the rate of the session's audio
+        this.initialBufferLength = sampleRate;  // One second
+    }
+
+    static local() {
+        return new PlaybackRing(new ArrayBuffer(INDEX_COUNT * Int32Array.BYTES_PER_ELEMENT),
+            new ArrayBuffer(capacityFor(LOCAL_RING_SECONDS * sampleRate) * Float32Array.BYTES_PER_ELEMENT));
     }
 
-    logTimeElapsedSinceLastWrite() {
-        const now = Date.now();
-        if (this.lastWriteTime !== 0) {
-            const elapsed = now - this.lastWriteTime;
-            console.log(`Elapsed time since last audio buffer write: ${elapsed} ms`);
+    // Only for the local ring, which has no other writer or reader, so it can grow like a plain buffer
+    write(samples, generation) {
+        const current = Atomics.load(this.indices, GENERATION);
+        if (generation < current) {
+            return;  // Received before a barge-in
         }
-        this.lastWriteTime = now;
+        if (generation > current) {
+            // The chunk overtook the barge-in message, which comes over another port
+            this.flush(generation);
+        }
+        const read = Atomics.load(this.indices, READ_INDEX);
+        const used = (Atomics.load(this.indices, WRITE_INDEX) - read) >>> 0;
+        if (samples.length > this.samples.length - used) {
+            const grown = new Float32Array(capacityFor(used + samples.length) * 2);
+            console.log(`Expanding the audio buffer from ${this.samples.length} to ${grown.length}`);
+            this.#copyOut(read, used, grown);
+            this.samples = grown;
+            this.mask = grown.length - 1;
+            Atomics.store(this.indices, READ_INDEX, 0);
+            Atomics.store(this.indices, WRITE_INDEX, used);
+        }
+        const write = Atomics.load(this.indices, WRITE_INDEX);
+        const start = write & this.mask;
+        const first = Math.min(samples.length, this.samples.length - start);
+        this.samples.set(samples.subarray(0, first), start);
+        this.samples.set(samples.subarray(first), 0);
+        Atomics.store(this.indices, WRITE_INDEX, (write + samples.length) | 0);
     }
 
-    write(samples) {
-        this.logTimeElapsedSinceLastWrite();
-        if (this.writeIndex + samples.length <= this.buffer.length) {
-            // Enough space to append the new samples
+    read(destination) {
+        const generation = Atomics.load(this.indices, GENERATION);
+        if (Atomics.load(this.indices, START_GENERATION) !== generation) {
+            // Flushed, and the writer has not started on audio received since: whatever is in the ring is stale
+            this.#skipTo(Atomics.load(this.indices, WRITE_INDEX));
         }
-        else {
-            // Not enough space ...
-            if (samples.length <= this.readIndex) {
-                // ... but we can shift samples to the beginning of the buffer
-                const subarray = this.buffer.subarray(this.readIndex, this.writeIndex);
-                console.log(`Shifting the audio buffer of length ${subarray.length} by ${this.readIndex}`);
-                this.buffer.set(subarray);
+        else if (this.readGeneration !== generation) {
+            // Skips what the writer finished writing after the flush, before it started the new audio
+            const start = Atomics.load(this.indices, START_INDEX);
+            if (((start - Atomics.load(this.indices, READ_INDEX)) | 0) > 0) {
+                this.#skipTo(start);
             }
-            else {
-                // ... and we need to grow the buffer capacity to make room for more audio
-                const newLength = (samples.length + this.writeIndex - this.readIndex) * 2;
-                const newBuffer = new Float32Array(newLength);
-                console.log(`Expanding the audio buffer from ${this.buffer.length} to ${newLength}`);
-                newBuffer.set(this.buffer.subarray(this.readIndex, this.writeIndex));
-                this.buffer = newBuffer;
-            }
-            this.writeIndex -= this.readIndex;
-            this.readIndex = 0;
+            this.readGeneration = generation;
         }
-        this.buffer.set(samples, this.writeIndex);
-        this.writeIndex += samples.length;
-        if (this.writeIndex - this.readIndex >= this.initialBufferLength) {
+
+        const read = Atomics.load(this.indices, READ_INDEX);
+        const available = (Atomics.load(this.indices, WRITE_INDEX) - read) >>> 0;
+        if (this.isInitialBuffering && available >= this.initialBufferLength) {
             // Filled the initial buffer length, so we can start playback with some cushion
             this.isInitialBuffering = false;
             console.log("Initial audio buffer filled");
         }
-    }
-
-    read(destination) {
         let copyLength = 0;
         if (!this.isInitialBuffering) {
             // Only start to play audio after we've built up some initial cushion
-            copyLength = Math.min(destination.length, this.writeIndex - this.readIndex);
+            copyLength = Math.min(destination.length, available);
+        }
+        this.#copyOut(read, copyLength, destination);
+        if (copyLength > 0) {
+            this.#skipTo((read + copyLength) | 0);
         }
-        destination.set(this.buffer.subarray(this.readIndex, this.readIndex + copyLength));
-        this.readIndex += copyLength;
         if (copyLength > 0 && this.underflowedSamples > 0) {
             console.log(`Detected audio buffer underflow of ${this.underflowedSamples} samples`);
             this.underflowedSamples = 0;
@@ -77,38 +112,79 @@ class ExpandableBuffer {
         }
     }
 
-    clearBuffer() {
-        this.readIndex = 0;
-        this.writeIndex = 0;
+    // Only for the local ring; the shared ring is flushed by bumping its generation from the main thread
+    flush(generation) {
+        const write = Atomics.load(this.indices, WRITE_INDEX);
+        Atomics.store(this.indices, READ_INDEX, write);
+        Atomics.store(this.indices, START_INDEX, write);
+        Atomics.store(this.indices, GENERATION, generation);
+        Atomics.store(this.indices, START_GENERATION, generation);
+    }
+
+    #copyOut(read, length, destination) {
+        const start = read & this.mask;
+        const first = Math.min(length, this.samples.length - start);
+        destination.set(this.samples.subarray(start, start + first));
+        destination.set(this.samples.subarray(0, length - first), first);
+    }
+
+    #skipTo(index) {
+        if (index !== Atomics.load(this.indices, READ_INDEX)) {
+            Atomics.store(this.indices, READ_INDEX, index);
+            // Wakes the decode worker if it is waiting for room
+            Atomics.notify(this.indices, READ_INDEX);
+        }
     }
 }
 
 class AudioPlayerProcessor extends AudioWorkletProcessor {
     constructor() {
         super();
-        this.playbackBuffer = new ExpandableBuffer();
+        this.playbackRing = null;
+        this.initialBufferLength = null;
         this.port.onmessage = (event) => {
-            console.log("Event Received", event)
-            if (event.data.type === "audio") {
-                this.playbackBuffer.write(event.data.audioData);
+            if (event.data.type === "ring") {
+                // Shared with the decode worker, which writes into it; nothing is posted per chunk
+                this.#setPlaybackRing(new PlaybackRing(event.data.indices, event.data.samples));
+            }
+            else if (event.data.type === "port") {
+                // No shared memory, so the decode worker transfers each chunk over this port instead
+                const ring = PlaybackRing.local();
+                event.data.port.onmessage = (chunk) => ring.write(chunk.data.samples, chunk.data.generation);
+                this.#setPlaybackRing(ring);
             }
             else if (event.data.type === "initial-buffer-length") {
                 // Override the current playback initial buffer length
                 const newLength = event.data.bufferLength;
-                this.playbackBuffer.initialBufferLength = newLength;
+                this.initialBufferLength = newLength;
+                if (this.playbackRing !== null) {
+                    this.playbackRing.initialBufferLength = newLength;
+                }
                 console.log(`Changed initial audio buffer length to: ${newLength}`)
             }
             else if (event.data.type === "barge-in") {
-                this.playbackBuffer.clearBuffer();
+                if (this.playbackRing !== null
+                    && event.data.generation > Atomics.load(this.playbackRing.indices, GENERATION)) {
+                    this.playbackRing.flush(event.data.generation);
+                }
             }
         };
     }
 
+    #setPlaybackRing(ring) {
+        if (this.initialBufferLength !== null) {
+            ring.initialBufferLength = this.initialBufferLength;
+        }
+        this.playbackRing = ring;
+    }
+
     process(inputs, outputs, parameters) {
         const output = outputs[0][0]; // Assume one output with one channel
-        this.playbackBuffer.read(output);
+        if (this.playbackRing !== null) {
+            this.playbackRing.read(output);
+        }
         return true; // True to continue processing
     }
 }
 
-registerProcessor("audio-player-processor", AudioPlayerProcessor);
\ No newline at end of file
+registerProcessor("audio-player-processor", AudioPlayerProcessor);
@@ -0,0 +1,96 @@
+// Positions in the index array. WRITE_INDEX and READ_INDEX are free-running sample counts that wrap
+// at 2^32; the ring position is the count masked by the capacity, which is a power of two.
+export const WRITE_INDEX = 0;
+export const READ_INDEX = 1;
+// Flush generation: a barge-in bumps it, and audio received before the bump is not played
+export const GENERATION = 2;
+// Where the writer started writing the audio of the generation in START_GENERATION
+export const START_INDEX = 3;
+export const START_GENERATION = 4;
+const INDEX_COUNT = 5;
+
+/**
+ * Lock-free single-producer/single-consumer ring of playback samples in shared memory. The audio
+ * decode worker is the only writer and AudioPlayerProcessor is the only reader; the reader keeps its
+ * own copy of this layout, since the worklet cannot import modules from the bundle.
+ * <p>
+ * A flush is one atomic increment of the generation. The writer drops chunks received under an older
+ * generation, and marks where the audio of a new one starts. Until that mark exists the reader plays
+ * nothing and skips whatever was written, so audio the writer was busy with when the flush came is
+ * never played either.
+ */
+export default class AudioRingBuffer {
+    /**
+     * Allocates shared memory for at least the given number of samples.
+     */
+    static allocate(minCapacity) {
+        let capacity = 1;
+        while (capacity < minCapacity) {
+            capacity *= 2;
+        }
+        return {
+            indices: new SharedArrayBuffer(INDEX_COUNT * Int32Array.BYTES_PER_ELEMENT),
+            samples: new SharedArrayBuffer(capacity * Float32Array.BYTES_PER_ELEMENT),
+        };
+    }
+
+    constructor({ indices, samples }) {
+        this.indices = new Int32Array(indices);
+        this.samples = new Float32Array(samples);
+        this.mask = this.samples.length - 1;
+    }
+
+    generation() {
+        return Atomics.load(this.indices, GENERATION);
+    }
+
+    /**
+     * Space left for the writer.
+     */
+    free() {
+        const used = (Atomics.load(this.indices, WRITE_INDEX) - Atomics.load(this.indices, READ_INDEX)) >>> 0;
+        return this.samples.length - used;
+    }
+
+    /**
+     * Marks the next sample written as the start of the given generation's audio. Only the writer may
+     * call this.
+     */
+    startGeneration(generation) {
+        Atomics.store(this.indices, START_INDEX, Atomics.load(this.indices, WRITE_INDEX));
+        Atomics.store(this.indices, START_GENERATION, generation);
+    }
+
+    /**
+     * Writes as many of the samples as fit, from offset on, and returns how many that was. Only the
+     * writer may call this.
+     */
+    write(source, offset, length) {
+        const count = Math.min(length, this.free());
+        const write = Atomics.load(this.indices, WRITE_INDEX);
+        const start = write & this.mask;
+        const first = Math.min(count, this.samples.length - start);
+        this.samples.set(source.subarray(offset, offset + first), start);
+        this.samples.set(source.subarray(offset + first, offset + count), 0);
+        // Publishes the samples: the reader loads the write index before it reads them
+        Atomics.store(this.indices, WRITE_INDEX, (write + count) | 0);
+        return count;
+    }
+
+    /**
+     * Waits until the reader makes room, which it signals, or until the timeout passes. Blocks, so
+     * only a worker may call this.
+     */
+    waitForSpace(timeoutMs) {
+        Atomics.wait(this.indices, READ_INDEX, Atomics.load(this.indices, READ_INDEX), timeoutMs);
+    }
+
+    /**
+     * Drops all audio received so far.
+     *
+     * @return The new generation
+     */
+    flush() {
+        return Atomics.add(this.indices, GENERATION, 1) + 1;
+    }
+}
@@ -1,4 +1,16 @@
-import AudioPlayer from './AudioPlayer';
+import AudioPlayer, { DEFAULT_OUTPUT_SAMPLE_RATE } from './AudioPlayer';
+
+// Keep retrying a dropped connection within the server's resume grace period
+const RESUME_WINDOW_MS = 25000;
+const RESUME_BASE_DELAY_MS = 250;
+const RESUME_MAX_DELAY_MS = 4000;
+// Close code a draining server uses to ask clients to start over on another node
+const SERVICE_RESTART_CODE = 1012;
+const DRAIN_RECONNECT_MAX_DELAY_MS = 2000;
+// Close code an overloaded server uses after turning a new session away
+const TRY_AGAIN_LATER_CODE = 1013;
+// Transcript the server sends when the caller interrupts the assistant
+const INTERRUPTED_TRANSCRIPT = '{ "interrupted" : true }';
 
 class WebSocketEventManager {
     static instance = null;
@@ -24,6 +36,19 @@ class WebSocketEventManager {
         this.onStatusChange = null;
         this.onError = null;
         this.isInitialized = false;
+        // Session resume state: token issued by the server and the last sequence number received
+        this.resumeToken = null;
+        this.lastSeq = 0;
+        this.resumeDeadline = 0;
+        this.resumeAttempt = 0;
+        this.resumeTimer = null;
+        this.sessionId = null;
+        this.transcriptToken = null;
+        this.config = {};
+        // Rate of the response audio the server agreed to send, and the player being started at it
+        this.outputSampleRate = DEFAULT_OUTPUT_SAMPLE_RATE;
+        this.audioPlayerRate = null;
+        this.audioPlayerStarted = null;
 
         WebSocketEventManager.instance = this;
     }
@@ -38,6 +63,7 @@ class WebSocketEventManager {
             this.socket.close();
         }
 
+        this.config = config;
         try {
             console.log('Connecting to WebSocket:', this.wsUrl);
             // Add configuration parameters to the URL
@@ -47,10 +73,14 @@ class WebSocketEventManager {
                 topT: config.topT || 0.7,
                 systemPrompt: config.systemPrompt || '',
                 language: config.language || 'en-US',
-                useFeminineVoice: config.useFeminineVoice || false
+                useFeminineVoice: config.useFeminineVoice || false,
+                // Asked for; the ready status says what the server will actually send
+                outputSampleRate: config.outputSampleRate || DEFAULT_OUTPUT_SAMPLE_RATE
             }).toString();
             
             const wsUrlWithConfig = `${this.wsUrl}?${configParams}`;
+            this.resumeToken = null;
+            this.lastSeq = 0;
             this.socket = new WebSocket(wsUrlWithConfig);
             this.setupSocketListeners();
             this.isInitialized = true;
@@ -66,7 +96,6 @@ class WebSocketEventManager {
             console.log('WebSocket Connected, waiting for backend initialization...');
             this.isConnected = false;
             this.onStatusChange?.({ status: 'connecting' });
-            this.audioPlayer.start();
         };
 
         this.socket.onmessage = async (event) => {
@@ -79,9 +108,23 @@ class WebSocketEventManager {
             }
         };
 
-        this.socket.onclose = () => {
-            console.log('WebSocket disconnected');
+        this.socket.onclose = (event) => {
+            console.log('WebSocket disconnected', event.code);
             this.isConnected = false;
+            if (event.code === SERVICE_RESTART_CODE && this.isInitialized) {
+                this.reconnectElsewhere();
+                return;
+            }
+            if (event.code === TRY_AGAIN_LATER_CODE) {
+                // Not admitted; the preceding error frame told the user when to retry
+                this.isInitialized = false;
+                this.onStatusChange?.({ status: 'disconnected' });
+                return;
+            }
+            if (event.code !== 1000 && this.isInitialized && this.resumeToken) {
+                this.scheduleResume();
+                return;
+            }
             this.onStatusChange?.({ status: 'disconnected' });
         };
 
@@ -93,23 +136,61 @@ class WebSocketEventManager {
         };
     }
 
-     base64ToFloat32Array(base64String) {
-        const binaryString = window.atob(base64String);
-        const bytes = new Uint8Array(binaryString.length);
-        for (let i = 0; i < binaryString.length; i++) {
-            bytes[i] = binaryString.charCodeAt(i);
+    scheduleResume() {
+        const now = Date.now();
+        if (this.resumeDeadline === 0) {
+            this.resumeDeadline = now + RESUME_WINDOW_MS;
         }
-
-        const int16Array = new Int16Array(bytes.buffer);
-        const float32Array = new Float32Array(int16Array.length);
-        for (let i = 0; i < int16Array.length; i++) {
-            float32Array[i] = int16Array[i] / 32768.0;
+        if (now >= this.resumeDeadline) {
+            console.log('Resume window elapsed, giving up on session');
+            this.clearResumeState();
+            this.onStatusChange?.({ status: 'disconnected' });
+            return;
         }
+        const delay = Math.min(RESUME_MAX_DELAY_MS, RESUME_BASE_DELAY_MS * 2 ** this.resumeAttempt);
+        this.resumeAttempt += 1;
+        this.onStatusChange?.({ status: 'reconnecting' });
+        this.resumeTimer = setTimeout(() => {
+            const resumeParams = new URLSearchParams({
+                resumeToken: this.resumeToken,
+                lastSeq: this.lastSeq
+            }).toString();
+            console.log('Resuming session from seq', this.lastSeq);
+            this.socket = new WebSocket(`${this.wsUrl}?${resumeParams}`);
+            this.setupSocketListeners();
+        }, delay);
+    }
+
+    reconnectElsewhere() {
+        // The node is draining: the session cannot be resumed there, so open a new one. The jitter
+        // spreads the node's callers across the remaining nodes instead of reconnecting in lockstep.
+        console.log('Server is draining, reconnecting');
+        this.clearResumeState();
+        this.resumeToken = null;
+        this.isInitialized = false;
+        this.onStatusChange?.({ status: 'reconnecting' });
+        this.resumeTimer = setTimeout(() => {
+            this.resumeTimer = null;
+            this.connect(this.config).catch(() => this.onStatusChange?.({ status: 'disconnected' }));
+        }, Math.random() * DRAIN_RECONNECT_MAX_DELAY_MS);
+    }
 
-        return float32Array;
+    clearResumeState() {
+        if (this.resumeTimer) {
+            clearTimeout(this.resumeTimer);
+            this.resumeTimer = null;
+        }
+        this.resumeDeadline = 0;
+        this.resumeAttempt = 0;
     }
 
     async handleMessage(data) {
+        if (typeof data.seq === 'number' && data.type !== 'status') {
+            if (data.seq <= this.lastSeq) {
+                return; // Already received before a reconnect
+            }
+            this.lastSeq = data.seq;
+        }
         console.log("Received WebSocket message:", {
             type: data.type,
             status: data.status,
@@ -119,15 +200,35 @@ class WebSocketEventManager {
         switch (data.type) {
             case 'transcription':
                 console.log('Transcription: ', data.text, data.role);
+                if (data.text === INTERRUPTED_TRANSCRIPT && this.audioPlayer.initialized) {
+                    // The caller spoke over the assistant, so drop the rest of its response
+                    this.audioPlayer.bargeIn();
+                }
                 this.onTranscriptionUpdate?.({
                     text: data.text,
-                    role: data.role || 'USER'
+                    role: data.role || 'USER',
+                    // Where the transcript sits in the server's transcript of this session, for paging back
+                    sessionId: this.sessionId,
+                    transcriptToken: this.transcriptToken,
+                    turn: data.turn
                 });
                 break;
 
             case 'status':
                 if (data.status === 'ready' || data.status === 'connected') {
-                    console.log('Backend ready and connected');
+                    console.log(data.resumed ? 'Session resumed' : 'Backend ready and connected');
+                    if (data.resumeToken) {
+                        this.resumeToken = data.resumeToken;
+                    }
+                    if (data.sessionId) {
+                        this.sessionId = data.sessionId;
+                    }
+                    if (data.transcriptToken) {
+                        this.transcriptToken = data.transcriptToken;
+                    }
+                    this.outputSampleRate = data.outputSampleRate || DEFAULT_OUTPUT_SAMPLE_RATE;
+                    this.startAudioPlayer();
+                    this.clearResumeState();
                     this.isConnected = true;
                     this.onStatusChange?.({ status: 'connected' });
                 } else if (data.status === 'processing') {
@@ -143,12 +244,17 @@ class WebSocketEventManager {
 
             case 'audio':
                 if (data.data) {
-                    console.log('Received audio data from Nova Sonic (24000 Hz sample rate)');
-                    await this.audioPlayer.playAudio(this.base64ToFloat32Array(data.data));
+                    await this.audioPlayerStarted;
+                    this.audioPlayer.playAudio(data.data);
                 }
                 break;
 
             case 'error':
+                if (data.code === 'resume_unsupported') {
+                    // The server cannot resume sessions (reactive mode), so stop retrying when it closes
+                    this.clearResumeState();
+                    this.resumeToken = null;
+                }
                 this.onError?.(data.message);
                 this.isProcessing = false;
                 break;
@@ -158,6 +264,23 @@ class WebSocketEventManager {
         }
     }
 
+    /**
+     * Starts the audio player at the session's output rate, restarting it if it plays at another rate.
+     * Called again from a user gesture, it lets a player that was started without one play.
+     */
+    startAudioPlayer(sampleRate = this.outputSampleRate) {
+        if (this.audioPlayerStarted && this.audioPlayerRate === sampleRate) {
+            return this.audioPlayerStarted.then(() => this.audioPlayer.resume());
+        }
+        const previous = this.audioPlayerStarted ?? Promise.resolve();
+        this.audioPlayerRate = sampleRate;
+        this.audioPlayerStarted = previous.catch(() => {}).then(() => {
+            this.audioPlayer.stop();
+            return this.audioPlayer.start(sampleRate);
+        });
+        return this.audioPlayerStarted;
+    }
+
     sendAudioChunk(audioData) {
         if (this.socket?.readyState === WebSocket.OPEN) {
             this.socket.send(audioData);
@@ -171,6 +294,8 @@ class WebSocketEventManager {
     }
 
     disconnect() {
+        this.clearResumeState();
+        this.resumeToken = null;
         if (this.socket) {
             this.socket.close();
             this.socket = null;
@@ -0,0 +1,126 @@
+import { useCallback, useEffect, useRef, useState } from 'react';
+import axios from 'axios';
+
+// Turns kept while the view follows the live end of the conversation
+const LIVE_MESSAGES = 200;
+// Turns kept at most, including those paged back in from the server
+const MAX_MESSAGES = 1000;
+const PAGE_TURNS = 50;
+
+const oldestStoredTurn = (messages) => messages.find(message => typeof message.turn === 'number');
+
+/**
+ * The conversation as the transcript view shows it. Transcriptions are buffered and appended once per
+ * animation frame, however many arrive in between, so a burst of text output costs one render. Only
+ * the latest turns are kept while the view follows the conversation; older turns are paged back in
+ * from the server's transcript API when the user scrolls up to them, and dropped again once the
+ * user is back at the live end.
+ */
+const useTranscriptHistory = () => {
+  const [messages, setMessages] = useState([]);
+  const [loadingOlder, setLoadingOlder] = useState(false);
+  const [olderExhausted, setOlderExhausted] = useState(false);
+  const pending = useRef([]);
+  const frame = useRef(null);
+  const following = useRef(true);
+  const counter = useRef(0);
+
+  const flush = useCallback(() => {
+    frame.current = null;
+    const batch = pending.current;
+    pending.current = [];
+    if (batch.length === 0) {
+      return;
+    }
+    setMessages(prev => {
+      const next = prev.concat(batch);
+      const cap = following.current ? LIVE_MESSAGES : MAX_MESSAGES;
+      return next.length > cap ? next.slice(next.length - cap) : next;
+    });
+  }, []);
+
+  const append = useCallback((update) => {
+    counter.current += 1;
+    const hasTurn = typeof update.turn === 'number';
+    pending.current.push({
+      id: hasTurn ? `${update.sessionId}-${update.turn}` : `${Date.now()}-${update.role}-${counter.current}`,
+      text: update.text,
+      role: update.role,
+      sessionId: update.sessionId,
+      transcriptToken: update.transcriptToken,
+      turn: update.turn,
+      timestamp: Date.now()
+    });
+    if (frame.current === null) {
+      frame.current = requestAnimationFrame(flush);
+    }
+  }, [flush]);
+
+  const setFollowing = useCallback((isFollowing) => {
+    following.current = isFollowing;
+    if (isFollowing) {
+      // Back at the live end: let go of the turns paged back in
+      setMessages(prev => prev.length > LIVE_MESSAGES ? prev.slice(prev.length - LIVE_MESSAGES) : prev);
+      setOlderExhausted(false);
+    }
+  }, []);
+
+  const oldest = oldestStoredTurn(messages);
+  const hasOlder = !olderExhausted && messages.length < MAX_MESSAGES && oldest !== undefined && oldest.turn > 0;
+
+  const loadOlder = useCallback(async () => {
+    if (!hasOlder || loadingOlder) {
+      return;
+    }
+    setLoadingOlder(true);
+    try {
+      const response = await axios.get(`/api/transcripts/${encodeURIComponent(oldest.sessionId)}/turns`, {
+        params: { before: oldest.turn, limit: PAGE_TURNS },
+        // Only the session's own client has its transcript token
+        headers: { 'X-Transcript-Token': oldest.transcriptToken }
+      });
+      const page = response.data.turns.map(turn => ({
+        id: `${oldest.sessionId}-${turn.turn}`,
+        text: turn.text,
+        role: turn.role,
+        sessionId: oldest.sessionId,
+        transcriptToken: oldest.transcriptToken,
+        turn: turn.turn,
+        timestamp: 0
+      }));
+      if (page.length === 0) {
+        setOlderExhausted(true);
+      } else {
+        setMessages(prev => page.slice(Math.max(0, page.length - (MAX_MESSAGES - prev.length))).concat(prev));
+      }
+    } catch (err) {
+      // Gone from the server's store, or the server is unreachable; stop asking until back at the live end
+      console.error('Error loading older turns:', err);
+      setOlderExhausted(true);
+    } finally {
+      setLoadingOlder(false);
+    }
+  }, [hasOlder, loadingOlder, oldest]);
+
+  const reset = useCallback(() => {
+    if (frame.current !== null) {
+      cancelAnimationFrame(frame.current);
+      frame.current = null;
+    }
+    pending.current = [];
+    counter.current = 0;
+    following.current = true;
+    setMessages([]);
+    setOlderExhausted(false);
+  }, []);
+
+  useEffect(() => () => {
+    if (frame.current !== null) {
+      cancelAnimationFrame(frame.current);
+    }
+  }, []);
+
+  return { messages, hasOlder, loadingOlder, append, loadOlder, setFollowing, reset };
+};
+
+export default useTranscriptHistory;
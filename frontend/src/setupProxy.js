@@ -0,0 +1,11 @@
+// Development server middleware, picked up by react-scripts; the "proxy" field in package.json still
+// forwards API and WebSocket requests to the backend.
+module.exports = function (app) {
+    // Cross-origin isolation, which the audio player needs for the SharedArrayBuffer it plays from.
+    // Anything served to the playground from another origin must then opt in with CORS or CORP.
+    app.use((req, res, next) => {
+        res.setHeader("Cross-Origin-Opener-Policy", "same-origin");
+        res.setHeader("Cross-Origin-Embedder-Policy", "require-corp");
+        next();
+    });
+};
@@ -0,0 +1,142 @@
+#!/bin/bash
+
+# Throughput comparison of the two front doors: runs the same SESSIONS concurrent callers (1,000) against
+# /ws/audio and then against the gRPC Converse call of one server on the fake Bedrock stream, and prints
+# setup and turn latency percentiles, frames and audio moved per second, errors, and the server CPU each
+# run used. Both runs share the session core, so the difference is the transport and framing: base64
+# JSON text frames against binary protobuf messages, and one TCP connection per session against
+# CHANNELS multiplexed HTTP/2 connections.
+#
+# Needs curl and python3, plus the server and load generator builds:
+#   mvn install -DskipTests && mvn -f loadgen/pom.xml package
+#
+# SESSIONS=1000 HOLD=120s ./grpc-compare.sh
+
+set -euo pipefail
+
+GREEN='\033[0;32m'
+BLUE='\033[0;34m'
+RED='\033[0;31m'
+NC='\033[0m' # No Color
+
+JVM_JAR=target/NovaSonicPlayground-1.0-SNAPSHOT-exec.jar
+LOADGEN_JAR=loadgen/target/NovaSonicLoadGenerator-1.0-SNAPSHOT-jar-with-dependencies.jar
+PORT=${PORT:-8106}
+MANAGEMENT_PORT=${MANAGEMENT_PORT:-$((PORT + 100))}
+GRPC_PORT=${GRPC_PORT:-9106}
+SESSIONS=${SESSIONS:-1000}
+RAMP_UP=${RAMP_UP:-30}
+HOLD=${HOLD:-120s}
+CHANNELS=${CHANNELS:-4}
+WORK_DIR=$(mktemp -d)
+SERVER_PID=
+
+function cleanup {
+    if [ -n "$SERVER_PID" ]; then
+        kill "$SERVER_PID" 2>/dev/null || true
+        wait "$SERVER_PID" 2>/dev/null || true
+    fi
+    rm -rf "$WORK_DIR"
+}
+trap cleanup EXIT
+
+for artifact in "$JVM_JAR" "$LOADGEN_JAR"; do
+    if [ ! -e "$artifact" ]; then
+        echo -e "${RED}Error: $artifact not found, see the build steps at the top of this script${NC}"
+        exit 1
+    fi
+done
+
+# A thousand WebSocket sessions need a descriptor each on both sides
+ulimit -n 65536 2>/dev/null || echo -e "${RED}Could not raise the open file limit; WebSocket sessions may fail${NC}"
+
+# 4 seconds of 16 kHz 16-bit mono silence; the fake stream answers every 2 seconds of audio
+python3 - "$WORK_DIR/utterance.wav" <<'PY'
+import sys, wave
+with wave.open(sys.argv[1], "wb") as out:
+    out.setnchannels(1)
+    out.setsampwidth(2)
+    out.setframerate(16000)
+    out.writeframes(b"\0\0" * 16000 * 4)
+PY
+
+echo -e "${BLUE}Starting server on ports $PORT and $GRPC_PORT${NC}"
+java -jar "$JVM_JAR" --server.port=$PORT --management.server.port=$MANAGEMENT_PORT \
+    --novasonic.bedrock.mode=fake --novasonic.warmup.enabled=false \
+    --novasonic.grpc.enabled=true --novasonic.grpc.port=$GRPC_PORT \
+    --novasonic.session.max-sessions=$(( SESSIONS * 2 )) --novasonic.admission.max-streams=$(( SESSIONS * 2 )) \
+    --novasonic.admission.max-streams-per-address=0 --novasonic.admission.max-streams-per-tenant=0 \
+    > "$WORK_DIR/server.log" 2>&1 &
+SERVER_PID=$!
+until curl -sf "http://localhost:$MANAGEMENT_PORT/actuator/health/readiness" > /dev/null; do
+    if ! kill -0 "$SERVER_PID" 2>/dev/null; then
+        echo -e "${RED}Server exited during startup${NC}"
+        tail -20 "$WORK_DIR/server.log"
+        exit 1
+    fi
+    sleep 0.5
+done
+
+# Server CPU time so far in clock ticks, user plus system
+function server_cpu_ticks {
+    awk '{print $14 + $15}' "/proc/$SERVER_PID/stat"
+}
+
+# Runs the load generator with one protocol and records the server CPU it cost
+function run {
+    local protocol=$1 url=$2
+    local hold_seconds=${HOLD%s}
+    echo -e "${BLUE}$protocol: ramping to $SESSIONS sessions over ${RAMP_UP}s, holding for $HOLD${NC}"
+    local before
+    before=$(server_cpu_ticks)
+    java -jar "$LOADGEN_JAR" --protocol "$protocol" --url "$url" --channels "$CHANNELS" \
+        --wav "$WORK_DIR/utterance.wav" --ramp "0s:0,${RAMP_UP}s:$SESSIONS,$(( RAMP_UP + hold_seconds ))s:$SESSIONS" \
+        --interval 30s --ready-timeout 30s --report "$WORK_DIR/$protocol.json" > "$WORK_DIR/$protocol.log" 2>&1 || {
+        echo -e "${RED}$protocol run failed${NC}"
+        tail -20 "$WORK_DIR/$protocol.log"
+        exit 1
+    }
+    echo $(( $(server_cpu_ticks) - before )) > "$WORK_DIR/$protocol.cpu"
+    # Let sessions from this run finish before the next starts
+    sleep 10
+}
+
+run audio "ws://localhost:$PORT/ws/audio"
+run grpc "grpc://localhost:$GRPC_PORT"
+
+python3 - "$WORK_DIR" "$(getconf CLK_TCK)" <<'PY'
+import json, sys
+
+work_dir, ticks_per_second = sys.argv[1], int(sys.argv[2])
+runs = {}
+for protocol in ("audio", "grpc"):
+    report = json.load(open(f"{work_dir}/{protocol}.json"))
+    cpu_seconds = int(open(f"{work_dir}/{protocol}.cpu").read()) / ticks_per_second
+    runs[protocol] = (report, cpu_seconds)
+
+def row(label, values, fmt="{:>14.1f}"):
+    print(f"{label:<36}" + "".join(fmt.format(value) for value in values))
+
+print(f"\n{'':<36}{'WebSocket':>14}{'gRPC':>14}")
+reports = [runs[p][0] for p in ("audio", "grpc")]
+totals = [r["totals"] for r in reports]
+durations = [r["durationSeconds"] for r in reports]
+row("sessions started", [t["counts"]["sessionsStarted"] for t in totals], "{:>14d}")
+row("sessions failed or rejected", [t["counts"]["sessionsFailed"] + t["counts"]["sessionsRejected"] for t in totals], "{:>14d}")
+row("setup p50 (ms)", [t["setupTimeMillis"]["p50"] for t in totals])
+row("setup p99 (ms)", [t["setupTimeMillis"]["p99"] for t in totals])
+row("turn latency p50 (ms)", [t["turnLatencyMillis"]["p50"] for t in totals])
+row("turn latency p99 (ms)", [t["turnLatencyMillis"]["p99"] for t in totals])
+row("underflow stalls", [t["underflowStallMillis"]["count"] for t in totals], "{:>14d}")
+row("audio frames sent per second", [t["counts"]["audioFramesSent"] / d for t, d in zip(totals, durations)])
+row("send stalls", [t["counts"]["sendStalls"] for t in totals], "{:>14d}")
+row("response audio received (MB/s)", [t["counts"]["audioBytesReceived"] / d / 1e6 for t, d in zip(totals, durations)], "{:>14.2f}")
+row("error rate", [t["errorRate"] for t in totals], "{:>14.4f}")
+cpu = [runs[p][1] for p in ("audio", "grpc")]
+row("server CPU (s)", cpu)
+row("server CPU (cores, average)", [c / d for c, d in zip(cpu, durations)], "{:>14.2f}")
+row("server CPU per 1000 frames (ms)",
+    [c * 1000 / max(1, t["counts"]["audioFramesSent"]) * 1000 for c, t in zip(cpu, totals)], "{:>14.2f}")
+PY
+
+echo -e "\n${GREEN}Comparison complete${NC}"
@@ -0,0 +1,367 @@
+package org.example.loadgen;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.WebSocket;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.example.constants.NovaSonicConstants.OUTPUT_AUDIO_SAMPLE_RATE;
+import static org.example.constants.NovaSonicConstants.OUTPUT_AUDIO_SAMPLE_SIZE_IN_BITS;
+
+/**
+ * One simulated caller. It opens a session, waits for the ready status, then streams its
+ * utterance followed by silence in a loop, one frame per tick, like a microphone would.
+ * Output audio is played back against a virtual clock to detect underflows. The transport is
+ * a WebSocket; other transports override {@link #connect}, {@link #sendFrame},
+ * {@link #closeTransport} and {@link #abortTransport}, and report back through the same callbacks.
+ */
+class CallerSession implements WebSocket.Listener {
+    private static final Logger logger = LoggerFactory.getLogger(CallerSession.class);
+    // A gap in output audio longer than this starts a new response rather than stalling the current one
+    private static final long RESPONSE_GAP_NANOS = TimeUnit.SECONDS.toNanos(2);
+
+    private final int id;
+    private final URI uri;
+    private final List<ByteBuffer> utterance;
+    private final ByteBuffer silence;
+    private final int silenceFrames;
+    private final long frameMillis;
+    private final LoadMetrics metrics;
+    private final ScheduledExecutorService ticker;
+
+    private final StringBuilder textBuffer = new StringBuilder();
+    private volatile WebSocket webSocket;
+    private volatile boolean ready;
+    private volatile boolean stopping;
+    private volatile boolean closed;
+    private volatile boolean rejected;
+    private long connectStartNanos;
+    private ScheduledFuture<?> streaming;
+    private CompletableFuture<WebSocket> sendChain;
+    private int frameIndex;
+    // Response audio rate the server agreed to in its ready status
+    private volatile long outputBytesPerSecond = OUTPUT_AUDIO_SAMPLE_RATE * OUTPUT_AUDIO_SAMPLE_SIZE_IN_BITS / 8;
+
+    // Turn and playback tracking
+    private boolean awaitingResponse;
+    private long utteranceEndNanos;
+    private long playUntilNanos;
+
+    CallerSession(int id, URI uri, List<ByteBuffer> utterance, ByteBuffer silence, int silenceFrames, long frameMillis,
+                  LoadMetrics metrics, ScheduledExecutorService ticker) {
+        this.id = id;
+        this.uri = uri;
+        this.utterance = utterance;
+        this.silence = silence;
+        this.silenceFrames = silenceFrames;
+        this.frameMillis = frameMillis;
+        this.metrics = metrics;
+        this.ticker = ticker;
+    }
+
+    /**
+     * Opens the session. A session that is not ready within {@code readyTimeout} counts as failed and is aborted.
+     */
+    void start(HttpClient httpClient, String origin, Duration readyTimeout) {
+        connectStartNanos = System.nanoTime();
+        metrics.sessionsStarted.increment();
+        connect(httpClient, origin, readyTimeout);
+        ticker.schedule(() -> {
+            if (!ready && !closed) {
+                logger.debug("Caller {} was not ready within {}", id, readyTimeout);
+                metrics.sessionsFailed.increment();
+                abort();
+            }
+        }, readyTimeout.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Opens the connection.
+     */
+    void connect(HttpClient httpClient, String origin, Duration readyTimeout) {
+        WebSocket.Builder builder = httpClient.newWebSocketBuilder().connectTimeout(readyTimeout);
+        if (origin != null) {
+            builder.header("Origin", origin);
+        }
+        builder.buildAsync(uri, this)
+                .whenComplete((ws, throwable) -> {
+                    if (throwable != null) {
+                        logger.debug("Caller {} failed to connect: {}", id, throwable.getMessage());
+                        metrics.sessionsFailed.increment();
+                        closed = true;
+                    }
+                });
+    }
+
+    /**
+     * Stops streaming and closes the session normally.
+     */
+    synchronized void stop() {
+        stopping = true;
+        cancelStreaming();
+        closeTransport();
+    }
+
+    /**
+     * Hangs up behind any frames still being sent.
+     */
+    void closeTransport() {
+        WebSocket ws = webSocket;
+        if (ws == null) {
+            closed = true;
+            return;
+        }
+        CompletableFuture<WebSocket> pending = sendChain != null ? sendChain : CompletableFuture.completedFuture(ws);
+        pending.exceptionally(throwable -> ws)
+                .thenCompose(ignored -> hangUp(ws));
+    }
+
+    /**
+     * Ends the session once every frame has been sent.
+     */
+    CompletableFuture<WebSocket> hangUp(WebSocket ws) {
+        return ws.sendClose(WebSocket.NORMAL_CLOSURE, "load test finished");
+    }
+
+    int getId() {
+        return id;
+    }
+
+    LoadMetrics getMetrics() {
+        return metrics;
+    }
+
+    boolean isClosed() {
+        return closed;
+    }
+
+    void markClosed() {
+        closed = true;
+    }
+
+    private void abort() {
+        stopping = true;
+        cancelStreaming();
+        abortTransport();
+        closed = true;
+    }
+
+    /**
+     * Drops the connection without closing it.
+     */
+    void abortTransport() {
+        WebSocket ws = webSocket;
+        if (ws != null) {
+            ws.abort();
+        }
+    }
+
+    @Override
+    public void onOpen(WebSocket webSocket) {
+        this.webSocket = webSocket;
+        synchronized (this) {
+            sendChain = CompletableFuture.completedFuture(webSocket);
+        }
+        webSocket.request(1);
+    }
+
+    /**
+     * Queues a text frame behind any frames still being sent.
+     */
+    synchronized void sendText(String frame) {
+        sendChain = sendChain.thenCompose(ws -> ws.sendText(frame, true));
+    }
+
+    @Override
+    public CompletionStage<?> onText(WebSocket webSocket, CharSequence data, boolean last) {
+        textBuffer.append(data);
+        if (last) {
+            String frame = textBuffer.toString();
+            textBuffer.setLength(0);
+            // Frames are JSON with base64 payloads, so one character is one byte
+            metrics.bytesReceived.add(frame.length());
+            handleFrame(frame);
+        }
+        webSocket.request(1);
+        return null;
+    }
+
+    @Override
+    public CompletionStage<?> onClose(WebSocket webSocket, int statusCode, String reason) {
+        onServerClosed(statusCode == WebSocket.NORMAL_CLOSURE, statusCode + " " + reason);
+        return null;
+    }
+
+    @Override
+    public void onError(WebSocket webSocket, Throwable error) {
+        onTransportError(error);
+    }
+
+    /**
+     * The server ended the session. Only a normal end after the caller hung up is expected.
+     */
+    void onServerClosed(boolean normal, String detail) {
+        if (!rejected && (!stopping || !normal)) {
+            logger.debug("Caller {} closed by server: {}", id, detail);
+            metrics.abnormalCloses.increment();
+        }
+        cancelStreaming();
+        closed = true;
+    }
+
+    void onTransportError(Throwable error) {
+        logger.debug("Caller {} transport error: {}", id, error.getMessage());
+        metrics.transportErrors.increment();
+        cancelStreaming();
+        closed = true;
+    }
+
+    void handleFrame(String frame) {
+        JSONObject message;
+        try {
+            message = new JSONObject(frame);
+        } catch (JSONException e) {
+            logger.debug("Caller {} received unparseable frame", id);
+            metrics.errorFrames.increment();
+            return;
+        }
+
+        switch (message.optString("type")) {
+            case "status" -> {
+                if ("ready".equals(message.optString("status"))) {
+                    outputBytesPerSecond = message.optInt("outputSampleRate", OUTPUT_AUDIO_SAMPLE_RATE)
+                            * OUTPUT_AUDIO_SAMPLE_SIZE_IN_BITS / 8;
+                    onReady();
+                }
+            }
+            case "audio" -> onAudio(message.optString("data").length() / 4L * 3L, outputBytesPerSecond);
+            case "transcription" -> onTranscript();
+            case "error" -> onErrorFrame(message.optString("code"), message.optString("message"));
+            default -> logger.trace("Caller {} ignoring frame {}", id, frame);
+        }
+    }
+
+    void onTranscript() {
+        metrics.transcripts.increment();
+    }
+
+    /**
+     * The server reported an error, with the code of {@code /ws/audio} error frames.
+     */
+    void onErrorFrame(String code, String message) {
+        logger.debug("Caller {} received error: {}", id, message);
+        if (!ready && ("overloaded".equals(code) || "stream_unavailable".equals(code))) {
+            // Turned away by admission control or stream setup; the server closes the connection next
+            onRejected();
+        } else {
+            metrics.errorFrames.increment();
+        }
+    }
+
+    /**
+     * The session can take audio: starts the microphone clock.
+     */
+    void onReady() {
+        if (!ready) {
+            ready = true;
+            metrics.recordSetupTime(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - connectStartNanos));
+            startStreaming();
+        }
+    }
+
+    boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * The server turned the session away before it was ready.
+     */
+    void onRejected() {
+        rejected = true;
+        metrics.sessionsRejected.increment();
+    }
+
+    private synchronized void startStreaming() {
+        if (!stopping) {
+            streaming = ticker.scheduleAtFixedRate(this::sendNextFrame, 0, frameMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private synchronized void cancelStreaming() {
+        if (streaming != null) {
+            streaming.cancel(false);
+        }
+    }
+
+    private synchronized void sendNextFrame() {
+        if (stopping) {
+            return;
+        }
+        int position = frameIndex++ % (utterance.size() + silenceFrames);
+        ByteBuffer frame = position < utterance.size() ? utterance.get(position).duplicate() : silence.duplicate();
+        if (position == utterance.size() - 1) {
+            onUtteranceEnd();
+        }
+        sendFrame(frame);
+    }
+
+    /**
+     * Queues one frame of caller audio behind any frames still being sent. Called under this caller's lock.
+     */
+    void sendFrame(ByteBuffer frame) {
+        // The socket still has not written the previous frame: the server or network is not keeping up
+        if (!sendChain.isDone()) {
+            metrics.sendStalls.increment();
+        }
+        sendChain = sendChain.thenCompose(ws -> sendAudio(ws, frame));
+        sendChain.whenComplete((ws, throwable) -> {
+            if (throwable == null) {
+                metrics.audioFramesSent.increment();
+            }
+        });
+    }
+
+    /**
+     * Sends one frame of caller audio.
+     */
+    CompletableFuture<WebSocket> sendAudio(WebSocket ws, ByteBuffer frame) {
+        return ws.sendBinary(frame, true);
+    }
+
+    private void onUtteranceEnd() {
+        if (awaitingResponse) {
+            metrics.missedTurns.increment();
+        }
+        metrics.turns.increment();
+        awaitingResponse = true;
+        utteranceEndNanos = System.nanoTime();
+    }
+
+    /**
+     * Plays back {@code bytes} of response audio, which lasts {@code bytes / bytesPerSecond} seconds.
+     */
+    synchronized void onAudio(long bytes, long bytesPerSecond) {
+        long now = System.nanoTime();
+        if (awaitingResponse) {
+            metrics.recordTurnLatency(TimeUnit.NANOSECONDS.toMillis(now - utteranceEndNanos));
+            awaitingResponse = false;
+        } else if (playUntilNanos != 0 && now > playUntilNanos && now - playUntilNanos < RESPONSE_GAP_NANOS) {
+            // Playback ran dry before this chunk arrived
+            metrics.recordUnderflow(TimeUnit.NANOSECONDS.toMillis(now - playUntilNanos));
+        }
+        playUntilNanos = Math.max(now, playUntilNanos) + bytes * TimeUnit.SECONDS.toNanos(1) / bytesPerSecond;
+        metrics.audioBytesReceived.add(bytes);
+    }
+}
@@ -0,0 +1,132 @@
+package org.example.loadgen;
+
+import com.google.protobuf.ByteString;
+import io.grpc.Channel;
+import io.grpc.Status;
+import io.grpc.stub.ClientCallStreamObserver;
+import io.grpc.stub.ClientResponseObserver;
+import org.example.grpc.proto.AudioInput;
+import org.example.grpc.proto.ClientMessage;
+import org.example.grpc.proto.NovaSonicGrpc;
+import org.example.grpc.proto.ServerMessage;
+import org.example.grpc.proto.SessionConfig;
+import org.example.grpc.proto.SessionStatus;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.net.http.HttpClient;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ScheduledExecutorService;
+
+import static org.example.constants.NovaSonicConstants.OUTPUT_AUDIO_BYTES_PER_SECOND;
+
+/**
+ * One simulated caller on the gRPC {@code Converse} call: the session config as the first message,
+ * then raw PCM audio messages, with a half-close to hang up. The call is ready when the server's
+ * {@code READY} status arrives. A frame sent while the call is not ready counts as a send stall,
+ * like a WebSocket frame sent before the previous one was written.
+ */
+class GrpcCallerSession extends CallerSession {
+    private static final Logger logger = LoggerFactory.getLogger(GrpcCallerSession.class);
+
+    private final Channel channel;
+    private final SessionConfig config;
+    private volatile ClientCallStreamObserver<ClientMessage> requests;
+    private volatile boolean answered;
+    private volatile boolean aborted;
+
+    /**
+     * @param channel A channel shared with other callers; each caller is one call on it
+     */
+    GrpcCallerSession(int id, Channel channel, SessionConfig config, List<ByteBuffer> utterance, ByteBuffer silence,
+                      int silenceFrames, long frameMillis, LoadMetrics metrics, ScheduledExecutorService ticker) {
+        super(id, null, utterance, silence, silenceFrames, frameMillis, metrics, ticker);
+        this.channel = channel;
+        this.config = config;
+    }
+
+    @Override
+    synchronized void connect(HttpClient httpClient, String origin, Duration readyTimeout) {
+        NovaSonicGrpc.newStub(channel).converse(new Responses());
+        requests.onNext(ClientMessage.newBuilder().setConfig(config).build());
+    }
+
+    @Override
+    void sendFrame(ByteBuffer frame) {
+        ClientCallStreamObserver<ClientMessage> call = requests;
+        if (!call.isReady()) {
+            // gRPC buffers the frame, but the server or network is not keeping up
+            getMetrics().sendStalls.increment();
+        }
+        call.onNext(ClientMessage.newBuilder()
+                .setAudio(AudioInput.newBuilder().setPcm(ByteString.copyFrom(frame)))
+                .build());
+        getMetrics().audioFramesSent.increment();
+    }
+
+    @Override
+    void closeTransport() {
+        ClientCallStreamObserver<ClientMessage> call = requests;
+        if (call == null) {
+            markClosed();
+            return;
+        }
+        // The server sends the rest of the response and completes the call
+        call.onCompleted();
+    }
+
+    @Override
+    void abortTransport() {
+        aborted = true;
+        ClientCallStreamObserver<ClientMessage> call = requests;
+        if (call != null) {
+            call.cancel("Caller aborted", null);
+        }
+    }
+
+    private class Responses implements ClientResponseObserver<ClientMessage, ServerMessage> {
+        @Override
+        public void beforeStart(ClientCallStreamObserver<ClientMessage> requestStream) {
+            requests = requestStream;
+        }
+
+        @Override
+        public void onNext(ServerMessage message) {
+            answered = true;
+            getMetrics().bytesReceived.add(message.getSerializedSize());
+            switch (message.getMessageCase()) {
+                case STATUS -> {
+                    if (message.getStatus().getState() == SessionStatus.State.READY) {
+                        onReady();
+                    }
+                }
+                case AUDIO -> onAudio(message.getAudio().getPcm().size(), OUTPUT_AUDIO_BYTES_PER_SECOND);
+                case TRANSCRIPT -> onTranscript();
+                case ERROR -> onErrorFrame(message.getError().getCode(), message.getError().getMessage());
+                default -> logger.trace("Caller {} ignoring {} message", getId(), message.getMessageCase());
+            }
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            if (aborted) {
+                return;
+            }
+            Status status = Status.fromThrowable(throwable);
+            if (!answered && status.getCode() == Status.Code.UNAVAILABLE) {
+                logger.debug("Caller {} failed to connect: {}", getId(), status);
+                getMetrics().sessionsFailed.increment();
+                markClosed();
+                return;
+            }
+            onServerClosed(false, status.toString());
+        }
+
+        @Override
+        public void onCompleted() {
+            onServerClosed(true, "call completed");
+        }
+    }
+}
@@ -0,0 +1,266 @@
+package org.example.loadgen;
+
+import io.grpc.ManagedChannel;
+import io.grpc.ManagedChannelBuilder;
+import org.example.grpc.proto.SessionConfig;
+import org.example.util.AudioUtil;
+import org.example.util.G711;
+import org.example.util.PcmDecimator;
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.AudioInputStream;
+import javax.sound.sampled.UnsupportedAudioFileException;
+import java.io.File;
+import java.io.IOException;
+import java.net.http.HttpClient;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.example.constants.NovaSonicConstants.DEFAULT_AUDIO_FORMAT;
+import static org.example.constants.NovaSonicConstants.TELEPHONY_SAMPLE_RATE;
+
+/**
+ * Headless load generator for {@code /ws/audio}. Each simulated caller streams a WAV file at
+ * real-time pace in 20 ms frames, as the browser does, and consumes the audio and transcripts
+ * that come back. The number of callers follows a ramp profile, and a JSON report with per-interval
+ * and total HDR histograms of setup time, turn latency and playback underflows is written at the end.
+ * With {@code --protocol telephony} the callers simulate a phone gateway on {@code /ws/telephony}
+ * instead, streaming the same files as 8 kHz mu-law, and with {@code --protocol grpc} they are
+ * {@code Converse} calls spread over {@code --channels} gRPC channels.
+ */
+public class LoadGenerator {
+    private static final Logger logger = LoggerFactory.getLogger(LoadGenerator.class);
+    private static final long FRAME_MILLIS = 20;
+    private static final long CONTROL_TICK_MILLIS = 100;
+    private static final long DRAIN_TIMEOUT_MILLIS = 5000;
+
+    private final LoadGeneratorOptions options;
+    private final LoadMetrics metrics = new LoadMetrics();
+
+    public LoadGenerator(LoadGeneratorOptions options) {
+        this.options = options;
+    }
+
+    public static void main(String[] args) {
+        LoadGeneratorOptions options;
+        try {
+            options = LoadGeneratorOptions.parse(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println(LoadGeneratorOptions.USAGE);
+            System.exit(2);
+            return;
+        }
+
+        try {
+            new LoadGenerator(options).run();
+        } catch (Exception e) {
+            logger.error("Load test failed: {}", e.getMessage(), e);
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Runs the ramp profile to completion and writes the report.
+     */
+    public void run() throws IOException, UnsupportedAudioFileException, InterruptedException {
+        List<List<ByteBuffer>> utterances = new ArrayList<>();
+        for (File wavFile : options.getWavFiles()) {
+            List<ByteBuffer> utterance = loadUtterance(wavFile);
+            utterances.add(options.isTelephony() ? toMuLaw(utterance) : utterance);
+        }
+        ByteBuffer silence;
+        if (options.isTelephony()) {
+            byte[] codes = new byte[(int) (TELEPHONY_SAMPLE_RATE * FRAME_MILLIS / 1000)];
+            Arrays.fill(codes, G711.MU_LAW.getSilence());
+            silence = ByteBuffer.wrap(codes).asReadOnlyBuffer();
+        } else {
+            silence = ByteBuffer.wrap(new byte[frameBytes(DEFAULT_AUDIO_FORMAT)]).asReadOnlyBuffer();
+        }
+        int silenceFrames = (int) (options.getUtteranceGap().toMillis() / FRAME_MILLIS);
+
+        ScheduledExecutorService ticker = Executors.newScheduledThreadPool(Runtime.getRuntime().availableProcessors(), r -> {
+            Thread thread = new Thread(r, "loadgen-audio");
+            thread.setDaemon(true);
+            return thread;
+        });
+        HttpClient httpClient = HttpClient.newHttpClient();
+        List<ManagedChannel> channels = new ArrayList<>();
+        SessionConfig sessionConfig = null;
+        if (options.isGrpc()) {
+            for (int i = 0; i < options.getChannels(); i++) {
+                channels.add(ManagedChannelBuilder.forAddress(options.getBaseUri().getHost(), options.getBaseUri().getPort())
+                        .usePlaintext()
+                        .build());
+            }
+            sessionConfig = sessionConfig(options.getSessionParameters());
+        }
+        Deque<CallerSession> callers = new ArrayDeque<>();
+        JSONArray intervals = new JSONArray();
+        RampProfile ramp = options.getRamp();
+        long reportIntervalMillis = options.getReportInterval().toMillis();
+        Instant startedAt = Instant.now();
+        long startNanos = System.nanoTime();
+        long nextReportMillis = reportIntervalMillis;
+        int nextCallerId = 0;
+        logger.info("Starting load test against {} with ramp {}", options.getBaseUri(), ramp);
+
+        try {
+            long elapsedMillis = 0;
+            while (elapsedMillis <= ramp.getDurationMillis()) {
+                callers.removeIf(CallerSession::isClosed);
+                int target = ramp.targetAt(elapsedMillis);
+                while (callers.size() < target) {
+                    List<ByteBuffer> utterance = utterances.get(nextCallerId % utterances.size());
+                    CallerSession caller;
+                    if (options.isGrpc()) {
+                        caller = new GrpcCallerSession(nextCallerId, channels.get(nextCallerId % channels.size()),
+                                sessionConfig, utterance, silence, silenceFrames, FRAME_MILLIS, metrics, ticker);
+                    } else if (options.isTelephony()) {
+                        caller = new TelephonyCallerSession(nextCallerId, options.getSessionUri(), utterance, silence,
+                                silenceFrames, FRAME_MILLIS, metrics, ticker);
+                    } else {
+                        caller = new CallerSession(nextCallerId, options.getSessionUri(), utterance, silence,
+                                silenceFrames, FRAME_MILLIS, metrics, ticker);
+                    }
+                    nextCallerId++;
+                    callers.addLast(caller);
+                    caller.start(httpClient, options.getOrigin(), options.getReadyTimeout());
+                }
+                while (callers.size() > target) {
+                    callers.pollLast().stop();
+                }
+
+                if (elapsedMillis >= nextReportMillis) {
+                    intervals.put(report(elapsedMillis, target, callers.size()));
+                    nextReportMillis += reportIntervalMillis;
+                }
+                Thread.sleep(CONTROL_TICK_MILLIS);
+                elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+            }
+        } finally {
+            callers.forEach(CallerSession::stop);
+            long drainDeadline = System.currentTimeMillis() + DRAIN_TIMEOUT_MILLIS;
+            while (callers.stream().anyMatch(caller -> !caller.isClosed()) && System.currentTimeMillis() < drainDeadline) {
+                Thread.sleep(CONTROL_TICK_MILLIS);
+            }
+            ticker.shutdownNow();
+            channels.forEach(ManagedChannel::shutdownNow);
+        }
+
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+        intervals.put(report(elapsedMillis, 0, 0));
+        JSONObject report = new JSONObject()
+                .put("url", options.getBaseUri().toString())
+                .put("protocol", options.getProtocol())
+                .put("wavFiles", options.getWavFiles().stream().map(File::getPath).toList())
+                .put("ramp", ramp.toString())
+                .put("startedAt", startedAt.toString())
+                .put("durationSeconds", elapsedMillis / 1000.0)
+                .put("intervals", intervals)
+                .put("totals", metrics.totals());
+        Files.writeString(options.getReportFile().toPath(), report.toString(2));
+        logger.info("Totals: {}", metrics.totals().toString());
+        logger.info("Report written to {}", options.getReportFile().getAbsolutePath());
+    }
+
+    private JSONObject report(long elapsedMillis, int target, int active) {
+        JSONObject interval = metrics.interval(elapsedMillis, target, active);
+        logger.info("t={}s sessions={}/{} setup p99={}ms turn p50={}ms p99={}ms underflows={} errorRate={}",
+                elapsedMillis / 1000, active, target,
+                interval.getJSONObject("setupTimeMillis").getLong("p99"),
+                interval.getJSONObject("turnLatencyMillis").getLong("p50"),
+                interval.getJSONObject("turnLatencyMillis").getLong("p99"),
+                interval.getJSONObject("underflowStallMillis").getLong("count"),
+                String.format("%.4f", interval.getDouble("errorRate")));
+        return interval;
+    }
+
+    /**
+     * Builds the gRPC session config from the parameters the WebSocket protocols send in the query string.
+     */
+    private static SessionConfig sessionConfig(Map<String, String> parameters) {
+        return SessionConfig.newBuilder()
+                .setTenantId(parameters.getOrDefault("tenantId", ""))
+                .setSystemPrompt(parameters.get("systemPrompt"))
+                .setLanguage(parameters.get("language"))
+                .setFeminineVoice(Boolean.parseBoolean(parameters.get("useFeminineVoice")))
+                .setMaxTokens(Integer.parseInt(parameters.get("maxTokens")))
+                .setTopP(Double.parseDouble(parameters.get("topP")))
+                .setTopT(Double.parseDouble(parameters.get("topT")))
+                .build();
+    }
+
+    /**
+     * Reads a WAV file into frames of {@link #FRAME_MILLIS} of audio. The file must match the
+     * server's input format (16 kHz, 16-bit, mono PCM).
+     */
+    private static List<ByteBuffer> loadUtterance(File wavFile) throws IOException, UnsupportedAudioFileException {
+        File file = AudioUtil.resolveFilePath(wavFile.getPath());
+        try (AudioInputStream audioInputStream = AudioUtil.createAudioInputStream(file)) {
+            AudioFormat format = audioInputStream.getFormat();
+            if (!AudioUtil.isValidAudioFormat(format) || format.getSampleRate() != DEFAULT_AUDIO_FORMAT.getSampleRate()) {
+                throw new IllegalArgumentException(file + " must be 16 kHz 16-bit mono PCM, got " + format);
+            }
+
+            List<ByteBuffer> frames = new ArrayList<>();
+            int frameBytes = frameBytes(format);
+            ByteBuffer chunk = AudioUtil.readAudioChunk(audioInputStream, frameBytes);
+            while (chunk.hasRemaining()) {
+                frames.add(chunk.asReadOnlyBuffer());
+                chunk = AudioUtil.readAudioChunk(audioInputStream, frameBytes);
+            }
+            if (frames.isEmpty()) {
+                throw new IllegalArgumentException(file + " contains no audio");
+            }
+            logger.info("Loaded {} ({} ms)", file, frames.size() * FRAME_MILLIS);
+            return frames;
+        }
+    }
+
+    /**
+     * Converts 16 kHz PCM frames to the 8 kHz mu-law a phone gateway sends, in frames of the same length.
+     */
+    private static List<ByteBuffer> toMuLaw(List<ByteBuffer> frames) {
+        int count = frames.stream().mapToInt(frame -> frame.remaining() / 2).sum();
+        short[] samples = new short[count];
+        int offset = 0;
+        for (ByteBuffer frame : frames) {
+            ByteBuffer pcm = frame.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+            while (pcm.remaining() >= 2) {
+                samples[offset++] = pcm.getShort();
+            }
+        }
+        PcmDecimator decimator = new PcmDecimator((int) DEFAULT_AUDIO_FORMAT.getSampleRate() / TELEPHONY_SAMPLE_RATE);
+        short[] decimated = new short[decimator.maxOutput(count)];
+        int decimatedCount = decimator.process(samples, 0, count, decimated, 0);
+        byte[] codes = new byte[decimatedCount];
+        G711.MU_LAW.encode(decimated, 0, decimatedCount, codes, 0);
+
+        List<ByteBuffer> muLawFrames = new ArrayList<>();
+        int frameCodes = (int) (TELEPHONY_SAMPLE_RATE * FRAME_MILLIS / 1000);
+        for (int start = 0; start < codes.length; start += frameCodes) {
+            muLawFrames.add(ByteBuffer.wrap(codes, start, Math.min(frameCodes, codes.length - start)).slice().asReadOnlyBuffer());
+        }
+        return muLawFrames;
+    }
+
+    private static int frameBytes(AudioFormat format) {
+        return (int) (format.getFrameRate() * format.getFrameSize() * FRAME_MILLIS / 1000);
+    }
+}
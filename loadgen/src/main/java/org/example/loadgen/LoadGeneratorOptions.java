@@ -0,0 +1,219 @@
+package org.example.loadgen;
+
+import java.io.File;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Command-line options of the load generator.
+ */
+public class LoadGeneratorOptions {
+    static final String USAGE = String.join(System.lineSeparator(),
+            "Usage: java -jar NovaSonicLoadGenerator.jar --wav <file>[,<file>...] [options]",
+            "  --protocol <p>            audio (browser client, default), telephony (G.711 media-stream gateway) or grpc",
+            "  --url <url>               Endpoint (default ws://localhost:8008/ws/audio, /ws/telephony for telephony,",
+            "                            grpc://localhost:9090 for grpc)",
+            "  --channels <n>            gRPC channels the sessions are spread over (default 4)",
+            "  --origin <origin>         Origin header of the audio protocol (default http://localhost:3000, the allowed web client origin)",
+            "  --sessions <n>            Concurrent sessions for a constant load (default 1)",
+            "  --duration <d>            Length of a constant load, e.g. 60s or 5m (default 60s)",
+            "  --ramp <profile>          Ramp instead of constant load, e.g. 0s:0,60s:100,120s:100",
+            "  --gap <d>                 Silence streamed after each utterance (default 3s)",
+            "  --interval <d>            Reporting interval (default 10s)",
+            "  --ready-timeout <d>       Time allowed for a session to become ready (default 10s)",
+            "  --report <file>           JSON report path (default loadgen-report.json)",
+            "  --tenant-id <id>          Tenant to attribute usage to",
+            "  --output-sample-rate <hz> Response audio rate the audio protocol asks for: 24000 (default), 16000 or 8000",
+            "  --max-tokens, --top-p, --top-t, --system-prompt, --language, --feminine-voice",
+            "                            Session parameters, as sent by the web client");
+
+    private String protocol = "audio";
+    private URI baseUri;
+    private int channels = 4;
+    private String origin = "http://localhost:3000";
+    private final List<File> wavFiles = new ArrayList<>();
+    private RampProfile ramp;
+    private Duration utteranceGap = Duration.ofSeconds(3);
+    private Duration reportInterval = Duration.ofSeconds(10);
+    private Duration readyTimeout = Duration.ofSeconds(10);
+    private File reportFile = new File("loadgen-report.json");
+    // Same parameters and defaults as WebSocketEventManager.connect
+    private final Map<String, String> sessionParameters = new LinkedHashMap<>();
+
+    private LoadGeneratorOptions() {
+        sessionParameters.put("maxTokens", "1024");
+        sessionParameters.put("topP", "0.9");
+        sessionParameters.put("topT", "0.7");
+        sessionParameters.put("systemPrompt", "");
+        sessionParameters.put("language", "en-US");
+        sessionParameters.put("useFeminineVoice", "false");
+    }
+
+    /**
+     * Parses {@code --name value} and {@code --name=value} arguments.
+     *
+     * @throws IllegalArgumentException If an argument is unknown, malformed or missing
+     */
+    public static LoadGeneratorOptions parse(String[] args) {
+        Map<String, String> values = new HashMap<>();
+        for (int i = 0; i < args.length; i++) {
+            String arg = args[i];
+            if (!arg.startsWith("--")) {
+                throw new IllegalArgumentException("Unexpected argument: " + arg);
+            }
+            int equals = arg.indexOf('=');
+            if (equals > 0) {
+                values.put(arg.substring(2, equals), arg.substring(equals + 1));
+            } else if (i + 1 < args.length) {
+                values.put(arg.substring(2), args[++i]);
+            } else {
+                throw new IllegalArgumentException("Missing value for " + arg);
+            }
+        }
+
+        LoadGeneratorOptions options = new LoadGeneratorOptions();
+        Duration duration = Duration.ofSeconds(60);
+        int sessions = 1;
+        for (Map.Entry<String, String> entry : values.entrySet()) {
+            String value = entry.getValue();
+            switch (entry.getKey()) {
+                case "protocol" -> {
+                    if (!"audio".equals(value) && !"telephony".equals(value) && !"grpc".equals(value)) {
+                        throw new IllegalArgumentException("Unknown protocol: " + value);
+                    }
+                    options.protocol = value;
+                }
+                case "url" -> options.baseUri = URI.create(value);
+                case "channels" -> options.channels = Integer.parseInt(value);
+                case "origin" -> options.origin = value;
+                case "wav" -> {
+                    for (String path : value.split(",")) {
+                        options.wavFiles.add(new File(path.trim()));
+                    }
+                }
+                case "sessions" -> sessions = Integer.parseInt(value);
+                case "duration" -> duration = RampProfile.parseDuration(value);
+                case "ramp" -> options.ramp = RampProfile.parse(value);
+                case "gap" -> options.utteranceGap = RampProfile.parseDuration(value);
+                case "interval" -> options.reportInterval = RampProfile.parseDuration(value);
+                case "ready-timeout" -> options.readyTimeout = RampProfile.parseDuration(value);
+                case "report" -> options.reportFile = new File(value);
+                case "tenant-id" -> options.sessionParameters.put("tenantId", value);
+                case "max-tokens" -> options.sessionParameters.put("maxTokens", value);
+                case "top-p" -> options.sessionParameters.put("topP", value);
+                case "top-t" -> options.sessionParameters.put("topT", value);
+                case "system-prompt" -> options.sessionParameters.put("systemPrompt", value);
+                case "language" -> options.sessionParameters.put("language", value);
+                case "feminine-voice" -> options.sessionParameters.put("useFeminineVoice", value);
+                case "output-sample-rate" -> options.sessionParameters.put("outputSampleRate", String.valueOf(Integer.parseInt(value)));
+                default -> throw new IllegalArgumentException("Unknown option: --" + entry.getKey());
+            }
+        }
+
+        if (options.wavFiles.isEmpty()) {
+            throw new IllegalArgumentException("At least one --wav file is required");
+        }
+        if (options.ramp == null) {
+            options.ramp = RampProfile.constant(sessions, duration);
+        }
+        if (options.sessionParameters.containsKey("outputSampleRate") && !"audio".equals(options.protocol)) {
+            throw new IllegalArgumentException("--output-sample-rate only applies to the audio protocol");
+        }
+        if (options.channels < 1) {
+            throw new IllegalArgumentException("--channels must be at least 1");
+        }
+        if (options.baseUri == null) {
+            options.baseUri = URI.create(switch (options.protocol) {
+                case "telephony" -> "ws://localhost:8008/ws/telephony";
+                case "grpc" -> "grpc://localhost:9090";
+                default -> "ws://localhost:8008/ws/audio";
+            });
+        }
+        if (options.isGrpc() && (options.baseUri.getHost() == null || options.baseUri.getPort() < 0)) {
+            throw new IllegalArgumentException("--url must be grpc://host:port for grpc, got: " + options.baseUri);
+        }
+        return options;
+    }
+
+    /**
+     * Returns the endpoint URI with the session parameters in its query string.
+     */
+    public URI getSessionUri() {
+        String query = sessionParameters.entrySet().stream()
+                .map(e -> URLEncoder.encode(e.getKey(), StandardCharsets.UTF_8) + "=" + URLEncoder.encode(e.getValue(), StandardCharsets.UTF_8))
+                .collect(Collectors.joining("&"));
+        return URI.create(baseUri + "?" + query);
+    }
+
+    /**
+     * Returns the session parameters, named as in the query string, for transports that send them otherwise.
+     */
+    public Map<String, String> getSessionParameters() {
+        return sessionParameters;
+    }
+
+    public URI getBaseUri() {
+        return baseUri;
+    }
+
+    public String getProtocol() {
+        return protocol;
+    }
+
+    /**
+     * Whether callers simulate a telephony gateway rather than the web client.
+     */
+    public boolean isTelephony() {
+        return "telephony".equals(protocol);
+    }
+
+    /**
+     * Whether callers use the gRPC service rather than a WebSocket.
+     */
+    public boolean isGrpc() {
+        return "grpc".equals(protocol);
+    }
+
+    public int getChannels() {
+        return channels;
+    }
+
+    /**
+     * The Origin header to send, or null for telephony, whose gateways send none.
+     */
+    public String getOrigin() {
+        return isTelephony() ? null : origin;
+    }
+
+    public List<File> getWavFiles() {
+        return wavFiles;
+    }
+
+    public RampProfile getRamp() {
+        return ramp;
+    }
+
+    public Duration getUtteranceGap() {
+        return utteranceGap;
+    }
+
+    public Duration getReportInterval() {
+        return reportInterval;
+    }
+
+    public Duration getReadyTimeout() {
+        return readyTimeout;
+    }
+
+    public File getReportFile() {
+        return reportFile;
+    }
+}
@@ -0,0 +1,158 @@
+package org.example.loadgen;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.json.JSONObject;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Measurements shared by all simulated callers. Latencies go to HDR histograms in milliseconds;
+ * {@link #interval} reports what happened since the previous call and {@link #totals} the whole run.
+ */
+public class LoadMetrics {
+    private static final long HIGHEST_TRACKABLE_MILLIS = TimeUnit.HOURS.toMillis(1);
+    private static final int SIGNIFICANT_DIGITS = 3;
+
+    private final Latency setupTime = new Latency("setupTimeMillis");
+    private final Latency turnLatency = new Latency("turnLatencyMillis");
+    private final Latency underflowStall = new Latency("underflowStallMillis");
+
+    private final List<Count> counts = new ArrayList<>();
+    final Count sessionsStarted = count("sessionsStarted");
+    final Count sessionsFailed = count("sessionsFailed");
+    final Count sessionsRejected = count("sessionsRejected");
+    final Count abnormalCloses = count("abnormalCloses");
+    final Count transportErrors = count("transportErrors");
+    final Count errorFrames = count("errorFrames");
+    final Count turns = count("turns");
+    final Count missedTurns = count("missedTurns");
+    final Count audioFramesSent = count("audioFramesSent");
+    final Count sendStalls = count("sendStalls");
+    final Count audioBytesReceived = count("audioBytesReceived");
+    // Everything the server sent, as it came over the wire: frames with their framing and encoding
+    final Count bytesReceived = count("bytesReceived");
+    final Count transcripts = count("transcripts");
+
+    /**
+     * A counter that remembers how much of it has already been reported.
+     */
+    static class Count {
+        private final String name;
+        private final LongAdder total = new LongAdder();
+        private long reported;
+
+        private Count(String name) {
+            this.name = name;
+        }
+
+        void increment() {
+            total.increment();
+        }
+
+        void add(long value) {
+            total.add(value);
+        }
+    }
+
+    private static class Latency {
+        private final String name;
+        private final Recorder recorder = new Recorder(HIGHEST_TRACKABLE_MILLIS, SIGNIFICANT_DIGITS);
+        private final Histogram total = new Histogram(HIGHEST_TRACKABLE_MILLIS, SIGNIFICANT_DIGITS);
+
+        private Latency(String name) {
+            this.name = name;
+        }
+
+        void record(long millis) {
+            recorder.recordValue(Math.min(Math.max(millis, 0), HIGHEST_TRACKABLE_MILLIS));
+        }
+    }
+
+    private Count count(String name) {
+        Count count = new Count(name);
+        counts.add(count);
+        return count;
+    }
+
+    void recordSetupTime(long millis) {
+        setupTime.record(millis);
+    }
+
+    void recordTurnLatency(long millis) {
+        turnLatency.record(millis);
+    }
+
+    void recordUnderflow(long stallMillis) {
+        underflowStall.record(stallMillis);
+    }
+
+    /**
+     * Reports the measurements since the previous interval and folds them into the totals.
+     */
+    public synchronized JSONObject interval(long elapsedMillis, int targetSessions, int activeSessions) {
+        JSONObject interval = new JSONObject()
+                .put("elapsedSeconds", elapsedMillis / 1000.0)
+                .put("targetSessions", targetSessions)
+                .put("activeSessions", activeSessions);
+
+        JSONObject deltas = new JSONObject();
+        for (Count count : counts) {
+            long total = count.total.sum();
+            deltas.put(count.name, total - count.reported);
+            count.reported = total;
+        }
+        interval.put("counts", deltas);
+        interval.put("errorRate", errorRate(deltas));
+
+        for (Latency latency : new Latency[] {setupTime, turnLatency, underflowStall}) {
+            Histogram histogram = latency.recorder.getIntervalHistogram();
+            latency.total.add(histogram);
+            interval.put(latency.name, summarize(histogram));
+        }
+        return interval;
+    }
+
+    /**
+     * Reports the measurements of the whole run, up to the last interval.
+     */
+    public synchronized JSONObject totals() {
+        JSONObject totals = new JSONObject();
+        JSONObject sums = new JSONObject();
+        for (Count count : counts) {
+            sums.put(count.name, count.reported);
+        }
+        totals.put("counts", sums);
+        totals.put("errorRate", errorRate(sums));
+        for (Latency latency : new Latency[] {setupTime, turnLatency, underflowStall}) {
+            totals.put(latency.name, summarize(latency.total));
+        }
+        return totals;
+    }
+
+    /**
+     * Errors per attempted operation, where an operation is a session setup or a turn.
+     */
+    private double errorRate(JSONObject counts) {
+        long errors = counts.getLong(sessionsFailed.name) + counts.getLong(sessionsRejected.name)
+                + counts.getLong(abnormalCloses.name)
+                + counts.getLong(transportErrors.name) + counts.getLong(errorFrames.name);
+        long operations = counts.getLong(sessionsStarted.name) + counts.getLong(turns.name);
+        return operations == 0 ? 0.0 : (double) errors / operations;
+    }
+
+    private static JSONObject summarize(Histogram histogram) {
+        return new JSONObject()
+                .put("count", histogram.getTotalCount())
+                .put("min", histogram.getTotalCount() == 0 ? 0 : histogram.getMinValue())
+                .put("p50", histogram.getValueAtPercentile(50))
+                .put("p90", histogram.getValueAtPercentile(90))
+                .put("p99", histogram.getValueAtPercentile(99))
+                .put("p999", histogram.getValueAtPercentile(99.9))
+                .put("max", histogram.getMaxValue())
+                .put("mean", histogram.getMean());
+    }
+}
@@ -0,0 +1,99 @@
+package org.example.loadgen;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Target number of concurrent sessions over time, as a piecewise-linear curve through
+ * {@code offset:sessions} points, e.g. {@code 0s:0,60s:100,120s:100,150s:0}. The last
+ * point's offset is the length of the run.
+ */
+public class RampProfile {
+    private final List<Point> points;
+    private final String description;
+
+    private record Point(long offsetMillis, int sessions) {
+    }
+
+    private RampProfile(List<Point> points, String description) {
+        this.points = points;
+        this.description = description;
+    }
+
+    /**
+     * Creates a profile that holds {@code sessions} sessions for {@code duration}.
+     */
+    public static RampProfile constant(int sessions, Duration duration) {
+        return parse("0s:" + sessions + "," + duration.toMillis() + "ms:" + sessions);
+    }
+
+    /**
+     * Parses a comma-separated list of {@code offset:sessions} points with increasing offsets.
+     * Offsets take an {@code ms}, {@code s}, {@code m} or {@code h} suffix.
+     *
+     * @throws IllegalArgumentException If the profile is malformed
+     */
+    public static RampProfile parse(String spec) {
+        List<Point> points = new ArrayList<>();
+        for (String entry : spec.split(",")) {
+            String[] pair = entry.trim().split(":");
+            if (pair.length != 2) {
+                throw new IllegalArgumentException("Ramp point must be offset:sessions, got '" + entry + "'");
+            }
+            long offsetMillis = parseDuration(pair[0].trim()).toMillis();
+            int sessions = Integer.parseInt(pair[1].trim());
+            if (sessions < 0) {
+                throw new IllegalArgumentException("Session count must not be negative: " + entry);
+            }
+            if (!points.isEmpty() && offsetMillis <= points.get(points.size() - 1).offsetMillis()) {
+                throw new IllegalArgumentException("Ramp offsets must increase: " + spec);
+            }
+            points.add(new Point(offsetMillis, sessions));
+        }
+        if (points.isEmpty() || points.get(0).offsetMillis() != 0) {
+            throw new IllegalArgumentException("Ramp must start at offset 0: " + spec);
+        }
+        return new RampProfile(points, spec);
+    }
+
+    /**
+     * Parses a duration such as {@code 500ms}, {@code 30s}, {@code 5m} or {@code 4h}.
+     */
+    public static Duration parseDuration(String value) {
+        if (value.endsWith("ms")) {
+            return Duration.ofMillis(Long.parseLong(value.substring(0, value.length() - 2)));
+        } else if (value.endsWith("s")) {
+            return Duration.ofSeconds(Long.parseLong(value.substring(0, value.length() - 1)));
+        } else if (value.endsWith("m")) {
+            return Duration.ofMinutes(Long.parseLong(value.substring(0, value.length() - 1)));
+        } else if (value.endsWith("h")) {
+            return Duration.ofHours(Long.parseLong(value.substring(0, value.length() - 1)));
+        }
+        throw new IllegalArgumentException("Duration needs an ms, s, m or h suffix: " + value);
+    }
+
+    /**
+     * Returns the target session count {@code elapsedMillis} into the run.
+     */
+    public int targetAt(long elapsedMillis) {
+        for (int i = 1; i < points.size(); i++) {
+            Point from = points.get(i - 1);
+            Point to = points.get(i);
+            if (elapsedMillis < to.offsetMillis()) {
+                double progress = (double) (elapsedMillis - from.offsetMillis()) / (to.offsetMillis() - from.offsetMillis());
+                return (int) Math.round(from.sessions() + progress * (to.sessions() - from.sessions()));
+            }
+        }
+        return points.get(points.size() - 1).sessions();
+    }
+
+    public long getDurationMillis() {
+        return points.get(points.size() - 1).offsetMillis();
+    }
+
+    @Override
+    public String toString() {
+        return description;
+    }
+}
@@ -0,0 +1,121 @@
+package org.example.loadgen;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Resource samples taken over a soak run, and the test for sustained growth in them. The samples
+ * are split into {@link #WINDOWS} consecutive windows and the minimum of each is taken, which
+ * filters out load spikes and GC timing. A series is growing when no window's minimum is below the
+ * previous one and the last exceeds the first by more than the series' tolerance: a leak only ever
+ * adds, where a busy but healthy node goes back down to its floor.
+ */
+class ResourceTrend {
+    static final int MIN_SAMPLES = 8;
+    private static final int WINDOWS = 4;
+    private static final long MB = 1024 * 1024;
+
+    /**
+     * @param key Field of the {@code /actuator/resources} snapshot
+     * @param absoluteTolerance Growth that never counts as a leak, in the field's unit
+     * @param relativeTolerance Growth that never counts as a leak, as a fraction of the first window's minimum
+     */
+    private record Series(String key, long absoluteTolerance, double relativeTolerance) {
+        long tolerance(long first) {
+            return Math.max(absoluteTolerance, (long) (first * relativeTolerance));
+        }
+    }
+
+    private static final List<Series> SERIES = List.of(
+            new Series("heapUsedBytes", 16 * MB, 0.10),
+            new Series("nonHeapUsedBytes", 8 * MB, 0.05),
+            new Series("directBufferBytes", 4 * MB, 0.10),
+            new Series("nettyDirectBytes", 4 * MB, 0.10),
+            new Series("liveThreads", 4, 0),
+            new Series("nettyEventLoopThreads", 0, 0),
+            new Series("loadedClasses", 500, 0),
+            new Series("openFileDescriptors", 16, 0));
+
+    private final List<JSONObject> samples = new ArrayList<>();
+
+    void add(JSONObject sample) {
+        samples.add(sample);
+    }
+
+    int size() {
+        return samples.size();
+    }
+
+    /**
+     * Evaluates every series.
+     *
+     * @return One entry per series with its window minima, growth, tolerance and verdict
+     */
+    JSONArray evaluate() {
+        JSONArray results = new JSONArray();
+        if (samples.size() < MIN_SAMPLES) {
+            return results;
+        }
+        for (Series series : SERIES) {
+            long[] minima = windowMinima(series.key());
+            if (minima == null) {
+                // Not reported on this platform
+                continue;
+            }
+            boolean neverRecovered = true;
+            for (int i = 1; i < minima.length; i++) {
+                neverRecovered &= minima[i] >= minima[i - 1];
+            }
+            long growth = minima[minima.length - 1] - minima[0];
+            long tolerance = series.tolerance(minima[0]);
+            results.put(new JSONObject()
+                    .put("series", series.key())
+                    .put("windowMinima", minima)
+                    .put("growth", growth)
+                    .put("tolerance", tolerance)
+                    .put("growing", neverRecovered && growth > tolerance));
+        }
+        return results;
+    }
+
+    /**
+     * Returns the thread pools whose size grew from the first sample to the last, the usual suspects
+     * when {@code liveThreads} grows.
+     */
+    JSONObject threadPoolGrowth() {
+        JSONObject growth = new JSONObject();
+        if (samples.size() < 2) {
+            return growth;
+        }
+        JSONObject first = samples.get(0).optJSONObject("threadPools", new JSONObject());
+        JSONObject last = samples.get(samples.size() - 1).optJSONObject("threadPools", new JSONObject());
+        for (String pool : last.keySet()) {
+            int delta = last.getInt(pool) - first.optInt(pool, 0);
+            if (delta > 0) {
+                growth.put(pool, delta);
+            }
+        }
+        return growth;
+    }
+
+    private long[] windowMinima(String key) {
+        long[] minima = new long[WINDOWS];
+        for (int window = 0; window < WINDOWS; window++) {
+            int from = samples.size() * window / WINDOWS;
+            int to = samples.size() * (window + 1) / WINDOWS;
+            long min = Long.MAX_VALUE;
+            for (JSONObject sample : samples.subList(from, to)) {
+                long value = sample.optLong(key, -1);
+                if (value < 0) {
+                    return null;
+                }
+                min = Math.min(min, value);
+            }
+            minima[window] = min;
+        }
+        return minima;
+    }
+}
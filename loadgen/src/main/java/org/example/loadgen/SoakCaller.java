@@ -0,0 +1,343 @@
+package org.example.loadgen;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.WebSocket;
+import java.nio.ByteBuffer;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * One soak session, playing out a {@link SoakPattern}: it connects, streams audio at real-time pace
+ * in stretches of random length, and leaves the way its pattern says. A session that resumes by
+ * token does so on a new connection, so each connection gets its own {@link Leg}.
+ */
+class SoakCaller {
+    private static final Logger logger = LoggerFactory.getLogger(SoakCaller.class);
+    private static final long FRAME_MILLIS = 20;
+    private static final long CLOSE_TIMEOUT_MILLIS = 5000;
+    private static final long EARLY_ABORT_MAX_MILLIS = 300;
+    private static final long RESET_HANG_UP_DELAY_MILLIS = 500;
+
+    private final int id;
+    private final SoakPattern pattern;
+    private final SoakOptions options;
+    private final HttpClient httpClient;
+    private final ScheduledExecutorService ticker;
+    private final ByteBuffer frame;
+    private final SoakTest.Stats stats;
+    private final Random random;
+
+    // Guarded by this
+    private Leg leg;
+    private ScheduledFuture<?> streaming;
+    private int framesLeft;
+    private Runnable afterStretch;
+    private boolean secondStretch;
+    private String resumeToken;
+    private long lastSeq;
+    private volatile boolean finished;
+
+    /**
+     * @param frame One frame of caller audio, sent over and over
+     */
+    SoakCaller(int id, SoakPattern pattern, SoakOptions options, HttpClient httpClient, ScheduledExecutorService ticker,
+               ByteBuffer frame, SoakTest.Stats stats, long seed) {
+        this.id = id;
+        this.pattern = pattern;
+        this.options = options;
+        this.httpClient = httpClient;
+        this.ticker = ticker;
+        this.frame = frame;
+        this.stats = stats;
+        this.random = new Random(seed);
+    }
+
+    synchronized void start() {
+        stats.started(pattern);
+        connect(options.getSessionUri());
+        if (pattern == SoakPattern.EARLY) {
+            schedule(() -> {
+                abortLeg();
+                finish(true, null);
+            }, random.nextLong(EARLY_ABORT_MAX_MILLIS + 1));
+        }
+    }
+
+    boolean isFinished() {
+        return finished;
+    }
+
+    /**
+     * Abandons the session, as at the end of the run.
+     */
+    synchronized void stop() {
+        if (!finished) {
+            abortLeg();
+            finish(true, null);
+        }
+    }
+
+    private void connect(URI uri) {
+        Leg current = new Leg();
+        leg = current;
+        WebSocket.Builder builder = httpClient.newWebSocketBuilder()
+                .connectTimeout(options.getReadyTimeout())
+                .header("Origin", options.getOrigin());
+        builder.buildAsync(uri, current).whenComplete((ws, throwable) -> {
+            if (throwable != null) {
+                fail(current, "connect failed: " + throwable.getMessage());
+            }
+        });
+        schedule(() -> {
+            if (!current.ready) {
+                fail(current, "not ready within " + options.getReadyTimeout());
+            }
+        }, options.getReadyTimeout().toMillis());
+    }
+
+    private synchronized void onFrame(Leg from, String text) {
+        if (from != leg || finished) {
+            return;
+        }
+        JSONObject message;
+        try {
+            message = new JSONObject(text);
+        } catch (JSONException e) {
+            stats.errorFrames.increment();
+            return;
+        }
+        lastSeq = Math.max(lastSeq, message.optLong("seq", 0));
+        switch (message.optString("type")) {
+            case "status" -> {
+                if ("ready".equals(message.optString("status"))) {
+                    onReady(from, message);
+                }
+            }
+            case "error" -> {
+                logger.debug("Soak caller {} received error: {}", id, message.optString("message"));
+                stats.errorFrames.increment();
+            }
+            default -> {
+                // Audio and transcripts are only counted by the server
+            }
+        }
+    }
+
+    private void onReady(Leg from, JSONObject message) {
+        // A resumed stream after an idle suspend announces itself on the same connection
+        if (from.ready) {
+            return;
+        }
+        from.ready = true;
+        resumeToken = message.optString("resumeToken", resumeToken);
+        if (pattern == SoakPattern.EARLY) {
+            return;
+        }
+        if (secondStretch) {
+            stretch(this::hangUp);
+            return;
+        }
+        if (pattern == SoakPattern.GARBAGE) {
+            from.send(ws -> ws.sendText("unknown_command", true));
+            from.send(ws -> ws.sendBinary(ByteBuffer.wrap(new byte[]{1, 2, 3}), true));
+        }
+        stretch(this::afterFirstStretch);
+    }
+
+    /**
+     * Streams audio for a random time of up to {@code --session-length}, then runs {@code then}.
+     */
+    private void stretch(Runnable then) {
+        long millis = 1000 + random.nextLong(options.getSessionLength().toMillis() - 1000 + 1);
+        framesLeft = (int) (millis / FRAME_MILLIS);
+        afterStretch = then;
+        streaming = ticker.scheduleAtFixedRate(this::sendFrame, 0, FRAME_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    private synchronized void sendFrame() {
+        if (finished || streaming == null) {
+            return;
+        }
+        if (framesLeft-- <= 0) {
+            streaming.cancel(false);
+            streaming = null;
+            afterStretch.run();
+            return;
+        }
+        leg.send(ws -> ws.sendBinary(frame.duplicate(), true));
+        stats.framesSent.increment();
+    }
+
+    private void afterFirstStretch() {
+        secondStretch = true;
+        switch (pattern) {
+            case COMPLETE -> {
+                leg.closing = true;
+                leg.send(ws -> ws.sendText("close", true));
+                scheduleCloseTimeout(leg);
+            }
+            case RESET -> {
+                leg.send(ws -> ws.sendText("reset_session", true));
+                schedule(this::hangUp, RESET_HANG_UP_DELAY_MILLIS);
+            }
+            case ABRUPT -> {
+                abortLeg();
+                finish(true, null);
+            }
+            case RECONNECT -> {
+                abortLeg();
+                schedule(() -> {
+                    if (!finished) {
+                        connect(options.getResumeUri(resumeToken, lastSeq));
+                    }
+                }, 200 + random.nextLong(801));
+            }
+            case IDLE -> schedule(() -> {
+                if (!finished) {
+                    stretch(this::hangUp);
+                }
+            }, options.getIdle().toMillis());
+            default -> hangUp();
+        }
+    }
+
+    private synchronized void hangUp() {
+        if (finished) {
+            return;
+        }
+        leg.closing = true;
+        leg.send(ws -> ws.sendClose(WebSocket.NORMAL_CLOSURE, "soak session finished"));
+        scheduleCloseTimeout(leg);
+    }
+
+    private void scheduleCloseTimeout(Leg closing) {
+        schedule(() -> {
+            if (closing == leg && !finished) {
+                abortLeg();
+                finish(false, "close not acknowledged within " + CLOSE_TIMEOUT_MILLIS + " ms");
+            }
+        }, CLOSE_TIMEOUT_MILLIS);
+    }
+
+    private void abortLeg() {
+        if (streaming != null) {
+            streaming.cancel(false);
+            streaming = null;
+        }
+        Leg current = leg;
+        current.aborted = true;
+        if (current.webSocket != null) {
+            current.webSocket.abort();
+        }
+    }
+
+    private synchronized void fail(Leg from, String reason) {
+        if (from == leg && !from.aborted && !finished) {
+            abortLeg();
+            finish(false, reason);
+        }
+    }
+
+    private synchronized void onClosed(Leg from, int statusCode, String reason) {
+        if (from != leg || from.aborted || finished) {
+            return;
+        }
+        if (from.closing) {
+            finish(true, null);
+        } else {
+            finish(false, "closed by server: " + statusCode + " " + reason);
+        }
+    }
+
+    private void finish(boolean ok, String reason) {
+        if (finished) {
+            return;
+        }
+        finished = true;
+        if (streaming != null) {
+            streaming.cancel(false);
+            streaming = null;
+        }
+        if (!ok) {
+            logger.debug("Soak caller {} ({}) failed: {}", id, pattern, reason);
+        }
+        stats.finished(pattern, ok);
+    }
+
+    private void schedule(Runnable task, long delayMillis) {
+        ticker.schedule(() -> {
+            synchronized (this) {
+                task.run();
+            }
+        }, delayMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * One WebSocket connection of the session. Sends are chained so only one is outstanding at a time.
+     */
+    private class Leg implements WebSocket.Listener {
+        private final StringBuilder textBuffer = new StringBuilder();
+        private volatile WebSocket webSocket;
+        private CompletableFuture<WebSocket> sendChain;
+        private boolean ready;
+        private boolean closing;
+        private volatile boolean aborted;
+
+        void send(Function<WebSocket, CompletableFuture<WebSocket>> action) {
+            if (sendChain == null || aborted) {
+                return;
+            }
+            sendChain = sendChain.thenCompose(action);
+        }
+
+        @Override
+        public void onOpen(WebSocket webSocket) {
+            this.webSocket = webSocket;
+            synchronized (SoakCaller.this) {
+                sendChain = CompletableFuture.completedFuture(webSocket);
+                if (aborted) {
+                    webSocket.abort();
+                }
+            }
+            webSocket.request(1);
+        }
+
+        @Override
+        public CompletionStage<?> onText(WebSocket webSocket, CharSequence data, boolean last) {
+            textBuffer.append(data);
+            if (last) {
+                String text = textBuffer.toString();
+                textBuffer.setLength(0);
+                onFrame(this, text);
+            }
+            webSocket.request(1);
+            return null;
+        }
+
+        @Override
+        public CompletionStage<?> onClose(WebSocket webSocket, int statusCode, String reason) {
+            onClosed(this, statusCode, reason);
+            if (!webSocket.isOutputClosed()) {
+                // Completes the closing handshake the server started
+                webSocket.sendClose(WebSocket.NORMAL_CLOSURE, "");
+            }
+            return null;
+        }
+
+        @Override
+        public void onError(WebSocket webSocket, Throwable error) {
+            fail(this, "transport error: " + error.getMessage());
+        }
+    }
+}
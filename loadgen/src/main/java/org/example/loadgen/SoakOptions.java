@@ -0,0 +1,222 @@
+package org.example.loadgen;
+
+import java.io.File;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Command-line options of the soak test.
+ */
+public class SoakOptions {
+    static final String USAGE = String.join(System.lineSeparator(),
+            "Usage: java -cp NovaSonicLoadGenerator.jar org.example.loadgen.SoakTest [options]",
+            "  --url <ws-url>            Endpoint (default ws://localhost:8008/ws/audio)",
+            "  --actuator <url>          Actuator base URL (default the endpoint's host and port, /actuator)",
+            "  --origin <origin>         Origin header (default http://localhost:3000, the allowed web client origin)",
+            "  --sessions <n>            Concurrent sessions (default 50)",
+            "  --duration <d>            Length of the churn, e.g. 90m or 4h (default 2h)",
+            "  --warmup <d>              Churn before resource samples count towards the trend (default 10m)",
+            "  --sample-interval <d>     Time between resource samples, each after a full GC (default 1m)",
+            "  --settle <d>              Time allowed after the churn for every session to be cleaned up (default 2m)",
+            "  --session-length <d>      Longest stretch of audio a session streams at a time (default 20s)",
+            "  --idle <d>                Silence of the idle pattern, longer than the server's suspend-after (default 35s)",
+            "  --mix <weights>           Pattern weights (default " + defaultMix() + ")",
+            "  --seed <n>                Random seed, to repeat a run",
+            "  --ready-timeout <d>       Time allowed for a session to become ready (default 10s)",
+            "  --report <file>           JSON report path (default soak-report.json)",
+            "  --tenant-id <id>          Tenant to attribute usage to");
+
+    private URI baseUri = URI.create("ws://localhost:8008/ws/audio");
+    private URI actuatorUri;
+    private String origin = "http://localhost:3000";
+    private int sessions = 50;
+    private Duration duration = Duration.ofHours(2);
+    private Duration warmup = Duration.ofMinutes(10);
+    private Duration sampleInterval = Duration.ofMinutes(1);
+    private Duration settle = Duration.ofMinutes(2);
+    private Duration sessionLength = Duration.ofSeconds(20);
+    private Duration idle = Duration.ofSeconds(35);
+    private Map<SoakPattern, Integer> mix = parseMix(defaultMix());
+    private long seed = System.nanoTime();
+    private Duration readyTimeout = Duration.ofSeconds(10);
+    private File reportFile = new File("soak-report.json");
+    private String tenantId;
+
+    private SoakOptions() {
+    }
+
+    /**
+     * Parses {@code --name value} and {@code --name=value} arguments.
+     *
+     * @throws IllegalArgumentException If an argument is unknown, malformed or missing
+     */
+    public static SoakOptions parse(String[] args) {
+        Map<String, String> values = new HashMap<>();
+        for (int i = 0; i < args.length; i++) {
+            String arg = args[i];
+            if (!arg.startsWith("--")) {
+                throw new IllegalArgumentException("Unexpected argument: " + arg);
+            }
+            int equals = arg.indexOf('=');
+            if (equals > 0) {
+                values.put(arg.substring(2, equals), arg.substring(equals + 1));
+            } else if (i + 1 < args.length) {
+                values.put(arg.substring(2), args[++i]);
+            } else {
+                throw new IllegalArgumentException("Missing value for " + arg);
+            }
+        }
+
+        SoakOptions options = new SoakOptions();
+        for (Map.Entry<String, String> entry : values.entrySet()) {
+            String value = entry.getValue();
+            switch (entry.getKey()) {
+                case "url" -> options.baseUri = URI.create(value);
+                case "actuator" -> options.actuatorUri = URI.create(value);
+                case "origin" -> options.origin = value;
+                case "sessions" -> options.sessions = Integer.parseInt(value);
+                case "duration" -> options.duration = RampProfile.parseDuration(value);
+                case "warmup" -> options.warmup = RampProfile.parseDuration(value);
+                case "sample-interval" -> options.sampleInterval = RampProfile.parseDuration(value);
+                case "settle" -> options.settle = RampProfile.parseDuration(value);
+                case "session-length" -> options.sessionLength = RampProfile.parseDuration(value);
+                case "idle" -> options.idle = RampProfile.parseDuration(value);
+                case "mix" -> options.mix = parseMix(value);
+                case "seed" -> options.seed = Long.parseLong(value);
+                case "ready-timeout" -> options.readyTimeout = RampProfile.parseDuration(value);
+                case "report" -> options.reportFile = new File(value);
+                case "tenant-id" -> options.tenantId = value;
+                default -> throw new IllegalArgumentException("Unknown option: --" + entry.getKey());
+            }
+        }
+
+        if (options.sessions < 1) {
+            throw new IllegalArgumentException("--sessions must be at least 1");
+        }
+        if (options.sessionLength.toMillis() < 1000) {
+            throw new IllegalArgumentException("--session-length must be at least 1s");
+        }
+        if (!options.warmup.plus(options.sampleInterval.multipliedBy(ResourceTrend.MIN_SAMPLES)).minus(options.duration).isNegative()) {
+            throw new IllegalArgumentException("--duration must leave room for " + ResourceTrend.MIN_SAMPLES
+                    + " samples after the warm-up");
+        }
+        if (options.actuatorUri == null) {
+            String scheme = "wss".equals(options.baseUri.getScheme()) ? "https" : "http";
+            options.actuatorUri = URI.create(scheme + "://" + options.baseUri.getAuthority() + "/actuator");
+        }
+        return options;
+    }
+
+    /**
+     * Parses comma-separated {@code pattern:weight} pairs, such as {@code complete:3,abrupt:1}.
+     */
+    static Map<SoakPattern, Integer> parseMix(String spec) {
+        Map<SoakPattern, Integer> mix = new EnumMap<>(SoakPattern.class);
+        for (String entry : spec.split(",")) {
+            String[] pair = entry.trim().split(":");
+            if (pair.length != 2) {
+                throw new IllegalArgumentException("Mix entries must be pattern:weight, got: " + entry);
+            }
+            SoakPattern pattern;
+            try {
+                pattern = SoakPattern.valueOf(pair[0].trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Unknown pattern: " + pair[0].trim());
+            }
+            int weight = Integer.parseInt(pair[1].trim());
+            if (weight < 0) {
+                throw new IllegalArgumentException("Pattern weights must not be negative: " + entry);
+            }
+            mix.put(pattern, weight);
+        }
+        if (mix.values().stream().mapToInt(Integer::intValue).sum() == 0) {
+            throw new IllegalArgumentException("At least one pattern needs a positive weight: " + spec);
+        }
+        return mix;
+    }
+
+    private static String defaultMix() {
+        return "complete:3,hang_up:3,reset:2,abrupt:2,reconnect:2,early:1,garbage:1,idle:1";
+    }
+
+    /**
+     * Returns the endpoint URI with the web client's default session parameters.
+     */
+    public URI getSessionUri() {
+        String query = "maxTokens=1024&topP=0.9&topT=0.7&systemPrompt=&language=en-US&useFeminineVoice=false";
+        if (tenantId != null) {
+            query += "&tenantId=" + URLEncoder.encode(tenantId, StandardCharsets.UTF_8);
+        }
+        return URI.create(baseUri + "?" + query);
+    }
+
+    /**
+     * Returns the endpoint URI that resumes a dropped session.
+     */
+    public URI getResumeUri(String resumeToken, long lastSeq) {
+        return URI.create(getSessionUri() + "&resumeToken=" + URLEncoder.encode(resumeToken, StandardCharsets.UTF_8)
+                + "&lastSeq=" + lastSeq);
+    }
+
+    public URI getBaseUri() {
+        return baseUri;
+    }
+
+    public URI getActuatorUri() {
+        return actuatorUri;
+    }
+
+    public String getOrigin() {
+        return origin;
+    }
+
+    public int getSessions() {
+        return sessions;
+    }
+
+    public Duration getDuration() {
+        return duration;
+    }
+
+    public Duration getWarmup() {
+        return warmup;
+    }
+
+    public Duration getSampleInterval() {
+        return sampleInterval;
+    }
+
+    public Duration getSettle() {
+        return settle;
+    }
+
+    public Duration getSessionLength() {
+        return sessionLength;
+    }
+
+    public Duration getIdle() {
+        return idle;
+    }
+
+    public Map<SoakPattern, Integer> getMix() {
+        return mix;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public Duration getReadyTimeout() {
+        return readyTimeout;
+    }
+
+    public File getReportFile() {
+        return reportFile;
+    }
+}
@@ -0,0 +1,24 @@
+package org.example.loadgen;
+
+/**
+ * How a soak session behaves over its life. Each pattern ends a session through a different
+ * cleanup path on the server, so a gap in any of them shows up as growth over the run.
+ */
+enum SoakPattern {
+    /** Streams, then sends {@code close}, so the server ends the stream and closes the connection. */
+    COMPLETE,
+    /** Streams, then closes the WebSocket normally without a command. */
+    HANG_UP,
+    /** Streams, sends {@code reset_session}, and hangs up a moment later on the idle session. */
+    RESET,
+    /** Streams, then drops the connection without a close frame, leaving the session detached until it expires. */
+    ABRUPT,
+    /** Drops the connection mid-stream like {@link #ABRUPT}, then resumes by token, streams again and hangs up. */
+    RECONNECT,
+    /** Drops the connection before the session is ready, while it waits for admission or its stream. */
+    EARLY,
+    /** Sends an unknown command and an odd-length audio frame between normal frames, then hangs up. */
+    GARBAGE,
+    /** Streams, goes quiet for {@code --idle} so the session suspends, then streams again and hangs up. */
+    IDLE
+}
@@ -0,0 +1,273 @@
+package org.example.loadgen;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.example.constants.NovaSonicConstants.DEFAULT_AUDIO_FORMAT;
+
+/**
+ * Soak test for {@code /ws/audio}: keeps {@code --sessions} sessions cycling through randomly chosen
+ * {@link SoakPattern}s for hours, and samples the server's {@code /actuator/resources} after a full
+ * GC every {@code --sample-interval}. The run fails, with exit code 1, when a resource keeps growing
+ * after the warm-up (see {@link ResourceTrend}), or when sessions, admission permits or usage
+ * records are still held once the churn has stopped and the server has had {@code --settle} to
+ * clean up. A JSON report with every sample and verdict is written at the end.
+ */
+public class SoakTest {
+    private static final Logger logger = LoggerFactory.getLogger(SoakTest.class);
+    private static final long CONTROL_TICK_MILLIS = 100;
+    private static final long SETTLE_POLL_MILLIS = 2000;
+    private static final List<String> BOOKKEEPING = List.of("activeSessions", "admittedStreams", "queuedConnections", "usageSessions");
+
+    private final SoakOptions options;
+    private final Stats stats = new Stats();
+    private final HttpClient httpClient = HttpClient.newHttpClient();
+
+    /**
+     * Counts per pattern, shared by all soak callers.
+     */
+    static class Stats {
+        private final Map<SoakPattern, LongAdder[]> patterns = new EnumMap<>(SoakPattern.class);
+        final LongAdder framesSent = new LongAdder();
+        final LongAdder errorFrames = new LongAdder();
+
+        Stats() {
+            for (SoakPattern pattern : SoakPattern.values()) {
+                patterns.put(pattern, new LongAdder[]{new LongAdder(), new LongAdder(), new LongAdder()});
+            }
+        }
+
+        void started(SoakPattern pattern) {
+            patterns.get(pattern)[0].increment();
+        }
+
+        void finished(SoakPattern pattern, boolean ok) {
+            patterns.get(pattern)[ok ? 1 : 2].increment();
+        }
+
+        long sum(int index) {
+            return patterns.values().stream().mapToLong(counts -> counts[index].sum()).sum();
+        }
+
+        JSONObject toJson() {
+            JSONObject json = new JSONObject();
+            patterns.forEach((pattern, counts) -> json.put(pattern.name().toLowerCase(), new JSONObject()
+                    .put("started", counts[0].sum())
+                    .put("completed", counts[1].sum())
+                    .put("failed", counts[2].sum())));
+            return new JSONObject()
+                    .put("patterns", json)
+                    .put("framesSent", framesSent.sum())
+                    .put("errorFrames", errorFrames.sum());
+        }
+    }
+
+    public SoakTest(SoakOptions options) {
+        this.options = options;
+    }
+
+    public static void main(String[] args) {
+        SoakOptions options;
+        try {
+            options = SoakOptions.parse(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println(SoakOptions.USAGE);
+            System.exit(2);
+            return;
+        }
+
+        try {
+            System.exit(new SoakTest(options).run() ? 0 : 1);
+        } catch (Exception e) {
+            logger.error("Soak test failed: {}", e.getMessage(), e);
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Runs the churn, the settle phase and the verdicts, and writes the report.
+     *
+     * @return True if no resource grew and the server let go of every session
+     */
+    public boolean run() throws IOException, InterruptedException {
+        Random random = new Random(options.getSeed());
+        List<SoakPattern> patterns = new ArrayList<>();
+        options.getMix().forEach((pattern, weight) -> {
+            for (int i = 0; i < weight; i++) {
+                patterns.add(pattern);
+            }
+        });
+        ByteBuffer frame = toneFrame();
+        ScheduledExecutorService ticker = Executors.newScheduledThreadPool(Runtime.getRuntime().availableProcessors(), r -> {
+            Thread thread = new Thread(r, "soak-audio");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        Instant startedAt = Instant.now();
+        JSONObject baseline = sample(true);
+        logger.info("Soak test against {} for {} with {} sessions, seed {}; baseline {}",
+                options.getBaseUri(), options.getDuration(), options.getSessions(), options.getSeed(), summary(baseline));
+
+        List<SoakCaller> callers = new ArrayList<>();
+        JSONArray samples = new JSONArray();
+        ResourceTrend trend = new ResourceTrend();
+        long startNanos = System.nanoTime();
+        long durationMillis = options.getDuration().toMillis();
+        long warmupMillis = options.getWarmup().toMillis();
+        long sampleIntervalMillis = options.getSampleInterval().toMillis();
+        long nextSampleMillis = sampleIntervalMillis;
+        int nextCallerId = 0;
+        try {
+            long elapsedMillis = 0;
+            while (elapsedMillis < durationMillis) {
+                callers.removeIf(SoakCaller::isFinished);
+                while (callers.size() < options.getSessions()) {
+                    SoakCaller caller = new SoakCaller(nextCallerId++, patterns.get(random.nextInt(patterns.size())),
+                            options, httpClient, ticker, frame, stats, random.nextLong());
+                    callers.add(caller);
+                    caller.start();
+                }
+
+                if (elapsedMillis >= nextSampleMillis) {
+                    JSONObject sample = sample(true).put("elapsedSeconds", elapsedMillis / 1000);
+                    samples.put(sample);
+                    if (elapsedMillis >= warmupMillis) {
+                        trend.add(sample);
+                    }
+                    logger.info("t={}s sessions started={} failed={} {}{}", elapsedMillis / 1000, stats.sum(0), stats.sum(2),
+                            summary(sample), elapsedMillis < warmupMillis ? " (warm-up)" : "");
+                    nextSampleMillis += sampleIntervalMillis;
+                }
+                Thread.sleep(CONTROL_TICK_MILLIS);
+                elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+            }
+        } finally {
+            callers.forEach(SoakCaller::stop);
+            ticker.shutdownNow();
+        }
+
+        // Abandoned sessions stay resumable for the server's grace period, so give cleanup time to run
+        logger.info("Churn finished after {} sessions, waiting up to {} for the server to let go of them",
+                nextCallerId, options.getSettle());
+        long settleDeadline = System.currentTimeMillis() + options.getSettle().toMillis();
+        JSONObject settled = sample(false);
+        while (!isSettled(settled) && System.currentTimeMillis() < settleDeadline) {
+            Thread.sleep(SETTLE_POLL_MILLIS);
+            settled = sample(false);
+        }
+        JSONObject last = sample(true);
+
+        List<String> failures = new ArrayList<>();
+        JSONArray series = trend.evaluate();
+        for (int i = 0; i < series.length(); i++) {
+            JSONObject result = series.getJSONObject(i);
+            if (result.getBoolean("growing")) {
+                failures.add(result.getString("series") + " grew by " + result.getLong("growth")
+                        + " (tolerance " + result.getLong("tolerance") + "), window minima " + result.getJSONArray("windowMinima"));
+            }
+        }
+        for (String key : BOOKKEEPING) {
+            if (last.getLong(key) != 0) {
+                failures.add(key + " is " + last.getLong(key) + " after the churn stopped");
+            }
+        }
+        JSONObject threadPoolGrowth = trend.threadPoolGrowth();
+        if (!failures.isEmpty() && !threadPoolGrowth.isEmpty()) {
+            failures.add("thread pools grown since the warm-up: " + threadPoolGrowth);
+        }
+
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+        JSONObject report = new JSONObject()
+                .put("url", options.getBaseUri().toString())
+                .put("seed", options.getSeed())
+                .put("sessions", options.getSessions())
+                .put("startedAt", startedAt.toString())
+                .put("durationSeconds", elapsedMillis / 1000.0)
+                .put("warmupSeconds", warmupMillis / 1000)
+                .put("totals", stats.toJson())
+                .put("baseline", baseline)
+                .put("samples", samples)
+                .put("final", last)
+                .put("series", series)
+                .put("threadPoolGrowth", threadPoolGrowth)
+                .put("passed", failures.isEmpty())
+                .put("failures", failures);
+        Files.writeString(options.getReportFile().toPath(), report.toString(2));
+        logger.info("Totals: {}", stats.toJson());
+        logger.info("Report written to {}", options.getReportFile().getAbsolutePath());
+        if (trend.size() < ResourceTrend.MIN_SAMPLES) {
+            logger.warn("Only {} samples after the warm-up, too few to judge growth", trend.size());
+        }
+        if (failures.isEmpty()) {
+            logger.info("PASSED: no sustained resource growth, and every session was cleaned up");
+            return true;
+        }
+        failures.forEach(failure -> logger.error("FAILED: {}", failure));
+        return false;
+    }
+
+    /**
+     * Reads {@code /actuator/resources}, after a full GC when {@code collect} is set.
+     */
+    private JSONObject sample(boolean collect) throws IOException, InterruptedException {
+        URI uri = URI.create(options.getActuatorUri() + "/resources");
+        HttpRequest.Builder request = HttpRequest.newBuilder(uri).timeout(Duration.ofSeconds(30));
+        if (collect) {
+            request.POST(HttpRequest.BodyPublishers.noBody());
+        }
+        HttpResponse<String> response = httpClient.send(request.build(), HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 200) {
+            throw new IOException(uri + " answered " + response.statusCode() + "; is the resources endpoint exposed?");
+        }
+        return new JSONObject(response.body());
+    }
+
+    private static boolean isSettled(JSONObject sample) {
+        return BOOKKEEPING.stream().allMatch(key -> sample.getLong(key) == 0);
+    }
+
+    private static String summary(JSONObject sample) {
+        return String.format("heap=%dMB direct=%dKB threads=%d eventLoops=%d fds=%d classes=%d serverSessions=%d",
+                sample.getLong("heapUsedBytes") / (1024 * 1024), sample.getLong("directBufferBytes") / 1024,
+                sample.getInt("liveThreads"), sample.getInt("nettyEventLoopThreads"),
+                sample.getLong("openFileDescriptors"), sample.getInt("loadedClasses"), sample.getInt("activeSessions"));
+    }
+
+    /**
+     * One 20 ms frame of a 400 Hz tone in the server's input format, a whole number of cycles so it
+     * loops cleanly. The fake stream answers every couple of seconds of audio whatever it contains.
+     */
+    private static ByteBuffer toneFrame() {
+        int samples = (int) (DEFAULT_AUDIO_FORMAT.getSampleRate() * 20 / 1000);
+        ByteBuffer frame = ByteBuffer.allocate(samples * 2).order(ByteOrder.LITTLE_ENDIAN);
+        for (int i = 0; i < samples; i++) {
+            frame.putShort((short) (3000 * Math.sin(2 * Math.PI * 400 * i / DEFAULT_AUDIO_FORMAT.getSampleRate())));
+        }
+        frame.flip();
+        return frame.asReadOnlyBuffer();
+    }
+}
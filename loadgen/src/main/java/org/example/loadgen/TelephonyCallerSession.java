@@ -0,0 +1,122 @@
+package org.example.loadgen;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.net.URI;
+import java.net.http.WebSocket;
+import java.nio.ByteBuffer;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ScheduledExecutorService;
+
+import static org.example.constants.NovaSonicConstants.TELEPHONY_SAMPLE_RATE;
+
+/**
+ * One simulated phone call on {@code /ws/telephony}, framed the way media-stream gateways do:
+ * {@code connected} and {@code start} on open, base64 mu-law in {@code media} frames, {@code stop} at
+ * hang-up. The call is ready when the server's {@code ready} mark arrives.
+ */
+class TelephonyCallerSession extends CallerSession {
+    private static final Logger logger = LoggerFactory.getLogger(TelephonyCallerSession.class);
+    private static final int SERVICE_OVERLOAD = 1013;
+
+    private final String streamSid;
+    private final long frameMillis;
+    private int sequenceNumber;
+    private int chunk;
+
+    /**
+     * @param utterance Frames of mu-law codes
+     */
+    TelephonyCallerSession(int id, URI uri, List<ByteBuffer> utterance, ByteBuffer silence, int silenceFrames,
+                           long frameMillis, LoadMetrics metrics, ScheduledExecutorService ticker) {
+        super(id, uri, utterance, silence, silenceFrames, frameMillis, metrics, ticker);
+        this.streamSid = "MZloadgen" + id;
+        this.frameMillis = frameMillis;
+    }
+
+    @Override
+    public void onOpen(WebSocket webSocket) {
+        super.onOpen(webSocket);
+        sendText(new JSONObject().put("event", "connected").put("protocol", "Call").put("version", "1.0.0").toString());
+        JSONObject start = new JSONObject()
+                .put("streamSid", streamSid)
+                .put("callSid", "CAloadgen" + streamSid)
+                .put("tracks", List.of("inbound"))
+                .put("mediaFormat", new JSONObject()
+                        .put("encoding", "audio/x-mulaw")
+                        .put("sampleRate", TELEPHONY_SAMPLE_RATE)
+                        .put("channels", 1));
+        sendText(event("start").put("start", start).toString());
+    }
+
+    @Override
+    CompletableFuture<WebSocket> sendAudio(WebSocket ws, ByteBuffer frame) {
+        JSONObject media = new JSONObject()
+                .put("track", "inbound")
+                .put("chunk", String.valueOf(++chunk))
+                .put("timestamp", String.valueOf((chunk - 1) * frameMillis))
+                .put("payload", Base64.getEncoder().encodeToString(toArray(frame)));
+        return ws.sendText(event("media").put("media", media).toString(), true);
+    }
+
+    @Override
+    CompletableFuture<WebSocket> hangUp(WebSocket ws) {
+        return ws.sendText(event("stop").toString(), true).thenCompose(super::hangUp);
+    }
+
+    @Override
+    void handleFrame(String frame) {
+        JSONObject message;
+        try {
+            message = new JSONObject(frame);
+        } catch (JSONException e) {
+            super.handleFrame(frame);
+            return;
+        }
+        switch (message.optString("event")) {
+            case "media" -> {
+                JSONObject media = message.optJSONObject("media");
+                if (media != null) {
+                    // One mu-law byte per 8 kHz sample
+                    onAudio(media.optString("payload").length() / 4L * 3L, TELEPHONY_SAMPLE_RATE);
+                }
+            }
+            case "mark" -> {
+                JSONObject mark = message.optJSONObject("mark");
+                if (mark != null && "ready".equals(mark.optString("name"))) {
+                    onReady();
+                }
+            }
+            case "clear" -> logger.trace("Call {} cleared by barge-in", streamSid);
+            default -> super.handleFrame(frame);
+        }
+    }
+
+    @Override
+    public CompletionStage<?> onClose(WebSocket webSocket, int statusCode, String reason) {
+        if (!isReady() && statusCode == SERVICE_OVERLOAD) {
+            // Gateways have no error frame; admission control turns calls away with the close code
+            onRejected();
+        }
+        return super.onClose(webSocket, statusCode, reason);
+    }
+
+    private synchronized JSONObject event(String name) {
+        return new JSONObject()
+                .put("event", name)
+                .put("sequenceNumber", String.valueOf(++sequenceNumber))
+                .put("streamSid", streamSid);
+    }
+
+    private static byte[] toArray(ByteBuffer frame) {
+        byte[] bytes = new byte[frame.remaining()];
+        frame.get(bytes);
+        return bytes;
+    }
+}
@@ -0,0 +1,92 @@
+#!/bin/bash
+
+# Smoke test for the native image: starts the native binary and the JVM jar against the in-process
+# fake Bedrock stream, runs a session through each with the load generator, and compares time to
+# first healthy response and resident memory.
+#
+# Build first:
+#   mvn -Pnative native:compile      # target/NovaSonicPlayground
+#   mvn install -DskipTests           # target/NovaSonicPlayground-1.0-SNAPSHOT-exec.jar
+#   mvn -f loadgen/pom.xml package
+
+set -euo pipefail
+
+GREEN='\033[0;32m'
+RED='\033[0;31m'
+NC='\033[0m' # No Color
+
+PORT=${PORT:-8018}
+MANAGEMENT_PORT=${MANAGEMENT_PORT:-$((PORT + 100))}
+NATIVE_BINARY=target/NovaSonicPlayground
+JVM_JAR=target/NovaSonicPlayground-1.0-SNAPSHOT-exec.jar
+LOADGEN_JAR=loadgen/target/NovaSonicLoadGenerator-1.0-SNAPSHOT-jar-with-dependencies.jar
+WORK_DIR=$(mktemp -d)
+
+for artifact in "$NATIVE_BINARY" "$JVM_JAR" "$LOADGEN_JAR"; do
+    if [ ! -e "$artifact" ]; then
+        echo -e "${RED}Error: $artifact not found, see the build steps at the top of this script${NC}"
+        exit 1
+    fi
+done
+
+trap 'rm -rf "$WORK_DIR"' EXIT
+
+# 4 seconds of 16 kHz 16-bit mono silence; the fake stream answers every 2 seconds of audio
+python3 - "$WORK_DIR/utterance.wav" <<'PY'
+import sys, wave
+with wave.open(sys.argv[1], "wb") as out:
+    out.setnchannels(1)
+    out.setsampwidth(2)
+    out.setframerate(16000)
+    out.writeframes(b"\0\0" * 16000 * 4)
+PY
+
+# Starts a server, waits until it is healthy, runs one session and prints
+# "<name> <startup ms> <rss kB after startup> <rss kB after the session>". Runs in a subshell.
+function run_server {
+    local name=$1
+    shift
+    local start
+    start=$(date +%s%N)
+    "$@" --server.port="$PORT" --management.server.port="$MANAGEMENT_PORT" \
+        --novasonic.bedrock.mode=fake > "$WORK_DIR/$name.log" 2>&1 &
+    server_pid=$!
+    trap 'kill "$server_pid" 2>/dev/null || true' EXIT
+
+    until curl -sf "http://localhost:$MANAGEMENT_PORT/actuator/health" > /dev/null; do
+        if ! kill -0 "$server_pid" 2>/dev/null; then
+            echo -e "${RED}Error: $name server exited during startup${NC}" >&2
+            cat "$WORK_DIR/$name.log" >&2
+            exit 1
+        fi
+        sleep 0.01
+    done
+    local startup_ms=$(( ($(date +%s%N) - start) / 1000000 ))
+    local startup_rss_kb
+    startup_rss_kb=$(awk '/VmRSS/ {print $2}' "/proc/$server_pid/status")
+
+    java -jar "$LOADGEN_JAR" --url "ws://localhost:$PORT/ws/audio" --wav "$WORK_DIR/utterance.wav" \
+        --sessions 1 --duration 12s --interval 4s --report "$WORK_DIR/$name-report.json" > "$WORK_DIR/$name-loadgen.log" 2>&1
+    local session_rss_kb
+    session_rss_kb=$(awk '/VmRSS/ {print $2}' "/proc/$server_pid/status")
+
+    kill "$server_pid"
+    wait "$server_pid" 2>/dev/null || true
+
+    # A full session: ready, at least one answered turn and no errors
+    python3 - "$WORK_DIR/$name-report.json" "$name" <<'PY'
+import json, sys
+totals = json.load(open(sys.argv[1]))["totals"]
+if totals["setupTimeMillis"]["count"] < 1 or totals["turnLatencyMillis"]["count"] < 1 or totals["errorRate"] > 0:
+    sys.exit(f"{sys.argv[2]}: session did not complete cleanly: {json.dumps(totals)}")
+PY
+    echo "$name $startup_ms $startup_rss_kb $session_rss_kb"
+}
+
+native=$(run_server native "$NATIVE_BINARY")
+jvm=$(run_server jvm java -jar "$JVM_JAR")
+
+echo -e "${GREEN}Full session completed on both builds${NC}"
+printf "%-8s %12s %16s %16s\n" build startup_ms rss_startup_kB rss_session_kB
+printf "%-8s %12s %16s %16s\n" $native
+printf "%-8s %12s %16s %16s\n" $jvm
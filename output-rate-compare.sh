@@ -0,0 +1,130 @@
+#!/bin/bash
+
+# Cost of each response audio rate: runs the same SESSIONS concurrent callers (500) against /ws/audio of one
+# server on the fake Bedrock stream once per RATES entry (24000, 16000 and 8000 Hz), and prints what the
+# server sent per turn and the server CPU each turn took. The fake stream answers at the rate it is asked
+# for, like Nova Sonic, so the runs differ only in response audio size. MODEL_RATES sets
+# novasonic.bedrock.output-sample-rates; MODEL_RATES=24000 makes the server decimate the lower rates itself.
+#
+# Needs curl and python3, plus the server and load generator builds:
+#   mvn install -DskipTests && mvn -f loadgen/pom.xml package
+#
+# SESSIONS=500 HOLD=120s ./output-rate-compare.sh
+
+set -euo pipefail
+
+GREEN='\033[0;32m'
+BLUE='\033[0;34m'
+RED='\033[0;31m'
+NC='\033[0m' # No Color
+
+JVM_JAR=target/NovaSonicPlayground-1.0-SNAPSHOT-exec.jar
+LOADGEN_JAR=loadgen/target/NovaSonicLoadGenerator-1.0-SNAPSHOT-jar-with-dependencies.jar
+PORT=${PORT:-8107}
+MANAGEMENT_PORT=${MANAGEMENT_PORT:-$((PORT + 100))}
+SESSIONS=${SESSIONS:-500}
+RAMP_UP=${RAMP_UP:-30}
+HOLD=${HOLD:-120s}
+RATES=${RATES:-"24000 16000 8000"}
+MODEL_RATES=${MODEL_RATES:-8000,16000,24000}
+WORK_DIR=$(mktemp -d)
+SERVER_PID=
+
+function cleanup {
+    if [ -n "$SERVER_PID" ]; then
+        kill "$SERVER_PID" 2>/dev/null || true
+        wait "$SERVER_PID" 2>/dev/null || true
+    fi
+    rm -rf "$WORK_DIR"
+}
+trap cleanup EXIT
+
+for artifact in "$JVM_JAR" "$LOADGEN_JAR"; do
+    if [ ! -e "$artifact" ]; then
+        echo -e "${RED}Error: $artifact not found, see the build steps at the top of this script${NC}"
+        exit 1
+    fi
+done
+
+ulimit -n 65536 2>/dev/null || echo -e "${RED}Could not raise the open file limit; WebSocket sessions may fail${NC}"
+
+# 4 seconds of 16 kHz 16-bit mono silence; the fake stream answers every 2 seconds of audio
+python3 - "$WORK_DIR/utterance.wav" <<'PY'
+import sys, wave
+with wave.open(sys.argv[1], "wb") as out:
+    out.setnchannels(1)
+    out.setsampwidth(2)
+    out.setframerate(16000)
+    out.writeframes(b"\0\0" * 16000 * 4)
+PY
+
+echo -e "${BLUE}Starting server on port $PORT with model output rates $MODEL_RATES${NC}"
+java -jar "$JVM_JAR" --server.port=$PORT --management.server.port=$MANAGEMENT_PORT \
+    --novasonic.bedrock.mode=fake --novasonic.warmup.enabled=false \
+    --novasonic.bedrock.output-sample-rates="$MODEL_RATES" \
+    --novasonic.session.max-sessions=$(( SESSIONS * 2 )) --novasonic.admission.max-streams=$(( SESSIONS * 2 )) \
+    --novasonic.admission.max-streams-per-address=0 --novasonic.admission.max-streams-per-tenant=0 \
+    > "$WORK_DIR/server.log" 2>&1 &
+SERVER_PID=$!
+until curl -sf "http://localhost:$MANAGEMENT_PORT/actuator/health/readiness" > /dev/null; do
+    if ! kill -0 "$SERVER_PID" 2>/dev/null; then
+        echo -e "${RED}Server exited during startup${NC}"
+        tail -20 "$WORK_DIR/server.log"
+        exit 1
+    fi
+    sleep 0.5
+done
+
+# Server CPU time so far in clock ticks, user plus system
+function server_cpu_ticks {
+    awk '{print $14 + $15}' "/proc/$SERVER_PID/stat"
+}
+
+# Runs the load generator asking for one output rate and records the server CPU it cost
+function run {
+    local rate=$1
+    local hold_seconds=${HOLD%s}
+    echo -e "${BLUE}$rate Hz: ramping to $SESSIONS sessions over ${RAMP_UP}s, holding for $HOLD${NC}"
+    local before
+    before=$(server_cpu_ticks)
+    java -jar "$LOADGEN_JAR" --url "ws://localhost:$PORT/ws/audio" --output-sample-rate "$rate" \
+        --wav "$WORK_DIR/utterance.wav" --ramp "0s:0,${RAMP_UP}s:$SESSIONS,$(( RAMP_UP + hold_seconds ))s:$SESSIONS" \
+        --interval 30s --ready-timeout 30s --report "$WORK_DIR/$rate.json" > "$WORK_DIR/$rate.log" 2>&1 || {
+        echo -e "${RED}$rate Hz run failed${NC}"
+        tail -20 "$WORK_DIR/$rate.log"
+        exit 1
+    }
+    echo $(( $(server_cpu_ticks) - before )) > "$WORK_DIR/$rate.cpu"
+    # Let sessions from this run finish before the next starts
+    sleep 10
+}
+
+for rate in $RATES; do
+    run "$rate"
+done
+
+python3 - "$WORK_DIR" "$(getconf CLK_TCK)" $RATES <<'PY'
+import json, sys
+
+work_dir, ticks_per_second, rates = sys.argv[1], int(sys.argv[2]), sys.argv[3:]
+reports = [json.load(open(f"{work_dir}/{rate}.json")) for rate in rates]
+cpu = [int(open(f"{work_dir}/{rate}.cpu").read()) / ticks_per_second for rate in rates]
+totals = [r["totals"] for r in reports]
+durations = [r["durationSeconds"] for r in reports]
+turns = [max(1, t["counts"]["turns"]) for t in totals]
+
+def row(label, values, fmt="{:>12.1f}"):
+    print(f"{label:<36}" + "".join(fmt.format(value) for value in values))
+
+print(f"\n{'':<36}" + "".join(f"{rate + ' Hz':>12}" for rate in rates))
+row("turns", [t["counts"]["turns"] for t in totals], "{:>12d}")
+row("error rate", [t["errorRate"] for t in totals], "{:>12.4f}")
+row("turn latency p50 (ms)", [t["turnLatencyMillis"]["p50"] for t in totals])
+row("underflow stalls", [t["underflowStallMillis"]["count"] for t in totals], "{:>12d}")
+row("downstream (KB per turn)", [t["counts"]["bytesReceived"] / n / 1e3 for t, n in zip(totals, turns)])
+row("downstream (Mbit/s)", [t["counts"]["bytesReceived"] * 8 / d / 1e6 for t, d in zip(totals, durations)], "{:>12.2f}")
+row("server CPU (s)", cpu)
+row("server CPU per turn (ms)", [c * 1000 / n for c, n in zip(cpu, turns)], "{:>12.2f}")
+PY
+
+echo -e "\n${GREEN}Comparison complete${NC}"
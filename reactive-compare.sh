@@ -0,0 +1,162 @@
+#!/bin/bash
+
+# Servlet against reactive: runs the same SESSIONS concurrent callers (500) against /ws/audio of a servlet
+# server and then of a server started with the reactive profile, both on the fake Bedrock stream, and prints
+# the heap each live session holds, threads, setup and turn latency, frames and audio moved per second,
+# errors and the server CPU each run used. Heap per session is the difference between a collected heap
+# snapshot taken idle and one taken midway through the hold, divided by the sessions live at that point.
+#
+# Needs curl and python3, plus the server and load generator builds:
+#   mvn install -DskipTests && mvn -f loadgen/pom.xml package
+#
+# SESSIONS=500 HOLD=120s ./reactive-compare.sh
+
+set -euo pipefail
+
+GREEN='\033[0;32m'
+BLUE='\033[0;34m'
+RED='\033[0;31m'
+NC='\033[0m' # No Color
+
+JVM_JAR=target/NovaSonicPlayground-1.0-SNAPSHOT-exec.jar
+LOADGEN_JAR=loadgen/target/NovaSonicLoadGenerator-1.0-SNAPSHOT-jar-with-dependencies.jar
+PORT=${PORT:-8107}
+MANAGEMENT_PORT=${MANAGEMENT_PORT:-$((PORT + 100))}
+SESSIONS=${SESSIONS:-500}
+RAMP_UP=${RAMP_UP:-30}
+HOLD=${HOLD:-120s}
+WORK_DIR=$(mktemp -d)
+SERVER_PID=
+LOADGEN_PID=
+
+function cleanup {
+    for pid in "$LOADGEN_PID" "$SERVER_PID"; do
+        if [ -n "$pid" ]; then
+            kill "$pid" 2>/dev/null || true
+            wait "$pid" 2>/dev/null || true
+        fi
+    done
+    rm -rf "$WORK_DIR"
+}
+trap cleanup EXIT
+
+for artifact in "$JVM_JAR" "$LOADGEN_JAR"; do
+    if [ ! -e "$artifact" ]; then
+        echo -e "${RED}Error: $artifact not found, see the build steps at the top of this script${NC}"
+        exit 1
+    fi
+done
+
+# Every WebSocket session needs a descriptor on both sides
+ulimit -n 65536 2>/dev/null || echo -e "${RED}Could not raise the open file limit; WebSocket sessions may fail${NC}"
+
+# 4 seconds of 16 kHz 16-bit mono silence; the fake stream answers every 2 seconds of audio
+python3 - "$WORK_DIR/utterance.wav" <<'PY'
+import sys, wave
+with wave.open(sys.argv[1], "wb") as out:
+    out.setnchannels(1)
+    out.setsampwidth(2)
+    out.setframerate(16000)
+    out.writeframes(b"\0\0" * 16000 * 4)
+PY
+
+# Server CPU time so far in clock ticks, user plus system
+function server_cpu_ticks {
+    awk '{print $14 + $15}' "/proc/$SERVER_PID/stat"
+}
+
+# Heap snapshot after a full GC, which the resources endpoint only serves when enabled
+function collected_snapshot {
+    curl -sf -X POST "http://localhost:$MANAGEMENT_PORT/actuator/resources" > "$1"
+}
+
+# Starts a server in one mode, snapshots it idle and under load, and records the server CPU the load cost
+function run {
+    local mode=$1
+    shift
+    local hold_seconds=${HOLD%s}
+    echo -e "${BLUE}$mode: starting server on port $PORT${NC}"
+    java -jar "$JVM_JAR" --server.port=$PORT --management.server.port=$MANAGEMENT_PORT "$@" \
+        --novasonic.bedrock.mode=fake --novasonic.warmup.enabled=false \
+        --management.endpoint.resources.enabled=true --novasonic.session.drain-timeout=1s \
+        --novasonic.session.max-sessions=$(( SESSIONS * 2 )) --novasonic.admission.max-streams=$(( SESSIONS * 2 )) \
+        --novasonic.admission.max-streams-per-address=0 --novasonic.admission.max-streams-per-tenant=0 \
+        > "$WORK_DIR/$mode-server.log" 2>&1 &
+    SERVER_PID=$!
+    until curl -sf "http://localhost:$MANAGEMENT_PORT/actuator/health/readiness" > /dev/null; do
+        if ! kill -0 "$SERVER_PID" 2>/dev/null; then
+            echo -e "${RED}$mode server exited during startup${NC}"
+            tail -20 "$WORK_DIR/$mode-server.log"
+            exit 1
+        fi
+        sleep 0.5
+    done
+    collected_snapshot "$WORK_DIR/$mode-idle.json"
+
+    echo -e "${BLUE}$mode: ramping to $SESSIONS sessions over ${RAMP_UP}s, holding for $HOLD${NC}"
+    local before
+    before=$(server_cpu_ticks)
+    java -jar "$LOADGEN_JAR" --protocol audio --url "ws://localhost:$PORT/ws/audio" \
+        --wav "$WORK_DIR/utterance.wav" --ramp "0s:0,${RAMP_UP}s:$SESSIONS,$(( RAMP_UP + hold_seconds ))s:$SESSIONS" \
+        --interval 30s --ready-timeout 30s --report "$WORK_DIR/$mode.json" > "$WORK_DIR/$mode.log" 2>&1 &
+    LOADGEN_PID=$!
+    sleep $(( RAMP_UP + hold_seconds / 2 ))
+    collected_snapshot "$WORK_DIR/$mode-loaded.json"
+    wait "$LOADGEN_PID" || {
+        echo -e "${RED}$mode run failed${NC}"
+        tail -20 "$WORK_DIR/$mode.log"
+        exit 1
+    }
+    LOADGEN_PID=
+    echo $(( $(server_cpu_ticks) - before )) > "$WORK_DIR/$mode.cpu"
+
+    kill "$SERVER_PID"
+    wait "$SERVER_PID" 2>/dev/null || true
+    SERVER_PID=
+}
+
+run servlet
+run reactive --spring.profiles.active=reactive
+
+python3 - "$WORK_DIR" "$(getconf CLK_TCK)" <<'PY'
+import json, sys
+
+work_dir, ticks_per_second = sys.argv[1], int(sys.argv[2])
+modes = ("servlet", "reactive")
+reports, idle, loaded, cpu = [], [], [], []
+for mode in modes:
+    reports.append(json.load(open(f"{work_dir}/{mode}.json")))
+    idle.append(json.load(open(f"{work_dir}/{mode}-idle.json")))
+    loaded.append(json.load(open(f"{work_dir}/{mode}-loaded.json")))
+    cpu.append(int(open(f"{work_dir}/{mode}.cpu").read()) / ticks_per_second)
+
+def row(label, values, fmt="{:>14.1f}"):
+    print(f"{label:<36}" + "".join(fmt.format(value) for value in values))
+
+print(f"\n{'':<36}{'servlet':>14}{'reactive':>14}")
+totals = [r["totals"] for r in reports]
+durations = [r["durationSeconds"] for r in reports]
+row("sessions live at snapshot", [s["activeSessions"] for s in loaded], "{:>14d}")
+row("heap idle (MB)", [s["heapUsedBytes"] / 1e6 for s in idle])
+row("heap under load (MB)", [s["heapUsedBytes"] / 1e6 for s in loaded])
+row("heap per session (KB)",
+    [(l["heapUsedBytes"] - i["heapUsedBytes"]) / max(1, l["activeSessions"]) / 1e3 for i, l in zip(idle, loaded)])
+row("direct memory under load (MB)", [s["directBufferBytes"] / 1e6 for s in loaded])
+row("threads idle", [s["liveThreads"] for s in idle], "{:>14d}")
+row("threads under load", [s["liveThreads"] for s in loaded], "{:>14d}")
+row("sessions started", [t["counts"]["sessionsStarted"] for t in totals], "{:>14d}")
+row("sessions failed or rejected", [t["counts"]["sessionsFailed"] + t["counts"]["sessionsRejected"] for t in totals], "{:>14d}")
+row("setup p50 (ms)", [t["setupTimeMillis"]["p50"] for t in totals])
+row("setup p99 (ms)", [t["setupTimeMillis"]["p99"] for t in totals])
+row("turn latency p50 (ms)", [t["turnLatencyMillis"]["p50"] for t in totals])
+row("turn latency p99 (ms)", [t["turnLatencyMillis"]["p99"] for t in totals])
+row("audio frames sent per second", [t["counts"]["audioFramesSent"] / d for t, d in zip(totals, durations)])
+row("response audio received (MB/s)", [t["counts"]["audioBytesReceived"] / d / 1e6 for t, d in zip(totals, durations)], "{:>14.2f}")
+row("error rate", [t["errorRate"] for t in totals], "{:>14.4f}")
+row("server CPU (s)", cpu)
+row("server CPU (cores, average)", [c / d for c, d in zip(cpu, durations)], "{:>14.2f}")
+row("server CPU per 1000 frames (ms)",
+    [c * 1000 / max(1, t["counts"]["audioFramesSent"]) * 1000 for c, t in zip(cpu, totals)], "{:>14.2f}")
+PY
+
+echo -e "\n${GREEN}Comparison complete${NC}"
@@ -0,0 +1,88 @@
+#!/bin/bash
+
+# Replays the same session recordings against two server builds and prints their reports side by side:
+# CPU and allocation per session, GC, and latency and allocation per stage.
+#
+#   ./replay-compare.sh <recordings> <baseline.jar> <candidate.jar> [original|fast]
+#
+# Recordings come from a server run with novasonic.recording.enabled=true. Build each jar with
+# mvn package -DskipTests on the commit to compare. Needs python3.
+
+set -euo pipefail
+
+GREEN='\033[0;32m'
+BLUE='\033[0;34m'
+RED='\033[0;31m'
+NC='\033[0m' # No Color
+
+if [ $# -lt 3 ]; then
+    echo -e "${RED}Usage: $0 <recordings> <baseline.jar> <candidate.jar> [original|fast]${NC}"
+    exit 1
+fi
+TRACES=$1
+BASELINE_JAR=$2
+CANDIDATE_JAR=$3
+PACE=${4:-fast}
+CONCURRENCY=${CONCURRENCY:-16}
+REPEAT=${REPEAT:-4}
+WORK_DIR=$(mktemp -d)
+trap 'rm -rf "$WORK_DIR"' EXIT
+
+for artifact in "$TRACES" "$BASELINE_JAR" "$CANDIDATE_JAR"; do
+    if [ ! -e "$artifact" ]; then
+        echo -e "${RED}Error: $artifact not found${NC}"
+        exit 1
+    fi
+done
+
+function replay {
+    local name=$1 jar=$2
+    echo -e "${BLUE}Replaying $TRACES against $name ($jar) at $PACE pace${NC}"
+    # Port 0: the replay does not take traffic, and the two runs must not collide with a running server
+    if ! java -jar "$jar" --server.port=0 --novasonic.warmup.enabled=false \
+            --novasonic.replay.enabled=true --novasonic.replay.traces="$TRACES" --novasonic.replay.pace="$PACE" \
+            --novasonic.replay.concurrency="$CONCURRENCY" --novasonic.replay.repeat="$REPEAT" \
+            --novasonic.replay.report="$WORK_DIR/$name.json" > "$WORK_DIR/$name.log" 2>&1; then
+        echo -e "${RED}Some $name sessions did not complete; see the log below${NC}"
+        grep -E "WARN|ERROR" "$WORK_DIR/$name.log" | tail -20 || true
+    fi
+    if [ ! -e "$WORK_DIR/$name.json" ]; then
+        echo -e "${RED}Error: $name wrote no report${NC}"
+        tail -20 "$WORK_DIR/$name.log"
+        exit 1
+    fi
+}
+
+replay baseline "$BASELINE_JAR"
+replay candidate "$CANDIDATE_JAR"
+
+python3 - "$WORK_DIR/baseline.json" "$WORK_DIR/candidate.json" <<'PY'
+import json, sys
+
+baseline, candidate = (json.load(open(path)) for path in sys.argv[1:3])
+
+def row(label, before, after):
+    change = f"{(after - before) / before * 100:+.1f}%" if before else ""
+    print(f"{label:<44}{before:>14.1f}{after:>14.1f}{change:>10}")
+
+print(f"\n{'':<44}{'baseline':>14}{'candidate':>14}{'change':>10}")
+print(f"{'sessions completed':<44}{baseline['completed']:>14}{candidate['completed']:>14}")
+row("CPU per session (ms)", baseline["cpu"]["perSessionMillis"], candidate["cpu"]["perSessionMillis"])
+row("CPU per recorded second (ms)", baseline["cpu"]["perRecordedSecondMillis"], candidate["cpu"]["perRecordedSecondMillis"])
+row("allocation per session (KB)", baseline["allocation"]["perSessionBytes"] / 1024,
+    candidate["allocation"]["perSessionBytes"] / 1024)
+row("GC collections", baseline["gc"]["collections"], candidate["gc"]["collections"])
+row("GC time (ms)", baseline["gc"]["millis"], candidate["gc"]["millis"])
+
+for stage in sorted(set(baseline["stages"]) | set(candidate["stages"])):
+    before, after = baseline["stages"].get(stage), candidate["stages"].get(stage)
+    if not before or not after:
+        print(f"{stage:<44}{'only in ' + ('candidate' if after else 'baseline'):>28}")
+        continue
+    row(f"{stage} p50 (us)", before["p50Micros"], after["p50Micros"])
+    row(f"{stage} p99 (us)", before["p99Micros"], after["p99Micros"])
+    if "allocatedBytesMean" in before and "allocatedBytesMean" in after:
+        row(f"{stage} allocation (bytes)", before["allocatedBytesMean"], after["allocatedBytesMean"])
+PY
+
+echo -e "\n${GREEN}Replay comparison complete${NC}"
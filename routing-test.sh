@@ -0,0 +1,145 @@
+#!/bin/bash
+
+# Region routing test: runs the server against three fake Bedrock endpoints 10 ms, 80 ms and 200 ms away
+# and checks that sessions follow the fastest healthy endpoint.
+#   1. All endpoints healthy: sessions go to the fastest one.
+#   2. The fastest endpoint is taken out of rotation through /actuator/regions: sessions move to the next one.
+#   3. The fastest endpoint fails every probe and stream creation: it is marked unhealthy, setups that
+#      land on it fail over, and callers still get streams.
+#
+# Needs curl and python3, plus the server and load generator builds:
+#   mvn install -DskipTests && mvn -f loadgen/pom.xml package
+
+set -euo pipefail
+
+GREEN='\033[0;32m'
+BLUE='\033[0;34m'
+RED='\033[0;31m'
+NC='\033[0m' # No Color
+
+JVM_JAR=target/NovaSonicPlayground-1.0-SNAPSHOT-exec.jar
+LOADGEN_JAR=loadgen/target/NovaSonicLoadGenerator-1.0-SNAPSHOT-jar-with-dependencies.jar
+PORT=${PORT:-8104}
+MANAGEMENT_PORT=${MANAGEMENT_PORT:-$((PORT + 100))}
+SESSIONS=${SESSIONS:-30}
+WORK_DIR=$(mktemp -d)
+SERVER_PID=
+
+function cleanup {
+    if [ -n "$SERVER_PID" ]; then
+        kill "$SERVER_PID" 2>/dev/null || true
+    fi
+    rm -rf "$WORK_DIR"
+}
+trap cleanup EXIT
+
+for artifact in "$JVM_JAR" "$LOADGEN_JAR"; do
+    if [ ! -e "$artifact" ]; then
+        echo -e "${RED}Error: $artifact not found, see the build steps at the top of this script${NC}"
+        exit 1
+    fi
+done
+
+# 4 seconds of 16 kHz 16-bit mono silence; the fake stream answers every 2 seconds of audio
+python3 - "$WORK_DIR/utterance.wav" <<'PY'
+import sys, wave
+with wave.open(sys.argv[1], "wb") as out:
+    out.setnchannels(1)
+    out.setsampwidth(2)
+    out.setframerate(16000)
+    out.writeframes(b"\0\0" * 16000 * 4)
+PY
+
+function start_server {
+    java -jar "$JVM_JAR" --server.port=$PORT --management.server.port=$MANAGEMENT_PORT \
+        --novasonic.bedrock.mode=fake --novasonic.warmup.enabled=false \
+        --novasonic.admission.max-streams-per-address=0 --novasonic.routing.probe-interval=1s \
+        "--novasonic.routing.endpoints[0].name=fast" "--novasonic.routing.endpoints[0].fake-latency=10ms" \
+        "--novasonic.routing.endpoints[1].name=medium" "--novasonic.routing.endpoints[1].fake-latency=80ms" \
+        "--novasonic.routing.endpoints[2].name=slow" "--novasonic.routing.endpoints[2].fake-latency=200ms" \
+        "$@" > "$WORK_DIR/server-$PORT.log" 2>&1 &
+    SERVER_PID=$!
+    until curl -sf "http://localhost:$MANAGEMENT_PORT/actuator/health/readiness" > /dev/null; do
+        sleep 0.5
+    done
+    # Let every endpoint answer a few probes
+    sleep 4
+}
+
+function stop_server {
+    kill "$SERVER_PID"
+    wait "$SERVER_PID" 2>/dev/null || true
+    SERVER_PID=
+}
+
+# Prints the value of a meter, optionally filtered by tags (name:value ...)
+function meter {
+    local name=$1
+    shift
+    local query=""
+    for tag in "$@"; do
+        query="$query&tag=$tag"
+    done
+    curl -s "http://localhost:$MANAGEMENT_PORT/actuator/metrics/$name?${query#&}" \
+        | python3 -c 'import json,sys; print(int(json.load(sys.stdin)["measurements"][0]["value"]))'
+}
+
+function run_load {
+    java -jar "$LOADGEN_JAR" --url "ws://localhost:$PORT/ws/audio" --wav "$WORK_DIR/utterance.wav" \
+        --sessions "$SESSIONS" --duration 15s --interval 5s --ready-timeout 15s \
+        --report "$1" > "$WORK_DIR/loadgen.log" 2>&1 || true
+}
+
+function report_total {
+    python3 -c 'import json,sys; print(json.load(open(sys.argv[1]))["totals"]["counts"][sys.argv[2]])' "$1" "$2"
+}
+
+function fail {
+    echo -e "${RED}$1${NC}"
+    exit 1
+}
+
+echo -e "${BLUE}Phase 1: all endpoints healthy${NC}"
+start_server
+run_load "$WORK_DIR/healthy-report.json"
+fast=$(meter novasonic.routing.selections endpoint:fast)
+medium=$(meter novasonic.routing.selections endpoint:medium)
+slow=$(meter novasonic.routing.selections endpoint:slow)
+echo "Setups routed: fast=$fast medium=$medium slow=$slow"
+if [ "$fast" -eq 0 ] || [ $(( (medium + slow) * 10 )) -gt "$fast" ]; then
+    fail "Sessions were not routed to the fastest endpoint"
+fi
+
+echo -e "${BLUE}Phase 2: fastest endpoint taken out of rotation${NC}"
+curl -sf -X POST -H 'Content-Type: application/json' -d '{"name": "fast", "enabled": false}' \
+    "http://localhost:$MANAGEMENT_PORT/actuator/regions" > /dev/null
+run_load "$WORK_DIR/disabled-report.json"
+fast_after=$(meter novasonic.routing.selections endpoint:fast)
+medium_after=$(meter novasonic.routing.selections endpoint:medium)
+stop_server
+echo "Setups routed while disabled: fast=$(( fast_after - fast )) medium=$(( medium_after - medium ))"
+if [ "$fast_after" -ne "$fast" ] || [ "$medium_after" -eq "$medium" ]; then
+    fail "Sessions did not move off the disabled endpoint"
+fi
+
+echo -e "${BLUE}Phase 3: fastest endpoint failing${NC}"
+start_server "--novasonic.routing.endpoints[0].fake-failure-rate=1.0"
+run_load "$WORK_DIR/failing-report.json"
+healthy=$(meter novasonic.routing.healthy endpoint:fast)
+fast_opened=$(meter novasonic.stream.setup.attempts outcome:success endpoint:fast)
+medium_opened=$(meter novasonic.stream.setup.attempts outcome:success endpoint:medium)
+failovers=$(meter novasonic.routing.failovers)
+started=$(report_total "$WORK_DIR/failing-report.json" sessionsStarted)
+rejected=$(report_total "$WORK_DIR/failing-report.json" sessionsRejected)
+stop_server
+echo "Streams opened: fast=$fast_opened medium=$medium_opened; failovers=$failovers; sessions rejected=$rejected of $started"
+if [ "$healthy" -ne 0 ]; then
+    fail "Failing endpoint was not marked unhealthy"
+fi
+if [ "$fast_opened" -ne 0 ] || [ "$medium_opened" -eq 0 ]; then
+    fail "Sessions did not fail over to the next fastest endpoint"
+fi
+if [ $(( rejected * 10 )) -gt "$started" ]; then
+    fail "Too many sessions failed despite a healthy endpoint being available"
+fi
+echo -e "${GREEN}Region routing followed latency and failed over as expected${NC}"
@@ -59,7 +59,7 @@ echo -e "${BLUE}Backend will be available at http://localhost:8008${NC}"
 echo -e "${BLUE}Frontend will be available at http://localhost:3000${NC}"
 
 # Start the backend in the background
-java -jar target/NovaSonicPlayground-1.0-SNAPSHOT.jar &
+java --add-modules jdk.incubator.vector -jar target/NovaSonicPlayground-1.0-SNAPSHOT-exec.jar &
 BACKEND_PID=$!
 
 # Start the frontend
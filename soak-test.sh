@@ -0,0 +1,84 @@
+#!/bin/bash
+
+# Soak test: runs the server against the fake Bedrock stream with a small heap and cycles sessions through
+# normal hang-ups, close and reset_session commands, abrupt disconnects, resumes, early aborts, malformed
+# frames and idle suspends for DURATION. The soak runner samples /actuator/resources after a full GC every
+# SAMPLE_INTERVAL and fails on sustained growth of heap, direct memory, threads, Netty event loops, classes
+# or file descriptors, or on sessions the server still holds once the churn stops.
+#
+# Needs curl, plus the server and load generator builds:
+#   mvn install -DskipTests && mvn -f loadgen/pom.xml package
+#
+# DURATION=4h SESSIONS=100 ./soak-test.sh
+
+set -euo pipefail
+
+GREEN='\033[0;32m'
+BLUE='\033[0;34m'
+RED='\033[0;31m'
+NC='\033[0m' # No Color
+
+JVM_JAR=target/NovaSonicPlayground-1.0-SNAPSHOT-exec.jar
+LOADGEN_JAR=loadgen/target/NovaSonicLoadGenerator-1.0-SNAPSHOT-jar-with-dependencies.jar
+PORT=${PORT:-8105}
+MANAGEMENT_PORT=${MANAGEMENT_PORT:-$((PORT + 100))}
+SESSIONS=${SESSIONS:-50}
+DURATION=${DURATION:-2h}
+WARMUP=${WARMUP:-10m}
+SAMPLE_INTERVAL=${SAMPLE_INTERVAL:-1m}
+REPORT=${REPORT:-soak-report.json}
+SERVER_LOG=${SERVER_LOG:-soak-server.log}
+SERVER_PID=
+
+function cleanup {
+    if [ -n "$SERVER_PID" ]; then
+        kill "$SERVER_PID" 2>/dev/null || true
+        wait "$SERVER_PID" 2>/dev/null || true
+    fi
+}
+trap cleanup EXIT
+
+for artifact in "$JVM_JAR" "$LOADGEN_JAR"; do
+    if [ ! -e "$artifact" ]; then
+        echo -e "${RED}Error: $artifact not found, see the build steps at the top of this script${NC}"
+        exit 1
+    fi
+done
+
+# A small heap and direct memory cap turn a leak into an OutOfMemoryError within the run as well.
+# Short resume and suspend timings put every session through its cleanup path many times an hour.
+echo -e "${BLUE}Starting server on port $PORT (log in $SERVER_LOG)${NC}"
+java -Xmx384m -XX:MaxDirectMemorySize=128m -XX:+HeapDumpOnOutOfMemoryError -XX:+ExitOnOutOfMemoryError \
+    -jar "$JVM_JAR" --server.port=$PORT --management.server.port=$MANAGEMENT_PORT \
+    --management.endpoint.resources.enabled=true \
+    --novasonic.bedrock.mode=fake --novasonic.warmup.enabled=false \
+    --novasonic.admission.max-streams-per-address=0 --novasonic.session.max-sessions=$(( SESSIONS * 4 )) \
+    --novasonic.admission.max-streams=$(( SESSIONS * 2 )) --novasonic.admission.max-streams-per-tenant=0 \
+    --novasonic.session.resume-grace-period=5s --novasonic.session.suspend-after=5s \
+    --novasonic.bedrock.fake-throttle-rate=0.02 --novasonic.bedrock.fake-server-error-rate=0.02 \
+    > "$SERVER_LOG" 2>&1 &
+SERVER_PID=$!
+until curl -sf "http://localhost:$MANAGEMENT_PORT/actuator/health/readiness" > /dev/null; do
+    if ! kill -0 "$SERVER_PID" 2>/dev/null; then
+        echo -e "${RED}Server exited during startup, see $SERVER_LOG${NC}"
+        exit 1
+    fi
+    sleep 0.5
+done
+
+echo -e "${BLUE}Soaking with $SESSIONS sessions for $DURATION${NC}"
+status=0
+java -cp "$LOADGEN_JAR" org.example.loadgen.SoakTest --url "ws://localhost:$PORT/ws/audio" \
+    --actuator "http://localhost:$MANAGEMENT_PORT/actuator" \
+    --sessions "$SESSIONS" --duration "$DURATION" --warmup "$WARMUP" --sample-interval "$SAMPLE_INTERVAL" \
+    --idle 8s --settle 60s --report "$REPORT" ${SEED:+--seed "$SEED"} || status=$?
+
+if ! kill -0 "$SERVER_PID" 2>/dev/null; then
+    echo -e "${RED}Server died during the soak, see $SERVER_LOG${NC}"
+    exit 1
+fi
+if [ "$status" -ne 0 ]; then
+    echo -e "${RED}Soak test failed, see $REPORT and $SERVER_LOG${NC}"
+    exit "$status"
+fi
+echo -e "${GREEN}No leaks after $DURATION of churn${NC}"
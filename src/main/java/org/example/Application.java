@@ -1,22 +1,31 @@
 package org.example;
 
+import io.micrometer.core.instrument.MeterRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.ApplicationContext;
 import org.springframework.context.ConfigurableApplicationContext;
 import org.springframework.context.annotation.Bean;
-import org.springframework.web.socket.config.annotation.EnableWebSocket;
-import org.springframework.web.socket.config.annotation.WebSocketConfigurer;
-import org.springframework.web.socket.config.annotation.WebSocketHandlerRegistry;
-import org.springframework.web.socket.server.standard.ServletServerContainerFactoryBean;
+import org.springframework.context.annotation.ImportRuntimeHints;
+import org.example.admission.AdmissionController;
+import org.example.client.StreamSetupPolicy;
+import org.example.config.NativeRuntimeHints;
+import org.example.config.NovaSonicProperties;
 import org.example.handler.NovaWebSocketHandler;
 import org.example.handler.NovaSonicEventHandler;
+import org.example.recording.SessionRecorder;
+import org.example.tool.ToolExecutor;
+import org.example.tool.ToolRegistry;
+import org.example.transcript.TranscriptStore;
+import org.example.usage.UsageAccountant;
 
 @SpringBootApplication
-@EnableWebSocket
-public class Application implements WebSocketConfigurer {
+@EnableConfigurationProperties(NovaSonicProperties.class)
+@ImportRuntimeHints(NativeRuntimeHints.class)
+public class Application {
     private static final Logger logger = LoggerFactory.getLogger(Application.class);
     private static ConfigurableApplicationContext applicationContext;
 
@@ -34,30 +43,19 @@ public class Application implements WebSocketConfigurer {
         return applicationContext;
     }
 
-    @Override
-    public void registerWebSocketHandlers(WebSocketHandlerRegistry registry) {
-        registry.addHandler(novaWebSocketHandler(novaSonicEventHandler()), "/ws/audio")
-               .setAllowedOrigins("http://localhost:3000"); // Configure CORS as needed
-    }
-
-    @Bean
-    public NovaSonicEventHandler novaSonicEventHandler() {
-        return new NovaSonicEventHandler();
-    }
-
     @Bean
-    public NovaWebSocketHandler novaWebSocketHandler(NovaSonicEventHandler eventHandler) {
-        return new NovaWebSocketHandler(eventHandler);
+    public NovaSonicEventHandler novaSonicEventHandler(UsageAccountant usageAccountant, ToolRegistry toolRegistry,
+                                                       ToolExecutor toolExecutor) {
+        return new NovaSonicEventHandler(usageAccountant, toolRegistry, toolExecutor);
     }
 
     @Bean
-    public ServletServerContainerFactoryBean createWebSocketContainer() {
-        ServletServerContainerFactoryBean container = new ServletServerContainerFactoryBean();
-        // Set maximum message size to 10MB to handle audio chunks
-        container.setMaxBinaryMessageBufferSize(10 * 1024 * 1024);
-        container.setMaxTextMessageBufferSize(1024 * 1024);
-        // Set timeout to 30 minutes to handle long transcription sessions
-        container.setMaxSessionIdleTimeout(30 * 60 * 1000L);
-        return container;
+    public NovaWebSocketHandler novaWebSocketHandler(NovaSonicEventHandler eventHandler, NovaSonicProperties properties,
+                                                     UsageAccountant usageAccountant, StreamSetupPolicy streamSetupPolicy,
+                                                     AdmissionController admissionController,
+                                                     SessionRecorder sessionRecorder, TranscriptStore transcriptStore,
+                                                     MeterRegistry meterRegistry) {
+        return new NovaWebSocketHandler(eventHandler, properties, usageAccountant, streamSetupPolicy,
+                admissionController, sessionRecorder, transcriptStore, meterRegistry);
     }
 }
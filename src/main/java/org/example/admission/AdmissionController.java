@@ -0,0 +1,286 @@
+package org.example.admission;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.example.admission.AdmissionRejectedException.Reason;
+import org.example.config.NovaSonicProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PreDestroy;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Decides whether a new connection may open a Bedrock stream. A global concurrent-stream limit
+ * protects the node and the account quota, and per-tenant and per-address quotas stop one caller
+ * from taking all of it. Admission is a few compare-and-set operations while nobody is queued.
+ * When only the global limit is in the way the connection waits in a short FIFO queue for a
+ * stream to be released; a full queue, an exhausted quota or a wait that times out is rejected
+ * with a retry delay.
+ * <p>
+ * Tenant ids are claimed by clients, not authenticated, and only limited to the configured ones, so
+ * the per-tenant quota is advisory: it keeps well-behaved tenants apart but cannot stop a client
+ * claiming another tenant's id. The per-address quota is the one a caller cannot step around.
+ */
+@Component
+public class AdmissionController {
+    private static final Logger logger = LoggerFactory.getLogger(AdmissionController.class);
+    // A per-key counter that dropped to zero and is being unlinked from its map; acquirers look up a fresh one
+    private static final int RETIRED = Integer.MIN_VALUE;
+
+    private final NovaSonicProperties.Admission settings;
+    private final AtomicInteger activeStreams = new AtomicInteger();
+    private final Map<String, AtomicInteger> streamsByTenant = new ConcurrentHashMap<>();
+    private final Map<String, AtomicInteger> streamsByAddress = new ConcurrentHashMap<>();
+    // Guarded by itself; waitingCount mirrors its size so the fast path can check it without locking
+    private final Deque<Waiter> waiters = new ArrayDeque<>();
+    private final AtomicInteger waitingCount = new AtomicInteger();
+    private final ScheduledExecutorService timeoutScheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "admission-queue-timeout");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final Counter admittedImmediately;
+    private final Counter admittedAfterWait;
+    private final Map<Reason, Counter> rejections = new EnumMap<>(Reason.class);
+    private final Timer queueWait;
+
+    public AdmissionController(NovaSonicProperties properties, MeterRegistry meterRegistry) {
+        this.settings = properties.getAdmission();
+        this.admittedImmediately = Counter.builder("novasonic.admission.admitted")
+                .description("Connections given a Bedrock stream")
+                .tag("queued", "false")
+                .register(meterRegistry);
+        this.admittedAfterWait = Counter.builder("novasonic.admission.admitted")
+                .description("Connections given a Bedrock stream")
+                .tag("queued", "true")
+                .register(meterRegistry);
+        for (Reason reason : Reason.values()) {
+            rejections.put(reason, Counter.builder("novasonic.admission.rejected")
+                    .description("Connections turned away by admission control")
+                    .tag("reason", reason.getCode())
+                    .register(meterRegistry));
+        }
+        this.queueWait = Timer.builder("novasonic.admission.queue.wait")
+                .description("Time connections spent waiting for a Bedrock stream")
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry);
+        Gauge.builder("novasonic.admission.streams.active", activeStreams, AtomicInteger::get)
+                .description("Bedrock streams currently admitted")
+                .register(meterRegistry);
+        Gauge.builder("novasonic.admission.queue.size", waitingCount, AtomicInteger::get)
+                .description("Connections waiting for a Bedrock stream")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Requests a Bedrock stream for a new connection.
+     *
+     * @param tenantId Tenant the session is billed to, as resolved by the usage accountant
+     * @param clientAddress Remote address of the connection
+     * @return A future completed with the permit, or exceptionally with {@link AdmissionRejectedException}.
+     *         A queued request completes on the thread that released a stream or on the timeout thread.
+     */
+    public CompletableFuture<AdmissionPermit> admit(String tenantId, String clientAddress) {
+        AdmissionPermit permit = new AdmissionPermit(this, tenantId, clientAddress);
+        // Connections already waiting go first, so only take a stream directly when the queue is empty
+        Reason blockedBy = waitingCount.get() == 0 ? tryAcquire(permit) : Reason.AT_CAPACITY;
+        if (blockedBy == null) {
+            admittedImmediately.increment();
+            return CompletableFuture.completedFuture(permit);
+        }
+        if (blockedBy != Reason.AT_CAPACITY) {
+            return CompletableFuture.failedFuture(reject(permit, blockedBy));
+        }
+        return enqueue(permit);
+    }
+
+    public int getActiveStreams() {
+        return activeStreams.get();
+    }
+
+    public int getQueuedConnections() {
+        return waitingCount.get();
+    }
+
+    void release(AdmissionPermit permit) {
+        releaseKeyed(streamsByTenant, permit.getTenantId(), permit.tenantStreams);
+        releaseKeyed(streamsByAddress, permit.getClientAddress(), permit.addressStreams);
+        activeStreams.decrementAndGet();
+        if (waitingCount.get() > 0) {
+            admitWaiters();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        timeoutScheduler.shutdownNow();
+    }
+
+    /**
+     * Takes a tenant, address and global slot, undoing partial acquisitions on failure.
+     *
+     * @return Null if the permit was granted, otherwise the limit that stopped it
+     */
+    private Reason tryAcquire(AdmissionPermit permit) {
+        AtomicInteger tenantStreams = acquireKeyed(streamsByTenant, permit.getTenantId(), settings.getMaxStreamsPerTenant());
+        if (tenantStreams == null) {
+            return Reason.TENANT_QUOTA;
+        }
+        AtomicInteger addressStreams = acquireKeyed(streamsByAddress, permit.getClientAddress(), settings.getMaxStreamsPerAddress());
+        if (addressStreams == null) {
+            releaseKeyed(streamsByTenant, permit.getTenantId(), tenantStreams);
+            return Reason.ADDRESS_QUOTA;
+        }
+        if (!tryIncrement(activeStreams, settings.getMaxStreams())) {
+            releaseKeyed(streamsByAddress, permit.getClientAddress(), addressStreams);
+            releaseKeyed(streamsByTenant, permit.getTenantId(), tenantStreams);
+            return Reason.AT_CAPACITY;
+        }
+        permit.tenantStreams = tenantStreams;
+        permit.addressStreams = addressStreams;
+        return null;
+    }
+
+    private CompletableFuture<AdmissionPermit> enqueue(AdmissionPermit permit) {
+        Waiter waiter = new Waiter(permit);
+        synchronized (waiters) {
+            if (waiters.size() >= settings.getQueueCapacity()) {
+                return CompletableFuture.failedFuture(reject(permit, Reason.AT_CAPACITY));
+            }
+            waiters.addLast(waiter);
+            waitingCount.incrementAndGet();
+            waiter.timeout = timeoutScheduler.schedule(() -> expire(waiter),
+                    settings.getQueueTimeout().toMillis(), TimeUnit.MILLISECONDS);
+        }
+        // A stream may have been released between the fast-path attempt and joining the queue
+        admitWaiters();
+        return waiter.future;
+    }
+
+    /**
+     * Grants streams to queued connections in arrival order until the global limit is reached
+     * again. Futures are completed outside the lock because callers start sessions from them.
+     */
+    private void admitWaiters() {
+        List<Waiter> dequeued = new ArrayList<>();
+        synchronized (waiters) {
+            Iterator<Waiter> iterator = waiters.iterator();
+            while (iterator.hasNext()) {
+                Waiter waiter = iterator.next();
+                Reason blockedBy = tryAcquire(waiter.permit);
+                if (blockedBy == Reason.AT_CAPACITY) {
+                    break;
+                }
+                iterator.remove();
+                waitingCount.decrementAndGet();
+                waiter.timeout.cancel(false);
+                waiter.rejection = blockedBy;
+                dequeued.add(waiter);
+            }
+        }
+
+        for (Waiter waiter : dequeued) {
+            queueWait.record(System.nanoTime() - waiter.enqueuedNanos, TimeUnit.NANOSECONDS);
+            if (waiter.rejection != null) {
+                waiter.future.completeExceptionally(reject(waiter.permit, waiter.rejection));
+            } else {
+                admittedAfterWait.increment();
+                if (!waiter.future.complete(waiter.permit)) {
+                    // The caller gave up on the future
+                    waiter.permit.release();
+                }
+            }
+        }
+    }
+
+    private void expire(Waiter waiter) {
+        synchronized (waiters) {
+            if (!waiters.remove(waiter)) {
+                return;
+            }
+            waitingCount.decrementAndGet();
+        }
+        queueWait.record(System.nanoTime() - waiter.enqueuedNanos, TimeUnit.NANOSECONDS);
+        waiter.future.completeExceptionally(reject(waiter.permit, Reason.QUEUE_TIMEOUT));
+    }
+
+    private AdmissionRejectedException reject(AdmissionPermit permit, Reason reason) {
+        rejections.get(reason).increment();
+        logger.info("Rejected connection for tenant {} from {}: {} ({} streams active, {} queued)",
+                permit.getTenantId(), permit.getClientAddress(), reason.getCode(), activeStreams.get(), waitingCount.get());
+        return new AdmissionRejectedException(reason, settings.getRetryAfter());
+    }
+
+    private static boolean tryIncrement(AtomicInteger counter, int limit) {
+        int current;
+        do {
+            current = counter.get();
+            if (limit > 0 && current >= limit) {
+                return false;
+            }
+        } while (!counter.compareAndSet(current, current + 1));
+        return true;
+    }
+
+    /**
+     * Increments the counter for a key, creating it on first use.
+     *
+     * @return The incremented counter, or null if the key is at its limit
+     */
+    private static AtomicInteger acquireKeyed(Map<String, AtomicInteger> counters, String key, int limit) {
+        while (true) {
+            AtomicInteger counter = counters.get(key);
+            if (counter == null) {
+                counter = counters.computeIfAbsent(key, k -> new AtomicInteger());
+            }
+            int current = counter.get();
+            if (current == RETIRED) {
+                // Help the releasing thread unlink it, then retry with a fresh counter
+                counters.remove(key, counter);
+            } else if (limit > 0 && current >= limit) {
+                return null;
+            } else if (counter.compareAndSet(current, current + 1)) {
+                return counter;
+            }
+        }
+    }
+
+    /**
+     * Decrements a per-key counter and unlinks it once idle so the maps only hold active keys.
+     */
+    private static void releaseKeyed(Map<String, AtomicInteger> counters, String key, AtomicInteger counter) {
+        if (counter.decrementAndGet() == 0 && counter.compareAndSet(0, RETIRED)) {
+            counters.remove(key, counter);
+        }
+    }
+
+    private static class Waiter {
+        final AdmissionPermit permit;
+        final long enqueuedNanos = System.nanoTime();
+        final CompletableFuture<AdmissionPermit> future = new CompletableFuture<>();
+        ScheduledFuture<?> timeout;
+        Reason rejection;
+
+        Waiter(AdmissionPermit permit) {
+            this.permit = permit;
+        }
+    }
+}
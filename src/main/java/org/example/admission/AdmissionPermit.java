@@ -0,0 +1,38 @@
+package org.example.admission;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A Bedrock stream slot held by one voice session. Releasing it more than once has no effect.
+ */
+public final class AdmissionPermit {
+    private final AdmissionController controller;
+    private final String tenantId;
+    private final String clientAddress;
+    private final AtomicBoolean released = new AtomicBoolean();
+
+    // Per-key counters this permit incremented, set once the permit is granted
+    AtomicInteger tenantStreams;
+    AtomicInteger addressStreams;
+
+    AdmissionPermit(AdmissionController controller, String tenantId, String clientAddress) {
+        this.controller = controller;
+        this.tenantId = tenantId;
+        this.clientAddress = clientAddress;
+    }
+
+    public String getTenantId() {
+        return tenantId;
+    }
+
+    public String getClientAddress() {
+        return clientAddress;
+    }
+
+    public void release() {
+        if (released.compareAndSet(false, true)) {
+            controller.release(this);
+        }
+    }
+}
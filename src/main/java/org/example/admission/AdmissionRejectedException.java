@@ -0,0 +1,69 @@
+package org.example.admission;
+
+import org.json.JSONObject;
+
+import java.time.Duration;
+
+/**
+ * Completes an admission future when a connection cannot be given a Bedrock stream. Carries the
+ * reason and the retry delay suggested to the client.
+ */
+public class AdmissionRejectedException extends RuntimeException {
+
+    /**
+     * Why a connection was turned away. The code is sent to the client and used as a metric tag.
+     */
+    public enum Reason {
+        TENANT_QUOTA("tenant_quota", "Too many concurrent sessions for this tenant"),
+        ADDRESS_QUOTA("address_quota", "Too many concurrent sessions from this address"),
+        AT_CAPACITY("at_capacity", "Server is at capacity"),
+        QUEUE_TIMEOUT("queue_timeout", "Server is busy");
+
+        private final String code;
+        private final String description;
+
+        Reason(String code, String description) {
+            this.code = code;
+            this.description = description;
+        }
+
+        public String getCode() {
+            return code;
+        }
+
+        public String getDescription() {
+            return description;
+        }
+    }
+
+    private final Reason reason;
+    private final Duration retryAfter;
+
+    public AdmissionRejectedException(Reason reason, Duration retryAfter) {
+        super(reason.getDescription(), null, false, false);
+        this.reason = reason;
+        this.retryAfter = retryAfter;
+    }
+
+    public Reason getReason() {
+        return reason;
+    }
+
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+
+    /**
+     * Error frame sent to the client before the connection is closed.
+     */
+    public String toClientMessage() {
+        return new JSONObject()
+                .put("type", "error")
+                .put("code", "overloaded")
+                .put("reason", reason.getCode())
+                .put("retryAfterMs", retryAfter.toMillis())
+                .put("message", String.format("%s, please retry in %d s", reason.getDescription(),
+                        Math.max(1, retryAfter.toSeconds())))
+                .toString();
+    }
+}
@@ -0,0 +1,43 @@
+package org.example.api.controller;
+
+import org.example.transcript.TranscriptPage;
+import org.example.transcript.TranscriptStore;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import static org.example.constants.NovaSonicConstants.TRANSCRIPT_PAGE_DEFAULT_TURNS;
+import static org.example.constants.NovaSonicConstants.TRANSCRIPT_PAGE_MAX_TURNS;
+import static org.example.constants.NovaSonicConstants.TRANSCRIPT_TOKEN_HEADER;
+
+/**
+ * REST controller for paging back through the final transcripts of a live or recently finished session.
+ */
+@RestController
+@RequestMapping("/api/transcripts")
+@CrossOrigin(origins = "http://localhost:3000")
+public class TranscriptController {
+    private final TranscriptStore transcriptStore;
+
+    public TranscriptController(TranscriptStore transcriptStore) {
+        this.transcriptStore = transcriptStore;
+    }
+
+    /**
+     * Endpoint for getting the turns of a session that come before a given turn.
+     *
+     * @param sessionId The session id
+     * @param token The session's transcript token, from its ready status
+     * @param before The turn number to page back from; by default the latest turns are returned
+     * @param limit How many turns to return at most
+     * @return The turns, oldest first, or 404 if the session has no stored transcript or the token does not match
+     */
+    @GetMapping("/{sessionId}/turns")
+    public ResponseEntity<TranscriptPage> getTurns(@PathVariable String sessionId,
+                                                   @RequestHeader(value = TRANSCRIPT_TOKEN_HEADER, required = false) String token,
+                                                   @RequestParam(defaultValue = "" + Long.MAX_VALUE) long before,
+                                                   @RequestParam(defaultValue = "" + TRANSCRIPT_PAGE_DEFAULT_TURNS) int limit) {
+        return transcriptStore.findTurns(sessionId, token, before, Math.max(1, Math.min(limit, TRANSCRIPT_PAGE_MAX_TURNS)))
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+}
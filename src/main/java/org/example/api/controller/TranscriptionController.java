@@ -1,8 +1,7 @@
 package org.example.api.controller;
 
 import org.example.constants.NovaSonicConstants;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
+import org.example.util.NovaSonicMessageUtil;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -16,8 +15,6 @@ import java.util.Map;
 @RequestMapping("/api/transcription")
 @CrossOrigin(origins = "http://localhost:3000") // Allow requests from any origin for development
 public class TranscriptionController {
-    private static final Logger logger = LoggerFactory.getLogger(TranscriptionController.class);
-    
     /**
      * Endpoint for getting the default configuration values.
      *
@@ -34,6 +31,7 @@ public class TranscriptionController {
         config.put("websocketEndpoint", "/ws/audio");
         config.put("language", NovaSonicConstants.LANG_EN_US); // Set default language
         config.put("useFeminineVoice", false); // Set default voice type
+        config.put("outputSampleRate", NovaSonicConstants.OUTPUT_AUDIO_SAMPLE_RATE);
         
         return ResponseEntity.ok(config);
     }
@@ -46,17 +44,7 @@ public class TranscriptionController {
      */
     @GetMapping("/prompt/{language}")
     public ResponseEntity<Map<String, String>> getSystemPrompt(@PathVariable String language) {
-        String prompt = switch (language) {
-            case "en-US", "en-GB" -> NovaSonicConstants.ENGLISH_SYSTEM_PROMPT;
-            case "es" -> NovaSonicConstants.SPANISH_SYSTEM_PROMPT;
-            case "fr" -> NovaSonicConstants.FRENCH_SYSTEM_PROMPT;
-            case "it" -> NovaSonicConstants.ITALIAN_SYSTEM_PROMPT;
-            case "de" -> NovaSonicConstants.GERMAN_SYSTEM_PROMPT;
-            default -> {
-                logger.warn("Unsupported language code: {}. Falling back to default English prompt.", language);
-                yield NovaSonicConstants.DEFAULT_SYSTEM_PROMPT;
-            }
-        };
+        String prompt = NovaSonicMessageUtil.getSystemPrompt(language);
 
         Map<String, String> response = new HashMap<>();
         response.put("systemPrompt", prompt);
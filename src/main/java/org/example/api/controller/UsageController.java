@@ -0,0 +1,58 @@
+package org.example.api.controller;
+
+import org.example.usage.UsageAccountant;
+import org.example.usage.UsageSnapshot;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+import static org.example.constants.NovaSonicConstants.USAGE_WINDOW_MINUTES;
+
+/**
+ * REST controller exposing token and audio usage per session, tenant and minute.
+ */
+@RestController
+@RequestMapping("/api/usage")
+@CrossOrigin(origins = "http://localhost:3000")
+public class UsageController {
+    private final UsageAccountant usageAccountant;
+
+    public UsageController(UsageAccountant usageAccountant) {
+        this.usageAccountant = usageAccountant;
+    }
+
+    /**
+     * Endpoint for getting the usage of one live or recently finished session.
+     *
+     * @param sessionId The session id
+     * @return The session totals, or 404 if the session is unknown
+     */
+    @GetMapping("/sessions/{sessionId}")
+    public ResponseEntity<UsageSnapshot> getSession(@PathVariable String sessionId) {
+        return usageAccountant.getSessionUsage(sessionId)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Endpoint for getting usage per tenant with live sessions, since the tenant last went idle.
+     *
+     * @return The totals of every active tenant
+     */
+    @GetMapping("/tenants")
+    public ResponseEntity<List<UsageSnapshot>> getTenants() {
+        return ResponseEntity.ok(usageAccountant.getTenantUsage());
+    }
+
+    /**
+     * Endpoint for getting usage per minute, keyed by the window start in epoch millis.
+     *
+     * @param minutes How many recent minutes to return
+     * @return The per-minute totals, newest first
+     */
+    @GetMapping("/windows")
+    public ResponseEntity<List<UsageSnapshot>> getWindows(@RequestParam(defaultValue = "15") int minutes) {
+        return ResponseEntity.ok(usageAccountant.getRecentWindows(Math.min(minutes, USAGE_WINDOW_MINUTES)));
+    }
+}
@@ -1,6 +1,7 @@
 package org.example.api.service;
 
 import org.example.client.NovaSonicClient;
+import org.example.client.StreamSetupPolicy;
 import org.example.handler.NovaSonicEventHandler;
 import static org.example.constants.NovaSonicConstants.*;
 import org.slf4j.Logger;
@@ -17,6 +18,9 @@ public class TranscriptionService {
     
     @Autowired
     private NovaSonicEventHandler eventHandler;
+
+    @Autowired
+    private StreamSetupPolicy streamSetupPolicy;
     
     /**
      * Creates a new NovaSonic client for WebSocket streaming.
@@ -56,8 +60,8 @@ public class TranscriptionService {
      */
     public NovaSonicClient createStreamingClient(int maxTokens, double topP, double topT, String systemPrompt, String language, boolean useFeminineVoice) {
         try {
-            NovaSonicClient client = new NovaSonicClient(maxTokens, topP, topT, systemPrompt, language, useFeminineVoice, eventHandler);
-            client.initializeSession(DEFAULT_AUDIO_FORMAT);
+            NovaSonicClient client = new NovaSonicClient(maxTokens, topP, topT, systemPrompt, language, useFeminineVoice, eventHandler, streamSetupPolicy);
+            client.initializeSession(DEFAULT_AUDIO_FORMAT).join();
             return client;
         } catch (Exception e) {
             logger.error("Error creating streaming client: {}", e.getMessage());
@@ -0,0 +1,87 @@
+package org.example.client;
+
+import org.example.config.NovaSonicProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import software.amazon.awssdk.auth.credentials.AwsCredentialsProvider;
+import software.amazon.awssdk.auth.credentials.DefaultCredentialsProvider;
+import software.amazon.awssdk.http.Protocol;
+import software.amazon.awssdk.http.ProtocolNegotiation;
+import software.amazon.awssdk.http.nio.netty.NettyNioAsyncHttpClient;
+import software.amazon.awssdk.http.nio.netty.SdkEventLoopGroup;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.bedrockruntime.BedrockRuntimeAsyncClient;
+import software.amazon.awssdk.services.bedrockruntime.BedrockRuntimeAsyncClientBuilder;
+
+import jakarta.annotation.PreDestroy;
+import java.net.URI;
+import java.time.Duration;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Creates the Bedrock runtime clients that {@link org.example.routing.RegionRouter} pools per
+ * endpoint. All clients share one Netty event loop group, so adding endpoints or pooled clients does
+ * not add I/O threads. In {@code fake} mode it returns an in-process {@link FakeBedrockRuntimeClient}
+ * so sessions can run without AWS.
+ */
+@Component
+public class BedrockClientFactory {
+    private static final Logger logger = LoggerFactory.getLogger(BedrockClientFactory.class);
+    private final NovaSonicProperties.Bedrock settings;
+    private SdkEventLoopGroup eventLoopGroup;
+
+    public BedrockClientFactory(NovaSonicProperties properties) {
+        this.settings = properties.getBedrock();
+        if (settings.isFake()) {
+            logger.warn("Using the in-process fake Bedrock stream; no requests will reach Amazon Bedrock");
+        }
+    }
+
+    public boolean isFake() {
+        return settings.isFake();
+    }
+
+    /**
+     * Creates and configures a Bedrock client for one endpoint with optimized settings.
+     */
+    public BedrockRuntimeAsyncClient create(NovaSonicProperties.Routing.Endpoint endpoint) {
+        if (settings.isFake()) {
+            return new FakeBedrockRuntimeClient(settings, endpoint);
+        }
+
+        AwsCredentialsProvider credentialsProvider = DefaultCredentialsProvider.create();
+        // Configure Netty HTTP client with proper timeouts and protocol settings
+        NettyNioAsyncHttpClient.Builder nettyBuilder = NettyNioAsyncHttpClient.builder()
+                .eventLoopGroup(sharedEventLoopGroup())
+                .readTimeout(Duration.of(180, ChronoUnit.SECONDS))
+                .maxConcurrency(100)
+                .protocol(Protocol.HTTP2)
+                .protocolNegotiation(ProtocolNegotiation.ALPN);
+
+        // Create and configure Bedrock client
+        BedrockRuntimeAsyncClientBuilder builder = BedrockRuntimeAsyncClient.builder()
+                .region(Region.of(endpoint.getRegion()))
+                .httpClient(nettyBuilder.build())
+                .credentialsProvider(credentialsProvider);
+        if (endpoint.getEndpointOverride() != null) {
+            builder.endpointOverride(URI.create(endpoint.getEndpointOverride()));
+        }
+        return builder.build();
+    }
+
+    @PreDestroy
+    public synchronized void shutdown() {
+        if (eventLoopGroup != null) {
+            eventLoopGroup.eventLoopGroup().shutdownGracefully();
+            eventLoopGroup = null;
+        }
+    }
+
+    private synchronized SdkEventLoopGroup sharedEventLoopGroup() {
+        if (eventLoopGroup == null) {
+            eventLoopGroup = SdkEventLoopGroup.builder().build();
+        }
+        return eventLoopGroup;
+    }
+}
@@ -0,0 +1,330 @@
+package org.example.client;
+
+import io.reactivex.rxjava3.processors.FlowableProcessor;
+import io.reactivex.rxjava3.processors.UnicastProcessor;
+import org.example.config.NovaSonicProperties;
+import org.json.JSONObject;
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import software.amazon.awssdk.core.SdkBytes;
+import software.amazon.awssdk.core.async.SdkPublisher;
+import software.amazon.awssdk.services.bedrockruntime.BedrockRuntimeAsyncClient;
+import software.amazon.awssdk.services.bedrockruntime.model.BidirectionalInputPayloadPart;
+import software.amazon.awssdk.services.bedrockruntime.model.InvokeModelWithBidirectionalStreamInput;
+import software.amazon.awssdk.services.bedrockruntime.model.InvokeModelWithBidirectionalStreamOutput;
+import software.amazon.awssdk.services.bedrockruntime.model.InvokeModelWithBidirectionalStreamRequest;
+import software.amazon.awssdk.services.bedrockruntime.model.InvokeModelWithBidirectionalStreamResponse;
+import software.amazon.awssdk.services.bedrockruntime.model.InvokeModelWithBidirectionalStreamResponseHandler;
+import software.amazon.awssdk.services.bedrockruntime.model.ServiceUnavailableException;
+import software.amazon.awssdk.services.bedrockruntime.model.ThrottlingException;
+
+import java.util.Base64;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static org.example.constants.NovaSonicConstants.*;
+
+/**
+ * In-process stand-in for the Nova Sonic bidirectional stream. It consumes the same input events
+ * as Bedrock and answers every user turn (a configurable amount of input audio) with a scripted
+ * exchange: user transcript, optional tool use, speculative and final assistant text, assistant
+ * audio and a usage event. Used for local development and load testing without AWS credentials.
+ * Stream creation can be made to fail with throttling or 5xx errors at configurable rates, to
+ * exercise retries and the circuit breaker, and each routing endpoint can add its own latency and
+ * failure rate, so several fake endpoints stand in for regions of different distance and health.
+ */
+public class FakeBedrockRuntimeClient implements BedrockRuntimeAsyncClient {
+    private static final Logger logger = LoggerFactory.getLogger(FakeBedrockRuntimeClient.class);
+    private static final ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(2, r -> {
+        Thread thread = new Thread(r, "fake-bedrock-stream");
+        thread.setDaemon(true);
+        return thread;
+    });
+    // 100 ms of 16-bit mono silence, per output sample rate
+    private static final Map<Integer, String> SILENCE_CHUNKS = new ConcurrentHashMap<>();
+    // Input events requested ahead, like the HTTP/2 flow-control window of the real stream
+    private static final int INPUT_WINDOW = 32;
+
+    private final NovaSonicProperties.Bedrock settings;
+    private final NovaSonicProperties.Routing.Endpoint endpoint;
+
+    public FakeBedrockRuntimeClient(NovaSonicProperties.Bedrock settings, NovaSonicProperties.Routing.Endpoint endpoint) {
+        this.settings = settings;
+        this.endpoint = endpoint;
+    }
+
+    @Override
+    public String serviceName() {
+        return SERVICE_NAME;
+    }
+
+    @Override
+    public void close() {
+        // Nothing to release
+    }
+
+    @Override
+    public CompletableFuture<Void> invokeModelWithBidirectionalStream(
+            InvokeModelWithBidirectionalStreamRequest request,
+            Publisher<InvokeModelWithBidirectionalStreamInput> input,
+            InvokeModelWithBidirectionalStreamResponseHandler responseHandler) {
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        RuntimeException injectedFailure = injectedFailure();
+        if (injectedFailure != null) {
+            // Like a rejected HTTP/2 request: no response, the input is cancelled and the stream fails
+            input.subscribe(new CancellingSubscriber());
+            scheduler.schedule(() -> {
+                responseHandler.exceptionOccurred(injectedFailure);
+                future.completeExceptionally(injectedFailure);
+            }, settings.getFakeFailureDelay().toMillis() + latencyMillis(), TimeUnit.MILLISECONDS);
+            return future;
+        }
+
+        FakeConversation conversation = new FakeConversation(responseHandler, future);
+        Runnable establish = () -> {
+            responseHandler.responseReceived(InvokeModelWithBidirectionalStreamResponse.builder().build());
+            responseHandler.onEventStream(SdkPublisher.adapt(conversation.output));
+            input.subscribe(conversation);
+        };
+        if (latencyMillis() > 0) {
+            scheduler.schedule(establish, latencyMillis(), TimeUnit.MILLISECONDS);
+        } else {
+            establish.run();
+        }
+        return future;
+    }
+
+    private RuntimeException injectedFailure() {
+        double roll = ThreadLocalRandom.current().nextDouble();
+        if (roll < settings.getFakeThrottleRate()) {
+            return ThrottlingException.builder().message("Fake stream throttled the request").statusCode(429).build();
+        }
+        if (roll < settings.getFakeThrottleRate() + settings.getFakeServerErrorRate()
+                || ThreadLocalRandom.current().nextDouble() < endpoint.getFakeFailureRate()) {
+            return ServiceUnavailableException.builder()
+                    .message("Fake endpoint " + endpoint.getName() + " is unavailable").statusCode(503).build();
+        }
+        return null;
+    }
+
+    private long latencyMillis() {
+        return endpoint.getFakeLatency().toMillis();
+    }
+
+    private long responseDelayMillis() {
+        return settings.getFakeResponseDelay().toMillis() + latencyMillis();
+    }
+
+    private static class CancellingSubscriber implements Subscriber<InvokeModelWithBidirectionalStreamInput> {
+        @Override
+        public void onSubscribe(Subscription subscription) {
+            subscription.cancel();
+        }
+
+        @Override
+        public void onNext(InvokeModelWithBidirectionalStreamInput item) {
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+        }
+
+        @Override
+        public void onComplete() {
+        }
+    }
+
+    /**
+     * Scripted model side of one stream. Output events are delivered without holding this
+     * conversation's lock: the response handler may send input from inside a delivery (a tool result),
+     * and the input side calls into this conversation while holding the client's lock.
+     */
+    private class FakeConversation implements Subscriber<InvokeModelWithBidirectionalStreamInput> {
+        private final FlowableProcessor<InvokeModelWithBidirectionalStreamOutput> output =
+                UnicastProcessor.<InvokeModelWithBidirectionalStreamOutput>create().toSerialized();
+        private final InvokeModelWithBidirectionalStreamResponseHandler responseHandler;
+        private final CompletableFuture<Void> future;
+        private Subscription subscription;
+
+        private String promptName = "prompt";
+        private String toolName;
+        private int inputBytesPerSecond = (int) (DEFAULT_AUDIO_FORMAT.getFrameRate() * DEFAULT_AUDIO_FORMAT.getFrameSize());
+        private int outputSampleRate = OUTPUT_AUDIO_SAMPLE_RATE;
+        private long turnAudioBytes;
+        private int turn;
+        private boolean responding;
+        private volatile boolean completed;
+
+        FakeConversation(InvokeModelWithBidirectionalStreamResponseHandler responseHandler, CompletableFuture<Void> future) {
+            this.responseHandler = responseHandler;
+            this.future = future;
+        }
+
+        @Override
+        public void onSubscribe(Subscription subscription) {
+            this.subscription = subscription;
+            subscription.request(INPUT_WINDOW);
+        }
+
+        @Override
+        public void onNext(InvokeModelWithBidirectionalStreamInput item) {
+            try {
+                handleInput(item);
+            } finally {
+                subscription.request(1);
+            }
+        }
+
+        private void handleInput(InvokeModelWithBidirectionalStreamInput item) {
+            JSONObject event;
+            try {
+                event = new JSONObject(((BidirectionalInputPayloadPart) item).bytes().asUtf8String()).getJSONObject(EVENT_KEY);
+            } catch (Exception e) {
+                logger.warn("Fake stream ignoring unparseable input: {}", e.getMessage());
+                return;
+            }
+
+            if (event.has("promptStart")) {
+                JSONObject promptStart = event.getJSONObject("promptStart");
+                promptName = promptStart.optString("promptName", promptName);
+                JSONObject audioOutputConfiguration = promptStart.optJSONObject("audioOutputConfiguration");
+                if (audioOutputConfiguration != null) {
+                    outputSampleRate = audioOutputConfiguration.optInt("sampleRateHertz", OUTPUT_AUDIO_SAMPLE_RATE);
+                }
+                JSONObject toolConfiguration = promptStart.optJSONObject("toolConfiguration");
+                if (toolConfiguration != null && !toolConfiguration.getJSONArray("tools").isEmpty()) {
+                    toolName = toolConfiguration.getJSONArray("tools").getJSONObject(0)
+                            .getJSONObject("toolSpec").getString("name");
+                }
+            } else if (event.has(CONTENT_START)) {
+                JSONObject audioConfig = event.getJSONObject(CONTENT_START).optJSONObject("audioInputConfiguration");
+                if (audioConfig != null) {
+                    inputBytesPerSecond = audioConfig.optInt("sampleRateHertz", 16000) * audioConfig.optInt("sampleSizeBits", 16) / 8;
+                }
+            } else if (event.has("audioInput")) {
+                onAudioInput(event.getJSONObject("audioInput").optString("content").length() / 4L * 3L);
+            } else if (event.has("toolResult")) {
+                logger.debug("Fake stream received tool result: {}", event.getJSONObject("toolResult").optString("content"));
+                scheduler.schedule(() -> sendAssistantResponse(turn), responseDelayMillis(), TimeUnit.MILLISECONDS);
+            } else if (event.has("sessionEnd")) {
+                complete();
+            }
+        }
+
+        private synchronized void onAudioInput(long bytes) {
+            if (responding) {
+                return;
+            }
+            turnAudioBytes += bytes;
+            if (turnAudioBytes >= settings.getFakeTurnAudio().toMillis() * inputBytesPerSecond / 1000) {
+                turnAudioBytes = 0;
+                responding = true;
+                int currentTurn = ++turn;
+                scheduler.schedule(() -> sendUserTurn(currentTurn), responseDelayMillis(), TimeUnit.MILLISECONDS);
+            }
+        }
+
+        private void sendUserTurn(int currentTurn) {
+            sendText("USER", "FINAL", "This is fake user turn " + currentTurn);
+            if (toolName != null) {
+                String contentId = UUID.randomUUID().toString();
+                emit(CONTENT_START, new JSONObject().put("contentId", contentId).put("type", TOOL_CONTENT_TYPE).put("role", "TOOL"));
+                emit(TOOL_USE, new JSONObject()
+                        .put("contentId", contentId)
+                        .put("toolUseId", UUID.randomUUID().toString())
+                        .put("toolName", toolName)
+                        .put("role", "TOOL")
+                        .put("content", new JSONObject().put("orderId", "fake-" + currentTurn % 3).toString()));
+                emit(CONTENT_END, new JSONObject().put("contentId", contentId).put("type", TOOL_CONTENT_TYPE).put("stopReason", "TOOL_USE"));
+            } else {
+                sendAssistantResponse(currentTurn);
+            }
+        }
+
+        private void sendAssistantResponse(int currentTurn) {
+            String reply = "This is fake assistant reply " + currentTurn;
+            sendText("ASSISTANT", "SPECULATIVE", reply);
+
+            String audioContentId = UUID.randomUUID().toString();
+            emit(CONTENT_START, new JSONObject().put("contentId", audioContentId).put("type", "AUDIO").put("role", "ASSISTANT"));
+            String silenceChunk = SILENCE_CHUNKS.computeIfAbsent(outputSampleRate, rate ->
+                    Base64.getEncoder().encodeToString(new byte[rate * OUTPUT_AUDIO_SAMPLE_SIZE_IN_BITS / 8 / 10]));
+            for (int i = 0; i < settings.getFakeResponseAudioChunks(); i++) {
+                emit(AUDIO_OUTPUT, new JSONObject().put("contentId", audioContentId).put("role", "ASSISTANT").put(CONTENT_KEY, silenceChunk));
+            }
+            emit(CONTENT_END, new JSONObject().put("contentId", audioContentId).put("type", "AUDIO").put("stopReason", "END_TURN"));
+
+            // Input audio counts towards the next turn from here on, so a caller that starts speaking
+            // as soon as it sees the final transcript is not ignored
+            synchronized (this) {
+                responding = false;
+            }
+            sendText("ASSISTANT", "FINAL", reply);
+            JSONObject delta = new JSONObject()
+                    .put("input", new JSONObject().put("speechTokens", 50).put("textTokens", 0))
+                    .put("output", new JSONObject().put("speechTokens", 40).put("textTokens", 10));
+            emit(USAGE_EVENT, new JSONObject().put("details", new JSONObject().put("delta", delta)));
+        }
+
+        private void sendText(String role, String generationStage, String text) {
+            String contentId = UUID.randomUUID().toString();
+            emit(CONTENT_START, new JSONObject()
+                    .put("contentId", contentId)
+                    .put("type", "TEXT")
+                    .put(ROLE_KEY, role)
+                    .put("additionalModelFields", new JSONObject().put("generationStage", generationStage).toString()));
+            emit(TEXT_OUTPUT, new JSONObject().put("contentId", contentId).put(ROLE_KEY, role).put(CONTENT_KEY, text));
+            emit(CONTENT_END, new JSONObject().put("contentId", contentId).put("type", "TEXT").put("stopReason", "END_TURN"));
+        }
+
+        private void emit(String eventType, JSONObject body) {
+            if (completed) {
+                return;
+            }
+            body.put("promptName", promptName);
+            String payload = new JSONObject().put(EVENT_KEY, new JSONObject().put(eventType, body)).toString();
+            output.onNext(InvokeModelWithBidirectionalStreamOutput.chunkBuilder()
+                    .bytes(SdkBytes.fromUtf8String(payload))
+                    .build());
+        }
+
+        private void complete() {
+            synchronized (this) {
+                if (completed) {
+                    return;
+                }
+                completed = true;
+            }
+            output.onComplete();
+            responseHandler.complete();
+            future.complete(null);
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            synchronized (this) {
+                if (completed) {
+                    return;
+                }
+                completed = true;
+            }
+            output.onError(throwable);
+            responseHandler.exceptionOccurred(throwable);
+            future.completeExceptionally(throwable);
+        }
+
+        @Override
+        public void onComplete() {
+            complete();
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package org.example.client;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import static org.example.constants.NovaSonicConstants.REPLAY_PROCESSOR_EXPIRY_TIME;
+import static org.example.constants.NovaSonicConstants.REPLAY_PROCESSOR_EXPIRY_UNIT;
+
+/**
+ * Approximate bytes of input events a stream's replay processor still holds: events are kept for
+ * the processor's expiry time, so this sums the bytes sent within that time, in coarse buckets.
+ * Written under the client's send lock; read without it.
+ */
+class InputRetention {
+    private static final long BUCKET_NANOS = TimeUnit.SECONDS.toNanos(10);
+    private static final int BUCKETS =
+            (int) (REPLAY_PROCESSOR_EXPIRY_UNIT.toNanos(REPLAY_PROCESSOR_EXPIRY_TIME) / BUCKET_NANOS) + 1;
+
+    private final AtomicLongArray bytes = new AtomicLongArray(BUCKETS);
+    private final AtomicLongArray epochs = new AtomicLongArray(BUCKETS);
+
+    InputRetention() {
+        reset();
+    }
+
+    void add(int eventBytes) {
+        long epoch = System.nanoTime() / BUCKET_NANOS;
+        int index = (int) Math.floorMod(epoch, (long) BUCKETS);
+        if (epochs.get(index) != epoch) {
+            bytes.set(index, 0);
+            epochs.set(index, epoch);
+        }
+        bytes.addAndGet(index, eventBytes);
+    }
+
+    long getBytes() {
+        long oldest = System.nanoTime() / BUCKET_NANOS - BUCKETS + 1;
+        long total = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            if (epochs.get(i) >= oldest) {
+                total += bytes.get(i);
+            }
+        }
+        return total;
+    }
+
+    void reset() {
+        for (int i = 0; i < BUCKETS; i++) {
+            bytes.set(i, 0);
+            epochs.set(i, Long.MIN_VALUE);
+        }
+    }
+}
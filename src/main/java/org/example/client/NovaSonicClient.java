@@ -1,19 +1,33 @@
 package org.example.client;
 
+import io.reactivex.rxjava3.core.Flowable;
+import io.reactivex.rxjava3.processors.FlowableProcessor;
 import io.reactivex.rxjava3.processors.ReplayProcessor;
+import io.reactivex.rxjava3.processors.UnicastProcessor;
 import io.reactivex.rxjava3.schedulers.Schedulers;
 import org.example.handler.NovaSonicEventHandler;
 import org.example.handler.NovaSonicResponseHandler;
+import org.example.handler.NovaSonicEventHandler.WebSocketMessageSender;
+import org.example.jfr.AudioChunkSentEvent;
+import org.example.jfr.GenerationStageEvent;
+import org.example.recording.SessionRecording;
+import org.example.routing.RegionEndpoint;
+import org.example.session.ConversationHistory;
+import org.example.session.SessionActivity;
+import org.example.tool.PendingToolUse;
+import org.reactivestreams.Publisher;
+import org.example.util.Base64PcmDecimator;
 import org.example.util.NovaSonicMessageUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import software.amazon.awssdk.auth.credentials.AwsCredentialsProvider;
-import software.amazon.awssdk.auth.credentials.DefaultCredentialsProvider;
 import software.amazon.awssdk.core.SdkBytes;
-import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.core.async.SdkPublisher;
 import software.amazon.awssdk.services.bedrockruntime.BedrockRuntimeAsyncClient;
+import software.amazon.awssdk.services.bedrockruntime.model.BidirectionalInputPayloadPart;
+import software.amazon.awssdk.services.bedrockruntime.model.BidirectionalOutputPayloadPart;
 import software.amazon.awssdk.services.bedrockruntime.model.InvokeModelWithBidirectionalStreamInput;
+import software.amazon.awssdk.services.bedrockruntime.model.InvokeModelWithBidirectionalStreamOutput;
 import software.amazon.awssdk.services.bedrockruntime.model.InvokeModelWithBidirectionalStreamRequest;
 
 import javax.sound.sampled.AudioFormat;
@@ -21,12 +35,11 @@ import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.Base64;
 import java.util.List;
+import java.util.Objects;
 import java.util.UUID;
-import java.time.Duration;
-import java.time.temporal.ChronoUnit;
-import software.amazon.awssdk.http.nio.netty.NettyNioAsyncHttpClient;
-import software.amazon.awssdk.http.Protocol;
-import software.amazon.awssdk.http.ProtocolNegotiation;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
 
 import static org.example.constants.NovaSonicConstants.*;
 
@@ -37,7 +50,8 @@ public class NovaSonicClient implements AutoCloseable {
     private static final Logger logger = LoggerFactory.getLogger(NovaSonicClient.class);
 
     private String sessionId;
-    private BedrockRuntimeAsyncClient bedrockClient;
+    // Endpoint the current stream was opened on; its pooled clients are owned by the router
+    private volatile RegionEndpoint endpoint;
     private final String promptName;
     private final String audioContentName;
     private final String systemContentName;
@@ -47,19 +61,41 @@ public class NovaSonicClient implements AutoCloseable {
     private final String systemPrompt;
     private final String language;
     private final boolean useFeminineVoice;
+    private final String voiceId;
     private final List<String> transcripts;
     private final NovaSonicEventHandler eventHandler;
+    private final StreamSetupPolicy streamSetupPolicy;
+    private final AtomicReference<PendingToolUse> pendingToolUse = new AtomicReference<>();
 
     private boolean onCompleteCalled = false;
     private boolean audioContentStarted = false;
+    private volatile String generationStage;
+    // Open while a generation stage is traced; stages are only set from the stream's event thread
+    private GenerationStageEvent generationStageEvent;
+    private volatile WebSocketMessageSender messageSender;
+    private volatile SessionRecording recording;
+    private volatile SessionActivity activity;
+    // Earlier turns replayed after the system prompt, for a session that reopens its stream
+    private volatile List<ConversationHistory.Turn> history = List.of();
+    private volatile OutputAudioRate outputAudioRate = OutputAudioRate.DEFAULT;
+    // Only used on the thread that handles the stream's output
+    private volatile Base64PcmDecimator outputDecimator;
+    // Input events put on the current stream's publisher, counted under the send lock, and taken from it by the
+    // stream, counted on the SDK's thread
+    private volatile long inputsPublished;
+    private final AtomicLong inputsDelivered = new AtomicLong();
+    private final InputRetention inputRetention = new InputRetention();
+    // Pull mode: completes with the established stream's output
+    private volatile CompletableFuture<?> streamSetup;
 
     // Bidirectional stream publisher
-    private ReplayProcessor<InvokeModelWithBidirectionalStreamInput> publisher;
+    private FlowableProcessor<InvokeModelWithBidirectionalStreamInput> publisher;
 
     /**
      * Creates a new Nova Sonic client with custom configuration.
      */
-    public NovaSonicClient(int maxTokens, double topP, double topT, String systemPrompt, String language, boolean useFeminineVoice, NovaSonicEventHandler eventHandler) {
+    public NovaSonicClient(int maxTokens, double topP, double topT, String systemPrompt, String language, boolean useFeminineVoice,
+                           NovaSonicEventHandler eventHandler, StreamSetupPolicy streamSetupPolicy) {
         logger.info("Creating client using maxtokens; {}, topP: {}, topT: {}, systemPrompt: {}, language: {}, useFeminineVoice: {}", maxTokens, topP, topT, systemPrompt, language, useFeminineVoice);
         this.maxTokens = maxTokens;
         this.topP = topP;
@@ -67,6 +103,7 @@ public class NovaSonicClient implements AutoCloseable {
         this.systemPrompt = systemPrompt;
         this.language = language != null ? language : "en-US";
         this.useFeminineVoice = useFeminineVoice;
+        this.voiceId = NovaSonicMessageUtil.getVoiceId(this.language, useFeminineVoice);
 
         // Generate unique IDs
         this.promptName = "prompt-" + UUID.randomUUID();
@@ -74,32 +111,17 @@ public class NovaSonicClient implements AutoCloseable {
         this.systemContentName = "system-" + UUID.randomUUID();
         this.transcripts = new ArrayList<>();
         this.eventHandler = eventHandler;
+        this.streamSetupPolicy = streamSetupPolicy;
     }
 
     /**
-     * Creates and configures the Bedrock client with optimized settings.
+     * Initializes the streaming session. The stream is opened under the {@link StreamSetupPolicy}, on
+     * the endpoint the router picks, so throttled and transient failures are retried, on another
+     * endpoint where possible, before the returned future fails.
+     *
+     * @return A future completed once the stream is established, or exceptionally with {@link StreamSetupException}
      */
-    private BedrockRuntimeAsyncClient createBedrockClient() {
-        AwsCredentialsProvider credentialsProvider = DefaultCredentialsProvider.create();
-        // Configure Netty HTTP client with proper timeouts and protocol settings
-        NettyNioAsyncHttpClient.Builder nettyBuilder = NettyNioAsyncHttpClient.builder()
-                .readTimeout(Duration.of(180, ChronoUnit.SECONDS))
-                .maxConcurrency(100)
-                .protocol(Protocol.HTTP2)
-                .protocolNegotiation(ProtocolNegotiation.ALPN);
-
-        // Create and configure Bedrock client
-        return BedrockRuntimeAsyncClient.builder()
-                .region(Region.of(NOVA_SONIC_REGION))
-                .httpClient(nettyBuilder.build())
-                .credentialsProvider(credentialsProvider)
-                .build();
-    }
-
-    /**
-     * Initializes the streaming session.
-     */
-    public void initializeSession(final AudioFormat audioFormat) {
+    public CompletableFuture<Void> initializeSession(final AudioFormat audioFormat) {
         try {
             // Initialize state atomically
             synchronized(this) {
@@ -109,38 +131,195 @@ public class NovaSonicClient implements AutoCloseable {
                 this.onCompleteCalled = false;
                 this.audioContentStarted = false;
             }
+        } catch (Exception e) {
+            handleError("Failed to initialize session: " + e.getMessage());
+            throw e; // Propagate error for proper handling
+        }
 
-            // Create new Bedrock client for this session
-            this.bedrockClient = createBedrockClient();
+        return streamSetupPolicy
+                .execute(sessionId, endpoint -> openStream(endpoint, audioFormat))
+                .thenRun(() -> audioContentStarted = true);
+    }
 
-            // Create ReplayProcessor with time-based expiry
-            this.publisher = ReplayProcessor.createWithTime(
-                    REPLAY_PROCESSOR_EXPIRY_TIME,
-                    REPLAY_PROCESSOR_EXPIRY_UNIT,
-                    Schedulers.io()
-            );
+    /**
+     * One stream creation attempt for {@link #initializeSession(AudioFormat)}. Each attempt gets its
+     * own publisher, so a retried stream starts from the setup events rather than a half-sent one.
+     */
+    private CompletableFuture<Void> openStream(RegionEndpoint endpoint, AudioFormat audioFormat) {
+        if (onCompleteCalled) {
+            // Closed while waiting to retry
+            throw new IllegalStateException("Session already completed");
+        }
+        BedrockRuntimeAsyncClient attemptClient = useEndpoint(endpoint);
+        // Create ReplayProcessor with time-based expiry
+        FlowableProcessor<InvokeModelWithBidirectionalStreamInput> attemptPublisher = ReplayProcessor.createWithTime(
+                REPLAY_PROCESSOR_EXPIRY_TIME,
+                REPLAY_PROCESSOR_EXPIRY_UNIT,
+                Schedulers.io()
+        );
+        synchronized (this) {
+            this.publisher = attemptPublisher;
+            resetInputCounts();
+        }
 
-            // Set this client instance in the event handler
-            eventHandler.setNovaSonicClient(this);
-            NovaSonicResponseHandler responseHandler = new NovaSonicResponseHandler(eventHandler);
+        // Route events from this stream back to this client's session
+        NovaSonicResponseHandler responseHandler = new NovaSonicResponseHandler(eventHandler, this);
+        CompletableFuture<Void> established = responseHandler.getEstablished();
 
-            // Create stream request
-            var streamRequest = InvokeModelWithBidirectionalStreamRequest.builder()
-                    .modelId(NOVA_SONIC_MODEL_ID)
-                    .build();
+        // Create stream request
+        var streamRequest = InvokeModelWithBidirectionalStreamRequest.builder()
+                .modelId(NOVA_SONIC_MODEL_ID)
+                .build();
 
-            // Initiate bidirectional stream
-            var completableFuture = bedrockClient.invokeModelWithBidirectionalStream(
-                    streamRequest, publisher, responseHandler);
+        // Initiate bidirectional stream
+        var completableFuture = attemptClient.invokeModelWithBidirectionalStream(
+                streamRequest, attemptPublisher.doOnNext(this::onInputDelivered), responseHandler);
 
-            // Handle completion and errors properly
-            completableFuture.exceptionally(throwable -> {
-                publisher.onError(throwable);
+        // Handle completion and errors properly
+        completableFuture.exceptionally(throwable -> {
+            terminate(attemptPublisher, throwable);
+            if (!established.completeExceptionally(throwable) && !established.isCompletedExceptionally()) {
                 handleError("Error in bidirectional stream: " + throwable.getMessage());
-                return null;
-            });
+                reportStreamFailure(throwable);
+            }
+            return null;
+        });
+        // A setup attempt that fails or times out must not leave its input stream open
+        established.whenComplete((ignored, throwable) -> {
+            if (throwable != null) {
+                terminate(attemptPublisher, throwable);
+            }
+        });
+
+        // Send SessionStart, configuration and audio content start events
+        buildSetupMessages(audioFormat).forEach(this::sendMessageThroughStream);
+        return established;
+    }
+
+    /**
+     * Initializes a streaming session whose audio is pulled from {@code audioInput} instead of being
+     * pushed through {@link #sendAudioChunk}. Bedrock requests audio only as fast as its stream window
+     * allows, so demand propagates back to the audio source, and the returned output is only pulled
+     * from Bedrock as fast as its subscriber requests it. The session completes when the audio completes.
+     * Stream creation is retried like {@link #initializeSession(AudioFormat)}; audio is only subscribed
+     * once a stream is established, and a setup failure is signalled as a {@link StreamSetupException}.
+     *
+     * @param audioFormat The format of the audio input
+     * @param audioInput Raw PCM audio chunks
+     * @return The raw Bedrock output event payloads
+     */
+    public Flowable<String> initializeSession(final AudioFormat audioFormat, final Publisher<ByteBuffer> audioInput) {
+        synchronized(this) {
+            if (this.onCompleteCalled) {
+                throw new IllegalStateException("Session already completed");
+            }
+        }
+
+        this.audioContentStarted = true;
+
+        Flowable<InvokeModelWithBidirectionalStreamInput> audioEvents = Flowable.fromPublisher(audioInput)
+                .takeWhile(audio -> !onCompleteCalled)
+                .map(this::toTracedAudioInputEvent)
+                .doOnComplete(this::completeSession);
+
+        CompletableFuture<SdkPublisher<InvokeModelWithBidirectionalStreamOutput>> eventStream = streamSetupPolicy
+                .execute(sessionId, endpoint -> openPullStream(endpoint, audioFormat, audioEvents));
+        streamSetup = eventStream;
+
+        return Flowable.fromCompletionStage(eventStream)
+                .concatMap(Flowable::fromPublisher)
+                .ofType(BidirectionalOutputPayloadPart.class)
+                .map(NovaSonicResponseHandler::decodePayload);
+    }
 
-            // Send SessionStart event as the first message
+    /**
+     * One stream creation attempt for the pull-mode session. The audio source can only be subscribed
+     * once, so an attempt only subscribes it after it has been established.
+     */
+    private CompletableFuture<SdkPublisher<InvokeModelWithBidirectionalStreamOutput>> openPullStream(
+            RegionEndpoint endpoint, AudioFormat audioFormat, Flowable<InvokeModelWithBidirectionalStreamInput> audioEvents) {
+        if (onCompleteCalled) {
+            // Closed while waiting to retry
+            throw new IllegalStateException("Session already completed");
+        }
+        BedrockRuntimeAsyncClient attemptClient = useEndpoint(endpoint);
+        // Only control events (tool results, session end) go through the processor; it is tiny
+        FlowableProcessor<InvokeModelWithBidirectionalStreamInput> attemptPublisher =
+                UnicastProcessor.<InvokeModelWithBidirectionalStreamInput>create().toSerialized();
+        synchronized (this) {
+            this.publisher = attemptPublisher;
+            resetInputCounts();
+        }
+
+        CompletableFuture<SdkPublisher<InvokeModelWithBidirectionalStreamOutput>> eventStream = new CompletableFuture<>();
+        Flowable<InvokeModelWithBidirectionalStreamInput> gatedAudio = Flowable.fromCompletionStage(eventStream)
+                .concatMap(established -> audioEvents);
+        Flowable<InvokeModelWithBidirectionalStreamInput> input = Flowable.fromIterable(buildSetupMessages(audioFormat))
+                .map(this::toRecordedInputEvent)
+                .concatWith(Flowable.merge(gatedAudio, attemptPublisher.doOnNext(this::onInputDelivered)));
+
+        NovaSonicResponseHandler responseHandler = new NovaSonicResponseHandler(eventHandler, this, eventStream::complete);
+        var streamRequest = InvokeModelWithBidirectionalStreamRequest.builder()
+                .modelId(NOVA_SONIC_MODEL_ID)
+                .build();
+        attemptClient.invokeModelWithBidirectionalStream(streamRequest, input, responseHandler)
+                .whenComplete((result, throwable) -> {
+                    if (throwable != null) {
+                        handleError("Error in bidirectional stream: " + throwable.getMessage());
+                        eventStream.completeExceptionally(throwable);
+                    }
+                });
+        responseHandler.getEstablished().exceptionally(throwable -> {
+            eventStream.completeExceptionally(throwable);
+            return null;
+        });
+        eventStream.whenComplete((ignored, throwable) -> {
+            if (throwable != null) {
+                terminate(attemptPublisher, throwable);
+            }
+        });
+        return eventStream;
+    }
+
+    /**
+     * Points the session at the endpoint an attempt was routed to.
+     *
+     * @return The pooled client the attempt streams through
+     */
+    private BedrockRuntimeAsyncClient useEndpoint(RegionEndpoint endpoint) {
+        this.endpoint = endpoint;
+        logger.info("Opening stream for session {} on endpoint {}", sessionId, endpoint.getName());
+        return endpoint.nextClient();
+    }
+
+    /**
+     * Fails a stream's input so the SDK tears the stream down, unless it already ended.
+     */
+    private static void terminate(FlowableProcessor<InvokeModelWithBidirectionalStreamInput> streamPublisher,
+                                  Throwable throwable) {
+        if (!streamPublisher.hasComplete() && !streamPublisher.hasThrowable()) {
+            streamPublisher.onError(throwable);
+        }
+    }
+
+    /**
+     * Tells the client that an established stream failed, unless the session is already ending.
+     */
+    private void reportStreamFailure(Throwable throwable) {
+        WebSocketMessageSender sender = messageSender;
+        if (!onCompleteCalled && sender != null) {
+            sender.sendError(sessionId, StreamSetupException.from(throwable).toClientMessage());
+        }
+    }
+
+    /**
+     * Builds the events that open the session: session start, prompt start, the system prompt and
+     * the audio content start.
+     */
+    private List<String> buildSetupMessages(AudioFormat audioFormat) {
+        List<String> messages = new ArrayList<>();
+        try {
+            // SessionStart event is the first message
             var sessionStartJson = """
             {
               "event": {
@@ -153,79 +332,131 @@ public class NovaSonicClient implements AutoCloseable {
                 }
               }
             }""".formatted(maxTokens, topP, topT);
-            sendMessageThroughStream(sessionStartJson);
+            messages.add(sessionStartJson);
 
-            // Send remaining configuration messages
-            sendConfigurationMessages();
-            sendAudioContentStartEvent(audioFormat);
+            // Prompt start event
+            String promptConfig = NovaSonicMessageUtil.getPromptStartEvent(
+                    promptName, language, useFeminineVoice, eventHandler.getToolConfiguration(),
+                    outputAudioRate.modelSampleRate());
+            logger.info(promptConfig);
+            logger.info("language: {}", language);
+            messages.add(promptConfig);
+
+            // System prompt content start, text and content end
+            messages.add(NovaSonicMessageUtil.getSystemPromptContentStart(promptName, systemContentName));
+            messages.add(NovaSonicMessageUtil.getSystemTextInput(promptName, systemContentName, this.systemPrompt));
+            messages.add(NovaSonicMessageUtil.getContentEndEvent(promptName, systemContentName));
+
+            // Conversation so far, if the session is resuming one
+            for (ConversationHistory.Turn turn : history) {
+                String historyContentName = "history-" + UUID.randomUUID();
+                messages.add(NovaSonicMessageUtil.getHistoryContentStart(promptName, historyContentName, turn.role()));
+                messages.add(NovaSonicMessageUtil.getTextInputEvent(promptName, historyContentName, turn.text()));
+                messages.add(NovaSonicMessageUtil.getContentEndEvent(promptName, historyContentName));
+            }
+
+            // Audio content start event
+            messages.add(NovaSonicMessageUtil.getAudioContentStartEvent(
+                    promptName, audioContentName,
+                    (int) audioFormat.getSampleRate(),
+                    audioFormat.getSampleSizeInBits(),
+                    audioFormat.getChannels()));
         } catch (Exception e) {
-            handleError("Failed to initialize session: " + e.getMessage());
-            throw e; // Propagate error for proper handling
+            handleError("Error building configuration messages: " + e.getMessage());
         }
+        return messages;
+    }
+
+    private InvokeModelWithBidirectionalStreamInput toInputEvent(String message) {
+        return InvokeModelWithBidirectionalStreamInput.chunkBuilder()
+                .bytes(SdkBytes.fromUtf8String(message))
+                .build();
     }
 
     /**
-     * Sends a message through the bidirectional stream.
+     * Converts an event to stream input, recording it first if the session is recorded.
      */
-    private void sendMessageThroughStream(String message) {
-        try {
-            if (publisher == null) {
-                handleError("Publisher is not initialized");
-                return;
-            }
-            logger.debug("Sending data ");
-
-            var input = InvokeModelWithBidirectionalStreamInput.chunkBuilder()
-                    .bytes(SdkBytes.fromUtf8String(message))
-                    .build();
+    private InvokeModelWithBidirectionalStreamInput toRecordedInputEvent(String message) {
+        SessionRecording sessionRecording = recording;
+        if (sessionRecording != null) {
+            sessionRecording.recordInputEvent(message);
+        }
+        return toInputEvent(message);
+    }
 
-            publisher.onNext(input);
-        } catch (Exception e) {
-            handleError("Error sending message through stream: " + e.getMessage());
+    /**
+     * Wraps raw PCM in an audio input event. A recorded session keeps the PCM rather than the base64 event.
+     */
+    private InvokeModelWithBidirectionalStreamInput toAudioInputEvent(byte[] audioData) {
+        SessionRecording sessionRecording = recording;
+        if (sessionRecording != null) {
+            sessionRecording.recordInputAudio(audioData);
         }
+        return toInputEvent(NovaSonicMessageUtil.getAudioInputEvent(
+                promptName, audioContentName, Base64.getEncoder().encodeToString(audioData)));
     }
 
     /**
-     * Sends the configuration messages after SessionStart.
+     * Encodes pull-mode audio. The stream takes the event when it has demand for it, so the
+     * {@link AudioChunkSentEvent} only covers the encoding.
      */
-    private void sendConfigurationMessages() {
-        try {
-            // Send prompt start event
-            String promptConfig = NovaSonicMessageUtil.getPromptStartEvent(promptName, language, useFeminineVoice);
-            logger.info(promptConfig);
-            logger.info("language: {}", language);
-            sendMessageThroughStream(promptConfig);
+    private InvokeModelWithBidirectionalStreamInput toTracedAudioInputEvent(ByteBuffer audioBuffer) {
+        AudioChunkSentEvent event = new AudioChunkSentEvent();
+        event.begin();
+        long encodeStart = event.isEnabled() ? System.nanoTime() : 0;
+        byte[] audioData = toByteArray(audioBuffer);
+        InvokeModelWithBidirectionalStreamInput input = toAudioInputEvent(audioData);
+        long encodeTime = event.isEnabled() ? System.nanoTime() - encodeStart : 0;
+        event.end();
+        if (event.shouldCommit()) {
+            event.sessionId = sessionId;
+            event.bytes = audioData.length;
+            event.encodeTime = encodeTime;
+            event.commit();
+        }
+        return input;
+    }
 
-            // Send system prompt content start if system prompt is provided
-            String systemPromptConfig = NovaSonicMessageUtil.getSystemPromptContentStart(
-                        promptName, systemContentName);
-            sendMessageThroughStream(systemPromptConfig);
+    private static byte[] toByteArray(ByteBuffer audioBuffer) {
+        byte[] audioData = new byte[audioBuffer.remaining()];
+        audioBuffer.get(audioData);
+        return audioData;
+    }
 
-            // Send system text input
-            String systemTextPromptConfig = NovaSonicMessageUtil.getSystemTextInput(
-                    promptName, systemContentName, this.systemPrompt);
-            sendMessageThroughStream(systemTextPromptConfig);
+    /**
+     * Sends a message through the bidirectional stream. Synchronized because tool results are
+     * sent from tool executor threads while audio is sent from WebSocket threads.
+     */
+    private void sendMessageThroughStream(String message) {
+        sendThroughStream(toRecordedInputEvent(message));
+    }
 
-            // Send system content end event
-            String systemContentEnd = NovaSonicMessageUtil.getContentEndEvent(promptName, systemContentName);
-            sendMessageThroughStream(systemContentEnd);
+    private synchronized void sendThroughStream(InvokeModelWithBidirectionalStreamInput event) {
+        try {
+            if (publisher == null) {
+                handleError("Publisher is not initialized");
+                return;
+            }
+            logger.debug("Sending data ");
+            inputsPublished++;
+            if (publisher instanceof ReplayProcessor && event instanceof BidirectionalInputPayloadPart chunk) {
+                inputRetention.add(chunk.bytes().asByteArrayUnsafe().length);
+            }
+            publisher.onNext(event);
         } catch (Exception e) {
-            handleError("Error sending configuration messages: " + e.getMessage());
+            handleError("Error sending message through stream: " + e.getMessage());
         }
     }
 
-    /**
-     * Sends the audio content start event.
-     */
-    private void sendAudioContentStartEvent(AudioFormat audioFormat) {
-        String audioContentStart = NovaSonicMessageUtil.getAudioContentStartEvent(
-            promptName, audioContentName,
-            (int) audioFormat.getSampleRate(),
-            audioFormat.getSampleSizeInBits(),
-            audioFormat.getChannels());
+    private void onInputDelivered(InvokeModelWithBidirectionalStreamInput event) {
+        // The stream takes its input one event at a time
+        inputsDelivered.incrementAndGet();
+    }
 
-        sendMessageThroughStream(audioContentStart);
-        audioContentStarted = true;
+    private void resetInputCounts() {
+        inputsPublished = 0;
+        inputsDelivered.set(0);
+        inputRetention.reset();
     }
 
     /**
@@ -238,23 +469,51 @@ public class NovaSonicClient implements AutoCloseable {
         }
 
         try {
-            // Convert audio buffer to bytes
-            byte[] audioData = new byte[audioBuffer.remaining()];
-            audioBuffer.get(audioData);
-
-            // Encode audio to base64
-            String audioBase64 = Base64.getEncoder().encodeToString(audioData);
-
-            // Create and send audio input event
-            String audioInputEvent = NovaSonicMessageUtil.getAudioInputEvent(
-                    promptName, audioContentName, audioBase64);
-            sendMessageThroughStream(audioInputEvent);
-
+            // Convert audio buffer to bytes, then encode and send it as an audio input event
+            AudioChunkSentEvent event = new AudioChunkSentEvent();
+            event.begin();
+            long encodeStart = event.isEnabled() ? System.nanoTime() : 0;
+            byte[] audioData = toByteArray(audioBuffer);
+            InvokeModelWithBidirectionalStreamInput input = toAudioInputEvent(audioData);
+            long encodeTime = event.isEnabled() ? System.nanoTime() - encodeStart : 0;
+            sendThroughStream(input);
+            event.end();
+            if (event.shouldCommit()) {
+                event.sessionId = sessionId;
+                event.bytes = audioData.length;
+                event.encodeTime = encodeTime;
+                event.commit();
+            }
         } catch (Exception e) {
             handleError("Error sending audio chunk: " + e.getMessage());
         }
     }
 
+    /**
+     * Sends the result of a tool call back to the model as a tool content block.
+     *
+     * @param toolUseId The id of the toolUse event being answered
+     * @param result The tool result JSON
+     */
+    public void sendToolResult(String toolUseId, String result) {
+        if (onCompleteCalled) {
+            logger.debug("Session completed, dropping result for tool use {}", toolUseId);
+            return;
+        }
+        String toolContentName = "tool-" + UUID.randomUUID();
+        sendMessageThroughStream(NovaSonicMessageUtil.getToolContentStartEvent(promptName, toolContentName, toolUseId));
+        sendMessageThroughStream(NovaSonicMessageUtil.getToolResultEvent(promptName, toolContentName, result));
+        sendMessageThroughStream(NovaSonicMessageUtil.getContentEndEvent(promptName, toolContentName));
+    }
+
+    public void setPendingToolUse(PendingToolUse toolUse) {
+        pendingToolUse.set(toolUse);
+    }
+
+    public PendingToolUse takePendingToolUse() {
+        return pendingToolUse.getAndSet(null);
+    }
+
     /**
      * Sends the audio content end event.
      */
@@ -282,6 +541,133 @@ public class NovaSonicClient implements AutoCloseable {
         return sessionId;
     }
 
+    /**
+     * Returns the generation stage (SPECULATIVE or FINAL) of the content block currently being received.
+     */
+    public String getGenerationStage() {
+        return generationStage;
+    }
+
+    public void setGenerationStage(String generationStage) {
+        GenerationStageEvent previous = generationStageEvent;
+        if (previous != null && !Objects.equals(previous.stage, generationStage)) {
+            previous.nextStage = generationStage;
+            previous.commit();
+            generationStageEvent = null;
+        }
+        if (generationStage != null && generationStageEvent == null) {
+            GenerationStageEvent event = new GenerationStageEvent();
+            if (event.isEnabled()) {
+                event.sessionId = sessionId;
+                event.stage = generationStage;
+                event.begin();
+                generationStageEvent = event;
+            }
+        }
+        this.generationStage = generationStage;
+    }
+
+    /**
+     * Recording of this session, or null if it is not recorded.
+     */
+    public SessionRecording getRecording() {
+        return recording;
+    }
+
+    /**
+     * Records the session's audio and events; set before the session is initialized. The recording
+     * is closed with the client.
+     */
+    public void setRecording(SessionRecording recording) {
+        this.recording = recording;
+    }
+
+    /**
+     * Activity counters of the voice session this client serves, or null outside a voice session.
+     */
+    public SessionActivity getActivity() {
+        return activity;
+    }
+
+    public void setActivity(SessionActivity activity) {
+        this.activity = activity;
+    }
+
+    /**
+     * Seeds the stream with an earlier conversation; set before the session is initialized.
+     */
+    public void setHistory(List<ConversationHistory.Turn> history) {
+        this.history = List.copyOf(history);
+    }
+
+    /**
+     * Sets the rate of the response audio the client gets; set before the session is initialized.
+     * Nova Sonic is asked for the rate's model rate, and its output is decimated to the client's
+     * rate where they differ.
+     */
+    public void setOutputAudioRate(OutputAudioRate outputAudioRate) {
+        this.outputAudioRate = outputAudioRate;
+        this.outputDecimator = outputAudioRate.factor() > 1 ? new Base64PcmDecimator(outputAudioRate.factor()) : null;
+    }
+
+    public OutputAudioRate getOutputAudioRate() {
+        return outputAudioRate;
+    }
+
+    /**
+     * Decimator from the model's output rate to the client's, or null if the two are the same.
+     */
+    public Base64PcmDecimator getOutputDecimator() {
+        return outputDecimator;
+    }
+
+    public String getLanguage() {
+        return language;
+    }
+
+    public String getVoiceId() {
+        return voiceId;
+    }
+
+    /**
+     * Input events sent on the current stream that the stream has not taken yet.
+     */
+    public long getInputBacklog() {
+        return Math.max(0, inputsPublished - inputsDelivered.get());
+    }
+
+    /**
+     * Approximate bytes of input the current stream's publisher still holds; push-mode publishers keep events for their expiry time.
+     */
+    public long getRetainedInputBytes() {
+        return inputRetention.getBytes();
+    }
+
+    /**
+     * Endpoint the session's stream was last opened on, or null before the first attempt.
+     */
+    public RegionEndpoint getEndpoint() {
+        return endpoint;
+    }
+
+    /**
+     * Completes when the pull-mode stream is established, or exceptionally with {@link StreamSetupException}.
+     */
+    public CompletableFuture<?> getStreamSetup() {
+        return streamSetup;
+    }
+
+    /**
+     * Returns the sender this session's output goes to, or null to use the event handler's default sender.
+     */
+    public WebSocketMessageSender getMessageSender() {
+        return messageSender;
+    }
+
+    public void setMessageSender(WebSocketMessageSender messageSender) {
+        this.messageSender = messageSender;
+    }
+
     /**
      * Completes the session by sending prompt end and session end events.
      */
@@ -326,10 +712,6 @@ public class NovaSonicClient implements AutoCloseable {
                 completeSession();
             }
 
-            // Close Bedrock client
-            if (bedrockClient != null) {
-                bedrockClient.close();
-            }
         } catch (Exception e) {
             logger.error("Error during close: {}", e.getMessage(), e);
         } finally {
@@ -337,6 +719,9 @@ public class NovaSonicClient implements AutoCloseable {
             if (publisher != null && !publisher.hasComplete()) {
                 publisher.onComplete();
             }
+            if (recording != null) {
+                recording.close();
+            }
         }
         logger.info("Closed");
     }
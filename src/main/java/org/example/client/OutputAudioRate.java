@@ -0,0 +1,59 @@
+package org.example.client;
+
+import java.util.Collection;
+import java.util.List;
+
+import static org.example.constants.NovaSonicConstants.OUTPUT_AUDIO_MAX_DECIMATION;
+import static org.example.constants.NovaSonicConstants.OUTPUT_AUDIO_MIN_SAMPLE_RATE;
+import static org.example.constants.NovaSonicConstants.OUTPUT_AUDIO_SAMPLE_RATE;
+
+/**
+ * The sample rate of a session's response audio as its client gets it, and the rate Nova Sonic is
+ * asked for in the prompt start event. Where the two differ, the server decimates the model's
+ * output by {@link #factor()}.
+ *
+ * @param sampleRate The rate the client gets
+ * @param modelSampleRate The rate Nova Sonic produces, a multiple of {@code sampleRate}
+ */
+public record OutputAudioRate(int sampleRate, int modelSampleRate) {
+    public static final OutputAudioRate DEFAULT = new OutputAudioRate(OUTPUT_AUDIO_SAMPLE_RATE, OUTPUT_AUDIO_SAMPLE_RATE);
+
+    public int factor() {
+        return modelSampleRate / sampleRate;
+    }
+
+    /**
+     * The highest rate not above {@code requested} that the model produces or that a model rate
+     * divides down to, or the lowest such rate if they are all above it. A rate the model produces
+     * is preferred over decimating a higher one to it, so the model does the work when it can.
+     *
+     * @param modelRates The rates Nova Sonic can be asked for; the default rate if empty
+     */
+    public static OutputAudioRate negotiate(int requested, Collection<Integer> modelRates) {
+        OutputAudioRate best = null;
+        for (int modelRate : modelRates.isEmpty() ? List.of(OUTPUT_AUDIO_SAMPLE_RATE) : modelRates) {
+            for (int factor = 1; factor <= OUTPUT_AUDIO_MAX_DECIMATION; factor++) {
+                int rate = modelRate / factor;
+                if (modelRate % factor != 0 || rate < OUTPUT_AUDIO_MIN_SAMPLE_RATE) {
+                    continue;
+                }
+                OutputAudioRate candidate = new OutputAudioRate(rate, modelRate);
+                if (best == null || candidate.isCloserTo(requested, best)) {
+                    best = candidate;
+                }
+            }
+        }
+        return best != null ? best : DEFAULT;
+    }
+
+    private boolean isCloserTo(int requested, OutputAudioRate other) {
+        boolean fits = sampleRate <= requested;
+        if (fits != other.sampleRate <= requested) {
+            return fits;
+        }
+        if (sampleRate != other.sampleRate) {
+            return fits ? sampleRate > other.sampleRate : sampleRate < other.sampleRate;
+        }
+        return factor() < other.factor();
+    }
+}
@@ -0,0 +1,152 @@
+package org.example.client;
+
+import org.example.config.NovaSonicProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.Arrays;
+
+/**
+ * Count-based circuit breaker for stream creation. It records the outcome of the last
+ * {@code breakerWindowSize} attempts and opens when the failure rate reaches the threshold, so
+ * setups fail immediately instead of adding load to an endpoint that is throttling or down.
+ * After the open duration a few trial attempts are let through; the circuit closes if they all
+ * succeed and opens again on the first failure.
+ */
+public class StreamCircuitBreaker {
+    private static final Logger logger = LoggerFactory.getLogger(StreamCircuitBreaker.class);
+
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    private final String name;
+    private final NovaSonicProperties.StreamSetup settings;
+    // Ring buffer of recent outcomes, true for a failure
+    private final boolean[] outcomes;
+    private int nextOutcome;
+    private int recordedOutcomes;
+    private int failedOutcomes;
+
+    private State state = State.CLOSED;
+    private long openedAtNanos;
+    private int trialsInFlight;
+    private int trialSuccesses;
+
+    public StreamCircuitBreaker(String name, NovaSonicProperties.StreamSetup settings) {
+        this.name = name;
+        this.settings = settings;
+        this.outcomes = new boolean[Math.max(1, settings.getBreakerWindowSize())];
+    }
+
+    /**
+     * Asks to start an attempt. Every granted attempt must be followed by exactly one of
+     * {@link #onSuccess()}, {@link #onFailure()} or {@link #onIgnored()}.
+     *
+     * @return False if the circuit is open, or half-open with all trial slots taken
+     */
+    public synchronized boolean tryAcquirePermission() {
+        if (state == State.OPEN) {
+            if (System.nanoTime() - openedAtNanos < settings.getBreakerOpenDuration().toNanos()) {
+                return false;
+            }
+            transitionTo(State.HALF_OPEN);
+        }
+        if (state == State.HALF_OPEN) {
+            if (trialsInFlight >= settings.getBreakerHalfOpenTrials()) {
+                return false;
+            }
+            trialsInFlight++;
+        }
+        return true;
+    }
+
+    public synchronized void onSuccess() {
+        if (state == State.HALF_OPEN) {
+            trialsInFlight = Math.max(0, trialsInFlight - 1);
+            if (++trialSuccesses >= settings.getBreakerHalfOpenTrials()) {
+                transitionTo(State.CLOSED);
+            }
+        } else if (state == State.CLOSED) {
+            record(false);
+        }
+    }
+
+    public synchronized void onFailure() {
+        if (state == State.HALF_OPEN) {
+            transitionTo(State.OPEN);
+        } else if (state == State.CLOSED) {
+            record(true);
+            if (recordedOutcomes >= settings.getBreakerMinimumCalls()
+                    && failedOutcomes >= settings.getBreakerFailureRate() * recordedOutcomes) {
+                transitionTo(State.OPEN);
+            }
+        }
+    }
+
+    /**
+     * Ends an attempt whose outcome says nothing about the endpoint's health, such as a rejected request.
+     */
+    public synchronized void onIgnored() {
+        if (state == State.HALF_OPEN) {
+            trialsInFlight = Math.max(0, trialsInFlight - 1);
+        }
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    /**
+     * Time until an open circuit lets trial attempts through, or zero if it is not open.
+     */
+    public synchronized Duration getRemainingOpenTime() {
+        if (state != State.OPEN) {
+            return Duration.ZERO;
+        }
+        long remaining = settings.getBreakerOpenDuration().toNanos() - (System.nanoTime() - openedAtNanos);
+        return Duration.ofNanos(Math.max(0, remaining));
+    }
+
+    /**
+     * Failure rate over the current window, between 0 and 1.
+     */
+    public synchronized double getFailureRate() {
+        return recordedOutcomes == 0 ? 0.0 : (double) failedOutcomes / recordedOutcomes;
+    }
+
+    private void record(boolean failed) {
+        if (recordedOutcomes == outcomes.length) {
+            if (outcomes[nextOutcome]) {
+                failedOutcomes--;
+            }
+        } else {
+            recordedOutcomes++;
+        }
+        outcomes[nextOutcome] = failed;
+        if (failed) {
+            failedOutcomes++;
+        }
+        nextOutcome = (nextOutcome + 1) % outcomes.length;
+    }
+
+    private void transitionTo(State next) {
+        if (next == State.OPEN) {
+            logger.warn("Circuit breaker {} {} -> OPEN (failure rate {})", name, state, String.format("%.2f", getFailureRate()));
+        } else {
+            logger.info("Circuit breaker {} {} -> {}", name, state, next);
+        }
+        state = next;
+        trialsInFlight = 0;
+        trialSuccesses = 0;
+        if (next == State.OPEN) {
+            openedAtNanos = System.nanoTime();
+        } else if (next == State.CLOSED) {
+            Arrays.fill(outcomes, false);
+            nextOutcome = 0;
+            recordedOutcomes = 0;
+            failedOutcomes = 0;
+        }
+    }
+}
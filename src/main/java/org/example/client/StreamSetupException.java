@@ -0,0 +1,116 @@
+package org.example.client;
+
+import org.json.JSONObject;
+
+import java.time.Duration;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * A Bedrock stream that could not be opened, or failed after it was opened. Carries the reason,
+ * how many attempts were made and, for failures worth retrying, the delay suggested to the client.
+ */
+public class StreamSetupException extends RuntimeException {
+
+    /**
+     * Failure classes. The code is sent to the client and used as a metric tag.
+     */
+    public enum Reason {
+        THROTTLED("throttled", "The speech service is throttling requests", true),
+        UNAVAILABLE("unavailable", "The speech service is temporarily unavailable", true),
+        SETUP_TIMEOUT("setup_timeout", "The speech service did not respond in time", true),
+        CIRCUIT_OPEN("circuit_open", "The speech service is failing, requests are paused", true),
+        REQUEST_FAILED("request_failed", "The speech service rejected the request", false),
+        STREAM_FAILED("stream_failed", "The conversation stream failed", true);
+
+        private final String code;
+        private final String description;
+        private final boolean retryable;
+
+        Reason(String code, String description, boolean retryable) {
+            this.code = code;
+            this.description = description;
+            this.retryable = retryable;
+        }
+
+        public String getCode() {
+            return code;
+        }
+
+        public String getDescription() {
+            return description;
+        }
+
+        /**
+         * Whether the same request may succeed if tried again later.
+         */
+        public boolean isRetryable() {
+            return retryable;
+        }
+    }
+
+    private final Reason reason;
+    private final Duration retryAfter;
+    private final int attempts;
+
+    public StreamSetupException(Reason reason, Duration retryAfter, int attempts, Throwable cause) {
+        super(cause != null && cause.getMessage() != null
+                ? reason.getDescription() + ": " + cause.getMessage() : reason.getDescription(), cause);
+        this.reason = reason;
+        this.retryAfter = retryAfter;
+        this.attempts = attempts;
+    }
+
+    /**
+     * Wraps a failure of an established stream, or returns {@code failure} itself if it already is a setup failure.
+     */
+    public static StreamSetupException from(Throwable failure) {
+        Throwable cause = unwrap(failure);
+        if (cause instanceof StreamSetupException) {
+            return (StreamSetupException) cause;
+        }
+        return new StreamSetupException(Reason.STREAM_FAILED, null, 0, cause);
+    }
+
+    static Throwable unwrap(Throwable failure) {
+        Throwable cause = failure;
+        while ((cause instanceof CompletionException || cause instanceof ExecutionException) && cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        return cause;
+    }
+
+    public Reason getReason() {
+        return reason;
+    }
+
+    /**
+     * Suggested delay before the client tries again, or null if it should not retry.
+     */
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+
+    public int getAttempts() {
+        return attempts;
+    }
+
+    /**
+     * Error frame sent to the client.
+     */
+    public String toClientMessage() {
+        JSONObject message = new JSONObject()
+                .put("type", "error")
+                .put("code", reason == Reason.STREAM_FAILED ? "stream_failed" : "stream_unavailable")
+                .put("reason", reason.getCode())
+                .put("attempts", attempts);
+        if (retryAfter != null) {
+            message.put("retryAfterMs", retryAfter.toMillis())
+                    .put("message", String.format("%s, please retry in %d s", reason.getDescription(),
+                            Math.max(1, retryAfter.toSeconds())));
+        } else {
+            message.put("message", reason.getDescription());
+        }
+        return message.toString();
+    }
+}
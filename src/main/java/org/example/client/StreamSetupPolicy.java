@@ -0,0 +1,224 @@
+package org.example.client;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.example.client.StreamSetupException.Reason;
+import org.example.config.NovaSonicProperties;
+import org.example.routing.RegionEndpoint;
+import org.example.routing.RegionRouter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import software.amazon.awssdk.core.exception.SdkClientException;
+import software.amazon.awssdk.core.exception.SdkServiceException;
+
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+
+/**
+ * Opens Bedrock streams with retries. Each attempt goes to the endpoint the {@link RegionRouter}
+ * picks and through that endpoint's circuit breaker. Throttling, 5xx and connection failures are
+ * retried while the setup budget lasts: immediately on another endpoint if one is left to try,
+ * otherwise after exponential backoff with full jitter. Every attempt is bounded by the remaining
+ * budget. While every endpoint's circuit is open, new sessions fail fast with a retry hint instead
+ * of queueing more requests behind them.
+ */
+@Component
+public class StreamSetupPolicy {
+    private static final Logger logger = LoggerFactory.getLogger(StreamSetupPolicy.class);
+
+    private final NovaSonicProperties.StreamSetup settings;
+    private final RegionRouter regionRouter;
+    private final ScheduledExecutorService retryScheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "stream-setup-retry");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final Map<RegionEndpoint, Counter> successfulAttempts = new HashMap<>();
+    private final Map<RegionEndpoint, Map<Reason, Counter>> failedAttempts = new HashMap<>();
+    private final Counter shortCircuited;
+    private final Counter failovers;
+    private final Timer setupSucceeded;
+    private final Timer setupFailed;
+
+    public StreamSetupPolicy(NovaSonicProperties properties, RegionRouter regionRouter, MeterRegistry meterRegistry) {
+        this.settings = properties.getStreamSetup();
+        this.regionRouter = regionRouter;
+        for (RegionEndpoint endpoint : regionRouter.getEndpoints()) {
+            successfulAttempts.put(endpoint, Counter.builder("novasonic.stream.setup.attempts")
+                    .description("Bedrock stream creation attempts")
+                    .tag("outcome", "success")
+                    .tag("endpoint", endpoint.getName())
+                    .register(meterRegistry));
+            Map<Reason, Counter> failed = new EnumMap<>(Reason.class);
+            for (Reason reason : Reason.values()) {
+                failed.put(reason, Counter.builder("novasonic.stream.setup.attempts")
+                        .description("Bedrock stream creation attempts")
+                        .tag("outcome", reason.getCode())
+                        .tag("endpoint", endpoint.getName())
+                        .register(meterRegistry));
+            }
+            failedAttempts.put(endpoint, failed);
+        }
+        this.shortCircuited = Counter.builder("novasonic.stream.setup.short_circuited")
+                .description("Stream setups failed fast because no endpoint's circuit breaker admitted them")
+                .register(meterRegistry);
+        this.failovers = Counter.builder("novasonic.routing.failovers")
+                .description("Stream setup retries sent to a different endpoint than the failed attempt")
+                .register(meterRegistry);
+        this.setupSucceeded = Timer.builder("novasonic.stream.setup.latency")
+                .description("Time to open a Bedrock stream, including retries")
+                .tag("outcome", "success")
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry);
+        this.setupFailed = Timer.builder("novasonic.stream.setup.latency")
+                .description("Time to open a Bedrock stream, including retries")
+                .tag("outcome", "failure")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Runs {@code attempt} until it succeeds, fails with a non-retryable error, runs out of attempts
+     * or exhausts the setup budget.
+     *
+     * @param sessionId Session the stream is for, for logging
+     * @param attempt Starts one stream creation on the given endpoint; its future completes once the stream is established.
+     *                It should tear the stream down if the future is completed exceptionally by the
+     *                policy, which happens when the attempt outlives the remaining budget.
+     * @return A future completed with the established attempt's value, or exceptionally with
+     *         {@link StreamSetupException}
+     */
+    public <T> CompletableFuture<T> execute(String sessionId, Function<RegionEndpoint, CompletableFuture<T>> attempt) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        long startNanos = System.nanoTime();
+        runAttempt(sessionId, attempt, 1, new LinkedHashSet<>(), null, startNanos, result);
+        result.whenComplete((value, failure) ->
+                (failure == null ? setupSucceeded : setupFailed).record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS));
+        return result;
+    }
+
+    public RegionRouter getRegionRouter() {
+        return regionRouter;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        retryScheduler.shutdownNow();
+    }
+
+    private <T> void runAttempt(String sessionId, Function<RegionEndpoint, CompletableFuture<T>> attempt, int attemptNumber,
+                                Set<RegionEndpoint> tried, RegionEndpoint previous, long startNanos, CompletableFuture<T> result) {
+        RegionEndpoint endpoint = regionRouter.select(tried);
+        if (endpoint == null) {
+            shortCircuited.increment();
+            result.completeExceptionally(new StreamSetupException(Reason.CIRCUIT_OPEN,
+                    retryAfter(Reason.CIRCUIT_OPEN), attemptNumber - 1, null));
+            return;
+        }
+        if (previous != null && previous != endpoint) {
+            failovers.increment();
+            logger.info("Failing over stream setup for session {} from {} to {}", sessionId, previous.getName(), endpoint.getName());
+        }
+        tried.add(endpoint);
+        StreamCircuitBreaker circuitBreaker = endpoint.getCircuitBreaker();
+
+        long remainingNanos = settings.getBudget().toNanos() - (System.nanoTime() - startNanos);
+        CompletableFuture<T> future;
+        try {
+            future = attempt.apply(endpoint);
+        } catch (Exception e) {
+            future = CompletableFuture.failedFuture(e);
+        }
+        future.orTimeout(Math.max(remainingNanos, 1), TimeUnit.NANOSECONDS).whenComplete((value, failure) -> {
+            if (failure == null) {
+                circuitBreaker.onSuccess();
+                successfulAttempts.get(endpoint).increment();
+                logger.debug("Stream for session {} opened on {} after {} attempt(s)", sessionId, endpoint.getName(), attemptNumber);
+                result.complete(value);
+                return;
+            }
+
+            Throwable cause = StreamSetupException.unwrap(failure);
+            Reason reason = classify(cause);
+            failedAttempts.get(endpoint).get(reason).increment();
+            if (reason == Reason.REQUEST_FAILED) {
+                circuitBreaker.onIgnored();
+            } else {
+                circuitBreaker.onFailure();
+            }
+
+            // Another endpoint is not the one throttling or failing, so there is nothing to wait for
+            long delayNanos = regionRouter.hasUntriedEndpoint(tried) ? 0 : backoffNanos(attemptNumber);
+            long elapsedNanos = System.nanoTime() - startNanos;
+            boolean retry = (reason == Reason.THROTTLED || reason == Reason.UNAVAILABLE)
+                    && attemptNumber < settings.getMaxAttempts()
+                    && elapsedNanos + delayNanos < settings.getBudget().toNanos();
+            if (retry) {
+                logger.warn("Stream setup attempt {} for session {} on {} failed ({}), retrying in {} ms: {}",
+                        attemptNumber, sessionId, endpoint.getName(), reason.getCode(),
+                        TimeUnit.NANOSECONDS.toMillis(delayNanos), cause.getMessage());
+                retryScheduler.schedule(() -> runAttempt(sessionId, attempt, attemptNumber + 1, tried, endpoint, startNanos, result),
+                        delayNanos, TimeUnit.NANOSECONDS);
+            } else {
+                logger.error("Stream setup for session {} failed after {} attempt(s) in {} ms, last on {} ({}): {}",
+                        sessionId, attemptNumber, TimeUnit.NANOSECONDS.toMillis(elapsedNanos), endpoint.getName(),
+                        reason.getCode(), cause.getMessage());
+                result.completeExceptionally(new StreamSetupException(reason, retryAfter(reason), attemptNumber, cause));
+            }
+        });
+    }
+
+    /**
+     * Full jitter: a uniform delay below an exponentially growing cap, so sessions that failed
+     * together do not retry together.
+     */
+    private long backoffNanos(int attemptNumber) {
+        long capNanos = Math.min(settings.getMaxDelay().toNanos(),
+                settings.getBaseDelay().toNanos() << Math.min(attemptNumber - 1, 20));
+        return ThreadLocalRandom.current().nextLong(Math.max(capNanos, 1));
+    }
+
+    private Duration retryAfter(Reason reason) {
+        if (!reason.isRetryable()) {
+            return null;
+        }
+        Duration openTime = regionRouter.getRemainingOpenTime();
+        return openTime.isZero() ? settings.getMaxDelay() : openTime;
+    }
+
+    static Reason classify(Throwable cause) {
+        if (cause instanceof StreamSetupException) {
+            return ((StreamSetupException) cause).getReason();
+        }
+        if (cause instanceof TimeoutException) {
+            return Reason.SETUP_TIMEOUT;
+        }
+        if (cause instanceof SdkServiceException) {
+            SdkServiceException serviceException = (SdkServiceException) cause;
+            if (serviceException.isThrottlingException() || serviceException.statusCode() == 429) {
+                return Reason.THROTTLED;
+            }
+            return serviceException.statusCode() >= 500 ? Reason.UNAVAILABLE : Reason.REQUEST_FAILED;
+        }
+        if (cause instanceof SdkClientException || cause instanceof IOException) {
+            // Connection resets, DNS and TLS failures
+            return Reason.UNAVAILABLE;
+        }
+        return Reason.REQUEST_FAILED;
+    }
+}
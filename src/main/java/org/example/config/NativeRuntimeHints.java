@@ -0,0 +1,45 @@
+package org.example.config;
+
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import org.springframework.aot.hint.TypeReference;
+
+import java.util.List;
+
+/**
+ * Native-image hints for what Spring AOT cannot see: classes and resources that the AWS SDK and
+ * Netty load by name while the Bedrock client is built. Spring's own WebSocket, Tomcat, Reactor
+ * and Jackson hints, and the reachability metadata shipped with the AWS SDK and Netty, cover the rest.
+ */
+public class NativeRuntimeHints implements RuntimeHintsRegistrar {
+    // Instantiated through Netty's ReflectiveChannelFactory by the AWS SDK's Netty client
+    private static final List<String> NETTY_CHANNELS = List.of(
+            "io.netty.channel.socket.nio.NioSocketChannel",
+            "io.netty.channel.socket.nio.NioDatagramChannel");
+
+    // Bidirectional stream events, looked up through the SDK's event stream unmarshallers
+    private static final List<String> BEDROCK_STREAM_TYPES = List.of(
+            "software.amazon.awssdk.services.bedrockruntime.model.InvokeModelWithBidirectionalStreamRequest",
+            "software.amazon.awssdk.services.bedrockruntime.model.InvokeModelWithBidirectionalStreamResponse",
+            "software.amazon.awssdk.services.bedrockruntime.model.BidirectionalInputPayloadPart",
+            "software.amazon.awssdk.services.bedrockruntime.model.BidirectionalOutputPayloadPart",
+            "software.amazon.awssdk.services.bedrockruntime.model.InvokeModelWithBidirectionalStreamInput",
+            "software.amazon.awssdk.services.bedrockruntime.model.InvokeModelWithBidirectionalStreamOutput");
+
+    @Override
+    public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+        // Interceptor chains, partition metadata and SDK version info are read from the classpath
+        hints.resources().registerPattern("software/amazon/awssdk/global/handlers/execution.interceptors");
+        hints.resources().registerPattern("software/amazon/awssdk/services/bedrockruntime/execution.interceptors");
+        hints.resources().registerPattern("software/amazon/awssdk/global/partitions.json");
+        hints.resources().registerPattern("software/amazon/awssdk/global/internal/*.properties");
+        hints.resources().registerPattern("software/amazon/awssdk/services/bedrockruntime/*.properties");
+
+        NETTY_CHANNELS.forEach(type -> hints.reflection().registerType(TypeReference.of(type),
+                MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS));
+        BEDROCK_STREAM_TYPES.forEach(type -> hints.reflection().registerType(TypeReference.of(type),
+                MemberCategory.INVOKE_PUBLIC_METHODS, MemberCategory.INVOKE_DECLARED_CONSTRUCTORS,
+                MemberCategory.DECLARED_FIELDS));
+    }
+}
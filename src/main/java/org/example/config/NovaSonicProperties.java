@@ -0,0 +1,1170 @@
+package org.example.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.example.constants.NovaSonicConstants.*;
+
+/**
+ * Externalised server settings bound from {@code novasonic.*} in application.properties.
+ * Defaults come from {@link org.example.constants.NovaSonicConstants}.
+ */
+@ConfigurationProperties(prefix = "novasonic")
+public class NovaSonicProperties {
+    private final Session session = new Session();
+    private final Admission admission = new Admission();
+    private final Usage usage = new Usage();
+    private final StreamSetup streamSetup = new StreamSetup();
+    private final Routing routing = new Routing();
+    private final Recording recording = new Recording();
+    private final Tools tools = new Tools();
+    private final Bedrock bedrock = new Bedrock();
+    private final Warmup warmup = new Warmup();
+    private final Replay replay = new Replay();
+    private final Evaluation evaluation = new Evaluation();
+    private final Monitor monitor = new Monitor();
+    private final Telephony telephony = new Telephony();
+    private final Grpc grpc = new Grpc();
+
+    public Session getSession() {
+        return session;
+    }
+
+    public Admission getAdmission() {
+        return admission;
+    }
+
+    public Usage getUsage() {
+        return usage;
+    }
+
+    public StreamSetup getStreamSetup() {
+        return streamSetup;
+    }
+
+    public Routing getRouting() {
+        return routing;
+    }
+
+    public Recording getRecording() {
+        return recording;
+    }
+
+    public Tools getTools() {
+        return tools;
+    }
+
+    public Bedrock getBedrock() {
+        return bedrock;
+    }
+
+    public Warmup getWarmup() {
+        return warmup;
+    }
+
+    public Replay getReplay() {
+        return replay;
+    }
+
+    public Evaluation getEvaluation() {
+        return evaluation;
+    }
+
+    public Monitor getMonitor() {
+        return monitor;
+    }
+
+    public Telephony getTelephony() {
+        return telephony;
+    }
+
+    public Grpc getGrpc() {
+        return grpc;
+    }
+
+    /**
+     * Settings for WebSocket voice sessions.
+     */
+    public static class Session {
+        /** How long a dropped session keeps its Bedrock stream open waiting for the client to resume. */
+        private Duration resumeGracePeriod = Duration.ofSeconds(SESSION_RESUME_GRACE_SECONDS);
+        /** Maximum number of outbound frames kept per session for replay after a reconnect. */
+        private int replayBufferFrames = REPLAY_BUFFER_MAX_FRAMES;
+        /** Maximum number of outbound characters kept per session for replay after a reconnect. */
+        private long replayBufferBytes = REPLAY_BUFFER_MAX_BYTES;
+        /** Number of concurrent sessions this node is sized for; readiness reports out of service at the limit. */
+        private int maxSessions = NODE_MAX_SESSIONS;
+        /** How long a draining node lets active conversations run before closing them with a reconnect hint. */
+        private Duration drainTimeout = Duration.ofSeconds(DRAIN_TIMEOUT_SECONDS);
+        /** How long a session may go without audio either way before its Bedrock stream is closed; zero never suspends. */
+        private Duration suspendAfter = Duration.ofSeconds(SESSION_SUSPEND_AFTER_SECONDS);
+        /** Characters of conversation kept per session to seed the stream reopened on resume. */
+        private int historyMaxChars = SESSION_HISTORY_MAX_CHARS;
+
+        public Duration getResumeGracePeriod() {
+            return resumeGracePeriod;
+        }
+
+        public void setResumeGracePeriod(Duration resumeGracePeriod) {
+            this.resumeGracePeriod = resumeGracePeriod;
+        }
+
+        public int getReplayBufferFrames() {
+            return replayBufferFrames;
+        }
+
+        public void setReplayBufferFrames(int replayBufferFrames) {
+            this.replayBufferFrames = replayBufferFrames;
+        }
+
+        public long getReplayBufferBytes() {
+            return replayBufferBytes;
+        }
+
+        public void setReplayBufferBytes(long replayBufferBytes) {
+            this.replayBufferBytes = replayBufferBytes;
+        }
+
+        public int getMaxSessions() {
+            return maxSessions;
+        }
+
+        public void setMaxSessions(int maxSessions) {
+            this.maxSessions = maxSessions;
+        }
+
+        public Duration getDrainTimeout() {
+            return drainTimeout;
+        }
+
+        public void setDrainTimeout(Duration drainTimeout) {
+            this.drainTimeout = drainTimeout;
+        }
+
+        public Duration getSuspendAfter() {
+            return suspendAfter;
+        }
+
+        public void setSuspendAfter(Duration suspendAfter) {
+            this.suspendAfter = suspendAfter;
+        }
+
+        public int getHistoryMaxChars() {
+            return historyMaxChars;
+        }
+
+        public void setHistoryMaxChars(int historyMaxChars) {
+            this.historyMaxChars = historyMaxChars;
+        }
+    }
+
+    /**
+     * Settings for admitting new Bedrock streams. Limits of zero or less are unlimited.
+     */
+    public static class Admission {
+        /** Number of Bedrock streams that may be open at once across all tenants. */
+        private int maxStreams = ADMISSION_MAX_STREAMS;
+        /** Number of Bedrock streams one tenant may hold at once. */
+        private int maxStreamsPerTenant = ADMISSION_MAX_STREAMS_PER_TENANT;
+        /** Number of Bedrock streams one client address may hold at once. */
+        private int maxStreamsPerAddress = ADMISSION_MAX_STREAMS_PER_ADDRESS;
+        /** Number of connections that may wait for a free stream when the global limit is reached. */
+        private int queueCapacity = ADMISSION_QUEUE_CAPACITY;
+        /** How long a queued connection waits for a free stream before it is rejected. */
+        private Duration queueTimeout = Duration.ofMillis(ADMISSION_QUEUE_TIMEOUT_MILLIS);
+        /** Retry delay suggested to rejected clients. */
+        private Duration retryAfter = Duration.ofSeconds(ADMISSION_RETRY_AFTER_SECONDS);
+
+        public int getMaxStreams() {
+            return maxStreams;
+        }
+
+        public void setMaxStreams(int maxStreams) {
+            this.maxStreams = maxStreams;
+        }
+
+        public int getMaxStreamsPerTenant() {
+            return maxStreamsPerTenant;
+        }
+
+        public void setMaxStreamsPerTenant(int maxStreamsPerTenant) {
+            this.maxStreamsPerTenant = maxStreamsPerTenant;
+        }
+
+        public int getMaxStreamsPerAddress() {
+            return maxStreamsPerAddress;
+        }
+
+        public void setMaxStreamsPerAddress(int maxStreamsPerAddress) {
+            this.maxStreamsPerAddress = maxStreamsPerAddress;
+        }
+
+        public int getQueueCapacity() {
+            return queueCapacity;
+        }
+
+        public void setQueueCapacity(int queueCapacity) {
+            this.queueCapacity = queueCapacity;
+        }
+
+        public Duration getQueueTimeout() {
+            return queueTimeout;
+        }
+
+        public void setQueueTimeout(Duration queueTimeout) {
+            this.queueTimeout = queueTimeout;
+        }
+
+        public Duration getRetryAfter() {
+            return retryAfter;
+        }
+
+        public void setRetryAfter(Duration retryAfter) {
+            this.retryAfter = retryAfter;
+        }
+    }
+
+    /**
+     * Settings for usage accounting.
+     */
+    public static class Usage {
+        /** Tenant ids a session may claim; any other id, or none, is accounted and admitted as the default tenant. */
+        private List<String> tenants = new ArrayList<>();
+
+        public List<String> getTenants() {
+            return tenants;
+        }
+
+        public void setTenants(List<String> tenants) {
+            this.tenants = tenants;
+        }
+    }
+
+    /**
+     * Settings for opening Bedrock streams: retries of throttled and transient failures, and the
+     * per-endpoint circuit breakers that fail setups fast while an endpoint keeps failing.
+     */
+    public static class StreamSetup {
+        /** Stream creation attempts per session, including the first. */
+        private int maxAttempts = STREAM_SETUP_MAX_ATTEMPTS;
+        /** Total time a session may spend opening its stream, across all attempts and backoff delays. */
+        private Duration budget = Duration.ofMillis(STREAM_SETUP_BUDGET_MILLIS);
+        /** Backoff cap for the first retry; it doubles per attempt and the actual delay is drawn uniformly below it. */
+        private Duration baseDelay = Duration.ofMillis(STREAM_SETUP_BASE_DELAY_MILLIS);
+        /** Upper bound on the backoff cap. */
+        private Duration maxDelay = Duration.ofMillis(STREAM_SETUP_MAX_DELAY_MILLIS);
+        /** Fraction of failed attempts in the window that opens the circuit. */
+        private double breakerFailureRate = CIRCUIT_BREAKER_FAILURE_RATE;
+        /** Number of recent attempts the failure rate is computed over. */
+        private int breakerWindowSize = CIRCUIT_BREAKER_WINDOW_SIZE;
+        /** Attempts needed in the window before the circuit can open. */
+        private int breakerMinimumCalls = CIRCUIT_BREAKER_MINIMUM_CALLS;
+        /** How long an open circuit fails setups before letting trial attempts through. */
+        private Duration breakerOpenDuration = Duration.ofSeconds(CIRCUIT_BREAKER_OPEN_SECONDS);
+        /** Trial attempts a half-open circuit lets through; all of them must succeed to close it. */
+        private int breakerHalfOpenTrials = CIRCUIT_BREAKER_HALF_OPEN_TRIALS;
+
+        public int getMaxAttempts() {
+            return maxAttempts;
+        }
+
+        public void setMaxAttempts(int maxAttempts) {
+            this.maxAttempts = maxAttempts;
+        }
+
+        public Duration getBudget() {
+            return budget;
+        }
+
+        public void setBudget(Duration budget) {
+            this.budget = budget;
+        }
+
+        public Duration getBaseDelay() {
+            return baseDelay;
+        }
+
+        public void setBaseDelay(Duration baseDelay) {
+            this.baseDelay = baseDelay;
+        }
+
+        public Duration getMaxDelay() {
+            return maxDelay;
+        }
+
+        public void setMaxDelay(Duration maxDelay) {
+            this.maxDelay = maxDelay;
+        }
+
+        public double getBreakerFailureRate() {
+            return breakerFailureRate;
+        }
+
+        public void setBreakerFailureRate(double breakerFailureRate) {
+            this.breakerFailureRate = breakerFailureRate;
+        }
+
+        public int getBreakerWindowSize() {
+            return breakerWindowSize;
+        }
+
+        public void setBreakerWindowSize(int breakerWindowSize) {
+            this.breakerWindowSize = breakerWindowSize;
+        }
+
+        public int getBreakerMinimumCalls() {
+            return breakerMinimumCalls;
+        }
+
+        public void setBreakerMinimumCalls(int breakerMinimumCalls) {
+            this.breakerMinimumCalls = breakerMinimumCalls;
+        }
+
+        public Duration getBreakerOpenDuration() {
+            return breakerOpenDuration;
+        }
+
+        public void setBreakerOpenDuration(Duration breakerOpenDuration) {
+            this.breakerOpenDuration = breakerOpenDuration;
+        }
+
+        public int getBreakerHalfOpenTrials() {
+            return breakerHalfOpenTrials;
+        }
+
+        public void setBreakerHalfOpenTrials(int breakerHalfOpenTrials) {
+            this.breakerHalfOpenTrials = breakerHalfOpenTrials;
+        }
+    }
+
+    /**
+     * Settings for routing sessions across Bedrock endpoints. Each endpoint is probed in the
+     * background and new sessions go to the lowest-latency healthy one.
+     */
+    public static class Routing {
+        /** Endpoints sessions can be routed to, in order of preference while no latency is known. */
+        private List<Endpoint> endpoints = new ArrayList<>(List.of(new Endpoint()));
+        /** Bedrock clients kept per endpoint; sessions are spread across them round-robin. */
+        private int clientPoolSize = ROUTING_CLIENT_POOL_SIZE;
+        /** Time between latency and health probes of each endpoint. */
+        private Duration probeInterval = Duration.ofMillis(ROUTING_PROBE_INTERVAL_MILLIS);
+        /** A probe that takes longer than this counts as failed. */
+        private Duration probeTimeout = Duration.ofMillis(ROUTING_PROBE_TIMEOUT_MILLIS);
+        /** Weight of the newest probe in the smoothed latency, between 0 and 1. */
+        private double latencySmoothing = ROUTING_LATENCY_SMOOTHING;
+        /** Endpoints this close to the fastest one share its sessions, so a few milliseconds of jitter do not move all traffic. */
+        private Duration latencyTolerance = Duration.ofMillis(ROUTING_LATENCY_TOLERANCE_MILLIS);
+        /** Consecutive failed probes that mark an endpoint unhealthy. */
+        private int unhealthyThreshold = ROUTING_UNHEALTHY_THRESHOLD;
+        /** Consecutive successful probes that mark an unhealthy endpoint healthy again. */
+        private int healthyThreshold = ROUTING_HEALTHY_THRESHOLD;
+
+        public List<Endpoint> getEndpoints() {
+            return endpoints;
+        }
+
+        public void setEndpoints(List<Endpoint> endpoints) {
+            this.endpoints = endpoints;
+        }
+
+        public int getClientPoolSize() {
+            return clientPoolSize;
+        }
+
+        public void setClientPoolSize(int clientPoolSize) {
+            this.clientPoolSize = clientPoolSize;
+        }
+
+        public Duration getProbeInterval() {
+            return probeInterval;
+        }
+
+        public void setProbeInterval(Duration probeInterval) {
+            this.probeInterval = probeInterval;
+        }
+
+        public Duration getProbeTimeout() {
+            return probeTimeout;
+        }
+
+        public void setProbeTimeout(Duration probeTimeout) {
+            this.probeTimeout = probeTimeout;
+        }
+
+        public double getLatencySmoothing() {
+            return latencySmoothing;
+        }
+
+        public void setLatencySmoothing(double latencySmoothing) {
+            this.latencySmoothing = latencySmoothing;
+        }
+
+        public Duration getLatencyTolerance() {
+            return latencyTolerance;
+        }
+
+        public void setLatencyTolerance(Duration latencyTolerance) {
+            this.latencyTolerance = latencyTolerance;
+        }
+
+        public int getUnhealthyThreshold() {
+            return unhealthyThreshold;
+        }
+
+        public void setUnhealthyThreshold(int unhealthyThreshold) {
+            this.unhealthyThreshold = unhealthyThreshold;
+        }
+
+        public int getHealthyThreshold() {
+            return healthyThreshold;
+        }
+
+        public void setHealthyThreshold(int healthyThreshold) {
+            this.healthyThreshold = healthyThreshold;
+        }
+
+        /**
+         * One Bedrock endpoint.
+         */
+        public static class Endpoint {
+            /** Name used in logs, metrics and the routing admin endpoint; defaults to the region. */
+            private String name;
+            /** AWS region the endpoint serves. */
+            private String region = NOVA_SONIC_REGION;
+            /** Endpoint URI to use instead of the region's default, such as a VPC endpoint. */
+            private String endpointOverride;
+            /** Fake stream: latency added to probes and to every stream event of this endpoint. */
+            private Duration fakeLatency = Duration.ZERO;
+            /** Fake stream: fraction of probes and stream creations on this endpoint that fail with HTTP 503. */
+            private double fakeFailureRate = 0.0;
+
+            public String getName() {
+                return name != null ? name : region;
+            }
+
+            public void setName(String name) {
+                this.name = name;
+            }
+
+            public String getRegion() {
+                return region;
+            }
+
+            public void setRegion(String region) {
+                this.region = region;
+            }
+
+            public String getEndpointOverride() {
+                return endpointOverride;
+            }
+
+            public void setEndpointOverride(String endpointOverride) {
+                this.endpointOverride = endpointOverride;
+            }
+
+            public Duration getFakeLatency() {
+                return fakeLatency;
+            }
+
+            public void setFakeLatency(Duration fakeLatency) {
+                this.fakeLatency = fakeLatency;
+            }
+
+            public double getFakeFailureRate() {
+                return fakeFailureRate;
+            }
+
+            public void setFakeFailureRate(double fakeFailureRate) {
+                this.fakeFailureRate = fakeFailureRate;
+            }
+        }
+    }
+
+    /**
+     * Settings for recording sessions to disk for later investigation.
+     */
+    public static class Recording {
+        /** Whether sessions are recorded; off by default. */
+        private boolean enabled = false;
+        /** Tenants whose sessions are recorded; empty records every tenant. */
+        private List<String> tenants = new ArrayList<>();
+        /** Directory recordings are written to. */
+        private String directory = "recordings";
+        /** Records waiting for the writer; when full, new records are dropped rather than waited for. */
+        private int queueCapacity = RECORDING_QUEUE_CAPACITY;
+        /** Size of each memory-mapped file segment. */
+        private int segmentBytes = RECORDING_SEGMENT_BYTES;
+        /** Largest recording of one session; later records of the session are dropped. */
+        private long maxSessionBytes = RECORDING_MAX_SESSION_BYTES;
+        /** Total size of the recording directory; the oldest recordings are deleted above it. */
+        private long maxTotalBytes = RECORDING_MAX_TOTAL_BYTES;
+        /** Age after which recordings are deleted. */
+        private Duration retention = Duration.ofDays(RECORDING_RETENTION_DAYS);
+        /** Time between retention sweeps of the recording directory. */
+        private Duration retentionCheckInterval = Duration.ofMinutes(RECORDING_RETENTION_CHECK_MINUTES);
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public List<String> getTenants() {
+            return tenants;
+        }
+
+        public void setTenants(List<String> tenants) {
+            this.tenants = tenants;
+        }
+
+        public String getDirectory() {
+            return directory;
+        }
+
+        public void setDirectory(String directory) {
+            this.directory = directory;
+        }
+
+        public int getQueueCapacity() {
+            return queueCapacity;
+        }
+
+        public void setQueueCapacity(int queueCapacity) {
+            this.queueCapacity = queueCapacity;
+        }
+
+        public int getSegmentBytes() {
+            return segmentBytes;
+        }
+
+        public void setSegmentBytes(int segmentBytes) {
+            this.segmentBytes = segmentBytes;
+        }
+
+        public long getMaxSessionBytes() {
+            return maxSessionBytes;
+        }
+
+        public void setMaxSessionBytes(long maxSessionBytes) {
+            this.maxSessionBytes = maxSessionBytes;
+        }
+
+        public long getMaxTotalBytes() {
+            return maxTotalBytes;
+        }
+
+        public void setMaxTotalBytes(long maxTotalBytes) {
+            this.maxTotalBytes = maxTotalBytes;
+        }
+
+        public Duration getRetention() {
+            return retention;
+        }
+
+        public void setRetention(Duration retention) {
+            this.retention = retention;
+        }
+
+        public Duration getRetentionCheckInterval() {
+            return retentionCheckInterval;
+        }
+
+        public void setRetentionCheckInterval(Duration retentionCheckInterval) {
+            this.retentionCheckInterval = retentionCheckInterval;
+        }
+    }
+
+    /**
+     * Settings for assistant tool calls.
+     */
+    public static class Tools {
+        /** Whether registered tools are advertised to Nova Sonic. */
+        private boolean enabled = true;
+        /** Number of tool calls that may run at once across all sessions. */
+        private int maxConcurrency = TOOL_EXECUTOR_MAX_CONCURRENCY;
+        /** Number of tool calls that may wait for a free executor thread before being rejected. */
+        private int queueCapacity = TOOL_EXECUTOR_QUEUE_CAPACITY;
+        /** Maximum number of cached tool results. */
+        private int cacheMaxEntries = TOOL_RESULT_CACHE_MAX_ENTRIES;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public int getMaxConcurrency() {
+            return maxConcurrency;
+        }
+
+        public void setMaxConcurrency(int maxConcurrency) {
+            this.maxConcurrency = maxConcurrency;
+        }
+
+        public int getQueueCapacity() {
+            return queueCapacity;
+        }
+
+        public void setQueueCapacity(int queueCapacity) {
+            this.queueCapacity = queueCapacity;
+        }
+
+        public int getCacheMaxEntries() {
+            return cacheMaxEntries;
+        }
+
+        public void setCacheMaxEntries(int cacheMaxEntries) {
+            this.cacheMaxEntries = cacheMaxEntries;
+        }
+    }
+
+    /**
+     * Settings for the Bedrock streaming backend.
+     */
+    public static class Bedrock {
+        /** {@code aws} to call Amazon Bedrock, {@code fake} to use the in-process fake stream. */
+        private String mode = "aws";
+        /**
+         * Output sample rates the model is asked for in the prompt start event. A rate a client
+         * negotiates that is not listed is made by decimating a listed one on the server.
+         */
+        private List<Integer> outputSampleRates = new ArrayList<>(List.of(8000, 16000, OUTPUT_AUDIO_SAMPLE_RATE));
+        /** Fake stream: user audio that makes up one turn before a response is produced. */
+        private Duration fakeTurnAudio = Duration.ofSeconds(2);
+        /** Fake stream: delay between the end of a user turn and the first response event. */
+        private Duration fakeResponseDelay = Duration.ofMillis(200);
+        /** Fake stream: number of 100 ms audio chunks in each assistant response. */
+        private int fakeResponseAudioChunks = 10;
+        /** Fake stream: fraction of stream creations that fail with a throttling error (HTTP 429). */
+        private double fakeThrottleRate = 0.0;
+        /** Fake stream: fraction of stream creations that fail with a service unavailable error (HTTP 503). */
+        private double fakeServerErrorRate = 0.0;
+        /** Fake stream: delay before an injected failure is reported. */
+        private Duration fakeFailureDelay = Duration.ofMillis(50);
+
+        public String getMode() {
+            return mode;
+        }
+
+        public void setMode(String mode) {
+            this.mode = mode;
+        }
+
+        public boolean isFake() {
+            return "fake".equalsIgnoreCase(mode);
+        }
+
+        public List<Integer> getOutputSampleRates() {
+            return outputSampleRates;
+        }
+
+        public void setOutputSampleRates(List<Integer> outputSampleRates) {
+            this.outputSampleRates = outputSampleRates;
+        }
+
+        public Duration getFakeTurnAudio() {
+            return fakeTurnAudio;
+        }
+
+        public void setFakeTurnAudio(Duration fakeTurnAudio) {
+            this.fakeTurnAudio = fakeTurnAudio;
+        }
+
+        public Duration getFakeResponseDelay() {
+            return fakeResponseDelay;
+        }
+
+        public void setFakeResponseDelay(Duration fakeResponseDelay) {
+            this.fakeResponseDelay = fakeResponseDelay;
+        }
+
+        public int getFakeResponseAudioChunks() {
+            return fakeResponseAudioChunks;
+        }
+
+        public void setFakeResponseAudioChunks(int fakeResponseAudioChunks) {
+            this.fakeResponseAudioChunks = fakeResponseAudioChunks;
+        }
+
+        public double getFakeThrottleRate() {
+            return fakeThrottleRate;
+        }
+
+        public void setFakeThrottleRate(double fakeThrottleRate) {
+            this.fakeThrottleRate = fakeThrottleRate;
+        }
+
+        public double getFakeServerErrorRate() {
+            return fakeServerErrorRate;
+        }
+
+        public void setFakeServerErrorRate(double fakeServerErrorRate) {
+            this.fakeServerErrorRate = fakeServerErrorRate;
+        }
+
+        public Duration getFakeFailureDelay() {
+            return fakeFailureDelay;
+        }
+
+        public void setFakeFailureDelay(Duration fakeFailureDelay) {
+            this.fakeFailureDelay = fakeFailureDelay;
+        }
+    }
+
+    /**
+     * Settings for the synthetic sessions run at startup, before the node reports ready.
+     */
+    public static class Warmup {
+        /** Whether to run warm-up sessions before accepting traffic. */
+        private boolean enabled = true;
+        /** Number of concurrent synthetic sessions. */
+        private int sessions = WARMUP_SESSIONS;
+        /** Number of turns each synthetic session completes. */
+        private int turnsPerSession = WARMUP_TURNS_PER_SESSION;
+        /** Upper bound on the whole warm-up; the node becomes ready when it elapses even if sessions are unfinished. */
+        private Duration timeout = Duration.ofSeconds(WARMUP_TIMEOUT_SECONDS);
+        /** Exit once warm-up completes, for the class-data-sharing training run. */
+        private boolean exitOnCompletion = false;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public int getSessions() {
+            return sessions;
+        }
+
+        public void setSessions(int sessions) {
+            this.sessions = sessions;
+        }
+
+        public int getTurnsPerSession() {
+            return turnsPerSession;
+        }
+
+        public void setTurnsPerSession(int turnsPerSession) {
+            this.turnsPerSession = turnsPerSession;
+        }
+
+        public Duration getTimeout() {
+            return timeout;
+        }
+
+        public void setTimeout(Duration timeout) {
+            this.timeout = timeout;
+        }
+
+        public boolean isExitOnCompletion() {
+            return exitOnCompletion;
+        }
+
+        public void setExitOnCompletion(boolean exitOnCompletion) {
+            this.exitOnCompletion = exitOnCompletion;
+        }
+    }
+
+    /**
+     * Settings for replaying recorded sessions against this build instead of serving traffic.
+     */
+    public static class Replay {
+        /** Replay the traces once the application has started, write the report and exit. */
+        private boolean enabled = false;
+        /** A session recording, or a directory whose recordings are all replayed. */
+        private String traces = "recordings";
+        /** {@code original} to keep the recorded timing, {@code fast} to replay as fast as the server keeps up. */
+        private String pace = "original";
+        /** Sessions replayed at the same time. */
+        private int concurrency = REPLAY_CONCURRENCY;
+        /** Times each trace is replayed in the measured pass. */
+        private int repeat = 1;
+        /** Unmeasured passes over all traces before the measured one, to warm up the JIT. */
+        private int warmupPasses = REPLAY_WARMUP_PASSES;
+        /** How long a recorded Bedrock event waits for the tool result it followed before it is sent anyway. */
+        private Duration gateTimeout = Duration.ofSeconds(REPLAY_GATE_TIMEOUT_SECONDS);
+        /** Upper bound on one replayed session. */
+        private Duration sessionTimeout = Duration.ofMinutes(REPLAY_SESSION_TIMEOUT_MINUTES);
+        /** File the JSON report is written to. */
+        private String report = REPLAY_REPORT_FILE;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public String getTraces() {
+            return traces;
+        }
+
+        public void setTraces(String traces) {
+            this.traces = traces;
+        }
+
+        public String getPace() {
+            return pace;
+        }
+
+        public void setPace(String pace) {
+            this.pace = pace;
+        }
+
+        public boolean isFast() {
+            return "fast".equalsIgnoreCase(pace);
+        }
+
+        public int getConcurrency() {
+            return concurrency;
+        }
+
+        public void setConcurrency(int concurrency) {
+            this.concurrency = concurrency;
+        }
+
+        public int getRepeat() {
+            return repeat;
+        }
+
+        public void setRepeat(int repeat) {
+            this.repeat = repeat;
+        }
+
+        public int getWarmupPasses() {
+            return warmupPasses;
+        }
+
+        public void setWarmupPasses(int warmupPasses) {
+            this.warmupPasses = warmupPasses;
+        }
+
+        public Duration getGateTimeout() {
+            return gateTimeout;
+        }
+
+        public void setGateTimeout(Duration gateTimeout) {
+            this.gateTimeout = gateTimeout;
+        }
+
+        public Duration getSessionTimeout() {
+            return sessionTimeout;
+        }
+
+        public void setSessionTimeout(Duration sessionTimeout) {
+            this.sessionTimeout = sessionTimeout;
+        }
+
+        public String getReport() {
+            return report;
+        }
+
+        public void setReport(String report) {
+            this.report = report;
+        }
+    }
+
+    /**
+     * Settings for the offline evaluation of transcription accuracy and turn latency over an audio corpus.
+     */
+    public static class Evaluation {
+        /** Evaluate the corpus once the application has started, write the report and exit. */
+        private boolean enabled = false;
+        /** Directory of WAV files with a {@code .txt} reference transcript each; subdirectories name their language. */
+        private String corpus = EVALUATION_CORPUS_DIR;
+        /** Configurations every file is evaluated under. */
+        private List<Config> configs = new ArrayList<>(List.of(new Config()));
+        /** {@code realtime} to stream audio at its own pace, {@code fast} to stream it as fast as the stream takes it. */
+        private String pace = "realtime";
+        /** Files streamed at the same time. */
+        private int concurrency = EVALUATION_CONCURRENCY;
+        /** Silence streamed after each file in fast pace, so the end of the turn is detected. */
+        private Duration trailingSilence = Duration.ofMillis(EVALUATION_TRAILING_SILENCE_MILLIS);
+        /** How long after the end of a file's audio a response may take before the file counts as failed. */
+        private Duration responseTimeout = Duration.ofSeconds(EVALUATION_RESPONSE_TIMEOUT_SECONDS);
+        /** File the JSON report is written to. */
+        private String report = EVALUATION_REPORT_FILE;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public String getCorpus() {
+            return corpus;
+        }
+
+        public void setCorpus(String corpus) {
+            this.corpus = corpus;
+        }
+
+        public List<Config> getConfigs() {
+            return configs;
+        }
+
+        public void setConfigs(List<Config> configs) {
+            this.configs = configs;
+        }
+
+        public String getPace() {
+            return pace;
+        }
+
+        public void setPace(String pace) {
+            this.pace = pace;
+        }
+
+        public boolean isFast() {
+            return "fast".equalsIgnoreCase(pace);
+        }
+
+        public int getConcurrency() {
+            return concurrency;
+        }
+
+        public void setConcurrency(int concurrency) {
+            this.concurrency = concurrency;
+        }
+
+        public Duration getTrailingSilence() {
+            return trailingSilence;
+        }
+
+        public void setTrailingSilence(Duration trailingSilence) {
+            this.trailingSilence = trailingSilence;
+        }
+
+        public Duration getResponseTimeout() {
+            return responseTimeout;
+        }
+
+        public void setResponseTimeout(Duration responseTimeout) {
+            this.responseTimeout = responseTimeout;
+        }
+
+        public String getReport() {
+            return report;
+        }
+
+        public void setReport(String report) {
+            this.report = report;
+        }
+
+        /**
+         * Session parameters one evaluation run uses, as a client would pass them to {@code /ws/audio}.
+         */
+        public static class Config {
+            /** Name the configuration's results are reported under. */
+            private String name = "default";
+            /** System prompt; empty for the default prompt of each file's language. */
+            private String systemPrompt = "";
+            /** Whether the assistant speaks with the language's feminine voice. */
+            private boolean feminineVoice = false;
+            /** Maximum tokens in one response. */
+            private int maxTokens = DEFAULT_MAX_TOKENS;
+            /** Nucleus sampling probability. */
+            private double topP = DEFAULT_TOP_P;
+            /** Sampling temperature. */
+            private double topT = DEFAULT_TOP_T;
+
+            public String getName() {
+                return name;
+            }
+
+            public void setName(String name) {
+                this.name = name;
+            }
+
+            public String getSystemPrompt() {
+                return systemPrompt;
+            }
+
+            public void setSystemPrompt(String systemPrompt) {
+                this.systemPrompt = systemPrompt;
+            }
+
+            public boolean isFeminineVoice() {
+                return feminineVoice;
+            }
+
+            public void setFeminineVoice(boolean feminineVoice) {
+                this.feminineVoice = feminineVoice;
+            }
+
+            public int getMaxTokens() {
+                return maxTokens;
+            }
+
+            public void setMaxTokens(int maxTokens) {
+                this.maxTokens = maxTokens;
+            }
+
+            public double getTopP() {
+                return topP;
+            }
+
+            public void setTopP(double topP) {
+                this.topP = topP;
+            }
+
+            public double getTopT() {
+                return topT;
+            }
+
+            public void setTopT(double topT) {
+                this.topT = topT;
+            }
+        }
+    }
+
+    /**
+     * Settings for listening in on live sessions over {@code /ws/monitor}.
+     */
+    public static class Monitor {
+        /** Whether listeners may attach to sessions; off by default. */
+        private boolean enabled = false;
+        /** Listeners one session accepts. */
+        private int maxListenersPerSession = MONITOR_MAX_LISTENERS_PER_SESSION;
+        /** Frames a listener may fall behind by before it is dropped. */
+        private int queueCapacity = MONITOR_QUEUE_CAPACITY;
+        /** Longest a single write to a listener may take before it is dropped. */
+        private Duration sendTimeLimit = Duration.ofSeconds(MONITOR_SEND_TIME_LIMIT_SECONDS);
+        /** Threads writing frames to listeners, shared by all sessions. */
+        private int senderThreads = MONITOR_SENDER_THREADS;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public int getMaxListenersPerSession() {
+            return maxListenersPerSession;
+        }
+
+        public void setMaxListenersPerSession(int maxListenersPerSession) {
+            this.maxListenersPerSession = maxListenersPerSession;
+        }
+
+        public int getQueueCapacity() {
+            return queueCapacity;
+        }
+
+        public void setQueueCapacity(int queueCapacity) {
+            this.queueCapacity = queueCapacity;
+        }
+
+        public Duration getSendTimeLimit() {
+            return sendTimeLimit;
+        }
+
+        public void setSendTimeLimit(Duration sendTimeLimit) {
+            this.sendTimeLimit = sendTimeLimit;
+        }
+
+        public int getSenderThreads() {
+            return senderThreads;
+        }
+
+        public void setSenderThreads(int senderThreads) {
+            this.senderThreads = senderThreads;
+        }
+    }
+
+    /**
+     * Settings for phone calls from telephony gateways over {@code /ws/telephony}.
+     */
+    public static class Telephony {
+        /** Whether gateways may connect; off by default. */
+        private boolean enabled = false;
+        /** Longest a write to a gateway may take before the call is dropped. */
+        private Duration sendTimeLimit = Duration.ofSeconds(TELEPHONY_SEND_TIME_LIMIT_SECONDS);
+        /** Outbound media a gateway may fall behind by before the call is dropped. */
+        private int sendBufferBytes = TELEPHONY_SEND_BUFFER_BYTES;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public Duration getSendTimeLimit() {
+            return sendTimeLimit;
+        }
+
+        public void setSendTimeLimit(Duration sendTimeLimit) {
+            this.sendTimeLimit = sendTimeLimit;
+        }
+
+        public int getSendBufferBytes() {
+            return sendBufferBytes;
+        }
+
+        public void setSendBufferBytes(int sendBufferBytes) {
+            this.sendBufferBytes = sendBufferBytes;
+        }
+    }
+
+    /**
+     * Settings for the gRPC voice session service, for server-to-server integrations.
+     */
+    public static class Grpc {
+        /** Whether the gRPC server is started; off by default. */
+        private boolean enabled = false;
+        /** Port the gRPC server listens on, separate from the HTTP port. */
+        private int port = GRPC_DEFAULT_PORT;
+        /** Largest client message accepted; bounds a single audio frame. */
+        private int maxInboundMessageBytes = GRPC_MAX_INBOUND_MESSAGE_BYTES;
+        /** Time calls still open at shutdown, after the drain, get to finish before they are cancelled. */
+        private Duration shutdownTimeout = Duration.ofSeconds(GRPC_SHUTDOWN_TIMEOUT_SECONDS);
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public int getPort() {
+            return port;
+        }
+
+        public void setPort(int port) {
+            this.port = port;
+        }
+
+        public int getMaxInboundMessageBytes() {
+            return maxInboundMessageBytes;
+        }
+
+        public void setMaxInboundMessageBytes(int maxInboundMessageBytes) {
+            this.maxInboundMessageBytes = maxInboundMessageBytes;
+        }
+
+        public Duration getShutdownTimeout() {
+            return shutdownTimeout;
+        }
+
+        public void setShutdownTimeout(Duration shutdownTimeout) {
+            this.shutdownTimeout = shutdownTimeout;
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package org.example.config;
+
+import org.example.admission.AdmissionController;
+import org.example.client.StreamSetupPolicy;
+import org.example.handler.NovaSonicEventHandler;
+import org.example.handler.ReactiveNovaWebSocketHandler;
+import org.example.recording.SessionRecorder;
+import org.example.session.DrainCoordinator;
+import org.example.transcript.TranscriptStore;
+import org.example.usage.UsageAccountant;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.cors.CorsConfiguration;
+import org.springframework.web.reactive.HandlerMapping;
+import org.springframework.web.reactive.config.WebFluxConfigurer;
+import org.springframework.web.reactive.handler.SimpleUrlHandlerMapping;
+import org.springframework.web.reactive.socket.server.WebSocketService;
+import org.springframework.web.reactive.socket.server.support.HandshakeWebSocketService;
+import org.springframework.web.reactive.socket.server.upgrade.ReactorNettyRequestUpgradeStrategy;
+
+import java.util.Map;
+
+/**
+ * WebSocket endpoint for the {@code reactive} profile, which runs the application on WebFlux and Netty.
+ */
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveWebSocketConfig implements WebFluxConfigurer {
+
+    /**
+     * Tomcat is on the class path for the servlet mode and would otherwise be picked for WebFlux too,
+     * along with its WebSocket upgrade.
+     */
+    @Bean
+    public NettyReactiveWebServerFactory nettyReactiveWebServerFactory() {
+        return new NettyReactiveWebServerFactory();
+    }
+
+    @Override
+    public WebSocketService getWebSocketService() {
+        return new HandshakeWebSocketService(new ReactorNettyRequestUpgradeStrategy());
+    }
+
+    @Bean
+    public ReactiveNovaWebSocketHandler reactiveNovaWebSocketHandler(NovaSonicEventHandler eventHandler,
+                                                                     UsageAccountant usageAccountant,
+                                                                     StreamSetupPolicy streamSetupPolicy,
+                                                                     DrainCoordinator drainCoordinator,
+                                                                     AdmissionController admissionController,
+                                                                     SessionRecorder sessionRecorder,
+                                                                     TranscriptStore transcriptStore,
+                                                                     NovaSonicProperties properties) {
+        return new ReactiveNovaWebSocketHandler(eventHandler, usageAccountant, streamSetupPolicy, drainCoordinator,
+                admissionController, sessionRecorder, transcriptStore, properties);
+    }
+
+    @Bean
+    public HandlerMapping reactiveWebSocketHandlerMapping(ReactiveNovaWebSocketHandler handler) {
+        CorsConfiguration cors = new CorsConfiguration();
+        cors.addAllowedOrigin("http://localhost:3000");
+
+        SimpleUrlHandlerMapping mapping = new SimpleUrlHandlerMapping(Map.of("/ws/audio", handler), -1);
+        mapping.setCorsConfigurations(Map.of("/ws/audio", cors));
+        return mapping;
+    }
+}
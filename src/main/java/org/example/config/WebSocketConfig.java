@@ -1,23 +1,62 @@
 package org.example.config;
 
+import org.example.handler.DrainHandshakeInterceptor;
+import org.example.handler.MonitorWebSocketHandler;
 import org.example.handler.NovaWebSocketHandler;
+import org.example.handler.TelephonyWebSocketHandler;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.web.socket.config.annotation.EnableWebSocket;
 import org.springframework.web.socket.config.annotation.WebSocketConfigurer;
 import org.springframework.web.socket.config.annotation.WebSocketHandlerRegistry;
+import org.springframework.web.socket.server.standard.ServletServerContainerFactoryBean;
 
+/**
+ * WebSocket endpoints for the default servlet stack. See {@link ReactiveWebSocketConfig} for the reactive profile.
+ */
 @Configuration
 @EnableWebSocket
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 public class WebSocketConfig implements WebSocketConfigurer {
     private final NovaWebSocketHandler novaWebSocketHandler;
+    private final DrainHandshakeInterceptor drainHandshakeInterceptor;
+    private final MonitorWebSocketHandler monitorWebSocketHandler;
+    private final TelephonyWebSocketHandler telephonyWebSocketHandler;
 
-    public WebSocketConfig(NovaWebSocketHandler novaWebSocketHandler) {
+    public WebSocketConfig(NovaWebSocketHandler novaWebSocketHandler, DrainHandshakeInterceptor drainHandshakeInterceptor,
+                           MonitorWebSocketHandler monitorWebSocketHandler,
+                           TelephonyWebSocketHandler telephonyWebSocketHandler) {
         this.novaWebSocketHandler = novaWebSocketHandler;
+        this.drainHandshakeInterceptor = drainHandshakeInterceptor;
+        this.monitorWebSocketHandler = monitorWebSocketHandler;
+        this.telephonyWebSocketHandler = telephonyWebSocketHandler;
     }
 
     @Override
     public void registerWebSocketHandlers(WebSocketHandlerRegistry registry) {
+        registry.addHandler(novaWebSocketHandler, "/ws/audio")
+               .addInterceptors(drainHandshakeInterceptor)
+               .setAllowedOrigins("http://localhost:3000"); // Configure CORS as needed
         registry.addHandler(novaWebSocketHandler, "/nova-audio")
+               .addInterceptors(drainHandshakeInterceptor)
                .setAllowedOrigins("http://localhost:3000");
+        // Listening in is not a new session, so it is allowed while draining
+        registry.addHandler(monitorWebSocketHandler, "/ws/monitor")
+               .setAllowedOrigins("http://localhost:3000");
+        // Telephony gateways connect server to server and send no Origin header
+        registry.addHandler(telephonyWebSocketHandler, "/ws/telephony")
+               .addInterceptors(drainHandshakeInterceptor);
+    }
+
+    @Bean
+    public ServletServerContainerFactoryBean createWebSocketContainer() {
+        ServletServerContainerFactoryBean container = new ServletServerContainerFactoryBean();
+        // Set maximum message size to 10MB to handle audio chunks
+        container.setMaxBinaryMessageBufferSize(10 * 1024 * 1024);
+        container.setMaxTextMessageBufferSize(1024 * 1024);
+        // Set timeout to 30 minutes to handle long transcription sessions
+        container.setMaxSessionIdleTimeout(30 * 60 * 1000L);
+        return container;
     }
 }
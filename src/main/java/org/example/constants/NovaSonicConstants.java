@@ -16,7 +16,7 @@ public final class NovaSonicConstants {
 
     // Bedrock Configuration
     public static final String NOVA_SONIC_MODEL_ID = "amazon.nova-sonic-v1:0";
-    public static final String NOVA_SONIC_REGION = "us-east-1"; // Nova Sonic only available in us-east-1
+    public static final String NOVA_SONIC_REGION = "us-east-1"; // Default endpoint when no routing endpoints are configured
 
     // Bedrock Streaming Constants
     public static final long REPLAY_PROCESSOR_EXPIRY_TIME = 3;
@@ -28,11 +28,132 @@ public final class NovaSonicConstants {
     public static final Set<Float> VALID_SAMPLE_RATES = new HashSet<>(Arrays.asList(8000F, 16000F, 24000F));
     public static final javax.sound.sampled.AudioFormat DEFAULT_AUDIO_FORMAT = 
         new javax.sound.sampled.AudioFormat(16000, SIXTEEN_BIT, VALID_CHANNELS, true, true);
+    public static final int OUTPUT_AUDIO_SAMPLE_RATE = 24000;
+    public static final int OUTPUT_AUDIO_SAMPLE_SIZE_IN_BITS = 16;
+    public static final int OUTPUT_AUDIO_CHANNEL = 1;
+    public static final int OUTPUT_AUDIO_BYTES_PER_SECOND = OUTPUT_AUDIO_SAMPLE_RATE * OUTPUT_AUDIO_SAMPLE_SIZE_IN_BITS / 8;
+    // Lowest output rate a client can negotiate, and the most a model rate is decimated by to reach one
+    public static final int OUTPUT_AUDIO_MIN_SAMPLE_RATE = 8000;
+    public static final int OUTPUT_AUDIO_MAX_DECIMATION = 3;
+
+    // Telephony Constants
+    public static final int TELEPHONY_SAMPLE_RATE = 8000;
+    public static final javax.sound.sampled.AudioFormat TELEPHONY_AUDIO_FORMAT =
+        new javax.sound.sampled.AudioFormat(TELEPHONY_SAMPLE_RATE, SIXTEEN_BIT, VALID_CHANNELS, true, false);
+    public static final int TELEPHONY_PCM_BYTES_PER_SECOND = TELEPHONY_SAMPLE_RATE * SIXTEEN_BIT / 8;
+    public static final int TELEPHONY_SEND_TIME_LIMIT_SECONDS = 5;
+    public static final int TELEPHONY_SEND_BUFFER_BYTES = 256 * 1024;
+
+    // gRPC Constants
+    public static final int GRPC_DEFAULT_PORT = 9090;
+    public static final int GRPC_MAX_INBOUND_MESSAGE_BYTES = 64 * 1024;
+    public static final int GRPC_SHUTDOWN_TIMEOUT_SECONDS = 5;
 
     // Streaming Constants
     public static final int SESSION_CREATION_TIMEOUT_SECONDS = 15;
     public static final int STREAM_LATCH_TIMEOUT = 30;
 
+    // Stream Setup Resilience Constants
+    public static final int STREAM_SETUP_MAX_ATTEMPTS = 4;
+    public static final long STREAM_SETUP_BUDGET_MILLIS = 8000;
+    public static final long STREAM_SETUP_BASE_DELAY_MILLIS = 200;
+    public static final long STREAM_SETUP_MAX_DELAY_MILLIS = 2000;
+    public static final double CIRCUIT_BREAKER_FAILURE_RATE = 0.5;
+    public static final int CIRCUIT_BREAKER_WINDOW_SIZE = 20;
+    public static final int CIRCUIT_BREAKER_MINIMUM_CALLS = 10;
+    public static final int CIRCUIT_BREAKER_OPEN_SECONDS = 15;
+    public static final int CIRCUIT_BREAKER_HALF_OPEN_TRIALS = 3;
+
+    // Region Routing Constants
+    public static final int ROUTING_CLIENT_POOL_SIZE = 4;
+    public static final long ROUTING_PROBE_INTERVAL_MILLIS = 5000;
+    public static final long ROUTING_PROBE_TIMEOUT_MILLIS = 2000;
+    public static final double ROUTING_LATENCY_SMOOTHING = 0.3;
+    public static final long ROUTING_LATENCY_TOLERANCE_MILLIS = 20;
+    public static final int ROUTING_UNHEALTHY_THRESHOLD = 3;
+    public static final int ROUTING_HEALTHY_THRESHOLD = 2;
+    public static final int BEDROCK_HTTPS_PORT = 443;
+
+    // Session Resume Constants
+    public static final int SESSION_RESUME_GRACE_SECONDS = 30;
+    public static final int REPLAY_BUFFER_MAX_FRAMES = 256;
+    public static final long REPLAY_BUFFER_MAX_BYTES = 2L * 1024 * 1024;
+
+    // Session Suspend Constants
+    public static final int SESSION_SUSPEND_AFTER_SECONDS = 30;
+    public static final long SESSION_SUSPEND_CHECK_INTERVAL_MILLIS = 1000;
+    public static final int SESSION_HISTORY_MAX_CHARS = 16 * 1024;
+    public static final int SESSION_HISTORY_TURN_MAX_CHARS = 1024;
+    public static final int SESSION_RESUME_AUDIO_BUFFER_BYTES = 5 * 16000 * 2;
+    // Text output Nova Sonic sends when the caller talks over a response
+    public static final String INTERRUPTED_TRANSCRIPT = "{ \"interrupted\" : true }";
+
+    // Capacity and Drain Constants
+    public static final int NODE_MAX_SESSIONS = 200;
+    public static final int DRAIN_TIMEOUT_SECONDS = 60;
+    public static final long DRAIN_POLL_INTERVAL_MILLIS = 1000;
+    public static final int DRAIN_RETRY_AFTER_SECONDS = 5;
+
+    // Admission Control Constants
+    public static final int ADMISSION_MAX_STREAMS = 200;
+    public static final int ADMISSION_MAX_STREAMS_PER_TENANT = 100;
+    public static final int ADMISSION_MAX_STREAMS_PER_ADDRESS = 20;
+    public static final int ADMISSION_QUEUE_CAPACITY = 32;
+    public static final long ADMISSION_QUEUE_TIMEOUT_MILLIS = 2000;
+    public static final int ADMISSION_RETRY_AFTER_SECONDS = 3;
+
+    // Session Recording Constants
+    public static final int RECORDING_QUEUE_CAPACITY = 16384;
+    public static final int RECORDING_SEGMENT_BYTES = 4 * 1024 * 1024;
+    public static final long RECORDING_MAX_SESSION_BYTES = 64L * 1024 * 1024;
+    public static final long RECORDING_MAX_TOTAL_BYTES = 4L * 1024 * 1024 * 1024;
+    public static final int RECORDING_RETENTION_DAYS = 7;
+    public static final int RECORDING_RETENTION_CHECK_MINUTES = 10;
+
+    // Usage Accounting Constants
+    public static final String DEFAULT_TENANT_ID = "default";
+    public static final int USAGE_WINDOW_MINUTES = 60;
+    public static final int USAGE_STORE_QUEUE_CAPACITY = 1024;
+    public static final int TRANSCRIPT_STORE_MAX_SESSIONS = 1000;
+    public static final int TRANSCRIPT_MAX_TURNS_PER_SESSION = 5000;
+    public static final int TRANSCRIPT_PAGE_DEFAULT_TURNS = 50;
+    public static final int TRANSCRIPT_PAGE_MAX_TURNS = 200;
+    public static final String TRANSCRIPT_TOKEN_HEADER = "X-Transcript-Token";
+
+    // Tool Use Constants
+    public static final int DEFAULT_TOOL_TIMEOUT_SECONDS = 3;
+    public static final int TOOL_EXECUTOR_MAX_CONCURRENCY = 32;
+    public static final int TOOL_EXECUTOR_QUEUE_CAPACITY = 256;
+    public static final int TOOL_RESULT_CACHE_MAX_ENTRIES = 1024;
+
+    // JIT Warm-up Constants
+    public static final int WARMUP_SESSIONS = 8;
+    public static final int WARMUP_TURNS_PER_SESSION = 5;
+    public static final int WARMUP_TIMEOUT_SECONDS = 60;
+    public static final String WARMUP_TENANT_ID = "warmup";
+
+    // Trace Replay Constants
+    public static final int REPLAY_CONCURRENCY = 16;
+    public static final int REPLAY_WARMUP_PASSES = 1;
+    public static final int REPLAY_GATE_TIMEOUT_SECONDS = 10;
+    public static final int REPLAY_SESSION_TIMEOUT_MINUTES = 10;
+    public static final String REPLAY_REPORT_FILE = "replay-report.json";
+
+    // Offline Evaluation Constants
+    public static final int EVALUATION_CONCURRENCY = 16;
+    public static final int EVALUATION_FRAME_MILLIS = 32;
+    public static final int EVALUATION_TRAILING_SILENCE_MILLIS = 2000;
+    public static final int EVALUATION_RESPONSE_TIMEOUT_SECONDS = 30;
+    public static final String EVALUATION_CORPUS_DIR = "corpus";
+    public static final String EVALUATION_REPORT_FILE = "evaluation-report.json";
+
+    // Session Monitoring Constants
+    public static final int MONITOR_MAX_LISTENERS_PER_SESSION = 16;
+    public static final int MONITOR_QUEUE_CAPACITY = 128;
+    public static final int MONITOR_SEND_TIME_LIMIT_SECONDS = 5;
+    public static final int MONITOR_SENDER_THREADS = 4;
+    public static final String MONITOR_TOKEN_HEADER = "X-Monitor-Token";
+
     // Audio Output Waiting Constants
     public static final int AUDIO_START_TIMEOUT_SECONDS = 10;
     public static final int AUDIO_END_TIMEOUT_SECONDS = 30;
@@ -115,4 +236,6 @@ im Allgemeinen zwei oder drei Sätze für gesprächige Szenarien.
     public static final String COMPLETION_START = "completionStart";
     public static final String USAGE_EVENT = "usageEvent";
     public static final String CONTENT_END = "contentEnd";
+    public static final String TOOL_USE = "toolUse";
+    public static final String TOOL_CONTENT_TYPE = "TOOL";
 }
@@ -0,0 +1,89 @@
+package org.example.evaluation;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.AudioInputStream;
+import javax.sound.sampled.AudioSystem;
+import javax.sound.sampled.UnsupportedAudioFileException;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.example.constants.NovaSonicConstants.DEFAULT_AUDIO_FORMAT;
+import static org.example.constants.NovaSonicConstants.LANG_EN_US;
+
+/**
+ * One recording of an evaluation corpus and what was said in it.
+ *
+ * @param name The file's path within the corpus
+ * @param language The language the recording is in, from the subdirectory it is in
+ * @param reference The reference transcript, from the {@code .txt} file next to the recording
+ */
+record CorpusFile(String name, String language, Path audio, String reference) {
+    private static final Logger logger = LoggerFactory.getLogger(CorpusFile.class);
+    private static final String AUDIO_SUFFIX = ".wav";
+    private static final String REFERENCE_SUFFIX = ".txt";
+
+    /**
+     * Finds the recordings of a corpus: WAV files at the top level are in {@code en-US}, and those in
+     * a subdirectory in the language the subdirectory is named after. A recording without a reference
+     * transcript is skipped.
+     */
+    static List<CorpusFile> load(Path corpus) throws IOException {
+        if (!Files.isDirectory(corpus)) {
+            throw new IOException("Evaluation corpus " + corpus + " is not a directory");
+        }
+        List<Path> recordings;
+        try (Stream<Path> entries = Files.walk(corpus, 2)) {
+            recordings = entries.filter(file -> file.getFileName().toString().endsWith(AUDIO_SUFFIX))
+                    .sorted()
+                    .toList();
+        }
+        List<CorpusFile> files = new ArrayList<>();
+        for (Path recording : recordings) {
+            String fileName = recording.getFileName().toString();
+            Path reference = recording.resolveSibling(
+                    fileName.substring(0, fileName.length() - AUDIO_SUFFIX.length()) + REFERENCE_SUFFIX);
+            if (!Files.exists(reference)) {
+                logger.warn("Skipping {}: no reference transcript {}", recording, reference.getFileName());
+                continue;
+            }
+            Path parent = corpus.relativize(recording).getParent();
+            files.add(new CorpusFile(corpus.relativize(recording).toString(),
+                    parent != null ? parent.toString() : LANG_EN_US, recording,
+                    Files.readString(reference, StandardCharsets.UTF_8).strip()));
+        }
+        return files;
+    }
+
+    /**
+     * Reads the recording as PCM in the server's input format, converting the sample encoding or
+     * byte order where needed. The sample rate and channel count must already match.
+     */
+    byte[] readPcm() throws IOException {
+        try (AudioInputStream source = AudioSystem.getAudioInputStream(audio.toFile())) {
+            AudioFormat format = source.getFormat();
+            if (format.getSampleRate() != DEFAULT_AUDIO_FORMAT.getSampleRate()
+                    || format.getChannels() != DEFAULT_AUDIO_FORMAT.getChannels()) {
+                throw new IOException(name + " is " + format + "; corpus audio must be "
+                        + (int) DEFAULT_AUDIO_FORMAT.getSampleRate() + " Hz mono");
+            }
+            if (format.matches(DEFAULT_AUDIO_FORMAT)) {
+                return source.readAllBytes();
+            }
+            try (AudioInputStream converted = AudioSystem.getAudioInputStream(DEFAULT_AUDIO_FORMAT, source)) {
+                return converted.readAllBytes();
+            } catch (IllegalArgumentException e) {
+                throw new IOException(name + " is " + format + ", which cannot be converted to " + DEFAULT_AUDIO_FORMAT, e);
+            }
+        } catch (UnsupportedAudioFileException e) {
+            throw new IOException(name + " is not a supported audio file", e);
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package org.example.evaluation;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Function;
+import java.util.function.ToDoubleFunction;
+import java.util.stream.Collectors;
+
+/**
+ * Aggregates evaluation results per configuration and language, and per configuration across all
+ * languages. The word error rate of a group is its total word edits over its total reference words,
+ * so long files weigh more than short ones, as in the usual corpus-level figure. Latencies are over
+ * the files that got a response.
+ */
+final class EvaluationReport {
+    private static final double[] PERCENTILES = {0.5, 0.9, 0.99};
+
+    private final List<EvaluationResult> results;
+
+    EvaluationReport(List<EvaluationResult> results) {
+        this.results = results.stream()
+                .sorted(Comparator.comparing(EvaluationResult::config).thenComparing(result -> result.file().name()))
+                .toList();
+    }
+
+    long getCompleted() {
+        return results.stream().filter(EvaluationResult::completed).count();
+    }
+
+    int getFiles() {
+        return results.size();
+    }
+
+    JSONObject toJson(String corpus, String pace, long wallMillis) {
+        return new JSONObject()
+                .put("corpus", corpus)
+                .put("pace", pace)
+                .put("wallMillis", wallMillis)
+                .put("files", results.size())
+                .put("completed", getCompleted())
+                .put("configs", groups(EvaluationResult::config, result -> null))
+                .put("groups", groups(EvaluationResult::config, result -> result.file().language()))
+                .put("results", new JSONArray(results.stream().map(EvaluationResult::toJson).toList()));
+    }
+
+    private JSONArray groups(Function<EvaluationResult, String> config, Function<EvaluationResult, String> language) {
+        Map<List<String>, List<EvaluationResult>> groups = results.stream().collect(Collectors.groupingBy(
+                result -> Arrays.asList(config.apply(result), language.apply(result)),
+                () -> new TreeMap<>(Comparator.comparing((List<String> key) -> key.get(0))
+                        .thenComparing(key -> key.get(1), Comparator.nullsFirst(Comparator.naturalOrder()))),
+                Collectors.toList()));
+        JSONArray json = new JSONArray();
+        groups.forEach((key, group) -> {
+            JSONObject summary = summarize(group).put("config", key.get(0));
+            if (key.get(1) != null) {
+                summary.put("language", key.get(1));
+            }
+            json.put(summary);
+        });
+        return json;
+    }
+
+    private static JSONObject summarize(Collection<EvaluationResult> group) {
+        // Files without a response have no transcript worth scoring; they count as failed instead
+        long errors = group.stream().filter(EvaluationResult::completed).mapToLong(EvaluationResult::errors).sum();
+        long scoredWords = group.stream().filter(EvaluationResult::completed).mapToLong(EvaluationResult::referenceWords).sum();
+        return new JSONObject()
+                .put("files", group.size())
+                .put("completed", group.stream().filter(EvaluationResult::completed).count())
+                .put("audioSeconds", group.stream().mapToDouble(EvaluationResult::audioSeconds).sum())
+                .put("referenceWords", scoredWords)
+                .put("errors", errors)
+                .put("wer", scoredWords > 0 ? (double) errors / scoredWords : 0.0)
+                .put("transcriptLatencyMillis", latency(group, EvaluationResult::transcriptLatencyMillis))
+                .put("turnLatencyMillis", latency(group, EvaluationResult::turnLatencyMillis));
+    }
+
+    private static JSONObject latency(Collection<EvaluationResult> group, ToDoubleFunction<EvaluationResult> latency) {
+        double[] values = group.stream().mapToDouble(latency).filter(value -> value >= 0).sorted().toArray();
+        JSONObject json = new JSONObject().put("count", values.length);
+        if (values.length == 0) {
+            return json;
+        }
+        json.put("mean", Arrays.stream(values).average().orElse(0));
+        for (double percentile : PERCENTILES) {
+            // Nearest rank
+            int rank = (int) Math.ceil(percentile * values.length);
+            json.put("p" + Math.round(percentile * 100), values[Math.max(0, rank - 1)]);
+        }
+        return json.put("max", values[values.length - 1]);
+    }
+}
@@ -0,0 +1,45 @@
+package org.example.evaluation;
+
+import org.json.JSONObject;
+
+/**
+ * Outcome of one corpus file under one configuration.
+ *
+ * @param completed Whether the assistant answered within the response timeout
+ * @param error Why the file did not complete, or null
+ * @param errors Word edits between the reference and the caller's transcript
+ * @param transcriptLatencyMillis End of speech to the caller's last transcript, or -1
+ * @param turnLatencyMillis End of speech to the assistant's first audio, or -1
+ */
+record EvaluationResult(
+        CorpusFile file,
+        String config,
+        boolean completed,
+        String error,
+        String hypothesis,
+        int referenceWords,
+        int errors,
+        double audioSeconds,
+        double transcriptLatencyMillis,
+        double turnLatencyMillis) {
+
+    JSONObject toJson() {
+        JSONObject json = new JSONObject()
+                .put("file", file.name())
+                .put("language", file.language())
+                .put("config", config)
+                .put("completed", completed)
+                .put("audioSeconds", audioSeconds)
+                .put("referenceWords", referenceWords)
+                .put("errors", errors)
+                .put("wer", referenceWords > 0 ? (double) errors / referenceWords : 0.0)
+                .put("reference", file.reference())
+                .put("hypothesis", hypothesis)
+                .put("transcriptLatencyMillis", transcriptLatencyMillis)
+                .put("turnLatencyMillis", turnLatencyMillis);
+        if (error != null) {
+            json.put("error", error);
+        }
+        return json;
+    }
+}
@@ -0,0 +1,252 @@
+package org.example.evaluation;
+
+import io.reactivex.rxjava3.core.Flowable;
+import org.example.client.NovaSonicClient;
+import org.example.client.StreamSetupException;
+import org.example.client.StreamSetupPolicy;
+import org.example.config.NovaSonicProperties;
+import org.example.handler.NovaSonicEventHandler;
+import org.example.util.NovaSonicMessageUtil;
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.example.constants.NovaSonicConstants.DEFAULT_AUDIO_FORMAT;
+import static org.example.constants.NovaSonicConstants.EVALUATION_FRAME_MILLIS;
+
+/**
+ * Evaluates transcription accuracy and turn latency over a corpus of recordings, so a change of
+ * system prompt, language or voice can be judged on numbers. Every recording is streamed through
+ * a {@link NovaSonicClient} under every configured {@link NovaSonicProperties.Evaluation.Config},
+ * on whichever Bedrock stream the application is set up for: the fake stream needs no credentials,
+ * so the pipeline can run anywhere, while word error rates only mean something against Bedrock.
+ * The caller's transcript is scored against the reference with {@link WordErrorRate}, and the
+ * report aggregates per language and configuration. Enabled by {@code novasonic.evaluation.enabled};
+ * the application exits once the report is written.
+ * <p>
+ * Each recording is followed by silence until the assistant answers, as a caller would wait, and
+ * the session ends there. Recordings run {@code concurrency} at a time; a recording's audio and
+ * output flow through the client's pull mode, so its thread only waits for the session to end.
+ */
+@Component
+public class EvaluationRunner implements ApplicationRunner {
+    private static final Logger logger = LoggerFactory.getLogger(EvaluationRunner.class);
+
+    private final NovaSonicProperties.Evaluation settings;
+    private final NovaSonicEventHandler eventHandler;
+    private final StreamSetupPolicy streamSetupPolicy;
+    private final ConfigurableApplicationContext applicationContext;
+    private final int frameBytes = (int) (DEFAULT_AUDIO_FORMAT.getFrameRate() * DEFAULT_AUDIO_FORMAT.getFrameSize()
+            * EVALUATION_FRAME_MILLIS / 1000);
+    private final AtomicInteger sessions = new AtomicInteger();
+    private final AtomicInteger finished = new AtomicInteger();
+
+    public EvaluationRunner(NovaSonicProperties properties, NovaSonicEventHandler eventHandler,
+                            StreamSetupPolicy streamSetupPolicy, ConfigurableApplicationContext applicationContext) {
+        this.settings = properties.getEvaluation();
+        this.eventHandler = eventHandler;
+        this.streamSetupPolicy = streamSetupPolicy;
+        this.applicationContext = applicationContext;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) throws Exception {
+        if (!settings.isEnabled()) {
+            return;
+        }
+
+        int exitCode;
+        try {
+            exitCode = evaluate() ? 0 : 1;
+        } catch (IOException e) {
+            logger.error("Evaluation failed: {}", e.getMessage());
+            exitCode = 1;
+        }
+        int status = exitCode;
+        System.exit(SpringApplication.exit(applicationContext, () -> status));
+    }
+
+    /**
+     * @return True if every file got a response under every configuration
+     */
+    private boolean evaluate() throws IOException, InterruptedException {
+        List<CorpusFile> files = CorpusFile.load(Path.of(settings.getCorpus()));
+        if (files.isEmpty()) {
+            throw new IOException("No recordings with reference transcripts found in " + settings.getCorpus());
+        }
+        List<NovaSonicProperties.Evaluation.Config> configs = settings.getConfigs();
+        int total = files.size() * configs.size();
+        logger.info("Evaluating {} recording(s) under {} config(s) at {} pace, {} at a time",
+                files.size(), configs.size(), settings.isFast() ? "fast" : "realtime", settings.getConcurrency());
+
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, settings.getConcurrency()), r -> {
+            Thread thread = new Thread(r, "evaluation-caller");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long startNanos = System.nanoTime();
+        List<Future<EvaluationResult>> pending = new ArrayList<>(total);
+        try {
+            for (NovaSonicProperties.Evaluation.Config config : configs) {
+                for (CorpusFile file : files) {
+                    pending.add(executor.submit(() -> {
+                        EvaluationResult result = evaluateFile(file, config);
+                        logProgress(result, total);
+                        return result;
+                    }));
+                }
+            }
+            List<EvaluationResult> results = new ArrayList<>(total);
+            for (Future<EvaluationResult> result : pending) {
+                try {
+                    results.add(result.get());
+                } catch (ExecutionException e) {
+                    // evaluateFile reports its own failures; anything else is a bug worth the stack trace
+                    throw new IllegalStateException("Evaluation of a recording failed", e.getCause());
+                }
+            }
+
+            EvaluationReport report = new EvaluationReport(results);
+            JSONObject json = report.toJson(settings.getCorpus(), settings.getPace(),
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos));
+            Files.writeString(Path.of(settings.getReport()), json.toString(2), StandardCharsets.UTF_8);
+            JSONArray summaries = json.getJSONArray("groups");
+            for (int i = 0; i < summaries.length(); i++) {
+                JSONObject group = summaries.getJSONObject(i);
+                logger.info("{} / {}: WER {} over {} words, {} of {} answered, turn latency p50 {} ms",
+                        group.getString("config"), group.getString("language"),
+                        String.format("%.3f", group.getDouble("wer")), group.getLong("referenceWords"),
+                        group.getLong("completed"), group.getLong("files"),
+                        String.format("%.0f", group.getJSONObject("turnLatencyMillis").optDouble("p50", Double.NaN)));
+            }
+            logger.info("Evaluated {} of {} recordings; report written to {}", report.getCompleted(),
+                    report.getFiles(), settings.getReport());
+            return report.getCompleted() == report.getFiles();
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Streams one recording under one configuration and scores what came back.
+     */
+    private EvaluationResult evaluateFile(CorpusFile file, NovaSonicProperties.Evaluation.Config config) {
+        byte[] pcm;
+        try {
+            pcm = file.readPcm();
+        } catch (IOException e) {
+            logger.warn("Skipping {}: {}", file.name(), e.getMessage());
+            return result(file, config, null, 0, e.getMessage());
+        }
+        double audioSeconds = (double) pcm.length / (DEFAULT_AUDIO_FORMAT.getFrameRate() * DEFAULT_AUDIO_FORMAT.getFrameSize());
+
+        EvaluationSession session = new EvaluationSession();
+        String systemPrompt = config.getSystemPrompt().isEmpty()
+                ? NovaSonicMessageUtil.getSystemPrompt(file.language()) : config.getSystemPrompt();
+        NovaSonicClient client = new NovaSonicClient(config.getMaxTokens(), config.getTopP(), config.getTopT(),
+                systemPrompt, file.language(), config.isFeminineVoice(), eventHandler, streamSetupPolicy);
+        client.setSessionId("evaluation-" + sessions.incrementAndGet());
+        client.setMessageSender(session);
+        // Generous: stream setup retries, the audio itself, the wait for a response and the session end
+        long timeoutMillis = 2 * settings.getResponseTimeout().toMillis() + settings.getTrailingSilence().toMillis()
+                + (long) (audioSeconds * 1000);
+        String error = null;
+        try {
+            client.initializeSession(DEFAULT_AUDIO_FORMAT, audio(pcm, session))
+                    .take(timeoutMillis, TimeUnit.MILLISECONDS)
+                    .blockingForEach(payload -> eventHandler.handleMessage(client, payload));
+        } catch (RuntimeException e) {
+            error = StreamSetupException.from(e).getMessage();
+        } finally {
+            client.close();
+        }
+        if (error == null && session.getResponseLatencyNanos() < 0) {
+            error = session.getError() != null ? session.getError() : "No response within " + settings.getResponseTimeout();
+        }
+        return result(file, config, session, audioSeconds, error);
+    }
+
+    /**
+     * The recording in 32 ms frames, then silence until the assistant answers or the response timeout
+     * passes. At realtime pace each frame is released on a 32 ms tick; in fast pace the recording and
+     * {@code trailingSilence} go as fast as the stream takes them, and the audio is then held open.
+     */
+    private Flowable<ByteBuffer> audio(byte[] pcm, EvaluationSession session) {
+        List<ByteBuffer> frames = new ArrayList<>(pcm.length / frameBytes + 1);
+        for (int offset = 0; offset < pcm.length; offset += frameBytes) {
+            frames.add(ByteBuffer.wrap(pcm, offset, Math.min(frameBytes, pcm.length - offset)).slice().asReadOnlyBuffer());
+        }
+        ByteBuffer silence = ByteBuffer.wrap(new byte[frameBytes]).asReadOnlyBuffer();
+
+        Flowable<ByteBuffer> speech = paced(Flowable.fromIterable(frames)).doOnComplete(session::markSpeechEnd);
+        Flowable<ByteBuffer> trailing;
+        if (settings.isFast()) {
+            long silenceFrames = settings.getTrailingSilence().toMillis() / EVALUATION_FRAME_MILLIS;
+            trailing = Flowable.concat(
+                    Flowable.rangeLong(0, silenceFrames).map(i -> silence.duplicate()),
+                    Flowable.<ByteBuffer>never());
+        } else {
+            trailing = paced(Flowable.<ByteBuffer>generate(emitter -> emitter.onNext(silence.duplicate())));
+        }
+        return Flowable.concat(speech, trailing
+                .takeUntil(Flowable.fromCompletionStage(session.getResponded()))
+                .take(settings.getResponseTimeout().toMillis(), TimeUnit.MILLISECONDS));
+    }
+
+    private Flowable<ByteBuffer> paced(Flowable<ByteBuffer> frames) {
+        if (settings.isFast()) {
+            return frames;
+        }
+        // Ticks the stream has no demand for are dropped, and only one is buffered, so a stream that
+        // stalls does not get a burst of frames afterwards
+        return Flowable.zip(frames, Flowable.interval(0, EVALUATION_FRAME_MILLIS, TimeUnit.MILLISECONDS).onBackpressureDrop(),
+                (frame, tick) -> frame, false, 1);
+    }
+
+    private EvaluationResult result(CorpusFile file, NovaSonicProperties.Evaluation.Config config,
+                                    EvaluationSession session, double audioSeconds, String error) {
+        String hypothesis = session != null ? session.getUserTranscript() : "";
+        WordErrorRate.Score score = WordErrorRate.score(file.reference(), hypothesis);
+        return new EvaluationResult(file, config.getName(), error == null, error, hypothesis,
+                score.referenceWords(), score.errors(), audioSeconds,
+                session != null ? millis(session.getTranscriptLatencyNanos()) : -1,
+                session != null ? millis(session.getResponseLatencyNanos()) : -1);
+    }
+
+    private static double millis(long nanos) {
+        return nanos < 0 ? -1 : nanos / 1_000_000.0;
+    }
+
+    private void logProgress(EvaluationResult result, int total) {
+        int done = finished.incrementAndGet();
+        if (result.completed()) {
+            logger.debug("{} [{}]: {} errors in {} words, turn latency {} ms", result.file().name(), result.config(),
+                    result.errors(), result.referenceWords(), result.turnLatencyMillis());
+        } else {
+            logger.warn("{} [{}] did not complete: {}", result.file().name(), result.config(), result.error());
+        }
+        if (done % 50 == 0 || done == total) {
+            logger.info("Evaluated {} of {}", done, total);
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package org.example.evaluation;
+
+import org.example.handler.NovaSonicEventHandler;
+
+import java.util.concurrent.CompletableFuture;
+
+import static org.example.constants.NovaSonicConstants.INTERRUPTED_TRANSCRIPT;
+
+/**
+ * Collects one evaluated file's output: what the caller was heard to say, and when the transcript
+ * and the assistant's first audio arrived after the end of the caller's speech. Output from before
+ * the end of speech, such as an answer to an earlier pause, does not count towards the latencies.
+ */
+class EvaluationSession implements NovaSonicEventHandler.WebSocketMessageSender {
+    private final StringBuilder userTranscript = new StringBuilder();
+    // Completed with the assistant's first audio after the end of speech
+    private final CompletableFuture<Boolean> responded = new CompletableFuture<>();
+    private volatile long speechEndNanos;
+    private volatile long transcriptNanos;
+    private volatile long responseNanos;
+    private volatile String error;
+
+    void markSpeechEnd() {
+        speechEndNanos = System.nanoTime();
+    }
+
+    CompletableFuture<Boolean> getResponded() {
+        return responded;
+    }
+
+    synchronized String getUserTranscript() {
+        return userTranscript.toString();
+    }
+
+    String getError() {
+        return error;
+    }
+
+    /**
+     * Time from the end of speech to the caller's last transcript, or -1 if none came after it.
+     */
+    long getTranscriptLatencyNanos() {
+        return transcriptNanos > 0 ? transcriptNanos - speechEndNanos : -1;
+    }
+
+    /**
+     * Time from the end of speech to the assistant's first audio, or -1 if the assistant did not answer.
+     */
+    long getResponseLatencyNanos() {
+        return responseNanos > 0 ? responseNanos - speechEndNanos : -1;
+    }
+
+    @Override
+    public void sendAudioResponse(String sessionId, String audioData) {
+        if (speechEndNanos > 0 && responseNanos == 0) {
+            responseNanos = System.nanoTime();
+            responded.complete(true);
+        }
+    }
+
+    @Override
+    public void sendTranscriptionUpdate(String sessionId, String transcript, String role) {
+        if (!"USER".equals(role) || INTERRUPTED_TRANSCRIPT.equals(transcript)) {
+            return;
+        }
+        synchronized (this) {
+            if (!userTranscript.isEmpty()) {
+                userTranscript.append(' ');
+            }
+            userTranscript.append(transcript);
+        }
+        if (speechEndNanos > 0 && responseNanos == 0) {
+            transcriptNanos = System.nanoTime();
+        }
+    }
+
+    @Override
+    public void sendError(String sessionId, String errorFrame) {
+        error = errorFrame;
+    }
+}
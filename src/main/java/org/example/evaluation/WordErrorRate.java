@@ -0,0 +1,67 @@
+package org.example.evaluation;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Word error rate of a transcript against its reference: the word-level edit distance (substitutions,
+ * deletions and insertions) over the number of reference words. Both texts are compared in lower case
+ * without punctuation. Words are interned to ints first, so the distance loop compares ints rather
+ * than strings, and only two rows of the distance matrix are kept, so a file costs
+ * O(reference x hypothesis) time and O(hypothesis) memory.
+ */
+final class WordErrorRate {
+    private static final Pattern NON_WORD = Pattern.compile("[^\\p{L}\\p{N}']+");
+    private static final int[] NO_WORDS = new int[0];
+
+    /**
+     * Edit distance and reference length of one transcript.
+     */
+    record Score(int referenceWords, int errors) {
+    }
+
+    private WordErrorRate() {
+    }
+
+    static Score score(String reference, String hypothesis) {
+        Map<String, Integer> vocabulary = new HashMap<>();
+        int[] referenceWords = words(reference, vocabulary);
+        int[] hypothesisWords = words(hypothesis, vocabulary);
+        return new Score(referenceWords.length, distance(referenceWords, hypothesisWords));
+    }
+
+    private static int[] words(String text, Map<String, Integer> vocabulary) {
+        String normalized = NON_WORD.matcher(text.toLowerCase(Locale.ROOT)).replaceAll(" ").strip();
+        if (normalized.isEmpty()) {
+            return NO_WORDS;
+        }
+        String[] tokens = normalized.split(" +");
+        int[] ids = new int[tokens.length];
+        for (int i = 0; i < tokens.length; i++) {
+            ids[i] = vocabulary.computeIfAbsent(tokens[i], word -> vocabulary.size());
+        }
+        return ids;
+    }
+
+    static int distance(int[] reference, int[] hypothesis) {
+        int[] previous = new int[hypothesis.length + 1];
+        int[] current = new int[hypothesis.length + 1];
+        for (int j = 0; j <= hypothesis.length; j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= reference.length; i++) {
+            current[0] = i;
+            int word = reference[i - 1];
+            for (int j = 1; j <= hypothesis.length; j++) {
+                int substitution = previous[j - 1] + (word == hypothesis[j - 1] ? 0 : 1);
+                current[j] = Math.min(substitution, Math.min(previous[j], current[j - 1]) + 1);
+            }
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return previous[hypothesis.length];
+    }
+}
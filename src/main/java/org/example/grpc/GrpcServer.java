@@ -0,0 +1,80 @@
+package org.example.grpc;
+
+import io.grpc.Server;
+import io.grpc.ServerBuilder;
+import io.grpc.ServerInterceptors;
+import org.example.config.NovaSonicProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs {@link NovaSonicGrpcService} on its own port when {@code novasonic.grpc.enabled} is set.
+ * The server stops after the {@link org.example.session.DrainCoordinator} has drained, in the same
+ * phase as the web server's graceful shutdown, so gRPC sessions get the drain deadline too.
+ */
+@Component
+public class GrpcServer implements SmartLifecycle {
+    private static final Logger logger = LoggerFactory.getLogger(GrpcServer.class);
+
+    private final NovaSonicProperties.Grpc settings;
+    private final NovaSonicGrpcService service;
+    private volatile Server server;
+
+    public GrpcServer(NovaSonicProperties properties, NovaSonicGrpcService service) {
+        this.settings = properties.getGrpc();
+        this.service = service;
+    }
+
+    @Override
+    public void start() {
+        if (!settings.isEnabled()) {
+            return;
+        }
+        try {
+            server = ServerBuilder.forPort(settings.getPort())
+                    .addService(ServerInterceptors.intercept(service, new RemoteAddressInterceptor()))
+                    .maxInboundMessageSize(settings.getMaxInboundMessageBytes())
+                    .build()
+                    .start();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not start the gRPC server on port " + settings.getPort(), e);
+        }
+        logger.info("gRPC server listening on port {}", server.getPort());
+    }
+
+    @Override
+    public void stop() {
+        Server running = server;
+        if (running == null) {
+            return;
+        }
+        running.shutdown();
+        try {
+            if (!running.awaitTermination(settings.getShutdownTimeout().toMillis(), TimeUnit.MILLISECONDS)) {
+                logger.warn("gRPC calls still open after {}, cancelling them", settings.getShutdownTimeout());
+                running.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            running.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+        server = null;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return server != null;
+    }
+
+    @Override
+    public int getPhase() {
+        // Stopped after the drain, alongside the web server's graceful shutdown
+        return SmartLifecycle.DEFAULT_PHASE - 1024;
+    }
+}
@@ -0,0 +1,403 @@
+package org.example.grpc;
+
+import com.google.protobuf.ByteString;
+import io.grpc.Status;
+import io.grpc.stub.ServerCallStreamObserver;
+import io.grpc.stub.StreamObserver;
+import org.example.admission.AdmissionPermit;
+import org.example.client.NovaSonicClient;
+import org.example.client.StreamSetupException;
+import org.example.grpc.proto.AudioOutput;
+import org.example.grpc.proto.ClientMessage;
+import org.example.grpc.proto.ServerMessage;
+import org.example.grpc.proto.SessionError;
+import org.example.grpc.proto.SessionStatus;
+import org.example.grpc.proto.Transcript;
+import org.example.grpc.proto.Usage;
+import org.example.handler.NovaSonicEventHandler;
+import org.example.usage.UsageSnapshot;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.ByteBuffer;
+import java.util.Base64;
+
+import static org.example.constants.NovaSonicConstants.INTERRUPTED_TRANSCRIPT;
+
+/**
+ * One {@code Converse} call. Inbound messages are only requested from the call as the Bedrock stream
+ * requests audio, through {@link AudioInput}, and Bedrock output is only requested while the call is
+ * ready for more, through {@link Output}, so the call's HTTP/2 flow control and the Bedrock stream's
+ * demand are one and the same. Everything sent on the call goes through this object's lock, since
+ * output comes from Bedrock threads and status from gRPC threads.
+ */
+class GrpcSession implements StreamObserver<ClientMessage>, NovaSonicEventHandler.WebSocketMessageSender {
+    private static final Logger logger = LoggerFactory.getLogger(GrpcSession.class);
+
+    private final String sessionId;
+    private final String clientAddress;
+    private final ServerCallStreamObserver<ServerMessage> responses;
+    private final NovaSonicGrpcService service;
+    private final AudioInput audioInput = new AudioInput();
+    private final Output output = new Output();
+    private volatile NovaSonicClient client;
+    private volatile AdmissionPermit admissionPermit;
+    // Only written on the call's serialized executor
+    private volatile boolean configured;
+
+    // Guarded by this
+    private boolean readySent;
+    private boolean finished;
+
+    GrpcSession(String sessionId, String clientAddress, ServerCallStreamObserver<ServerMessage> responses,
+                NovaSonicGrpcService service) {
+        this.sessionId = sessionId;
+        this.clientAddress = clientAddress;
+        this.responses = responses;
+        this.service = service;
+    }
+
+    String getSessionId() {
+        return sessionId;
+    }
+
+    String getClientAddress() {
+        return clientAddress;
+    }
+
+    NovaSonicClient getClient() {
+        return client;
+    }
+
+    AdmissionPermit getAdmissionPermit() {
+        return admissionPermit;
+    }
+
+    void setAdmissionPermit(AdmissionPermit admissionPermit) {
+        this.admissionPermit = admissionPermit;
+    }
+
+    Publisher<ByteBuffer> getAudioInput() {
+        return audioInput;
+    }
+
+    Subscriber<String> getOutput() {
+        return output;
+    }
+
+    void setClient(NovaSonicClient client) {
+        this.client = client;
+    }
+
+    /**
+     * Hands the client over for cleanup, to exactly one caller.
+     */
+    synchronized NovaSonicClient takeClient() {
+        NovaSonicClient taken = client;
+        client = null;
+        return taken;
+    }
+
+    synchronized boolean isFinished() {
+        return finished;
+    }
+
+    /**
+     * Starts reading the call, one message at a time until the session config has arrived.
+     */
+    void start() {
+        responses.setOnReadyHandler(output::requestWhenReady);
+        responses.setOnCancelHandler(() -> service.endSession(this, null));
+        responses.request(1);
+    }
+
+    @Override
+    public void onNext(ClientMessage message) {
+        switch (message.getMessageCase()) {
+            case CONFIG -> {
+                if (configured) {
+                    service.endSession(this, Status.INVALID_ARGUMENT.withDescription("Session config sent twice"));
+                    return;
+                }
+                configured = true;
+                service.startSession(this, message.getConfig());
+            }
+            case AUDIO -> {
+                if (!configured) {
+                    service.endSession(this, Status.INVALID_ARGUMENT.withDescription("The first message must be the session config"));
+                    return;
+                }
+                ByteBuffer pcm = message.getAudio().getPcm().asReadOnlyByteBuffer();
+                service.recordAudioIn(sessionId, pcm.remaining());
+                audioInput.deliver(pcm);
+            }
+            default -> {
+                // Unknown to this version; keep the demand the stream asked for
+                logger.debug("Ignoring {} message on gRPC session {}", message.getMessageCase(), sessionId);
+                responses.request(1);
+            }
+        }
+    }
+
+    @Override
+    public void onError(Throwable throwable) {
+        logger.debug("gRPC session {} cancelled by the client: {}", sessionId, throwable.getMessage());
+        service.endSession(this, null);
+    }
+
+    @Override
+    public void onCompleted() {
+        if (!configured) {
+            service.endSession(this, Status.INVALID_ARGUMENT.withDescription("Call ended before the session config"));
+            return;
+        }
+        // End of caller audio: the client completes the Bedrock session and the output follows
+        audioInput.complete();
+    }
+
+    /**
+     * Sends {@code READY} once, before any output.
+     */
+    synchronized void sendReady() {
+        if (readySent) {
+            return;
+        }
+        readySent = true;
+        send(status(SessionStatus.State.READY));
+    }
+
+    /**
+     * Ends the call. Safe to call more than once; only the first call has any effect.
+     *
+     * @param status The status to end the call with, or null if the client has already gone
+     * @return False if the call had already ended
+     */
+    boolean finish(Status status) {
+        synchronized (this) {
+            if (finished) {
+                return false;
+            }
+            if (status != null) {
+                if (status.isOk()) {
+                    send(status(SessionStatus.State.COMPLETED));
+                    responses.onCompleted();
+                } else {
+                    responses.onError(status.asRuntimeException());
+                }
+            }
+            finished = true;
+        }
+        output.cancel();
+        audioInput.complete();
+        return true;
+    }
+
+    /**
+     * Sends an error message ahead of a failing status.
+     */
+    synchronized void sendError(String code, String reason, String message, long retryAfterMillis) {
+        send(ServerMessage.newBuilder().setError(SessionError.newBuilder()
+                .setCode(code)
+                .setReason(reason)
+                .setMessage(message)
+                .setRetryAfterMs(retryAfterMillis)).build());
+    }
+
+    private void send(ServerMessage message) {
+        if (!finished && !responses.isCancelled()) {
+            responses.onNext(message);
+        }
+    }
+
+    private ServerMessage status(SessionStatus.State state) {
+        return ServerMessage.newBuilder()
+                .setStatus(SessionStatus.newBuilder().setState(state).setSessionId(sessionId))
+                .build();
+    }
+
+    @Override
+    public synchronized void sendAudioResponse(String sessionId, String audioData) {
+        send(ServerMessage.newBuilder()
+                .setAudio(AudioOutput.newBuilder().setPcm(ByteString.copyFrom(Base64.getDecoder().decode(audioData))))
+                .build());
+    }
+
+    @Override
+    public void sendTranscriptionUpdate(String sessionId, String transcript, String role) {
+        sendTranscript(sessionId, transcript, role, "FINAL");
+    }
+
+    /**
+     * Sends text output of every stage, so integrators can show speculative text and replace it.
+     */
+    @Override
+    public synchronized void sendTranscript(String sessionId, String transcript, String role, String generationStage) {
+        Transcript.Builder message = Transcript.newBuilder()
+                .setRole("USER".equals(role) ? Transcript.Role.USER : Transcript.Role.ASSISTANT)
+                .setStage("SPECULATIVE".equals(generationStage) ? Transcript.Stage.SPECULATIVE : Transcript.Stage.FINAL);
+        if (INTERRUPTED_TRANSCRIPT.equals(transcript)) {
+            message.setInterrupted(true);
+        } else {
+            message.setText(transcript);
+        }
+        send(ServerMessage.newBuilder().setTranscript(message).build());
+    }
+
+    @Override
+    public void sendUsageUpdate(String sessionId) {
+        service.getSessionUsage(sessionId).ifPresent(this::sendUsage);
+    }
+
+    private synchronized void sendUsage(UsageSnapshot usage) {
+        send(ServerMessage.newBuilder().setUsage(Usage.newBuilder()
+                .setInputSpeechTokens(usage.inputSpeechTokens())
+                .setInputTextTokens(usage.inputTextTokens())
+                .setOutputSpeechTokens(usage.outputSpeechTokens())
+                .setOutputTextTokens(usage.outputTextTokens())
+                .setAudioInSeconds(usage.audioInSeconds())
+                .setAudioOutSeconds(usage.audioOutSeconds())).build());
+    }
+
+    /**
+     * Turns an error frame from the event handler into an error message.
+     */
+    @Override
+    public void sendError(String sessionId, String errorFrame) {
+        try {
+            JSONObject frame = new JSONObject(errorFrame);
+            sendError(frame.optString("code", "error"), frame.optString("reason"), frame.optString("message"),
+                    frame.optLong("retryAfterMs", 0));
+        } catch (JSONException e) {
+            logger.warn("Dropping malformed error frame for gRPC session {}", sessionId);
+        }
+    }
+
+    /**
+     * Caller audio for the Bedrock stream. Each unit of demand from the stream becomes one more
+     * message requested from the call; anything other than audio is rare, and is replaced by
+     * requesting another message. Only the client subscribes, once.
+     */
+    private class AudioInput implements Publisher<ByteBuffer>, Subscription {
+        private volatile Subscriber<? super ByteBuffer> subscriber;
+        private volatile boolean done;
+
+        @Override
+        public void subscribe(Subscriber<? super ByteBuffer> audioSubscriber) {
+            subscriber = audioSubscriber;
+            audioSubscriber.onSubscribe(this);
+            if (done) {
+                audioSubscriber.onComplete();
+            }
+        }
+
+        @Override
+        public void request(long n) {
+            if (!done) {
+                responses.request((int) Math.min(n, Integer.MAX_VALUE));
+            }
+        }
+
+        @Override
+        public void cancel() {
+            done = true;
+        }
+
+        /**
+         * Called on the call's serialized executor, never beyond the demand requested.
+         */
+        synchronized void deliver(ByteBuffer pcm) {
+            Subscriber<? super ByteBuffer> audioSubscriber = subscriber;
+            if (!done && audioSubscriber != null) {
+                audioSubscriber.onNext(pcm);
+            }
+        }
+
+        synchronized void complete() {
+            if (done) {
+                return;
+            }
+            done = true;
+            Subscriber<? super ByteBuffer> audioSubscriber = subscriber;
+            if (audioSubscriber != null) {
+                audioSubscriber.onComplete();
+            }
+        }
+    }
+
+    /**
+     * Pulls Bedrock output one payload at a time, and the next one only once the call can take it.
+     */
+    private class Output implements Subscriber<String> {
+        // Guarded by GrpcSession.this
+        private Subscription subscription;
+        private boolean wanted;
+        private boolean cancelled;
+
+        @Override
+        public void onSubscribe(Subscription outputSubscription) {
+            synchronized (GrpcSession.this) {
+                if (cancelled) {
+                    outputSubscription.cancel();
+                    return;
+                }
+                subscription = outputSubscription;
+                wanted = true;
+            }
+            requestWhenReady();
+        }
+
+        @Override
+        public void onNext(String payload) {
+            sendReady();
+            service.handleOutput(GrpcSession.this, payload);
+            synchronized (GrpcSession.this) {
+                wanted = true;
+            }
+            requestWhenReady();
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            StreamSetupException failure = StreamSetupException.from(throwable);
+            logger.warn("gRPC session {} stream failed: {}", sessionId, failure.getMessage());
+            service.failSession(GrpcSession.this, failure);
+        }
+
+        @Override
+        public void onComplete() {
+            service.endSession(GrpcSession.this, Status.OK);
+        }
+
+        /**
+         * Requests the next payload if one is wanted and the call is ready. Called after each payload
+         * and whenever the call becomes ready again.
+         */
+        void requestWhenReady() {
+            Subscription next;
+            synchronized (GrpcSession.this) {
+                if (!wanted || subscription == null || cancelled || !responses.isReady()) {
+                    return;
+                }
+                wanted = false;
+                next = subscription;
+            }
+            next.request(1);
+        }
+
+        void cancel() {
+            Subscription current;
+            synchronized (GrpcSession.this) {
+                cancelled = true;
+                current = subscription;
+            }
+            if (current != null) {
+                current.cancel();
+            }
+        }
+    }
+}
@@ -0,0 +1,235 @@
+package org.example.grpc;
+
+import io.grpc.Status;
+import io.grpc.stub.ServerCallStreamObserver;
+import io.grpc.stub.StreamObserver;
+import org.example.admission.AdmissionController;
+import org.example.admission.AdmissionPermit;
+import org.example.admission.AdmissionRejectedException;
+import org.example.client.NovaSonicClient;
+import org.example.client.StreamSetupException;
+import org.example.client.StreamSetupPolicy;
+import org.example.grpc.proto.ClientMessage;
+import org.example.grpc.proto.NovaSonicGrpc;
+import org.example.grpc.proto.ServerMessage;
+import org.example.grpc.proto.SessionConfig;
+import org.example.handler.NovaSonicEventHandler;
+import org.example.recording.SessionRecorder;
+import org.example.session.DrainCoordinator;
+import org.example.session.SessionHost;
+import org.example.usage.UsageAccountant;
+import org.example.usage.UsageSnapshot;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.example.constants.NovaSonicConstants.DEFAULT_AUDIO_FORMAT;
+import static org.example.constants.NovaSonicConstants.DEFAULT_SYSTEM_PROMPT;
+
+/**
+ * {@code NovaSonic/Converse}: voice sessions for server-to-server integrations, over gRPC instead of
+ * {@code /ws/audio}. Session parameters come in a protobuf config message rather than the query
+ * string, audio goes both ways as raw PCM rather than base64 JSON, and transcripts carry their role
+ * and generation stage. Sessions go through the same admission, stream setup, usage accounting,
+ * recording and drain as WebSocket sessions, and run on the client's pull mode like the reactive
+ * endpoint, so the call's flow control follows the Bedrock stream's demand. Sessions are not
+ * resumable: a client that loses its call starts a new one.
+ */
+@Component
+public class NovaSonicGrpcService extends NovaSonicGrpc.NovaSonicImplBase implements SessionHost {
+    private static final Logger logger = LoggerFactory.getLogger(NovaSonicGrpcService.class);
+    private static final Status DRAIN_STATUS = Status.UNAVAILABLE.withDescription("Node draining, reconnect");
+    private static final Status TERMINATED_STATUS = Status.ABORTED.withDescription("Session terminated");
+
+    private final NovaSonicEventHandler eventHandler;
+    private final UsageAccountant usageAccountant;
+    private final StreamSetupPolicy streamSetupPolicy;
+    private final DrainCoordinator drainCoordinator;
+    private final AdmissionController admissionController;
+    private final SessionRecorder sessionRecorder;
+    private final Map<String, GrpcSession> sessions = new ConcurrentHashMap<>();
+    private final int inputBytesPerSecond = (int) (DEFAULT_AUDIO_FORMAT.getFrameRate() * DEFAULT_AUDIO_FORMAT.getFrameSize());
+
+    public NovaSonicGrpcService(NovaSonicEventHandler eventHandler, UsageAccountant usageAccountant,
+                                StreamSetupPolicy streamSetupPolicy, DrainCoordinator drainCoordinator,
+                                AdmissionController admissionController, SessionRecorder sessionRecorder) {
+        this.eventHandler = eventHandler;
+        this.usageAccountant = usageAccountant;
+        this.streamSetupPolicy = streamSetupPolicy;
+        this.drainCoordinator = drainCoordinator;
+        this.admissionController = admissionController;
+        this.sessionRecorder = sessionRecorder;
+    }
+
+    @Override
+    public int getActiveSessionCount() {
+        return sessions.size();
+    }
+
+    @Override
+    public void closeAllSessions() {
+        sessions.values().forEach(session -> endSession(session, DRAIN_STATUS));
+    }
+
+    @Override
+    public boolean terminateSession(String sessionId) {
+        GrpcSession session = sessions.get(sessionId);
+        if (session == null) {
+            return false;
+        }
+        endSession(session, TERMINATED_STATUS);
+        return true;
+    }
+
+    @Override
+    public StreamObserver<ClientMessage> converse(StreamObserver<ServerMessage> responseObserver) {
+        ServerCallStreamObserver<ServerMessage> responses = (ServerCallStreamObserver<ServerMessage>) responseObserver;
+        // Inbound messages are requested by the session, as the Bedrock stream asks for audio
+        responses.disableAutoRequest();
+        GrpcSession session = new GrpcSession(UUID.randomUUID().toString(),
+                RemoteAddressInterceptor.CLIENT_ADDRESS.get(), responses, this);
+        if (drainCoordinator.isDraining()) {
+            session.finish(DRAIN_STATUS);
+            return session;
+        }
+        logger.info("gRPC session started: {} from {}", session.getSessionId(), session.getClientAddress());
+        sessions.put(session.getSessionId(), session);
+        session.start();
+        return session;
+    }
+
+    /**
+     * Admits a configured session and opens its Bedrock stream. Audio is read from the call once the
+     * stream has been established and starts requesting it.
+     */
+    void startSession(GrpcSession session, SessionConfig config) {
+        String tenantId = usageAccountant.resolveTenant(config.getTenantId());
+        admissionController.admit(tenantId, session.getClientAddress())
+                .whenComplete((permit, failure) -> {
+                    if (failure != null) {
+                        rejectSession(session, failure);
+                    } else {
+                        openStream(session, config, tenantId, permit);
+                    }
+                });
+    }
+
+    private void rejectSession(GrpcSession session, Throwable failure) {
+        Throwable cause = failure instanceof CompletionException && failure.getCause() != null ? failure.getCause() : failure;
+        if (cause instanceof AdmissionRejectedException rejection) {
+            logger.info("gRPC session {} not admitted: {}", session.getSessionId(), rejection.getMessage());
+            session.sendError("overloaded", rejection.getReason().getCode(), rejection.getReason().getDescription(),
+                    rejection.getRetryAfter().toMillis());
+            endSession(session, Status.RESOURCE_EXHAUSTED.withDescription(rejection.getReason().getDescription()));
+        } else {
+            logger.error("Error admitting gRPC session {}: {}", session.getSessionId(), cause.getMessage());
+            endSession(session, Status.INTERNAL.withDescription("Admission failed"));
+        }
+    }
+
+    private void openStream(GrpcSession session, SessionConfig config, String tenantId, AdmissionPermit permit) {
+        String sessionId = session.getSessionId();
+        session.setAdmissionPermit(permit);
+        if (sessions.get(sessionId) != session) {
+            // The client went away while the session was queued for admission
+            permit.release();
+            return;
+        }
+        NovaSonicClient novaSonicClient;
+        try {
+            novaSonicClient = new NovaSonicClient(
+                config.hasMaxTokens() ? config.getMaxTokens() : 1024,
+                config.hasTopP() ? config.getTopP() : 0.9,
+                config.hasTopT() ? config.getTopT() : 0.7,
+                config.getSystemPrompt().isEmpty() ? DEFAULT_SYSTEM_PROMPT : config.getSystemPrompt(),
+                config.getLanguage().isEmpty() ? "en-US" : config.getLanguage(),
+                config.getFeminineVoice(),
+                eventHandler,
+                streamSetupPolicy
+            );
+        } catch (Exception e) {
+            logger.error("Error initializing gRPC session {}: {}", sessionId, e.getMessage());
+            endSession(session, Status.INVALID_ARGUMENT.withDescription("Invalid session config"));
+            return;
+        }
+        novaSonicClient.setMessageSender(session);
+        novaSonicClient.setSessionId(sessionId);
+        novaSonicClient.setRecording(sessionRecorder.start(sessionId, tenantId, DEFAULT_AUDIO_FORMAT));
+        usageAccountant.startSession(sessionId, tenantId);
+        session.setClient(novaSonicClient);
+        if (session.isFinished()) {
+            // Ended while the client was being set up, possibly before cleanup could see the client
+            cleanUp(session);
+            return;
+        }
+
+        novaSonicClient.initializeSession(DEFAULT_AUDIO_FORMAT, session.getAudioInput()).subscribe(session.getOutput());
+        // Ready once Bedrock has accepted the stream, after any setup retries
+        novaSonicClient.getStreamSetup().thenRun(session::sendReady);
+    }
+
+    void recordAudioIn(String sessionId, int bytes) {
+        usageAccountant.recordAudioIn(sessionId, bytes, inputBytesPerSecond);
+    }
+
+    /**
+     * Handles one Bedrock output payload, which the event handler turns into calls on the session.
+     */
+    void handleOutput(GrpcSession session, String payload) {
+        NovaSonicClient novaSonicClient = session.getClient();
+        if (novaSonicClient != null) {
+            eventHandler.handleMessage(novaSonicClient, payload);
+        }
+    }
+
+    Optional<UsageSnapshot> getSessionUsage(String sessionId) {
+        return usageAccountant.getSessionUsage(sessionId);
+    }
+
+    /**
+     * Ends a session whose stream could not be set up or failed, telling the client whether to retry.
+     */
+    void failSession(GrpcSession session, StreamSetupException failure) {
+        long retryAfterMillis = failure.getRetryAfter() != null ? failure.getRetryAfter().toMillis() : 0;
+        String code = failure.getReason() == StreamSetupException.Reason.STREAM_FAILED ? "stream_failed" : "stream_unavailable";
+        session.sendError(code, failure.getReason().getCode(), failure.getReason().getDescription(), retryAfterMillis);
+        Status status = failure.getReason().isRetryable() ? Status.UNAVAILABLE : Status.FAILED_PRECONDITION;
+        endSession(session, status.withDescription(failure.getReason().getDescription()));
+    }
+
+    /**
+     * Ends a session and releases everything it holds.
+     *
+     * @param status The status to end the call with, or null if the client cancelled it
+     */
+    void endSession(GrpcSession session, Status status) {
+        if (!session.finish(status)) {
+            return;
+        }
+        logger.info("gRPC session ended: {} ({})", session.getSessionId(), status != null ? status.getCode() : "cancelled");
+        cleanUp(session);
+    }
+
+    private void cleanUp(GrpcSession session) {
+        sessions.remove(session.getSessionId(), session);
+        NovaSonicClient novaSonicClient = session.takeClient();
+        if (novaSonicClient != null) {
+            try {
+                novaSonicClient.close();
+            } catch (Exception e) {
+                logger.warn("Error during client cleanup: {}", e.getMessage());
+            }
+            usageAccountant.finishSession(session.getSessionId());
+        }
+        AdmissionPermit permit = session.getAdmissionPermit();
+        if (permit != null) {
+            permit.release();
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package org.example.grpc;
+
+import io.grpc.Context;
+import io.grpc.Contexts;
+import io.grpc.Grpc;
+import io.grpc.Metadata;
+import io.grpc.ServerCall;
+import io.grpc.ServerCallHandler;
+import io.grpc.ServerInterceptor;
+import org.example.handler.NovaWebSocketHandler;
+
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+
+/**
+ * Makes the caller's address available to the service, which admission needs for its per-address
+ * quota, the way the WebSocket handlers take it from the connection.
+ */
+class RemoteAddressInterceptor implements ServerInterceptor {
+    static final Context.Key<String> CLIENT_ADDRESS = Context.keyWithDefault("novasonic-client-address", "unknown");
+
+    @Override
+    public <ReqT, RespT> ServerCall.Listener<ReqT> interceptCall(ServerCall<ReqT, RespT> call, Metadata headers,
+                                                                 ServerCallHandler<ReqT, RespT> next) {
+        SocketAddress remoteAddress = call.getAttributes().get(Grpc.TRANSPORT_ATTR_REMOTE_ADDR);
+        String clientAddress = remoteAddress instanceof InetSocketAddress inetAddress
+                ? NovaWebSocketHandler.clientAddress(inetAddress) : "unknown";
+        return Contexts.interceptCall(Context.current().withValue(CLIENT_ADDRESS, clientAddress), call, headers, next);
+    }
+}
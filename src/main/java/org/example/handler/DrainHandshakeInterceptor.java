@@ -0,0 +1,45 @@
+package org.example.handler;
+
+import org.example.session.DrainCoordinator;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.server.HandshakeInterceptor;
+
+import java.util.Map;
+
+import static org.example.constants.NovaSonicConstants.DRAIN_RETRY_AFTER_SECONDS;
+
+/**
+ * Refuses new sessions with 503 while the node drains. Resume attempts are still accepted so a
+ * caller whose connection dropped can finish its conversation here.
+ */
+@Component
+public class DrainHandshakeInterceptor implements HandshakeInterceptor {
+    private final DrainCoordinator drainCoordinator;
+
+    public DrainHandshakeInterceptor(DrainCoordinator drainCoordinator) {
+        this.drainCoordinator = drainCoordinator;
+    }
+
+    @Override
+    public boolean beforeHandshake(ServerHttpRequest request, ServerHttpResponse response,
+                                   WebSocketHandler wsHandler, Map<String, Object> attributes) {
+        String query = request.getURI().getRawQuery();
+        boolean resuming = query != null && query.contains("resumeToken=");
+        if (drainCoordinator.isDraining() && !resuming) {
+            response.setStatusCode(HttpStatus.SERVICE_UNAVAILABLE);
+            response.getHeaders().set(HttpHeaders.RETRY_AFTER, String.valueOf(DRAIN_RETRY_AFTER_SECONDS));
+            return false;
+        }
+        return true;
+    }
+
+    @Override
+    public void afterHandshake(ServerHttpRequest request, ServerHttpResponse response,
+                               WebSocketHandler wsHandler, Exception exception) {
+    }
+}
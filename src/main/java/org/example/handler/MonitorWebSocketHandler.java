@@ -0,0 +1,122 @@
+package org.example.handler;
+
+import org.example.config.NovaSonicProperties;
+import org.example.session.MonitorListener;
+import org.example.session.SessionHost;
+import org.example.session.VoiceSession;
+import org.example.usage.UsageAccountant;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.TextWebSocketHandler;
+
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.example.constants.NovaSonicConstants.MONITOR_TOKEN_HEADER;
+
+/**
+ * {@code /ws/monitor?sessionId=...&tenantId=...}: listens in on a live voice session. The handshake
+ * must carry the session's monitor token in {@code X-Monitor-Token}, which only the management port's
+ * sessions endpoint reports, so knowing a session id is not enough. The listener receives the session's sequenced frames (audio and transcripts) as the caller does, from the moment
+ * it attaches, and is closed when the session ends. Listeners are written to on a shared sender pool
+ * and dropped if they fall behind, so they never slow the session they watch.
+ */
+@Component
+public class MonitorWebSocketHandler extends TextWebSocketHandler {
+    private static final Logger logger = LoggerFactory.getLogger(MonitorWebSocketHandler.class);
+    static final CloseStatus DISABLED_CLOSE_STATUS = CloseStatus.POLICY_VIOLATION.withReason("Monitoring disabled");
+    static final CloseStatus UNKNOWN_SESSION_CLOSE_STATUS = CloseStatus.POLICY_VIOLATION.withReason("Unknown session");
+    static final CloseStatus FULL_CLOSE_STATUS = CloseStatus.SERVICE_OVERLOAD.withReason("Too many monitors on session");
+
+    private final NovaSonicProperties.Monitor settings;
+    private final ObjectProvider<SessionHost> sessionHosts;
+    private final UsageAccountant usageAccountant;
+    private final ExecutorService sender;
+    // Listener for each open monitor connection
+    private final Map<String, MonitorListener> listeners = new ConcurrentHashMap<>();
+
+    public MonitorWebSocketHandler(NovaSonicProperties properties, ObjectProvider<SessionHost> sessionHosts,
+                                   UsageAccountant usageAccountant) {
+        this.settings = properties.getMonitor();
+        this.sessionHosts = sessionHosts;
+        this.usageAccountant = usageAccountant;
+        AtomicInteger threadCount = new AtomicInteger();
+        this.sender = Executors.newFixedThreadPool(settings.getSenderThreads(), r -> {
+            Thread thread = new Thread(r, "monitor-sender-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Override
+    public void afterConnectionEstablished(WebSocketSession connection) throws IOException {
+        if (!settings.isEnabled()) {
+            connection.close(DISABLED_CLOSE_STATUS);
+            return;
+        }
+        Map<String, String> params = NovaWebSocketHandler.parseQueryString(connection.getUri().getQuery());
+        String sessionId = params.get("sessionId");
+        String tenantId = usageAccountant.resolveTenant(params.get("tenantId"));
+        String token = connection.getHandshakeHeaders().getFirst(MONITOR_TOKEN_HEADER);
+        VoiceSession voiceSession = sessionId != null ? findSession(sessionId) : null;
+        // A monitor only sees sessions of its own tenant whose token it holds, and cannot tell the others
+        // apart from unknown ones
+        if (voiceSession == null || !voiceSession.getTenantId().equals(tenantId)
+                || !voiceSession.isMonitorToken(token)) {
+            connection.close(UNKNOWN_SESSION_CLOSE_STATUS);
+            return;
+        }
+
+        MonitorListener listener = new MonitorListener(connection, settings.getQueueCapacity(), sender,
+                settings.getSendTimeLimit().toNanos());
+        if (!voiceSession.getMonitors().add(listener, settings.getMaxListenersPerSession())) {
+            connection.close(FULL_CLOSE_STATUS);
+            return;
+        }
+        listeners.put(connection.getId(), listener);
+        listener.offer(new TextMessage(String.format(
+                "{\"type\":\"monitor\",\"status\":\"attached\",\"sessionId\":\"%s\",\"lastSeq\":%d}",
+                sessionId, voiceSession.getLastSequence())));
+        logger.info("Monitor {} attached to session {} ({} listening)", connection.getId(), sessionId,
+                voiceSession.getMonitors().size());
+    }
+
+    private VoiceSession findSession(String sessionId) {
+        for (SessionHost host : sessionHosts) {
+            VoiceSession voiceSession = host.findSession(sessionId);
+            if (voiceSession != null) {
+                return voiceSession;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    protected void handleTextMessage(WebSocketSession connection, TextMessage message) {
+        // Monitors only listen
+    }
+
+    @Override
+    public void afterConnectionClosed(WebSocketSession connection, CloseStatus status) {
+        MonitorListener listener = listeners.remove(connection.getId());
+        if (listener != null) {
+            listener.close(status);
+            logger.info("Monitor {} detached with status {}", connection.getId(), status);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        sender.shutdownNow();
+    }
+}
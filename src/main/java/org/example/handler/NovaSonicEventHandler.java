@@ -1,6 +1,14 @@
 package org.example.handler;
 
 import org.example.client.NovaSonicClient;
+import org.example.jfr.BedrockEventReceivedEvent;
+import org.example.recording.SessionRecording;
+import org.example.session.SessionActivity;
+import org.example.tool.PendingToolUse;
+import org.example.tool.ToolExecutor;
+import org.example.tool.ToolRegistry;
+import org.example.usage.UsageAccountant;
+import org.example.util.Base64PcmDecimator;
 import org.json.JSONException;
 import org.json.JSONObject;
 import org.slf4j.Logger;
@@ -13,76 +21,190 @@ import static org.example.constants.NovaSonicConstants.*;
  */
 public class NovaSonicEventHandler {
     private static final Logger logger = LoggerFactory.getLogger(NovaSonicEventHandler.class);
-    private NovaSonicClient novaSonicClient;
+    private final UsageAccountant usageAccountant;
+    private final ToolRegistry toolRegistry;
+    private final ToolExecutor toolExecutor;
     private WebSocketMessageSender messageSender;
-    private String currentGenerationStage = null;
 
     public interface WebSocketMessageSender {
         void sendAudioResponse(String sessionId, String audioData);
         void sendTranscriptionUpdate(String sessionId, String transcript, String role);
+
+        /**
+         * Sends an error frame to the session's client. Senders without a control channel drop it.
+         */
+        default void sendError(String sessionId, String errorFrame) {
+        }
+
+        /**
+         * Sends text output along with the generation stage it belongs to. By default speculative
+         * text is dropped and the rest is sent as a transcription update; senders whose clients
+         * want the speculative text too override this.
+         */
+        default void sendTranscript(String sessionId, String transcript, String role, String generationStage) {
+            if (!"SPECULATIVE".equals(generationStage)) {
+                sendTranscriptionUpdate(sessionId, transcript, role);
+            }
+        }
+
+        /**
+         * Called after a usage event has been recorded for the session. Senders without a usage channel ignore it.
+         */
+        default void sendUsageUpdate(String sessionId) {
+        }
+    }
+
+    public NovaSonicEventHandler(UsageAccountant usageAccountant, ToolRegistry toolRegistry, ToolExecutor toolExecutor) {
+        this.usageAccountant = usageAccountant;
+        this.toolRegistry = toolRegistry;
+        this.toolExecutor = toolExecutor;
+    }
+
+    /**
+     * Returns the {@code toolConfiguration} to advertise in the prompt start event, or null if no tools are registered.
+     */
+    public String getToolConfiguration() {
+        return toolRegistry.getToolConfiguration();
     }
 
     public void setMessageSender(WebSocketMessageSender sender) {
         this.messageSender = sender;
     }
 
-    public void setNovaSonicClient(NovaSonicClient novaSonicClient) {
-        this.novaSonicClient = novaSonicClient;
+    /**
+     * Returns the sender for a client's output: its own sender if it has one, otherwise the default sender.
+     */
+    private WebSocketMessageSender senderFor(final NovaSonicClient novaSonicClient) {
+        WebSocketMessageSender clientSender = novaSonicClient.getMessageSender();
+        return clientSender != null ? clientSender : messageSender;
     }
 
     /**
      * Handles a message from the Nova Sonic API.
      *
+     * @param novaSonicClient The client whose stream produced the message
      * @param message The message to handle
      */
-    public void handleMessage(final String message) {
+    public void handleMessage(final NovaSonicClient novaSonicClient, final String message) {
+        SessionRecording recording = novaSonicClient.getRecording();
+        if (recording != null) {
+            recording.recordOutputEvent(message);
+        }
+        SessionActivity activity = novaSonicClient.getActivity();
+        long cpuStart = activity != null ? SessionActivity.threadCpuNanos() : 0;
+        BedrockEventReceivedEvent traced = new BedrockEventReceivedEvent();
+        traced.begin();
+        long parseStart = traced.isEnabled() ? System.nanoTime() : 0;
+        JSONObject event = null;
         try {
             final JSONObject jsonMessage = new JSONObject(message);
             logger.debug("Received message {}", message);
 
             // Check if the message contains an event
             if (jsonMessage.has(EVENT_KEY)) {
-                handleEventMessage(jsonMessage.getJSONObject(EVENT_KEY));
+                event = jsonMessage.getJSONObject(EVENT_KEY);
+                if (traced.isEnabled()) {
+                    traced.parseTime = System.nanoTime() - parseStart;
+                }
+                handleEventMessage(novaSonicClient, event);
             } else {
                 logger.info("Received other message type {}", jsonMessage);
             }
         } catch (Exception e) {
             logger.error("Error processing message for {}", message, e);
         }
+        traced.end();
+        if (traced.shouldCommit()) {
+            traced.sessionId = novaSonicClient.getSessionId();
+            // Events hold a single key naming their type
+            traced.eventType = event != null && !event.isEmpty() ? event.keys().next() : null;
+            traced.payloadLength = message.length();
+            traced.commit();
+        }
+        if (activity != null) {
+            activity.onBedrockEvent(SessionActivity.threadCpuNanos() - cpuStart);
+        }
     }
 
     /**
      * Handles an event message.
      *
+     * @param novaSonicClient The client whose stream produced the event
      * @param event The event JSON object
      */
-    private void handleEventMessage(final JSONObject event) {
+    private void handleEventMessage(final NovaSonicClient novaSonicClient, final JSONObject event) {
         if (event.has(TEXT_OUTPUT)) {
-            handleTextOutputEvent(event.getJSONObject(TEXT_OUTPUT));
+            handleTextOutputEvent(novaSonicClient, event.getJSONObject(TEXT_OUTPUT));
         } else if (event.has(AUDIO_OUTPUT)) {
-            handleAudioOutputEvent(event.getJSONObject(AUDIO_OUTPUT));
+            handleAudioOutputEvent(novaSonicClient, event.getJSONObject(AUDIO_OUTPUT));
         } else if (event.has(CONTENT_START)) {
-            handleContentStartEvent(event.getJSONObject(CONTENT_START));
+            handleContentStartEvent(novaSonicClient, event.getJSONObject(CONTENT_START));
         } else if (event.has(COMPLETION_START)) {
             logger.info("completion start received");
         } else if (event.has(USAGE_EVENT)) {
-            logger.info("usage event received");
+            logger.debug("usage event received");
+            usageAccountant.recordUsageEvent(novaSonicClient.getSessionId(), event.getJSONObject(USAGE_EVENT));
+            WebSocketMessageSender sender = senderFor(novaSonicClient);
+            if (sender != null) {
+                sender.sendUsageUpdate(novaSonicClient.getSessionId());
+            }
+        } else if (event.has(TOOL_USE)) {
+            handleToolUseEvent(novaSonicClient, event.getJSONObject(TOOL_USE));
         } else if (event.has(CONTENT_END)) {
             logger.info("Content end event received");
-            currentGenerationStage = null; // Reset generation stage
+            if (TOOL_CONTENT_TYPE.equals(event.getJSONObject(CONTENT_END).optString("type"))) {
+                sendToolResultWhenReady(novaSonicClient);
+            }
+            novaSonicClient.setGenerationStage(null); // Reset generation stage
         } else {
             logger.info("Received {}", event);
         }
     }
 
-    private void handleContentStartEvent(final JSONObject contentStart) {
+    /**
+     * Starts the requested tool on the tool executor right away, so it runs while the rest of the
+     * tool content block is still arriving. The result is sent once the block has ended.
+     *
+     * @param novaSonicClient The client whose stream produced the event
+     * @param toolUse The tool use JSON object
+     */
+    private void handleToolUseEvent(final NovaSonicClient novaSonicClient, final JSONObject toolUse) {
+        try {
+            String toolName = toolUse.getString("toolName");
+            String toolUseId = toolUse.getString("toolUseId");
+            logger.info("Tool use requested: {} ({})", toolName, toolUseId);
+            novaSonicClient.setPendingToolUse(new PendingToolUse(
+                    toolUseId, toolName, toolExecutor.execute(toolName, toolUse.optString(CONTENT_KEY))));
+        } catch (final JSONException e) {
+            logger.error("Error parsing tool use event: {}", e.getMessage());
+        }
+    }
+
+    private void sendToolResultWhenReady(final NovaSonicClient novaSonicClient) {
+        PendingToolUse pendingToolUse = novaSonicClient.takePendingToolUse();
+        if (pendingToolUse == null) {
+            logger.warn("Tool content ended without a pending tool use");
+            return;
+        }
+        pendingToolUse.result().thenAccept(result -> {
+            logger.debug("Sending result of {} ({})", pendingToolUse.toolName(), pendingToolUse.toolUseId());
+            novaSonicClient.sendToolResult(pendingToolUse.toolUseId(), result);
+        });
+    }
+
+    private void handleContentStartEvent(final NovaSonicClient novaSonicClient, final JSONObject contentStart) {
+        Base64PcmDecimator decimator = novaSonicClient.getOutputDecimator();
+        if (decimator != null && "AUDIO".equals(contentStart.optString("type"))) {
+            // A new response; the filter must not carry the end of an interrupted one into it
+            decimator.reset();
+        }
         try {
             if (contentStart.has("additionalModelFields")) {
 
                 String additionalFields = contentStart.getString("additionalModelFields");
                 JSONObject additionalFieldsJson = new JSONObject(additionalFields);
-                this.currentGenerationStage = additionalFieldsJson.getString("generationStage");
-                logger.info("Generation stage set to: {}", this.currentGenerationStage);
+                novaSonicClient.setGenerationStage(additionalFieldsJson.getString("generationStage"));
+                logger.info("Generation stage set to: {}", novaSonicClient.getGenerationStage());
             }
         } catch (final JSONException e) {
             logger.error("Error parsing content start event: {}", e.getMessage());
@@ -94,32 +216,42 @@ public class NovaSonicEventHandler {
      *
      * @param textOutput The text output JSON object
      */
-    private void handleAudioOutputEvent(final JSONObject audioOutput) {
+    private void handleAudioOutputEvent(final NovaSonicClient novaSonicClient, final JSONObject audioOutput) {
         try {
-            if (audioOutput.has("content") && messageSender != null) {
-                messageSender.sendAudioResponse(
-                    novaSonicClient.getSessionId(),
-                    audioOutput.getString("content")
-                );
+            WebSocketMessageSender sender = senderFor(novaSonicClient);
+            if (audioOutput.has("content") && sender != null) {
+                String content = audioOutput.getString("content");
+                usageAccountant.recordAudioOut(novaSonicClient.getSessionId(), content.length(),
+                        novaSonicClient.getOutputAudioRate().modelSampleRate() * OUTPUT_AUDIO_SAMPLE_SIZE_IN_BITS / 8);
+                Base64PcmDecimator decimator = novaSonicClient.getOutputDecimator();
+                if (decimator != null) {
+                    content = decimator.process(content);
+                    if (content == null) {
+                        return;
+                    }
+                }
+                sender.sendAudioResponse(novaSonicClient.getSessionId(), content);
             }
         } catch (final JSONException e) {
             logger.error("Error parsing audio output event: {}", e.getMessage());
         }
     }
 
-    private void handleTextOutputEvent(final JSONObject textOutput) {
+    private void handleTextOutputEvent(final NovaSonicClient novaSonicClient, final JSONObject textOutput) {
         try {
             final String content = textOutput.getString(CONTENT_KEY);
             final String role = textOutput.getString(ROLE_KEY);
             
             // Check if current generation is speculative
-            boolean isSpeculative = "SPECULATIVE".equals(currentGenerationStage);
+            boolean isSpeculative = "SPECULATIVE".equals(novaSonicClient.getGenerationStage());
             logger.info("Speculation is {} for text", isSpeculative);
 
-            if (!isSpeculative && messageSender != null && novaSonicClient != null) {
-                messageSender.sendTranscriptionUpdate(novaSonicClient.getSessionId(), content, role);
-            } else if (isSpeculative) {
-                logger.debug("Skipping speculative output: [{}]: {}", role, content);
+            WebSocketMessageSender sender = senderFor(novaSonicClient);
+            if (sender != null) {
+                sender.sendTranscript(novaSonicClient.getSessionId(), content, role, novaSonicClient.getGenerationStage());
+            }
+            if (isSpeculative) {
+                logger.debug("Speculative output: [{}]: {}", role, content);
             }
         } catch (final JSONException e) {
             logger.error("Error parsing text output event: {}", e.getMessage());
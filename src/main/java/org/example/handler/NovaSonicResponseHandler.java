@@ -1,5 +1,6 @@
 package org.example.handler;
 
+import org.example.client.NovaSonicClient;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import software.amazon.awssdk.core.async.SdkPublisher;
@@ -9,6 +10,8 @@ import software.amazon.awssdk.services.bedrockruntime.model.InvokeModelWithBidir
 import software.amazon.awssdk.services.bedrockruntime.model.InvokeModelWithBidirectionalStreamResponseHandler;
 
 import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
 
 /**
  * Response handler for bidirectional streaming responses from the Bedrock Runtime API.
@@ -16,14 +19,48 @@ import java.nio.charset.StandardCharsets;
 public class NovaSonicResponseHandler implements InvokeModelWithBidirectionalStreamResponseHandler {
     private static final Logger logger = LoggerFactory.getLogger(NovaSonicResponseHandler.class);
     private final NovaSonicEventHandler eventHandler;
+    private final NovaSonicClient novaSonicClient;
+    private final Consumer<SdkPublisher<InvokeModelWithBidirectionalStreamOutput>> eventStreamConsumer;
+    private final CompletableFuture<Void> established = new CompletableFuture<>();
 
     /**
      * Creates a new response handler.
      *
      * @param eventHandler The event handler to process events
+     * @param novaSonicClient The client that owns the stream, used to route events to its session
      */
-    public NovaSonicResponseHandler(NovaSonicEventHandler eventHandler) {
+    public NovaSonicResponseHandler(NovaSonicEventHandler eventHandler, NovaSonicClient novaSonicClient) {
+        this(eventHandler, novaSonicClient, null);
+    }
+
+    /**
+     * Creates a response handler that hands the raw event stream to {@code eventStreamConsumer}
+     * instead of subscribing to it, so the consumer controls demand.
+     *
+     * @param eventHandler The event handler to process events
+     * @param novaSonicClient The client that owns the stream
+     * @param eventStreamConsumer Receives the event stream, or null to dispatch events to the event handler
+     */
+    public NovaSonicResponseHandler(NovaSonicEventHandler eventHandler, NovaSonicClient novaSonicClient,
+                                    Consumer<SdkPublisher<InvokeModelWithBidirectionalStreamOutput>> eventStreamConsumer) {
         this.eventHandler = eventHandler;
+        this.novaSonicClient = novaSonicClient;
+        this.eventStreamConsumer = eventStreamConsumer;
+    }
+
+    /**
+     * Decodes the UTF-8 JSON payload of an output chunk.
+     */
+    public static String decodePayload(BidirectionalOutputPayloadPart event) {
+        return StandardCharsets.UTF_8.decode((event.bytes().asByteBuffer().rewind().duplicate())).toString();
+    }
+
+    /**
+     * Completes when Bedrock accepts the stream and starts its event stream, or exceptionally if
+     * the stream fails before that. Failures after this point only go to the stream's own future.
+     */
+    public CompletableFuture<Void> getEstablished() {
+        return established;
     }
 
     @Override
@@ -33,12 +70,16 @@ public class NovaSonicResponseHandler implements InvokeModelWithBidirectionalStr
 
     @Override
     public void onEventStream(SdkPublisher<InvokeModelWithBidirectionalStreamOutput> sdkPublisher) {
+        if (eventStreamConsumer != null) {
+            eventStreamConsumer.accept(sdkPublisher);
+            established.complete(null);
+            return;
+        }
         var completableFuture = sdkPublisher.subscribe((output) -> output.accept(new Visitor() {
             @Override
             public void visitChunk(BidirectionalOutputPayloadPart event) {
-                String payloadString =
-                    StandardCharsets.UTF_8.decode((event.bytes().asByteBuffer().rewind().duplicate())).toString();
-                    eventHandler.handleMessage(payloadString);
+                String payloadString = decodePayload(event);
+                eventHandler.handleMessage(novaSonicClient, payloadString);
             }
         }));
 
@@ -47,10 +88,16 @@ public class NovaSonicResponseHandler implements InvokeModelWithBidirectionalStr
             logger.error("Stream error : {}", t.getMessage(), t);
             return null;
         });
+        established.complete(null);
     }
 
     @Override
     public void exceptionOccurred(Throwable throwable) {
+        if (established.completeExceptionally(throwable)) {
+            // Stream setup failure; the setup policy decides whether it is retried and logs it
+            logger.warn("Bidirectional stream failed before it was established: {}", throwable.getMessage());
+            return;
+        }
         logger.error("Exception occurred in bidirectional stream: {}", throwable.getMessage(), throwable);
     }
 
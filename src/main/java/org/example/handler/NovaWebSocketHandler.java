@@ -1,6 +1,28 @@
 package org.example.handler;
 
+import org.example.admission.AdmissionController;
+import org.example.admission.AdmissionPermit;
+import org.example.admission.AdmissionRejectedException;
 import org.example.client.NovaSonicClient;
+import org.example.client.OutputAudioRate;
+import org.example.client.StreamSetupException;
+import org.example.client.StreamSetupPolicy;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.example.config.NovaSonicProperties;
+import org.example.jfr.SessionSetupEvent;
+import org.example.recording.SessionRecorder;
+import org.example.session.ConversationHistory;
+import org.example.session.OutboundFrameBuffer;
+import org.example.session.SessionActivity;
+import org.example.session.SessionDiagnostics;
+import org.example.session.SessionHost;
+import org.example.session.VoiceSession;
+import org.example.transcript.TranscriptStore;
+import org.example.usage.UsageAccountant;
+import org.example.util.PcmKernels;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Component;
@@ -11,21 +33,53 @@ import org.springframework.web.socket.WebSocketSession;
 import org.springframework.web.socket.handler.TextWebSocketHandler;
 
 import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
+import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 import static org.example.constants.NovaSonicConstants.DEFAULT_SYSTEM_PROMPT;
 import static org.example.constants.NovaSonicConstants.DEFAULT_AUDIO_FORMAT;
+import static org.example.constants.NovaSonicConstants.INTERRUPTED_TRANSCRIPT;
+import static org.example.constants.NovaSonicConstants.OUTPUT_AUDIO_SAMPLE_RATE;
+import static org.example.constants.NovaSonicConstants.SESSION_RESUME_AUDIO_BUFFER_BYTES;
+import static org.example.constants.NovaSonicConstants.SESSION_SUSPEND_CHECK_INTERVAL_MILLIS;
 
 @Component
-public class NovaWebSocketHandler extends TextWebSocketHandler implements NovaSonicEventHandler.WebSocketMessageSender {
+public class NovaWebSocketHandler extends TextWebSocketHandler
+        implements NovaSonicEventHandler.WebSocketMessageSender, SessionHost {
     private static final Logger logger = LoggerFactory.getLogger(NovaWebSocketHandler.class);
-    private final Map<String, WebSocketSession> sessions = new ConcurrentHashMap<>();
-    private final Map<String, NovaSonicClient> novaSonicClients = new ConcurrentHashMap<>();
-    private final Map<String, AtomicBoolean> sessionInitializationFlags = new ConcurrentHashMap<>();
+    static final CloseStatus DRAIN_CLOSE_STATUS = CloseStatus.SERVICE_RESTARTED.withReason("Node draining, reconnect");
+    static final CloseStatus TERMINATED_CLOSE_STATUS = CloseStatus.POLICY_VIOLATION.withReason("Session terminated by operator");
+    static final CloseStatus SESSION_ENDED_CLOSE_STATUS = CloseStatus.NORMAL.withReason("Session ended");
+    static final CloseStatus OVERLOAD_CLOSE_STATUS = CloseStatus.SERVICE_OVERLOAD.withReason("Server busy, retry later");
+    static final CloseStatus MALFORMED_RESUME_CLOSE_STATUS = CloseStatus.POLICY_VIOLATION.withReason("Malformed lastSeq");
+    // Voice sessions keyed by their logical session id (the id of the connection that created them)
+    private final Map<String, VoiceSession> sessions = new ConcurrentHashMap<>();
+    // Logical session id for each currently open WebSocket connection
+    private final Map<String, String> sessionIdsByConnection = new ConcurrentHashMap<>();
+    private final Map<String, String> sessionIdsByResumeToken = new ConcurrentHashMap<>();
+    // Expires detached sessions and suspends idle ones
+    private final ScheduledExecutorService sessionScheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "session-scheduler");
+        thread.setDaemon(true);
+        return thread;
+    });
 
-    private void validateSessionState(WebSocketSession session) throws IOException {
+    private VoiceSession getVoiceSession(WebSocketSession session) {
+        String sessionId = sessionIdsByConnection.get(session.getId());
+        return sessionId != null ? sessions.get(sessionId) : null;
+    }
+
+    private VoiceSession validateSessionState(WebSocketSession session) throws IOException {
         if (!session.isOpen()) {
             throw new IOException("Session is no longer open");
         }
@@ -36,18 +90,25 @@ public class NovaWebSocketHandler extends TextWebSocketHandler implements NovaSo
             throw new IOException("Invalid origin");
         }
 
-        AtomicBoolean initFlag = sessionInitializationFlags.get(session.getId());
-        if (initFlag == null || !initFlag.get()) {
+        VoiceSession voiceSession = getVoiceSession(session);
+        if (voiceSession == null || !voiceSession.getInitialized().get()) {
             throw new IOException("Session not fully initialized");
         }
+        return voiceSession;
     }
 
-    private void cleanupNovaSonicClient(WebSocketSession session, boolean removeSession) {
-        String sessionId = session.getId();
+    private void cleanupNovaSonicClient(VoiceSession voiceSession, boolean removeSession) {
+        cleanupNovaSonicClient(voiceSession, removeSession, CloseStatus.SERVER_ERROR);
+    }
+
+    private void cleanupNovaSonicClient(VoiceSession voiceSession, boolean removeSession, CloseStatus closeStatus) {
+        String sessionId = voiceSession.getSessionId();
         logger.info("Cleaning up resources for session {}", sessionId);
-        
+
         try {
-            NovaSonicClient client = novaSonicClients.remove(sessionId);
+            NovaSonicClient client = voiceSession.getNovaSonicClient();
+            voiceSession.setNovaSonicClient(null);
+            voiceSession.clearSuspended();
             if (client != null) {
                 try {
                     client.completeSession();
@@ -57,78 +118,447 @@ public class NovaWebSocketHandler extends TextWebSocketHandler implements NovaSo
                 }
             }
 
+            voiceSession.getInitialized().set(false);
             if (removeSession) {
-                sessionInitializationFlags.remove(sessionId);
+                voiceSession.cancelResumeExpiry();
                 sessions.remove(sessionId);
-                if (session.isOpen()) {
-                    try {
-                        session.close(CloseStatus.SERVER_ERROR);
-                    } catch (IOException e) {
-                        logger.warn("Error closing session: {}", e.getMessage());
+                voiceSession.getMonitors().closeAll(SESSION_ENDED_CLOSE_STATUS);
+                usageAccountant.finishSession(sessionId);
+                AdmissionPermit admissionPermit = voiceSession.getAdmissionPermit();
+                if (admissionPermit != null) {
+                    admissionPermit.release();
+                }
+                sessionIdsByResumeToken.remove(voiceSession.getResumeToken());
+                WebSocketSession session = voiceSession.getWebSocketSession();
+                if (session != null) {
+                    sessionIdsByConnection.remove(session.getId());
+                    if (session.isOpen()) {
+                        try {
+                            session.close(closeStatus);
+                        } catch (IOException e) {
+                            logger.warn("Error closing session: {}", e.getMessage());
+                        }
                     }
                 }
-            } else {
-                sessionInitializationFlags.put(sessionId, new AtomicBoolean(false));
             }
         } catch (Exception e) {
             logger.error("Error during cleanup", e);
         }
     }
 
-    private void cleanupSession(WebSocketSession session) {
-        cleanupNovaSonicClient(session, true);
+    private void cleanupSession(VoiceSession voiceSession) {
+        cleanupNovaSonicClient(voiceSession, true);
     }
 
     private final NovaSonicEventHandler eventHandler;
+    private final NovaSonicProperties.Session sessionProperties;
+    private final List<Integer> modelOutputSampleRates;
+    private final UsageAccountant usageAccountant;
+    private final StreamSetupPolicy streamSetupPolicy;
+    private final AdmissionController admissionController;
+    private final SessionRecorder sessionRecorder;
+    private final TranscriptStore transcriptStore;
+    private final int inputBytesPerSecond = (int) (DEFAULT_AUDIO_FORMAT.getFrameRate() * DEFAULT_AUDIO_FORMAT.getFrameSize());
+    private final Counter suspends;
+    private final Counter resumeFailures;
+    private final Timer resumeLatency;
 
-    public NovaWebSocketHandler(NovaSonicEventHandler eventHandler) {
+    public NovaWebSocketHandler(NovaSonicEventHandler eventHandler, NovaSonicProperties properties,
+                                UsageAccountant usageAccountant, StreamSetupPolicy streamSetupPolicy,
+                                AdmissionController admissionController, SessionRecorder sessionRecorder,
+                                TranscriptStore transcriptStore, MeterRegistry meterRegistry) {
         this.eventHandler = eventHandler;
+        this.sessionProperties = properties.getSession();
+        this.modelOutputSampleRates = properties.getBedrock().getOutputSampleRates();
+        this.usageAccountant = usageAccountant;
+        this.streamSetupPolicy = streamSetupPolicy;
+        this.admissionController = admissionController;
+        this.sessionRecorder = sessionRecorder;
+        this.transcriptStore = transcriptStore;
+        this.suspends = Counter.builder("novasonic.session.suspends")
+                .description("Sessions that gave up their Bedrock stream for lack of audio")
+                .register(meterRegistry);
+        this.resumeFailures = Counter.builder("novasonic.session.resume.failures")
+                .description("Suspended sessions whose stream could not be reopened")
+                .register(meterRegistry);
+        this.resumeLatency = Timer.builder("novasonic.session.resume.latency")
+                .description("Time from a suspended session's first audio to its reopened stream being ready")
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry);
+        Gauge.builder("novasonic.session.suspended", sessions, map -> map.values().stream().filter(VoiceSession::isSuspended).count())
+                .description("Sessions currently without a Bedrock stream")
+                .register(meterRegistry);
+
+        long suspendAfterMillis = sessionProperties.getSuspendAfter().toMillis();
+        if (suspendAfterMillis > 0) {
+            sessionScheduler.scheduleWithFixedDelay(() -> suspendIdleSessions(suspendAfterMillis),
+                    SESSION_SUSPEND_CHECK_INTERVAL_MILLIS, SESSION_SUSPEND_CHECK_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+        }
     }
 
     @Override
     public void afterConnectionEstablished(WebSocketSession session) {
         logger.info("WebSocket connection established: {}", session.getId());
-        sessions.put(session.getId(), session);
-        sessionInitializationFlags.put(session.getId(), new AtomicBoolean(false));
-        
+
         try {
             // Parse configuration from query parameters
             String query = session.getUri().getQuery();
             java.util.Map<String, String> params = parseQueryString(query);
-            
-            // Extract configuration values with defaults
-            int maxTokens = Integer.parseInt(params.getOrDefault("maxTokens", "1024"));
-            double topP = Double.parseDouble(params.getOrDefault("topP", "0.9"));
-            double topT = Double.parseDouble(params.getOrDefault("topT", "0.7"));
-            String systemPrompt = params.getOrDefault("systemPrompt", "");
-            String language = params.getOrDefault("language", "en-US");
-            boolean useFeminineVoice = Boolean.parseBoolean(params.getOrDefault("useFeminineVoice", "false"));
-            
-            // Initialize Nova Sonic client for this session with configuration
-            NovaSonicClient novaSonicClient = new NovaSonicClient(
-                maxTokens,
-                topP,
-                topT,
-                systemPrompt.isEmpty() ? DEFAULT_SYSTEM_PROMPT : systemPrompt,
-                language,
-                useFeminineVoice,
-                eventHandler
+
+            String resumeToken = params.get("resumeToken");
+            if (resumeToken != null && !resumeToken.isEmpty()) {
+                long lastSeq = parseLastSeq(params.get("lastSeq"));
+                if (lastSeq < 0) {
+                    logger.warn("Rejecting resume on connection {} with malformed lastSeq", session.getId());
+                    session.close(MALFORMED_RESUME_CLOSE_STATUS);
+                    return;
+                }
+                if (resumeSession(session, resumeToken, lastSeq)) {
+                    return;
+                }
+                logger.info("Resume token for connection {} is unknown or expired, starting a new session", session.getId());
+            }
+
+            // A resumed session keeps the stream it was admitted with; a new one has to be admitted first
+            String tenantId = usageAccountant.resolveTenant(params.get("tenantId"));
+            SessionSetupEvent setup = new SessionSetupEvent();
+            setup.begin();
+            SessionSetupEvent admission = new SessionSetupEvent();
+            admission.begin();
+            admissionController.admit(tenantId, clientAddress(session)).whenComplete((permit, failure) -> {
+                commitSetupPhase(admission, session.getId(), tenantId, "admission", failure == null);
+                if (failure != null) {
+                    commitSetupPhase(setup, session.getId(), tenantId, "total", false);
+                    rejectConnection(session, failure);
+                } else {
+                    startSession(session, params, tenantId, permit, setup);
+                }
+            });
+        } catch (Exception e) {
+            logger.error("Error initializing session: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * @param setup Traces the session's setup from the connection to its ready status
+     */
+    private void startSession(WebSocketSession session, Map<String, String> params, String tenantId,
+                              AdmissionPermit permit, SessionSetupEvent setup) {
+        if (!session.isOpen()) {
+            // The client gave up while queued for admission
+            permit.release();
+            return;
+        }
+
+        try {
+            VoiceSession voiceSession = new VoiceSession(
+                session.getId(),
+                UUID.randomUUID().toString(),
+                tenantId,
+                session,
+                new OutboundFrameBuffer(sessionProperties.getReplayBufferFrames(), sessionProperties.getReplayBufferBytes()),
+                new ConversationHistory(sessionProperties.getHistoryMaxChars())
             );
-            
-            eventHandler.setMessageSender(this);
-            novaSonicClient.setSessionId(session.getId());
-            novaSonicClient.initializeSession(DEFAULT_AUDIO_FORMAT);
-            novaSonicClients.put(session.getId(), novaSonicClient);
-            
-            // Mark session as initialized and send ready message
-            sessionInitializationFlags.get(session.getId()).set(true);
-            session.sendMessage(new TextMessage("{\"type\":\"status\",\"status\":\"ready\"}"));
+            voiceSession.setAdmissionPermit(permit);
+            voiceSession.setParameters(params);
+            voiceSession.setTranscriptToken(transcriptStore.openTranscript(voiceSession.getSessionId()));
+            sessions.put(voiceSession.getSessionId(), voiceSession);
+            sessionIdsByConnection.put(session.getId(), voiceSession.getSessionId());
+            sessionIdsByResumeToken.put(voiceSession.getResumeToken(), voiceSession.getSessionId());
+            usageAccountant.startSession(voiceSession.getSessionId(), voiceSession.getTenantId());
+            if (!session.isOpen()) {
+                // Closed before it was registered, so afterConnectionClosed did not see it
+                cleanupSession(voiceSession);
+                return;
+            }
+
+            NovaSonicClient novaSonicClient = createClient(voiceSession);
+            novaSonicClient.setRecording(sessionRecorder.start(voiceSession.getSessionId(), tenantId, DEFAULT_AUDIO_FORMAT,
+                    novaSonicClient.getOutputAudioRate().modelSampleRate()));
+            voiceSession.setNovaSonicClient(novaSonicClient);
+            SessionSetupEvent stream = new SessionSetupEvent();
+            stream.begin();
+            novaSonicClient.initializeSession(DEFAULT_AUDIO_FORMAT).whenComplete((ignored, failure) -> {
+                commitSetupPhase(stream, voiceSession.getSessionId(), tenantId, "stream", failure == null);
+                if (voiceSession.getNovaSonicClient() != novaSonicClient) {
+                    // Cleaned up while the stream was being opened
+                    return;
+                }
+                if (failure != null) {
+                    // Retryable failures close with 1013 (try again later) so clients back off
+                    StreamSetupException setupFailure = StreamSetupException.from(failure);
+                    voiceSession.send(setupFailure.toClientMessage());
+                    cleanupNovaSonicClient(voiceSession, true,
+                            setupFailure.getRetryAfter() != null ? OVERLOAD_CLOSE_STATUS : CloseStatus.SERVER_ERROR);
+                    commitSetupPhase(setup, voiceSession.getSessionId(), tenantId, "total", false);
+                    return;
+                }
+
+                // Mark session as initialized and send ready message
+                voiceSession.setStreamStartedMillis(System.currentTimeMillis());
+                voiceSession.getInitialized().set(true);
+                voiceSession.send(readyMessage(voiceSession, false));
+                commitSetupPhase(setup, voiceSession.getSessionId(), tenantId, "total", true);
+            });
         } catch (Exception e) {
             logger.error("Error initializing session: {}", e.getMessage());
         }
     }
 
-    private java.util.Map<String, String> parseQueryString(String query) {
+    /**
+     * Creates the Nova Sonic client for a session's stream, configured from the session's query parameters.
+     */
+    private NovaSonicClient createClient(VoiceSession voiceSession) {
+        Map<String, String> params = voiceSession.getParameters();
+        // Extract configuration values with defaults
+        int maxTokens = Integer.parseInt(params.getOrDefault("maxTokens", "1024"));
+        double topP = Double.parseDouble(params.getOrDefault("topP", "0.9"));
+        double topT = Double.parseDouble(params.getOrDefault("topT", "0.7"));
+        String systemPrompt = params.getOrDefault("systemPrompt", "");
+        String language = params.getOrDefault("language", "en-US");
+        boolean useFeminineVoice = Boolean.parseBoolean(params.getOrDefault("useFeminineVoice", "false"));
+
+        // Initialize Nova Sonic client for this session with configuration
+        NovaSonicClient novaSonicClient = new NovaSonicClient(
+            maxTokens,
+            topP,
+            topT,
+            systemPrompt.isEmpty() ? DEFAULT_SYSTEM_PROMPT : systemPrompt,
+            language,
+            useFeminineVoice,
+            eventHandler,
+            streamSetupPolicy
+        );
+
+        novaSonicClient.setMessageSender(this);
+        novaSonicClient.setSessionId(voiceSession.getSessionId());
+        novaSonicClient.setActivity(voiceSession.getActivity());
+        novaSonicClient.setOutputAudioRate(outputAudioRate(params, modelOutputSampleRates));
+        return novaSonicClient;
+    }
+
+    /**
+     * The output rate to give a session that asked for the {@code outputSampleRate} query parameter,
+     * 24 kHz if it did not ask or the value is not a number.
+     */
+    static OutputAudioRate outputAudioRate(Map<String, String> params, List<Integer> modelRates) {
+        int requested = OUTPUT_AUDIO_SAMPLE_RATE;
+        String value = params.get("outputSampleRate");
+        if (value != null && !value.isEmpty()) {
+            try {
+                requested = Integer.parseInt(value);
+            } catch (NumberFormatException e) {
+                logger.warn("Ignoring outputSampleRate {}: not a number", value);
+            }
+        }
+        return OutputAudioRate.negotiate(requested, modelRates);
+    }
+
+    /**
+     * Suspends every session whose stream has carried no audio either way for {@code suspendAfterMillis}.
+     */
+    private void suspendIdleSessions(long suspendAfterMillis) {
+        long now = System.currentTimeMillis();
+        for (VoiceSession voiceSession : sessions.values()) {
+            long streamStarted = voiceSession.getStreamStartedMillis();
+            SessionActivity activity = voiceSession.getActivity();
+            long lastActive = Math.max(streamStarted,
+                    Math.max(activity.getLastCallerAudioMillis(), activity.getLastBedrockEventMillis()));
+            if (streamStarted != 0 && now - lastActive >= suspendAfterMillis) {
+                try {
+                    suspendSession(voiceSession);
+                } catch (RuntimeException e) {
+                    logger.error("Error suspending session {}", voiceSession.getSessionId(), e);
+                }
+            }
+        }
+    }
+
+    /**
+     * Ends the session's audio content and closes its Bedrock stream, releasing its admission permit.
+     * The session, its connection and its conversation history stay.
+     */
+    private void suspendSession(VoiceSession voiceSession) {
+        NovaSonicClient client = voiceSession.suspend();
+        if (client == null) {
+            return;
+        }
+        try {
+            client.completeSession();
+            client.close();
+        } catch (Exception e) {
+            logger.warn("Error closing stream of suspended session {}: {}", voiceSession.getSessionId(), e.getMessage());
+        }
+        AdmissionPermit admissionPermit = voiceSession.getAdmissionPermit();
+        voiceSession.setAdmissionPermit(null);
+        if (admissionPermit != null) {
+            admissionPermit.release();
+        }
+        suspends.increment();
+        voiceSession.send("{\"type\":\"status\",\"status\":\"suspended\"}");
+        logger.info("Suspended idle session {} ({} characters of history)",
+                voiceSession.getSessionId(), voiceSession.getHistory().getChars());
+    }
+
+    /**
+     * Reopens a suspended session's stream, through admission control like a new session, seeded
+     * with its conversation history. The caller's audio is held until the stream is ready.
+     */
+    private void resumeStream(VoiceSession voiceSession) {
+        String sessionId = voiceSession.getSessionId();
+        logger.info("Resuming suspended session {}", sessionId);
+        admissionController.admit(voiceSession.getTenantId(), clientAddress(voiceSession.getWebSocketSession()))
+                .whenComplete((permit, failure) -> {
+                    if (failure != null) {
+                        Duration retryAfter = failure instanceof AdmissionRejectedException rejected
+                                ? rejected.getRetryAfter() : Duration.ZERO;
+                        failResume(voiceSession, retryAfter, failure instanceof AdmissionRejectedException rejected
+                                ? rejected.toClientMessage() : null);
+                        return;
+                    }
+                    NovaSonicClient client;
+                    try {
+                        client = createClient(voiceSession);
+                        client.setHistory(voiceSession.getHistory().getTurns());
+                    } catch (RuntimeException e) {
+                        permit.release();
+                        logger.error("Error creating client for session {}: {}", sessionId, e.getMessage());
+                        failResume(voiceSession, Duration.ZERO, null);
+                        return;
+                    }
+                    if (!voiceSession.setResumingClient(client, permit)) {
+                        // Cleaned up while waiting for admission
+                        permit.release();
+                        return;
+                    }
+                    client.initializeSession(DEFAULT_AUDIO_FORMAT).whenComplete((ignored, setupFailure) -> {
+                        if (voiceSession.getNovaSonicClient() != client) {
+                            // Cleaned up while the stream was being opened
+                            return;
+                        }
+                        if (setupFailure != null) {
+                            StreamSetupException streamFailure = StreamSetupException.from(setupFailure);
+                            voiceSession.setNovaSonicClient(null);
+                            voiceSession.setAdmissionPermit(null);
+                            permit.release();
+                            client.close();
+                            Duration retryAfter = streamFailure.getRetryAfter();
+                            failResume(voiceSession, retryAfter != null ? retryAfter : Duration.ZERO,
+                                    streamFailure.toClientMessage());
+                            return;
+                        }
+                        long resumeNanos = voiceSession.completeResume(client);
+                        if (resumeNanos < 0) {
+                            return;
+                        }
+                        resumeLatency.record(resumeNanos, TimeUnit.NANOSECONDS);
+                        voiceSession.send(readyMessage(voiceSession, false));
+                        logger.info("Resumed stream of session {} in {} ms", sessionId, TimeUnit.NANOSECONDS.toMillis(resumeNanos));
+                    });
+                });
+    }
+
+    /**
+     * Keeps a session suspended after its stream could not be reopened, and tells the client why.
+     */
+    private void failResume(VoiceSession voiceSession, Duration retryAfter, String errorFrame) {
+        resumeFailures.increment();
+        voiceSession.failResume(System.currentTimeMillis() + retryAfter.toMillis());
+        if (errorFrame != null) {
+            voiceSession.send(errorFrame);
+        }
+        logger.info("Could not resume session {}, retrying after {}", voiceSession.getSessionId(), retryAfter);
+    }
+
+    private static void commitSetupPhase(SessionSetupEvent event, String sessionId, String tenantId, String phase,
+                                         boolean succeeded) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.sessionId = sessionId;
+            event.tenantId = tenantId;
+            event.phase = phase;
+            event.succeeded = succeeded;
+            event.commit();
+        }
+    }
+
+    /**
+     * Tells a connection that was not admitted when to retry, then closes it with 1013 (try again later).
+     */
+    private void rejectConnection(WebSocketSession session, Throwable failure) {
+        if (!(failure instanceof AdmissionRejectedException)) {
+            logger.error("Admission failed for connection {}", session.getId(), failure);
+            return;
+        }
+        if (!session.isOpen()) {
+            return;
+        }
+        try {
+            session.sendMessage(new TextMessage(((AdmissionRejectedException) failure).toClientMessage()));
+            session.close(OVERLOAD_CLOSE_STATUS);
+        } catch (IOException e) {
+            logger.warn("Error rejecting connection {}: {}", session.getId(), e.getMessage());
+        }
+    }
+
+    public static String clientAddress(InetSocketAddress remoteAddress) {
+        return remoteAddress != null && remoteAddress.getAddress() != null
+                ? remoteAddress.getAddress().getHostAddress() : "unknown";
+    }
+
+    private static String clientAddress(WebSocketSession session) {
+        return clientAddress(session.getRemoteAddress());
+    }
+
+    /**
+     * The last sequence number the client saw, 0 when it sent none, or -1 when the value is not a sequence number.
+     */
+    private static long parseLastSeq(String value) {
+        if (value == null || value.isEmpty()) {
+            return 0;
+        }
+        try {
+            long lastSeq = Long.parseLong(value);
+            return lastSeq >= 0 ? lastSeq : -1;
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Re-attaches a connection to a session that is waiting out its resume grace period and
+     * replays the output the client missed.
+     *
+     * @return False if no resumable session matches the token
+     */
+    private boolean resumeSession(WebSocketSession session, String resumeToken, long lastSeq) {
+        String sessionId = sessionIdsByResumeToken.get(resumeToken);
+        VoiceSession voiceSession = sessionId != null ? sessions.get(sessionId) : null;
+        if (voiceSession == null || (voiceSession.getNovaSonicClient() == null && !voiceSession.isSuspended())) {
+            return false;
+        }
+
+        WebSocketSession previous = voiceSession.getWebSocketSession();
+        if (previous != null) {
+            sessionIdsByConnection.remove(previous.getId());
+        }
+        sessionIdsByConnection.put(session.getId(), sessionId);
+        boolean complete = voiceSession.attach(session, lastSeq);
+        voiceSession.send(readyMessage(voiceSession, true));
+        logger.info("Resumed session {} on connection {} from seq {} (replay complete: {})",
+                sessionId, session.getId(), lastSeq, complete);
+        return true;
+    }
+
+    private String readyMessage(VoiceSession voiceSession, boolean resumed) {
+        // The rate follows from the session's parameters, so it is the same on every stream the session opens
+        int outputSampleRate = outputAudioRate(voiceSession.getParameters(), modelOutputSampleRates).sampleRate();
+        return String.format("{\"type\":\"status\",\"status\":\"ready\",\"sessionId\":\"%s\",\"resumeToken\":\"%s\",\"transcriptToken\":\"%s\",\"seq\":%d,\"resumed\":%b,\"outputSampleRate\":%d}",
+                voiceSession.getSessionId(), voiceSession.getResumeToken(), voiceSession.getTranscriptToken(),
+                voiceSession.getLastSequence(), resumed, outputSampleRate);
+    }
+
+    static java.util.Map<String, String> parseQueryString(String query) {
         java.util.Map<String, String> params = new java.util.HashMap<>();
         if (query == null || query.isEmpty()) {
             return params;
@@ -150,7 +580,76 @@ public class NovaWebSocketHandler extends TextWebSocketHandler implements NovaSo
     @Override
     public void afterConnectionClosed(WebSocketSession session, CloseStatus status) {
         logger.info("WebSocket connection closed: {} with status: {}", session.getId(), status);
-        cleanupSession(session);
+        String sessionId = sessionIdsByConnection.remove(session.getId());
+        VoiceSession voiceSession = sessionId != null ? sessions.get(sessionId) : null;
+        if (voiceSession == null || !voiceSession.detach(session)) {
+            // Unknown connection, or one that was superseded by a resumed connection
+            return;
+        }
+
+        long graceMillis = sessionProperties.getResumeGracePeriod().toMillis();
+        // 1000 and 1001 (page closed or navigated away) are the client ending the call; anything else,
+        // such as 1006 for a dropped connection or 1011, leaves it resumable
+        boolean abnormalClose = status.getCode() != CloseStatus.NORMAL.getCode()
+                && status.getCode() != CloseStatus.GOING_AWAY.getCode();
+        boolean hasConversation = voiceSession.getNovaSonicClient() != null || voiceSession.isSuspended();
+        if (abnormalClose && graceMillis > 0 && hasConversation) {
+            logger.info("Keeping session {} resumable for {} ms", sessionId, graceMillis);
+            voiceSession.setResumeExpiry(sessionScheduler.schedule(
+                    () -> expireDetachedSession(voiceSession), graceMillis, TimeUnit.MILLISECONDS));
+        } else {
+            cleanupSession(voiceSession);
+        }
+    }
+
+    private void expireDetachedSession(VoiceSession voiceSession) {
+        if (voiceSession.isDetached()) {
+            logger.info("Resume grace period elapsed for session {}", voiceSession.getSessionId());
+            cleanupSession(voiceSession);
+        }
+    }
+
+    @Override
+    public int getActiveSessionCount() {
+        return sessions.size();
+    }
+
+    @Override
+    public void closeAllSessions() {
+        for (VoiceSession voiceSession : sessions.values()) {
+            WebSocketSession session = voiceSession.getWebSocketSession();
+            if (session != null && session.isOpen()) {
+                try {
+                    session.close(DRAIN_CLOSE_STATUS);
+                } catch (IOException e) {
+                    logger.warn("Error closing session {}: {}", voiceSession.getSessionId(), e.getMessage());
+                }
+            }
+            cleanupSession(voiceSession);
+        }
+    }
+
+    @Override
+    public List<SessionDiagnostics> getSessionDiagnostics() {
+        List<SessionDiagnostics> result = new ArrayList<>(sessions.size());
+        sessions.values().forEach(voiceSession -> result.add(voiceSession.diagnostics()));
+        return result;
+    }
+
+    @Override
+    public VoiceSession findSession(String sessionId) {
+        return sessions.get(sessionId);
+    }
+
+    @Override
+    public boolean terminateSession(String sessionId) {
+        VoiceSession voiceSession = sessions.get(sessionId);
+        if (voiceSession == null) {
+            return false;
+        }
+        logger.warn("Terminating session {} on request", sessionId);
+        cleanupNovaSonicClient(voiceSession, true, TERMINATED_CLOSE_STATUS);
+        return true;
     }
 
     @Override
@@ -161,19 +660,28 @@ public class NovaWebSocketHandler extends TextWebSocketHandler implements NovaSo
     @Override
     protected void handleBinaryMessage(WebSocketSession session, BinaryMessage message) {
         try {
-            validateSessionState(session);
-            NovaSonicClient client = novaSonicClients.get(session.getId());
+            VoiceSession suspended = getVoiceSession(session);
+            if (suspended != null && suspended.isSuspended()) {
+                holdAudio(suspended, message.getPayload());
+                return;
+            }
+            VoiceSession voiceSession = validateSessionState(session);
+            NovaSonicClient client = voiceSession.getNovaSonicClient();
             if (client != null) {
                 try {
+                    long cpuStart = SessionActivity.threadCpuNanos();
                     byte[] audioData = message.getPayload().array();
                     client.sendAudioChunk(java.nio.ByteBuffer.wrap(audioData));
+                    usageAccountant.recordAudioIn(voiceSession.getSessionId(), audioData.length, inputBytesPerSecond);
+                    // Browsers send little-endian PCM, whatever the declared input format says
+                    PcmKernels kernels = PcmKernels.get();
+                    ByteBuffer pcm = message.getPayload();
+                    voiceSession.getActivity().onCallerLevel(kernels.peak(pcm, ByteOrder.LITTLE_ENDIAN),
+                            kernels.rms(pcm, ByteOrder.LITTLE_ENDIAN));
+                    voiceSession.getActivity().onCallerAudio(audioData.length, SessionActivity.threadCpuNanos() - cpuStart);
                 } catch (Exception e) {
                     logger.error("Error processing audio chunk: {}", e.getMessage());
-                    try {
-                        session.sendMessage(new TextMessage("{\"type\":\"error\",\"message\":\"Error processing audio\"}"));
-                    } catch (IOException ex) {
-                        logger.error("Error sending error message: {}", ex.getMessage());
-                    }
+                    voiceSession.send("{\"type\":\"error\",\"message\":\"Error processing audio\"}");
                 }
             }
         } catch (Exception e) {
@@ -181,21 +689,46 @@ public class NovaWebSocketHandler extends TextWebSocketHandler implements NovaSo
         }
     }
 
+    /**
+     * Holds audio for a suspended session and starts reopening its stream, unless that is under way.
+     */
+    private void holdAudio(VoiceSession voiceSession, ByteBuffer payload) {
+        byte[] audioData = new byte[payload.remaining()];
+        payload.duplicate().get(audioData);
+        if (!voiceSession.holdAudio(audioData, SESSION_RESUME_AUDIO_BUFFER_BYTES)) {
+            // Resumed meanwhile
+            NovaSonicClient client = voiceSession.getNovaSonicClient();
+            if (client != null) {
+                client.sendAudioChunk(ByteBuffer.wrap(audioData));
+            }
+        }
+        usageAccountant.recordAudioIn(voiceSession.getSessionId(), audioData.length, inputBytesPerSecond);
+        voiceSession.getActivity().onCallerAudio(audioData.length, 0);
+        if (voiceSession.beginResume()) {
+            resumeStream(voiceSession);
+        }
+    }
+
     @Override
     protected void handleTextMessage(WebSocketSession session, TextMessage message) {
         String payload = message.getPayload();
+        VoiceSession voiceSession = getVoiceSession(session);
+        if (voiceSession == null) {
+            logger.warn("Ignoring text message for unknown connection {}", session.getId());
+            return;
+        }
         try {
             switch (payload) {
                 case "stop":
-                    session.sendMessage(new TextMessage("{\"type\":\"status\",\"status\":\"stopped\"}"));
+                    voiceSession.send("{\"type\":\"status\",\"status\":\"stopped\"}");
                     break;
                 case "close":
-                    cleanupNovaSonicClient(session, false);
+                    cleanupNovaSonicClient(voiceSession, false);
                     session.close();
                     break;
                 case "reset_session":
-                    cleanupNovaSonicClient(session, false);
-                    session.sendMessage(new TextMessage("{\"type\":\"status\",\"status\":\"ready\"}"));
+                    cleanupNovaSonicClient(voiceSession, false);
+                    voiceSession.send(readyMessage(voiceSession, false));
                     break;
             }
         } catch (Exception e) {
@@ -205,35 +738,58 @@ public class NovaWebSocketHandler extends TextWebSocketHandler implements NovaSo
 
     public void sendTranscriptionUpdate(String sessionId, String transcript, String role) {
         // logger.info("sendTranscriptionUpdate: SessionID={}, transcript={}, role={}", sessionId, transcript, role);
-        WebSocketSession session = sessions.get(sessionId);
-        if (session == null || !session.isOpen()) {
+        VoiceSession voiceSession = sessions.get(sessionId);
+        if (voiceSession == null) {
             logger.warn("Cannot send transcription - invalid session state for {}", sessionId);
             return;
         }
-        try {
-            String message = String.format(
-                "{\"type\":\"transcription\",\"text\":\"%s\",\"role\":\"%s\"}",
-                transcript.replace("\"", "\\\""),
-                role
-            );
-            session.sendMessage(new TextMessage(message));
-            logger.info("Sent sendTranscriptionUpdate: Role {} {}",role, message);
-        } catch (IOException e) {
-            logger.error("Error sending transcription to session {}: {}", sessionId, e.getMessage());
+        long turn = -1;
+        if (!INTERRUPTED_TRANSCRIPT.equals(transcript)) {
+            voiceSession.getHistory().add(role, transcript);
+            turn = transcriptStore.appendTurn(sessionId, role, transcript);
+        }
+        long storedTurn = turn;
+        boolean sent = voiceSession.sendSequenced(seq -> transcriptionFrame(seq, transcript, role, storedTurn));
+        if (sent) {
+            logger.info("Sent sendTranscriptionUpdate: Role {} {}", role, transcript);
+        } else {
+            logger.debug("Buffered transcription for detached session {}", sessionId);
+        }
+    }
+
+    @Override
+    public void sendError(String sessionId, String errorFrame) {
+        VoiceSession voiceSession = sessions.get(sessionId);
+        if (voiceSession != null) {
+            voiceSession.send(errorFrame);
         }
     }
 
     public void sendAudioResponse(String sessionId, String audioData) {
-        WebSocketSession session = sessions.get(sessionId);
-        if (session == null || !session.isOpen()) {
+        VoiceSession voiceSession = sessions.get(sessionId);
+        if (voiceSession == null) {
             logger.warn("Cannot send audio response - invalid session state for {}", sessionId);
             return;
         }
-        try {
-            String message = String.format("{\"type\":\"audio\",\"data\":\"%s\"}", audioData);
-            session.sendMessage(new TextMessage(message));
-        } catch (IOException e) {
-            logger.error("Error sending audio response to session {}: {}", sessionId, e.getMessage());
-        }
+        voiceSession.sendSequenced(seq -> audioFrame(seq, audioData));
+    }
+
+    static String transcriptionFrame(long seq, String transcript, String role) {
+        String escapedTranscript = transcript.replace("\"", "\\\"");
+        return String.format("{\"type\":\"transcription\",\"seq\":%d,\"text\":\"%s\",\"role\":\"%s\"}",
+                seq, escapedTranscript, role);
+    }
+
+    /**
+     * A transcription frame that also carries the transcript's turn number in the {@link TranscriptStore},
+     * which clients page back from. Turns that were not stored, such as barge-in markers, have none.
+     */
+    static String transcriptionFrame(long seq, String transcript, String role, long turn) {
+        String frame = transcriptionFrame(seq, transcript, role);
+        return turn < 0 ? frame : frame.substring(0, frame.length() - 1) + ",\"turn\":" + turn + "}";
+    }
+
+    static String audioFrame(long seq, String audioData) {
+        return String.format("{\"type\":\"audio\",\"seq\":%d,\"data\":\"%s\"}", seq, audioData);
     }
 }
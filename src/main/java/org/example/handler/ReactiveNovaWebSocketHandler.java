@@ -0,0 +1,250 @@
+package org.example.handler;
+
+import org.example.admission.AdmissionController;
+import org.example.admission.AdmissionPermit;
+import org.example.admission.AdmissionRejectedException;
+import org.example.client.NovaSonicClient;
+import org.example.client.OutputAudioRate;
+import org.example.client.StreamSetupException;
+import org.example.client.StreamSetupPolicy;
+import org.example.config.NovaSonicProperties;
+import org.example.recording.SessionRecorder;
+import org.example.session.DrainCoordinator;
+import org.example.session.SessionHost;
+import org.example.transcript.TranscriptStore;
+import org.example.usage.UsageAccountant;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.web.reactive.socket.CloseStatus;
+import org.springframework.web.reactive.socket.WebSocketHandler;
+import org.springframework.web.reactive.socket.WebSocketMessage;
+import org.springframework.web.reactive.socket.WebSocketSession;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.example.constants.NovaSonicConstants.DEFAULT_AUDIO_FORMAT;
+import static org.example.constants.NovaSonicConstants.DEFAULT_SYSTEM_PROMPT;
+import static org.example.constants.NovaSonicConstants.INTERRUPTED_TRANSCRIPT;
+
+/**
+ * WebFlux counterpart of {@link NovaWebSocketHandler}, used by the {@code reactive} profile. Audio frames
+ * are pulled from the socket only as fast as the Bedrock stream requests them, and Bedrock output is
+ * only requested as fast as the socket can write it, so a slow peer on either side slows the session
+ * down instead of growing queues. Sessions are not resumable in this mode: a resume attempt gets an
+ * error frame and is closed, and {@code reset_session} ends the session and closes the connection
+ * normally, so the client opens a new one.
+ */
+public class ReactiveNovaWebSocketHandler implements WebSocketHandler, SessionHost {
+    private static final Logger logger = LoggerFactory.getLogger(ReactiveNovaWebSocketHandler.class);
+    private static final CloseStatus DRAIN_CLOSE_STATUS = CloseStatus.SERVICE_RESTARTED.withReason("Node draining, reconnect");
+    private static final CloseStatus OVERLOAD_CLOSE_STATUS = CloseStatus.SERVICE_OVERLOAD.withReason("Server busy, retry later");
+    private static final CloseStatus RESET_CLOSE_STATUS = CloseStatus.NORMAL.withReason("Session reset");
+    private static final CloseStatus RESUME_UNSUPPORTED_CLOSE_STATUS = CloseStatus.POLICY_VIOLATION.withReason("Resume not supported");
+    private static final String RESUME_UNSUPPORTED_FRAME =
+            "{\"type\":\"error\",\"code\":\"resume_unsupported\",\"message\":\"Sessions cannot be resumed in reactive mode\"}";
+
+    private final NovaSonicEventHandler eventHandler;
+    private final UsageAccountant usageAccountant;
+    private final StreamSetupPolicy streamSetupPolicy;
+    private final DrainCoordinator drainCoordinator;
+    private final AdmissionController admissionController;
+    private final SessionRecorder sessionRecorder;
+    private final TranscriptStore transcriptStore;
+    private final List<Integer> modelOutputSampleRates;
+    private final Map<String, WebSocketSession> sessions = new ConcurrentHashMap<>();
+    private final int inputBytesPerSecond = (int) (DEFAULT_AUDIO_FORMAT.getFrameRate() * DEFAULT_AUDIO_FORMAT.getFrameSize());
+
+    public ReactiveNovaWebSocketHandler(NovaSonicEventHandler eventHandler, UsageAccountant usageAccountant,
+                                        StreamSetupPolicy streamSetupPolicy, DrainCoordinator drainCoordinator,
+                                        AdmissionController admissionController, SessionRecorder sessionRecorder,
+                                        TranscriptStore transcriptStore, NovaSonicProperties properties) {
+        this.eventHandler = eventHandler;
+        this.usageAccountant = usageAccountant;
+        this.streamSetupPolicy = streamSetupPolicy;
+        this.drainCoordinator = drainCoordinator;
+        this.admissionController = admissionController;
+        this.sessionRecorder = sessionRecorder;
+        this.transcriptStore = transcriptStore;
+        this.modelOutputSampleRates = properties.getBedrock().getOutputSampleRates();
+    }
+
+    @Override
+    public int getActiveSessionCount() {
+        return sessions.size();
+    }
+
+    @Override
+    public void closeAllSessions() {
+        sessions.values().forEach(session -> session.close(DRAIN_CLOSE_STATUS).subscribe());
+    }
+
+    @Override
+    public Mono<Void> handle(WebSocketSession session) {
+        String sessionId = session.getId();
+        logger.info("Reactive WebSocket connection established: {}", sessionId);
+        if (drainCoordinator.isDraining()) {
+            return session.close(DRAIN_CLOSE_STATUS);
+        }
+        Map<String, String> params = NovaWebSocketHandler.parseQueryString(session.getHandshakeInfo().getUri().getRawQuery());
+        if (params.containsKey("resumeToken")) {
+            // Starting a fresh session here would drop the conversation without telling the client
+            return session.send(Mono.just(session.textMessage(RESUME_UNSUPPORTED_FRAME)))
+                    .then(session.close(RESUME_UNSUPPORTED_CLOSE_STATUS));
+        }
+        String tenantId = usageAccountant.resolveTenant(params.get("tenantId"));
+        String clientAddress = NovaWebSocketHandler.clientAddress(session.getHandshakeInfo().getRemoteAddress());
+
+        return Mono.fromFuture(admissionController.admit(tenantId, clientAddress))
+                .flatMap(permit -> startSession(session, params, tenantId, permit))
+                .onErrorResume(AdmissionRejectedException.class, rejection -> session
+                        .send(Mono.just(session.textMessage(rejection.toClientMessage())))
+                        .then(session.close(OVERLOAD_CLOSE_STATUS)));
+    }
+
+    private Mono<Void> startSession(WebSocketSession session, Map<String, String> params, String tenantId,
+                                    AdmissionPermit permit) {
+        String sessionId = session.getId();
+        NovaSonicClient novaSonicClient;
+        try {
+            String systemPrompt = params.getOrDefault("systemPrompt", "");
+            novaSonicClient = new NovaSonicClient(
+                Integer.parseInt(params.getOrDefault("maxTokens", "1024")),
+                Double.parseDouble(params.getOrDefault("topP", "0.9")),
+                Double.parseDouble(params.getOrDefault("topT", "0.7")),
+                systemPrompt.isEmpty() ? DEFAULT_SYSTEM_PROMPT : systemPrompt,
+                params.getOrDefault("language", "en-US"),
+                Boolean.parseBoolean(params.getOrDefault("useFeminineVoice", "false")),
+                eventHandler,
+                streamSetupPolicy
+            );
+        } catch (Exception e) {
+            logger.error("Error initializing session: {}", e.getMessage());
+            permit.release();
+            return session.close(CloseStatus.BAD_DATA);
+        }
+        OutputAudioRate outputAudioRate = NovaWebSocketHandler.outputAudioRate(params, modelOutputSampleRates);
+        novaSonicClient.setSessionId(sessionId);
+        novaSonicClient.setOutputAudioRate(outputAudioRate);
+        novaSonicClient.setRecording(sessionRecorder.start(sessionId, tenantId, DEFAULT_AUDIO_FORMAT,
+                outputAudioRate.modelSampleRate()));
+        sessions.put(sessionId, session);
+        usageAccountant.startSession(sessionId, tenantId);
+        String transcriptToken = transcriptStore.openTranscript(sessionId);
+
+        // Status replies to text commands; completed when the Bedrock output completes
+        Sinks.Many<String> controlFrames = Sinks.many().unicast().onBackpressureBuffer();
+        FrameCollector frameCollector = new FrameCollector(novaSonicClient);
+        novaSonicClient.setMessageSender(frameCollector);
+
+        // Ending the inbound side closes the connection, so reset_session closes it with a status first
+        Flux<ByteBuffer> audio = session.receive()
+                .takeUntil(message -> isCommand(message, "close") || isCommand(message, "reset_session"))
+                .doOnNext(message -> handleTextMessage(session, message, controlFrames))
+                .filter(message -> message.getType() == WebSocketMessage.Type.BINARY)
+                .map(message -> copyPayload(message.getPayload()))
+                .doOnNext(buffer -> usageAccountant.recordAudioIn(sessionId, buffer.remaining(), inputBytesPerSecond));
+
+        // Stream setup and stream failures end the output with a structured error frame
+        AtomicReference<StreamSetupException> streamFailure = new AtomicReference<>();
+        Flux<String> bedrockFrames = Flux.from(novaSonicClient.initializeSession(DEFAULT_AUDIO_FORMAT, audio))
+                .concatMapIterable(frameCollector::framesFor)
+                .onErrorResume(e -> {
+                    streamFailure.set(StreamSetupException.from(e));
+                    return Flux.just(streamFailure.get().toClientMessage());
+                })
+                .doFinally(signal -> controlFrames.tryEmitComplete());
+
+        // Ready once Bedrock has accepted the stream, after any setup retries
+        Mono<String> ready = Mono.fromFuture(novaSonicClient.getStreamSetup())
+                .map(established -> String.format("{\"type\":\"status\",\"status\":\"ready\",\"sessionId\":\"%s\",\"transcriptToken\":\"%s\",\"seq\":0,\"resumed\":false,\"outputSampleRate\":%d}",
+                        sessionId, transcriptToken, outputAudioRate.sampleRate()))
+                .onErrorResume(e -> Mono.empty());
+
+        Flux<WebSocketMessage> output = Flux.merge(
+                        Flux.from(ready).concatWith(controlFrames.asFlux()),
+                        bedrockFrames)
+                .map(session::textMessage);
+
+        return session.send(output)
+                .then(Mono.defer(() -> streamFailure.get() != null && streamFailure.get().getRetryAfter() != null
+                        ? session.close(OVERLOAD_CLOSE_STATUS) : Mono.<Void>empty()))
+                .doOnError(e -> logger.error("Reactive session {} failed: {}", sessionId, e.getMessage()))
+                .doFinally(signal -> {
+                    logger.info("Reactive WebSocket connection closed: {} ({})", sessionId, signal);
+                    sessions.remove(sessionId);
+                    novaSonicClient.close();
+                    usageAccountant.finishSession(sessionId);
+                    permit.release();
+                });
+    }
+
+    private static boolean isCommand(WebSocketMessage message, String command) {
+        return message.getType() == WebSocketMessage.Type.TEXT && command.equals(message.getPayloadAsText());
+    }
+
+    private void handleTextMessage(WebSocketSession session, WebSocketMessage message, Sinks.Many<String> controlFrames) {
+        if (message.getType() != WebSocketMessage.Type.TEXT) {
+            return;
+        }
+        switch (message.getPayloadAsText()) {
+            case "stop":
+                controlFrames.tryEmitNext("{\"type\":\"status\",\"status\":\"stopped\"}");
+                break;
+            case "reset_session":
+                // Sessions cannot start over on the same connection here; the client opens a new one
+                session.close(RESET_CLOSE_STATUS).subscribe();
+                break;
+        }
+    }
+
+    /**
+     * Copies a frame out of its pooled buffer, which is released once the message has been handled.
+     */
+    private static ByteBuffer copyPayload(DataBuffer payload) {
+        byte[] audioData = new byte[payload.readableByteCount()];
+        payload.read(audioData);
+        return ByteBuffer.wrap(audioData);
+    }
+
+    /**
+     * Turns Bedrock output payloads into client frames. The event handler calls back into this sender
+     * while it handles a payload, on the thread pulling the output, so frames are collected per payload.
+     */
+    private class FrameCollector implements NovaSonicEventHandler.WebSocketMessageSender {
+        private final NovaSonicClient novaSonicClient;
+        private final List<String> frames = new ArrayList<>();
+        private long seq;
+
+        FrameCollector(NovaSonicClient novaSonicClient) {
+            this.novaSonicClient = novaSonicClient;
+        }
+
+        synchronized List<String> framesFor(String payload) {
+            eventHandler.handleMessage(novaSonicClient, payload);
+            List<String> collected = new ArrayList<>(frames);
+            frames.clear();
+            return collected;
+        }
+
+        @Override
+        public synchronized void sendAudioResponse(String sessionId, String audioData) {
+            frames.add(NovaWebSocketHandler.audioFrame(++seq, audioData));
+        }
+
+        @Override
+        public synchronized void sendTranscriptionUpdate(String sessionId, String transcript, String role) {
+            // Stored like the servlet handler's, so the playground can page back in this mode too
+            long turn = INTERRUPTED_TRANSCRIPT.equals(transcript) ? -1 : transcriptStore.appendTurn(sessionId, role, transcript);
+            frames.add(NovaWebSocketHandler.transcriptionFrame(++seq, transcript, role, turn));
+        }
+    }
+}
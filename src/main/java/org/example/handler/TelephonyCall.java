@@ -0,0 +1,184 @@
+package org.example.handler;
+
+import org.example.admission.AdmissionPermit;
+import org.example.client.NovaSonicClient;
+import org.example.util.G711;
+import org.example.util.PcmKernels;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import static org.example.constants.NovaSonicConstants.INTERRUPTED_TRANSCRIPT;
+
+/**
+ * One phone call on the telephony endpoint. Converts the gateway's G.711 media to the 8 kHz PCM
+ * Nova Sonic takes, and Nova Sonic's output, negotiated at 8 kHz, back to G.711. The conversion
+ * buffers grow to the largest chunk seen and are then reused, so steady-state media allocates no PCM.
+ */
+class TelephonyCall implements NovaSonicEventHandler.WebSocketMessageSender {
+    private static final Logger logger = LoggerFactory.getLogger(TelephonyCall.class);
+
+    private final String callId;
+    private final String streamSid;
+    private final WebSocketSession connection;
+    private final G711 law;
+    private final String mediaPrefix;
+    private volatile NovaSonicClient client;
+    private volatile boolean streaming;
+    private AdmissionPermit admissionPermit;
+
+    // Caller media, converted on the connection's thread
+    private byte[] inboundPcm = new byte[320];
+    private ByteBuffer inboundBuffer = ByteBuffer.wrap(inboundPcm);
+    // Response audio, converted on the Bedrock thread under the call's lock
+    private short[] outboundSamples = new short[0];
+    private byte[] outboundCodes = new byte[0];
+
+    /**
+     * @param connection The gateway's connection, safe to send to from several threads
+     */
+    TelephonyCall(String callId, String streamSid, WebSocketSession connection, G711 law) {
+        this.callId = callId;
+        this.streamSid = streamSid;
+        this.connection = connection;
+        this.law = law;
+        this.mediaPrefix = "{\"event\":\"media\",\"streamSid\":\"" + streamSid + "\",\"media\":{\"payload\":\"";
+    }
+
+    String getCallId() {
+        return callId;
+    }
+
+    String getStreamSid() {
+        return streamSid;
+    }
+
+    WebSocketSession getConnection() {
+        return connection;
+    }
+
+    NovaSonicClient getClient() {
+        return client;
+    }
+
+    void setClient(NovaSonicClient client) {
+        this.client = client;
+    }
+
+    AdmissionPermit getAdmissionPermit() {
+        return admissionPermit;
+    }
+
+    void setAdmissionPermit(AdmissionPermit admissionPermit) {
+        this.admissionPermit = admissionPermit;
+    }
+
+    /**
+     * Marks the stream as accepting audio. Media that arrives before is dropped, as a phone line has
+     * no way to hold it.
+     */
+    void setStreaming(boolean streaming) {
+        this.streaming = streaming;
+    }
+
+    boolean isStreaming() {
+        return streaming;
+    }
+
+    /**
+     * Decodes one media payload and streams it to Nova Sonic.
+     *
+     * @param payload Base64 G.711 codes
+     * @return The number of PCM bytes sent
+     */
+    int onInboundMedia(String payload) {
+        NovaSonicClient current = client;
+        if (!streaming || current == null) {
+            return 0;
+        }
+        byte[] codes = Base64.getDecoder().decode(payload);
+        int pcmBytes = codes.length * 2;
+        if (inboundPcm.length < pcmBytes) {
+            inboundPcm = new byte[pcmBytes];
+            inboundBuffer = ByteBuffer.wrap(inboundPcm);
+        }
+        law.decodeToPcm(codes, 0, codes.length, inboundPcm, 0);
+        inboundBuffer.clear().limit(pcmBytes);
+        current.sendAudioChunk(inboundBuffer);
+        return pcmBytes;
+    }
+
+    @Override
+    public synchronized void sendAudioResponse(String sessionId, String audioData) {
+        byte[] pcm = Base64.getDecoder().decode(audioData);
+        int count = pcm.length / 2;
+        if (count == 0) {
+            return;
+        }
+        if (outboundSamples.length < count) {
+            outboundSamples = new short[count];
+            outboundCodes = new byte[count];
+        }
+        PcmKernels.get().decode(ByteBuffer.wrap(pcm, 0, count * 2), ByteOrder.LITTLE_ENDIAN, outboundSamples, 0);
+        law.encode(outboundSamples, 0, count, outboundCodes, 0);
+        ByteBuffer encoded = Base64.getEncoder().encode(ByteBuffer.wrap(outboundCodes, 0, count));
+        send(mediaPrefix + new String(encoded.array(), 0, encoded.remaining(), StandardCharsets.ISO_8859_1) + "\"}}");
+    }
+
+    /**
+     * Phone lines carry no text, but an interruption tells the gateway to drop the response audio it
+     * has not played yet, so the caller is not talked over.
+     */
+    @Override
+    public void sendTranscriptionUpdate(String sessionId, String transcript, String role) {
+        if (INTERRUPTED_TRANSCRIPT.equals(transcript)) {
+            send("{\"event\":\"clear\",\"streamSid\":\"" + streamSid + "\"}");
+        }
+    }
+
+    /**
+     * The gateway has no error channel, so a failed stream ends the call and lets it fail over.
+     */
+    @Override
+    public void sendError(String sessionId, String errorFrame) {
+        logger.warn("Ending call {} after stream error: {}", callId, errorFrame);
+        close(CloseStatus.SERVER_ERROR);
+    }
+
+    /**
+     * Sends a mark, which the gateway echoes back once the media sent before it has played.
+     */
+    void sendMark(String name) {
+        send("{\"event\":\"mark\",\"streamSid\":\"" + streamSid + "\",\"mark\":{\"name\":\"" + name + "\"}}");
+    }
+
+    private void send(String frame) {
+        if (!connection.isOpen()) {
+            return;
+        }
+        try {
+            connection.sendMessage(new TextMessage(frame));
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Error sending to call {}: {}", callId, e.getMessage());
+        }
+    }
+
+    void close(CloseStatus status) {
+        if (!connection.isOpen()) {
+            return;
+        }
+        try {
+            connection.close(status);
+        } catch (IOException e) {
+            logger.warn("Error closing call {}: {}", callId, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,261 @@
+package org.example.handler;
+
+import org.example.admission.AdmissionController;
+import org.example.admission.AdmissionPermit;
+import org.example.client.NovaSonicClient;
+import org.example.client.OutputAudioRate;
+import org.example.client.StreamSetupException;
+import org.example.client.StreamSetupPolicy;
+import org.example.config.NovaSonicProperties;
+import org.example.recording.SessionRecorder;
+import org.example.session.SessionHost;
+import org.example.usage.UsageAccountant;
+import org.example.util.G711;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.ConcurrentWebSocketSessionDecorator;
+import org.springframework.web.socket.handler.TextWebSocketHandler;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.example.constants.NovaSonicConstants.DEFAULT_SYSTEM_PROMPT;
+import static org.example.constants.NovaSonicConstants.TELEPHONY_AUDIO_FORMAT;
+import static org.example.constants.NovaSonicConstants.TELEPHONY_PCM_BYTES_PER_SECOND;
+import static org.example.constants.NovaSonicConstants.TELEPHONY_SAMPLE_RATE;
+
+/**
+ * {@code /ws/telephony}: phone calls from SIP and contact-centre gateways, in the JSON media-stream
+ * framing they share. The gateway sends {@code connected}, then {@code start} with the stream id and
+ * media format, then base64 G.711 8 kHz audio in {@code media} frames, and {@code stop} at hang-up.
+ * The response goes back as {@code media} frames in the caller's encoding; {@code clear} drops the
+ * gateway's unplayed audio when the caller interrupts, and a {@code ready} mark is sent once the
+ * Bedrock stream is up. Session parameters come from the query string and the start frame's
+ * {@code customParameters}, with the same names as on {@code /ws/audio}.
+ */
+@Component
+public class TelephonyWebSocketHandler extends TextWebSocketHandler implements SessionHost {
+    private static final Logger logger = LoggerFactory.getLogger(TelephonyWebSocketHandler.class);
+    static final CloseStatus DISABLED_CLOSE_STATUS = CloseStatus.POLICY_VIOLATION.withReason("Telephony disabled");
+    static final CloseStatus UNSUPPORTED_MEDIA_CLOSE_STATUS = CloseStatus.BAD_DATA.withReason("Unsupported media format");
+
+    private final NovaSonicEventHandler eventHandler;
+    private final NovaSonicProperties.Telephony settings;
+    private final UsageAccountant usageAccountant;
+    private final StreamSetupPolicy streamSetupPolicy;
+    private final AdmissionController admissionController;
+    private final SessionRecorder sessionRecorder;
+    private final OutputAudioRate outputAudioRate;
+    // Calls keyed by the id of the gateway connection carrying them
+    private final Map<String, TelephonyCall> calls = new ConcurrentHashMap<>();
+
+    public TelephonyWebSocketHandler(NovaSonicEventHandler eventHandler, NovaSonicProperties properties,
+                                     UsageAccountant usageAccountant, StreamSetupPolicy streamSetupPolicy,
+                                     AdmissionController admissionController, SessionRecorder sessionRecorder) {
+        this.eventHandler = eventHandler;
+        this.settings = properties.getTelephony();
+        this.usageAccountant = usageAccountant;
+        this.streamSetupPolicy = streamSetupPolicy;
+        this.admissionController = admissionController;
+        this.sessionRecorder = sessionRecorder;
+        this.outputAudioRate = OutputAudioRate.negotiate(TELEPHONY_SAMPLE_RATE, properties.getBedrock().getOutputSampleRates());
+        if (settings.isEnabled() && outputAudioRate.sampleRate() != TELEPHONY_SAMPLE_RATE) {
+            throw new IllegalStateException("novasonic.bedrock.output-sample-rates must include a rate that divides down to 8000 Hz for telephony");
+        }
+    }
+
+    @Override
+    public void afterConnectionEstablished(WebSocketSession connection) throws Exception {
+        if (!settings.isEnabled()) {
+            connection.close(DISABLED_CLOSE_STATUS);
+            return;
+        }
+        logger.info("Telephony connection established: {}", connection.getId());
+    }
+
+    @Override
+    protected void handleTextMessage(WebSocketSession connection, TextMessage message) {
+        JSONObject frame;
+        try {
+            frame = new JSONObject(message.getPayload());
+        } catch (JSONException e) {
+            logger.warn("Ignoring unparseable frame on telephony connection {}", connection.getId());
+            return;
+        }
+        switch (frame.optString("event")) {
+            case "media" -> {
+                TelephonyCall call = calls.get(connection.getId());
+                JSONObject media = frame.optJSONObject("media");
+                // Gateways that fork both legs of the call also send the outbound track
+                if (call != null && media != null && !"outbound".equals(media.optString("track"))) {
+                    int pcmBytes = call.onInboundMedia(media.optString("payload"));
+                    if (pcmBytes > 0) {
+                        usageAccountant.recordAudioIn(call.getCallId(), pcmBytes, TELEPHONY_PCM_BYTES_PER_SECOND);
+                    }
+                }
+            }
+            case "start" -> startCall(connection, frame);
+            case "stop" -> endCall(connection.getId(), CloseStatus.NORMAL);
+            default -> {
+                // connected, mark and dtmf need no answer
+            }
+        }
+    }
+
+    private void startCall(WebSocketSession connection, JSONObject frame) {
+        if (calls.containsKey(connection.getId())) {
+            logger.warn("Ignoring repeated start on telephony connection {}", connection.getId());
+            return;
+        }
+        JSONObject start = frame.optJSONObject("start");
+        if (start == null) {
+            start = new JSONObject();
+        }
+        String streamSid = frame.optString("streamSid", start.optString("streamSid", connection.getId()));
+        JSONObject mediaFormat = start.optJSONObject("mediaFormat");
+        G711 law = G711.forMediaType(mediaFormat != null ? mediaFormat.optString("encoding", "audio/x-mulaw") : "audio/x-mulaw");
+        int sampleRate = mediaFormat != null ? mediaFormat.optInt("sampleRate", TELEPHONY_SAMPLE_RATE) : TELEPHONY_SAMPLE_RATE;
+        int channels = mediaFormat != null ? mediaFormat.optInt("channels", 1) : 1;
+        if (law == null || sampleRate != TELEPHONY_SAMPLE_RATE || channels != 1) {
+            logger.warn("Rejecting call {} with media format {}", streamSid, mediaFormat);
+            closeQuietly(connection, UNSUPPORTED_MEDIA_CLOSE_STATUS);
+            return;
+        }
+
+        Map<String, String> params = NovaWebSocketHandler.parseQueryString(connection.getUri().getQuery());
+        JSONObject customParameters = start.optJSONObject("customParameters");
+        if (customParameters != null) {
+            customParameters.keySet().forEach(key -> params.put(key, customParameters.optString(key)));
+        }
+        String tenantId = usageAccountant.resolveTenant(params.get("tenantId"));
+
+        // Media is written from the Bedrock thread and marks from this one, so sends are serialised
+        WebSocketSession concurrentConnection = new ConcurrentWebSocketSessionDecorator(connection,
+                (int) settings.getSendTimeLimit().toMillis(), settings.getSendBufferBytes());
+        TelephonyCall call = new TelephonyCall(connection.getId(), streamSid, concurrentConnection, law);
+        calls.put(connection.getId(), call);
+        logger.info("Call {} started on connection {} ({})", streamSid, connection.getId(), law.getMediaType());
+
+        admissionController.admit(tenantId, NovaWebSocketHandler.clientAddress(connection.getRemoteAddress()))
+                .whenComplete((permit, failure) -> {
+                    if (failure != null) {
+                        logger.info("Call {} not admitted: {}", streamSid, failure.getMessage());
+                        endCall(connection.getId(), NovaWebSocketHandler.OVERLOAD_CLOSE_STATUS);
+                    } else {
+                        startStream(call, params, tenantId, permit);
+                    }
+                });
+    }
+
+    private void startStream(TelephonyCall call, Map<String, String> params, String tenantId, AdmissionPermit permit) {
+        call.setAdmissionPermit(permit);
+        if (calls.get(call.getCallId()) != call) {
+            // The gateway hung up while the call was queued for admission
+            permit.release();
+            return;
+        }
+        try {
+            String systemPrompt = params.getOrDefault("systemPrompt", "");
+            NovaSonicClient novaSonicClient = new NovaSonicClient(
+                Integer.parseInt(params.getOrDefault("maxTokens", "1024")),
+                Double.parseDouble(params.getOrDefault("topP", "0.9")),
+                Double.parseDouble(params.getOrDefault("topT", "0.7")),
+                systemPrompt.isEmpty() ? DEFAULT_SYSTEM_PROMPT : systemPrompt,
+                params.getOrDefault("language", "en-US"),
+                Boolean.parseBoolean(params.getOrDefault("useFeminineVoice", "false")),
+                eventHandler,
+                streamSetupPolicy
+            );
+            novaSonicClient.setMessageSender(call);
+            novaSonicClient.setSessionId(call.getCallId());
+            novaSonicClient.setOutputAudioRate(outputAudioRate);
+            novaSonicClient.setRecording(sessionRecorder.start(call.getCallId(), tenantId, TELEPHONY_AUDIO_FORMAT,
+                    outputAudioRate.modelSampleRate()));
+            call.setClient(novaSonicClient);
+            usageAccountant.startSession(call.getCallId(), tenantId);
+
+            novaSonicClient.initializeSession(TELEPHONY_AUDIO_FORMAT).whenComplete((ignored, failure) -> {
+                if (call.getClient() != novaSonicClient) {
+                    // Ended while the stream was being opened
+                    return;
+                }
+                if (failure != null) {
+                    StreamSetupException setupFailure = StreamSetupException.from(failure);
+                    logger.warn("Stream setup failed for call {}: {}", call.getStreamSid(), setupFailure.getMessage());
+                    endCall(call.getCallId(), setupFailure.getRetryAfter() != null
+                            ? NovaWebSocketHandler.OVERLOAD_CLOSE_STATUS : CloseStatus.SERVER_ERROR);
+                    return;
+                }
+                call.setStreaming(true);
+                call.sendMark("ready");
+            });
+        } catch (Exception e) {
+            logger.error("Error starting call {}: {}", call.getStreamSid(), e.getMessage());
+            endCall(call.getCallId(), CloseStatus.SERVER_ERROR);
+        }
+    }
+
+    private void endCall(String callId, CloseStatus status) {
+        TelephonyCall call = calls.remove(callId);
+        if (call == null) {
+            return;
+        }
+        call.setStreaming(false);
+        NovaSonicClient client = call.getClient();
+        call.setClient(null);
+        if (client != null) {
+            try {
+                client.completeSession();
+                client.close();
+            } catch (Exception e) {
+                logger.warn("Error during client cleanup: {}", e.getMessage());
+            }
+            usageAccountant.finishSession(callId);
+        }
+        AdmissionPermit permit = call.getAdmissionPermit();
+        if (permit != null) {
+            permit.release();
+        }
+        call.close(status);
+        logger.info("Call {} ended with status {}", call.getStreamSid(), status);
+    }
+
+    private static void closeQuietly(WebSocketSession connection, CloseStatus status) {
+        try {
+            connection.close(status);
+        } catch (Exception e) {
+            logger.warn("Error closing telephony connection {}: {}", connection.getId(), e.getMessage());
+        }
+    }
+
+    @Override
+    public void afterConnectionClosed(WebSocketSession connection, CloseStatus status) {
+        endCall(connection.getId(), status);
+    }
+
+    @Override
+    public int getActiveSessionCount() {
+        return calls.size();
+    }
+
+    @Override
+    public void closeAllSessions() {
+        calls.keySet().forEach(callId -> endCall(callId, NovaWebSocketHandler.DRAIN_CLOSE_STATUS));
+    }
+
+    @Override
+    public boolean terminateSession(String sessionId) {
+        if (!calls.containsKey(sessionId)) {
+            return false;
+        }
+        logger.warn("Terminating call {} on request", sessionId);
+        endCall(sessionId, NovaWebSocketHandler.TERMINATED_CLOSE_STATUS);
+        return true;
+    }
+}
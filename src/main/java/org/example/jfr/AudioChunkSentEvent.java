@@ -0,0 +1,37 @@
+package org.example.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * A chunk of caller audio encoded as an audio input event and put on the Bedrock stream. The
+ * duration covers both; the encoding alone is in {@code encodeTime}.
+ */
+@Name(AudioChunkSentEvent.NAME)
+@Label("Audio Chunk Sent")
+@Description("Caller audio encoded and put on the Bedrock stream")
+@Category({"Nova Sonic", "Audio"})
+@Enabled(false)
+@StackTrace(false)
+public class AudioChunkSentEvent extends Event {
+    public static final String NAME = "org.example.novasonic.AudioChunkSent";
+
+    @Label("Session Id")
+    public String sessionId;
+
+    @Label("Size")
+    @DataAmount
+    public int bytes;
+
+    @Label("Encode Time")
+    @Description("Time to base64-encode the PCM and build the input event")
+    @Timespan(Timespan.NANOSECONDS)
+    public long encodeTime;
+}
@@ -0,0 +1,39 @@
+package org.example.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * An event from the Bedrock stream handled by the event handler. The duration covers parsing and
+ * everything the event triggers, such as the frames it sends to the client; the parse alone is in
+ * {@code parseTime}.
+ */
+@Name(BedrockEventReceivedEvent.NAME)
+@Label("Bedrock Event Received")
+@Description("A Bedrock stream event parsed and handled")
+@Category({"Nova Sonic", "Bedrock"})
+@Enabled(false)
+@StackTrace(false)
+public class BedrockEventReceivedEvent extends Event {
+    public static final String NAME = "org.example.novasonic.BedrockEventReceived";
+
+    @Label("Session Id")
+    public String sessionId;
+
+    @Label("Event Type")
+    public String eventType;
+
+    @Label("Payload Length")
+    @Description("Length of the JSON payload in characters")
+    public int payloadLength;
+
+    @Label("Parse Time")
+    @Timespan(Timespan.NANOSECONDS)
+    public long parseTime;
+}
@@ -0,0 +1,33 @@
+package org.example.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * A content block received in one generation stage ({@code SPECULATIVE} or {@code FINAL}), from
+ * the content start that entered the stage to the event that left it.
+ */
+@Name(GenerationStageEvent.NAME)
+@Label("Generation Stage")
+@Description("A content block in one generation stage")
+@Category({"Nova Sonic", "Bedrock"})
+@Enabled(false)
+@StackTrace(false)
+public class GenerationStageEvent extends Event {
+    public static final String NAME = "org.example.novasonic.GenerationStage";
+
+    @Label("Session Id")
+    public String sessionId;
+
+    @Label("Stage")
+    public String stage;
+
+    @Label("Next Stage")
+    @Description("Stage entered when this one ended, or null when the content block ended")
+    public String nextStage;
+}
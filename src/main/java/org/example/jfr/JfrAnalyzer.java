@@ -0,0 +1,102 @@
+package org.example.jfr;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Turns a flight recording taken with {@code jfr/novasonic.jfc} into per-stage latency
+ * distributions. Only needs the JDK, so it runs from the plain jar:
+ * <pre>
+ * java -cp target/NovaSonicPlayground-1.0-SNAPSHOT.jar org.example.jfr.JfrAnalyzer recording.jfr [--session id]
+ * </pre>
+ * Stages are named after the event and what it measured, e.g. {@code bedrock.audioOutput} for the
+ * handling of audio output events and {@code frame.queueWait} for the wait before a frame was written.
+ */
+public final class JfrAnalyzer {
+    private static final double[] PERCENTILES = {0.5, 0.9, 0.99};
+
+    private final Map<String, List<Long>> stages = new TreeMap<>();
+    private final String sessionId;
+
+    private JfrAnalyzer(String sessionId) {
+        this.sessionId = sessionId;
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 1 && !(args.length == 3 && "--session".equals(args[1]))) {
+            System.err.println("Usage: JfrAnalyzer <recording.jfr> [--session <session id>]");
+            System.exit(2);
+        }
+        JfrAnalyzer analyzer = new JfrAnalyzer(args.length == 3 ? args[2] : null);
+        try (RecordingFile recording = new RecordingFile(Path.of(args[0]))) {
+            while (recording.hasMoreEvents()) {
+                analyzer.add(recording.readEvent());
+            }
+        }
+        analyzer.print();
+    }
+
+    private void add(RecordedEvent event) {
+        String name = event.getEventType().getName();
+        if (!name.startsWith("org.example.novasonic.")
+                || (sessionId != null && !sessionId.equals(event.getString("sessionId")))) {
+            return;
+        }
+        switch (name) {
+            case SessionSetupEvent.NAME -> add("setup." + event.getString("phase"), event.getDuration());
+            case AudioChunkSentEvent.NAME -> {
+                add("audio.sent", event.getDuration());
+                add("audio.encode", event.getDuration("encodeTime"));
+            }
+            case BedrockEventReceivedEvent.NAME -> {
+                add("bedrock." + event.getString("eventType"), event.getDuration());
+                add("bedrock.parse", event.getDuration("parseTime"));
+            }
+            case OutboundFrameSentEvent.NAME -> {
+                add("frame." + event.getString("frameType"), event.getDuration());
+                add("frame.queueWait", event.getDuration("queueWait"));
+                add("frame.write", event.getDuration("writeTime"));
+            }
+            case GenerationStageEvent.NAME -> add("stage." + event.getString("stage"), event.getDuration());
+            default -> {
+                // An event type this analyzer does not know yet
+            }
+        }
+    }
+
+    private void add(String stage, Duration duration) {
+        stages.computeIfAbsent(stage, key -> new ArrayList<>()).add(duration.toNanos());
+    }
+
+    private void print() {
+        if (stages.isEmpty()) {
+            System.out.println("No Nova Sonic events in the recording; was it taken with jfr/novasonic.jfc?");
+            return;
+        }
+        System.out.printf("%-32s%10s%12s%12s%12s%12s%n", "stage (us)", "count", "p50", "p90", "p99", "max");
+        stages.forEach((stage, nanos) -> {
+            long[] sorted = nanos.stream().mapToLong(Long::longValue).sorted().toArray();
+            System.out.printf("%-32s%10d", stage, sorted.length);
+            for (double percentile : PERCENTILES) {
+                System.out.printf("%12.1f", percentile(sorted, percentile) / 1000.0);
+            }
+            System.out.printf("%12.1f%n", sorted[sorted.length - 1] / 1000.0);
+        });
+    }
+
+    /**
+     * Nearest-rank percentile of sorted values.
+     */
+    private static long percentile(long[] sorted, double percentile) {
+        int rank = (int) Math.ceil(percentile * sorted.length);
+        return sorted[Math.max(0, rank - 1)];
+    }
+}
@@ -0,0 +1,51 @@
+package org.example.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * A frame sent to the client's connection. Frames of a session are written one at a time, so
+ * {@code queueWait} is the time spent waiting behind the session's other frames and
+ * {@code writeTime} the time spent writing this one.
+ */
+@Name(OutboundFrameSentEvent.NAME)
+@Label("Outbound Frame Sent")
+@Description("A frame written to the client's WebSocket connection")
+@Category({"Nova Sonic", "WebSocket"})
+@Enabled(false)
+@StackTrace(false)
+public class OutboundFrameSentEvent extends Event {
+    public static final String NAME = "org.example.novasonic.OutboundFrameSent";
+
+    @Label("Session Id")
+    public String sessionId;
+
+    @Label("Frame Type")
+    public String frameType;
+
+    @Label("Sequence")
+    @Description("Sequence number of the frame, or 0 for control frames")
+    public long sequence;
+
+    @Label("Payload Length")
+    @Description("Length of the frame in characters")
+    public int payloadLength;
+
+    @Label("Queue Wait")
+    @Timespan(Timespan.NANOSECONDS)
+    public long queueWait;
+
+    @Label("Write Time")
+    @Timespan(Timespan.NANOSECONDS)
+    public long writeTime;
+
+    @Label("Delivered")
+    @Description("False if no connection was attached and the frame was only buffered")
+    public boolean delivered;
+}
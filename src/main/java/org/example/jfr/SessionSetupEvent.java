@@ -0,0 +1,36 @@
+package org.example.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * One phase of setting up a voice session: {@code admission} (waiting for an admission permit),
+ * {@code stream} (opening the Bedrock stream, retries included) or {@code total} (connection to
+ * ready status).
+ */
+@Name(SessionSetupEvent.NAME)
+@Label("Session Setup")
+@Description("A phase of voice session setup")
+@Category({"Nova Sonic", "Session"})
+@Enabled(false)
+@StackTrace(false)
+public class SessionSetupEvent extends Event {
+    public static final String NAME = "org.example.novasonic.SessionSetup";
+
+    @Label("Session Id")
+    public String sessionId;
+
+    @Label("Tenant Id")
+    public String tenantId;
+
+    @Label("Phase")
+    public String phase;
+
+    @Label("Succeeded")
+    public boolean succeeded;
+}
@@ -0,0 +1,59 @@
+package org.example.recording;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Layout of a session recording file ({@code .nsrec}). The file starts with {@link #MAGIC} and is
+ * followed by records, each a one-byte type, the time since the session started in microseconds
+ * (8 bytes), the payload length (4 bytes) and the payload, all big-endian. A zero type byte marks
+ * the end of the data: a recording that was not closed cleanly ends in zero-filled segment space.
+ */
+public final class RecordingFormat {
+    private RecordingFormat() {
+    }
+
+    public static final String FILE_SUFFIX = ".nsrec";
+    public static final byte[] MAGIC = "NSREC\u0001".getBytes(StandardCharsets.US_ASCII);
+    public static final int RECORD_HEADER_BYTES = 1 + 8 + 4;
+
+    /**
+     * Record types. Audio payloads are raw PCM; event payloads are the UTF-8 JSON events as sent to
+     * or received from Bedrock, except audio input and output events, which are stored as audio.
+     */
+    public enum RecordType {
+        /** JSON session metadata: session and tenant ids, start time and audio formats. */
+        START(1),
+        /** Caller audio, in the input format given by the start record. */
+        INPUT_AUDIO(2),
+        /** Assistant audio, 24 kHz 16-bit mono. */
+        OUTPUT_AUDIO(3),
+        /** An event sent to Bedrock. */
+        INPUT_EVENT(4),
+        /** An event received from Bedrock. */
+        OUTPUT_EVENT(5),
+        /** JSON summary written when the session ends: records dropped and whether the size cap was hit. */
+        END(6);
+
+        private final byte code;
+
+        RecordType(int code) {
+            this.code = (byte) code;
+        }
+
+        public byte getCode() {
+            return code;
+        }
+
+        /**
+         * Returns the type with the given code, or null for the end-of-data marker or an unknown code.
+         */
+        public static RecordType fromCode(byte code) {
+            for (RecordType type : values()) {
+                if (type.code == code) {
+                    return type;
+                }
+            }
+            return null;
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package org.example.recording;
+
+import org.example.recording.RecordingFormat.RecordType;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Reads a session recording written by {@link SessionRecorder}. Reading stops at the end-of-data
+ * marker, so a recording that was cut short by a crash yields the records that made it to disk.
+ */
+public final class RecordingReader {
+    private RecordingReader() {
+    }
+
+    /**
+     * One record of a recording.
+     *
+     * @param type       Record type
+     * @param timeMicros Time since the session started, in microseconds
+     * @param payload    Raw PCM for audio records, UTF-8 JSON otherwise
+     */
+    public record Record(RecordType type, long timeMicros, byte[] payload) {
+    }
+
+    /**
+     * Reads all records of a recording file, in the order they were written.
+     *
+     * @throws IOException If the file cannot be read or is not a session recording
+     */
+    public static List<Record> read(Path file) throws IOException {
+        ByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+
+        byte[] magic = new byte[RecordingFormat.MAGIC.length];
+        if (buffer.remaining() < magic.length) {
+            throw new IOException(file + " is not a session recording");
+        }
+        buffer.get(magic);
+        if (!Arrays.equals(magic, RecordingFormat.MAGIC)) {
+            throw new IOException(file + " is not a session recording");
+        }
+
+        List<Record> records = new ArrayList<>();
+        try {
+            while (buffer.remaining() >= RecordingFormat.RECORD_HEADER_BYTES) {
+                RecordType type = RecordType.fromCode(buffer.get());
+                if (type == null) {
+                    break;
+                }
+                long timeMicros = buffer.getLong();
+                byte[] payload = new byte[buffer.getInt()];
+                buffer.get(payload);
+                records.add(new Record(type, timeMicros, payload));
+            }
+        } catch (BufferUnderflowException | NegativeArraySizeException e) {
+            // A record that was still being written when the process died; keep what came before it
+        }
+        return records;
+    }
+}
@@ -0,0 +1,420 @@
+package org.example.recording;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.example.config.NovaSonicProperties;
+import org.example.recording.RecordingFormat.RecordType;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PreDestroy;
+import javax.sound.sampled.AudioFormat;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.example.constants.NovaSonicConstants.AUDIO_OUTPUT;
+import static org.example.constants.NovaSonicConstants.CONTENT_KEY;
+import static org.example.constants.NovaSonicConstants.EVENT_KEY;
+import static org.example.constants.NovaSonicConstants.OUTPUT_AUDIO_CHANNEL;
+import static org.example.constants.NovaSonicConstants.OUTPUT_AUDIO_SAMPLE_RATE;
+import static org.example.constants.NovaSonicConstants.OUTPUT_AUDIO_SAMPLE_SIZE_IN_BITS;
+
+/**
+ * Records opted-in sessions to disk, one append-only {@link RecordingFormat} file per session, so a
+ * bad call can be listened to and its Bedrock events inspected afterwards. Recording never slows a
+ * session down: callers only enqueue payloads, and a single writer thread encodes them and copies
+ * them into memory-mapped file segments, leaving the disk writes to the page cache. When the disk
+ * or the writer falls behind the queue fills and records are dropped, never waited for. Each
+ * recording is capped in size, and a periodic sweep deletes recordings past the retention period or
+ * beyond the directory's total size cap, oldest first.
+ */
+@Component
+public class SessionRecorder {
+    private static final Logger logger = LoggerFactory.getLogger(SessionRecorder.class);
+    private static final int WRITE_BATCH = 256;
+    private static final long POLL_MILLIS = 100;
+    // Room kept below the session cap for the end record
+    private static final int END_RECORD_RESERVE = 256;
+
+    private final NovaSonicProperties.Recording settings;
+    private final Path directory;
+    private final BlockingQueue<Entry> queue;
+    // Closes that did not fit in the queue; a close must never be lost or the file stays open
+    private final Queue<SessionRecording> overflowCloses = new ConcurrentLinkedQueue<>();
+    private final Set<SessionRecording> activeRecordings = ConcurrentHashMap.newKeySet();
+    private final Thread writer;
+    private volatile boolean running = true;
+
+    private final Counter recordsWritten;
+    private final Counter bytesWritten;
+    private final Counter droppedQueueFull;
+    private final Counter droppedSizeCap;
+    private final Counter droppedWriteError;
+
+    public SessionRecorder(NovaSonicProperties properties, MeterRegistry meterRegistry) {
+        this.settings = properties.getRecording();
+        this.directory = Paths.get(settings.getDirectory());
+        this.queue = new ArrayBlockingQueue<>(Math.max(1, settings.getQueueCapacity()));
+        this.recordsWritten = Counter.builder("novasonic.recording.records")
+                .description("Records written to session recordings")
+                .register(meterRegistry);
+        this.bytesWritten = Counter.builder("novasonic.recording.bytes")
+                .description("Bytes written to session recordings")
+                .register(meterRegistry);
+        this.droppedQueueFull = droppedCounter(meterRegistry, "queue_full");
+        this.droppedSizeCap = droppedCounter(meterRegistry, "size_cap");
+        this.droppedWriteError = droppedCounter(meterRegistry, "write_error");
+        Gauge.builder("novasonic.recording.queue.size", queue, BlockingQueue::size)
+                .description("Records waiting for the recording writer")
+                .register(meterRegistry);
+        Gauge.builder("novasonic.recording.sessions.active", activeRecordings, Set::size)
+                .description("Sessions currently being recorded")
+                .register(meterRegistry);
+
+        this.writer = new Thread(this::runWriter, "session-recorder");
+        writer.setDaemon(true);
+        if (settings.isEnabled()) {
+            writer.start();
+            logger.info("Recording sessions of {} to {}",
+                    settings.getTenants().isEmpty() ? "all tenants" : settings.getTenants(), directory.toAbsolutePath());
+        }
+    }
+
+    /**
+     * Starts recording a session if recording is enabled for its tenant.
+     *
+     * @return The recording, or null if the session is not recorded
+     */
+    public SessionRecording start(String sessionId, String tenantId, AudioFormat inputFormat) {
+        return start(sessionId, tenantId, inputFormat, OUTPUT_AUDIO_SAMPLE_RATE);
+    }
+
+    /**
+     * Starts recording a session whose Bedrock stream produces audio at {@code outputSampleRate}.
+     *
+     * @return The recording, or null if the session is not recorded
+     */
+    public SessionRecording start(String sessionId, String tenantId, AudioFormat inputFormat, int outputSampleRate) {
+        if (!settings.isEnabled() || !running
+                || (!settings.getTenants().isEmpty() && !settings.getTenants().contains(tenantId))) {
+            return null;
+        }
+        SessionRecording recording = new SessionRecording(this, sessionId, tenantId, inputFormat, outputSampleRate);
+        activeRecordings.add(recording);
+        return recording;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+        if (!writer.isAlive()) {
+            return;
+        }
+        try {
+            // Not interrupted: an interrupt would close the file channels mid-write
+            writer.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    void submit(SessionRecording recording, RecordType type, long timeMicros, Object payload) {
+        if (!queue.offer(new Entry(recording, type, timeMicros, payload))) {
+            recording.onDropped();
+            droppedQueueFull.increment();
+        }
+    }
+
+    void close(SessionRecording recording) {
+        if (!queue.offer(new Entry(recording, null, 0, null))) {
+            overflowCloses.add(recording);
+        }
+    }
+
+    private void runWriter() {
+        List<Entry> batch = new ArrayList<>(WRITE_BATCH);
+        long nextSweep = System.nanoTime();
+        while (running || !queue.isEmpty()) {
+            try {
+                Entry first = queue.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if (first != null) {
+                    batch.add(first);
+                    queue.drainTo(batch, WRITE_BATCH - 1);
+                }
+            } catch (InterruptedException e) {
+                break;
+            }
+            for (Entry entry : batch) {
+                if (entry.type == null) {
+                    finish(entry.recording);
+                } else {
+                    write(entry);
+                }
+            }
+            batch.clear();
+            SessionRecording closing;
+            while ((closing = overflowCloses.poll()) != null) {
+                finish(closing);
+            }
+            if (System.nanoTime() - nextSweep >= 0) {
+                enforceRetention();
+                nextSweep = System.nanoTime() + settings.getRetentionCheckInterval().toNanos();
+            }
+        }
+        for (SessionRecording recording : activeRecordings) {
+            finish(recording);
+        }
+    }
+
+    private void write(Entry entry) {
+        SessionRecording recording = entry.recording;
+        if (recording.finished) {
+            return;
+        }
+        RecordType type = entry.type;
+        byte[] payload;
+        if (type == RecordType.INPUT_AUDIO) {
+            payload = (byte[]) entry.payload;
+        } else {
+            String event = (String) entry.payload;
+            String audio = type == RecordType.OUTPUT_EVENT ? audioOutputContent(event) : null;
+            if (audio != null) {
+                type = RecordType.OUTPUT_AUDIO;
+                payload = Base64.getDecoder().decode(audio);
+            } else {
+                payload = event.getBytes(StandardCharsets.UTF_8);
+            }
+        }
+
+        long size = RecordingFormat.RECORD_HEADER_BYTES + payload.length;
+        if (recording.truncated || recording.bytesWritten + size > settings.getMaxSessionBytes() - END_RECORD_RESERVE) {
+            if (!recording.truncated) {
+                logger.warn("Recording of session {} reached {} bytes, dropping the rest", recording.getSessionId(),
+                        recording.bytesWritten);
+            }
+            recording.truncated = true;
+            droppedSizeCap.increment();
+            return;
+        }
+        try {
+            if (recording.channel == null) {
+                open(recording);
+            }
+            append(recording, type, entry.timeMicros, payload);
+        } catch (IOException | RuntimeException e) {
+            fail(recording, e);
+        }
+    }
+
+    private void open(SessionRecording recording) throws IOException {
+        Files.createDirectories(directory);
+        String fileName = recording.getStartEpochMillis() + "-"
+                + recording.getSessionId().replaceAll("[^A-Za-z0-9_-]", "_") + RecordingFormat.FILE_SUFFIX;
+        recording.path = directory.resolve(fileName);
+        recording.channel = FileChannel.open(recording.path,
+                StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        ensureSegment(recording, RecordingFormat.MAGIC.length);
+        recording.segment.put(RecordingFormat.MAGIC);
+        recording.bytesWritten = RecordingFormat.MAGIC.length;
+
+        AudioFormat input = recording.getInputFormat();
+        JSONObject start = new JSONObject()
+                .put("sessionId", recording.getSessionId())
+                .put("tenantId", recording.getTenantId())
+                .put("startedAt", recording.getStartEpochMillis())
+                .put("inputAudio", new JSONObject()
+                        .put("sampleRate", (int) input.getSampleRate())
+                        .put("sampleSizeBits", input.getSampleSizeInBits())
+                        .put("channels", input.getChannels())
+                        .put("bigEndian", input.isBigEndian()))
+                .put("outputAudio", new JSONObject()
+                        .put("sampleRate", recording.getOutputSampleRate())
+                        .put("sampleSizeBits", OUTPUT_AUDIO_SAMPLE_SIZE_IN_BITS)
+                        .put("channels", OUTPUT_AUDIO_CHANNEL)
+                        .put("bigEndian", false));
+        append(recording, RecordType.START, 0, start.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    private void append(SessionRecording recording, RecordType type, long timeMicros, byte[] payload) throws IOException {
+        int size = RecordingFormat.RECORD_HEADER_BYTES + payload.length;
+        ensureSegment(recording, size);
+        recording.segment.put(type.getCode()).putLong(timeMicros).putInt(payload.length).put(payload);
+        recording.bytesWritten += size;
+        recordsWritten.increment();
+        bytesWritten.increment(size);
+    }
+
+    /**
+     * Maps the next segment at the end of the data once the current one cannot take {@code size} more bytes.
+     * Mapping past the end of the file extends it; the file is truncated to its data when the recording ends.
+     */
+    private void ensureSegment(SessionRecording recording, int size) throws IOException {
+        if (recording.segment == null || recording.segment.remaining() < size) {
+            recording.segment = recording.channel.map(FileChannel.MapMode.READ_WRITE, recording.bytesWritten,
+                    Math.max(settings.getSegmentBytes(), size));
+        }
+    }
+
+    private void finish(SessionRecording recording) {
+        if (recording.finished) {
+            return;
+        }
+        recording.finished = true;
+        activeRecordings.remove(recording);
+        if (recording.channel == null) {
+            return;
+        }
+        try {
+            JSONObject end = new JSONObject()
+                    .put("droppedRecords", recording.getDroppedRecords())
+                    .put("truncated", recording.truncated)
+                    .put("endedAt", System.currentTimeMillis());
+            append(recording, RecordType.END, (System.currentTimeMillis() - recording.getStartEpochMillis()) * 1000,
+                    end.toString().getBytes(StandardCharsets.UTF_8));
+            recording.segment = null;
+            recording.channel.truncate(recording.bytesWritten);
+            logger.info("Recorded session {} to {} ({} bytes, {} records dropped)", recording.getSessionId(),
+                    recording.path, recording.bytesWritten, recording.getDroppedRecords());
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Error finishing recording of session {}: {}", recording.getSessionId(), e.getMessage());
+        } finally {
+            closeChannel(recording);
+        }
+    }
+
+    private void fail(SessionRecording recording, Exception e) {
+        logger.warn("Recording of session {} failed, dropping the rest: {}", recording.getSessionId(), e.getMessage());
+        droppedWriteError.increment();
+        recording.finished = true;
+        activeRecordings.remove(recording);
+        closeChannel(recording);
+    }
+
+    private void closeChannel(SessionRecording recording) {
+        recording.segment = null;
+        if (recording.channel != null) {
+            try {
+                recording.channel.close();
+            } catch (IOException e) {
+                logger.debug("Error closing recording {}: {}", recording.path, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Deletes finished recordings older than the retention period, then the oldest ones until the
+     * directory is within its size cap.
+     */
+    private void enforceRetention() {
+        if (!Files.isDirectory(directory)) {
+            return;
+        }
+        Set<Path> open = new HashSet<>();
+        for (SessionRecording recording : activeRecordings) {
+            if (recording.path != null) {
+                open.add(recording.path);
+            }
+        }
+        long cutoff = System.currentTimeMillis() - settings.getRetention().toMillis();
+        List<Map.Entry<Path, BasicFileAttributes>> kept = new ArrayList<>();
+        long totalBytes = 0;
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                if (!file.getFileName().toString().endsWith(RecordingFormat.FILE_SUFFIX)) {
+                    continue;
+                }
+                BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+                totalBytes += attributes.size();
+                if (!open.contains(file) && attributes.lastModifiedTime().toMillis() < cutoff) {
+                    totalBytes -= delete(file, attributes.size());
+                } else if (!open.contains(file)) {
+                    kept.add(Map.entry(file, attributes));
+                }
+            }
+            kept.sort(Comparator.comparingLong(entry -> entry.getValue().lastModifiedTime().toMillis()));
+            for (Map.Entry<Path, BasicFileAttributes> entry : kept) {
+                if (totalBytes <= settings.getMaxTotalBytes()) {
+                    break;
+                }
+                totalBytes -= delete(entry.getKey(), entry.getValue().size());
+            }
+        } catch (IOException e) {
+            logger.warn("Error applying recording retention in {}: {}", directory, e.getMessage());
+        }
+    }
+
+    private long delete(Path file, long size) {
+        try {
+            Files.deleteIfExists(file);
+            logger.info("Deleted recording {}", file.getFileName());
+            return size;
+        } catch (IOException e) {
+            logger.warn("Error deleting recording {}: {}", file, e.getMessage());
+            return 0;
+        }
+    }
+
+    /**
+     * Base64 audio of an audio output event, or null for any other event.
+     */
+    private static String audioOutputContent(String event) {
+        if (!event.contains(AUDIO_OUTPUT)) {
+            return null;
+        }
+        try {
+            JSONObject audioOutput = new JSONObject(event).getJSONObject(EVENT_KEY).optJSONObject(AUDIO_OUTPUT);
+            return audioOutput != null ? audioOutput.optString(CONTENT_KEY, null) : null;
+        } catch (JSONException e) {
+            // Kept as a raw event
+            return null;
+        }
+    }
+
+    private static Counter droppedCounter(MeterRegistry meterRegistry, String reason) {
+        return Counter.builder("novasonic.recording.dropped")
+                .description("Records left out of session recordings")
+                .tag("reason", reason)
+                .register(meterRegistry);
+    }
+
+    /**
+     * A queued record, or with a null type the end of a recording.
+     */
+    private static class Entry {
+        final SessionRecording recording;
+        final RecordType type;
+        final long timeMicros;
+        final Object payload;
+
+        Entry(SessionRecording recording, RecordType type, long timeMicros, Object payload) {
+            this.recording = recording;
+            this.type = type;
+            this.timeMicros = timeMicros;
+            this.payload = payload;
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package org.example.recording;
+
+import org.example.recording.RecordingFormat.RecordType;
+
+import javax.sound.sampled.AudioFormat;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Recording of one session. The record methods only stamp the time and hand the payload to the
+ * {@link SessionRecorder}'s writer queue, so they can be called from WebSocket, stream and tool
+ * threads without waiting on the disk; a payload that does not fit in the queue is dropped and
+ * counted in the recording's end record.
+ */
+public class SessionRecording {
+    private final SessionRecorder recorder;
+    private final String sessionId;
+    private final String tenantId;
+    private final AudioFormat inputFormat;
+    private final int outputSampleRate;
+    private final long startEpochMillis = System.currentTimeMillis();
+    private final long startNanos = System.nanoTime();
+    private final LongAdder droppedRecords = new LongAdder();
+    private volatile boolean closed;
+
+    // Owned by the writer thread
+    Path path;
+    FileChannel channel;
+    MappedByteBuffer segment;
+    long bytesWritten;
+    boolean truncated;
+    boolean finished;
+
+    SessionRecording(SessionRecorder recorder, String sessionId, String tenantId, AudioFormat inputFormat,
+                     int outputSampleRate) {
+        this.recorder = recorder;
+        this.sessionId = sessionId;
+        this.tenantId = tenantId;
+        this.inputFormat = inputFormat;
+        this.outputSampleRate = outputSampleRate;
+    }
+
+    /**
+     * Records caller audio. The array is handed to the writer as is and must not be modified afterwards.
+     */
+    public void recordInputAudio(byte[] pcm) {
+        record(RecordType.INPUT_AUDIO, pcm);
+    }
+
+    /**
+     * Records a JSON event sent to Bedrock.
+     */
+    public void recordInputEvent(String event) {
+        record(RecordType.INPUT_EVENT, event);
+    }
+
+    /**
+     * Records a JSON event received from Bedrock; audio output events are stored as decoded audio.
+     */
+    public void recordOutputEvent(String event) {
+        record(RecordType.OUTPUT_EVENT, event);
+    }
+
+    /**
+     * Ends the recording. Records already queued are still written; later ones are ignored.
+     */
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        recorder.close(this);
+    }
+
+    public String getSessionId() {
+        return sessionId;
+    }
+
+    public String getTenantId() {
+        return tenantId;
+    }
+
+    AudioFormat getInputFormat() {
+        return inputFormat;
+    }
+
+    int getOutputSampleRate() {
+        return outputSampleRate;
+    }
+
+    long getStartEpochMillis() {
+        return startEpochMillis;
+    }
+
+    long getDroppedRecords() {
+        return droppedRecords.sum();
+    }
+
+    void onDropped() {
+        droppedRecords.increment();
+    }
+
+    private void record(RecordType type, Object payload) {
+        if (closed) {
+            return;
+        }
+        recorder.submit(this, type, (System.nanoTime() - startNanos) / 1000, payload);
+    }
+}
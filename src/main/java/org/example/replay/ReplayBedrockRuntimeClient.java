@@ -0,0 +1,314 @@
+package org.example.replay;
+
+import io.reactivex.rxjava3.processors.UnicastProcessor;
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import software.amazon.awssdk.core.async.SdkPublisher;
+import software.amazon.awssdk.services.bedrockruntime.BedrockRuntimeAsyncClient;
+import software.amazon.awssdk.services.bedrockruntime.model.BidirectionalInputPayloadPart;
+import software.amazon.awssdk.services.bedrockruntime.model.InvokeModelWithBidirectionalStreamInput;
+import software.amazon.awssdk.services.bedrockruntime.model.InvokeModelWithBidirectionalStreamOutput;
+import software.amazon.awssdk.services.bedrockruntime.model.InvokeModelWithBidirectionalStreamRequest;
+import software.amazon.awssdk.services.bedrockruntime.model.InvokeModelWithBidirectionalStreamResponse;
+import software.amazon.awssdk.services.bedrockruntime.model.InvokeModelWithBidirectionalStreamResponseHandler;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.example.constants.NovaSonicConstants.TOOL_USE;
+
+/**
+ * Stand-in for the Bedrock stream that plays back a recorded session's Bedrock events. Each stream
+ * is bound to the {@link ReplaySession} announced with {@link #expect} before the connection that
+ * opens it, and sends the recorded events through the server's response handler once the inputs
+ * they followed have arrived: at their recorded delay after those inputs, or straight away on a
+ * fast replay. Events are sent from the replay scheduler, never from the caller's thread, so each
+ * side's cost is measured on its own thread.
+ */
+class ReplayBedrockRuntimeClient implements BedrockRuntimeAsyncClient {
+    private static final Logger logger = LoggerFactory.getLogger(ReplayBedrockRuntimeClient.class);
+    // Input events requested ahead, like the HTTP/2 flow-control window of the real stream
+    private static final int INPUT_WINDOW = 32;
+    private static final byte[] TOOL_RESULT_KEY = "\"toolResult\"".getBytes(StandardCharsets.UTF_8);
+
+    private final ScheduledExecutorService scheduler;
+    private final Duration gateTimeout;
+    private final AtomicReference<ReplaySession> expected = new AtomicReference<>();
+
+    ReplayBedrockRuntimeClient(int threads, Duration gateTimeout) {
+        this.scheduler = Executors.newScheduledThreadPool(Math.max(1, threads), r -> {
+            Thread thread = new Thread(r, "replay-bedrock-stream");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.gateTimeout = gateTimeout;
+    }
+
+    /**
+     * Binds the next stream opened to {@code session}, or clears a binding no stream took up.
+     */
+    void expect(ReplaySession session) {
+        expected.set(session);
+    }
+
+    @Override
+    public String serviceName() {
+        return SERVICE_NAME;
+    }
+
+    @Override
+    public void close() {
+        // Shared by every pooled client slot; released by shutdown
+    }
+
+    void shutdown() {
+        scheduler.shutdownNow();
+    }
+
+    @Override
+    public CompletableFuture<Void> invokeModelWithBidirectionalStream(
+            InvokeModelWithBidirectionalStreamRequest request,
+            Publisher<InvokeModelWithBidirectionalStreamInput> input,
+            InvokeModelWithBidirectionalStreamResponseHandler responseHandler) {
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        ReplaySession session = expected.getAndSet(null);
+        if (session == null) {
+            IllegalStateException failure = new IllegalStateException("No replay trace is waiting for a stream");
+            responseHandler.exceptionOccurred(failure);
+            future.completeExceptionally(failure);
+            return future;
+        }
+
+        ReplayConversation conversation = new ReplayConversation(session, responseHandler, future);
+        responseHandler.responseReceived(InvokeModelWithBidirectionalStreamResponse.builder().build());
+        responseHandler.onEventStream(SdkPublisher.adapt(conversation.output));
+        input.subscribe(conversation);
+        session.onStreamOpened(conversation);
+        conversation.kick();
+        return future;
+    }
+
+    private record Input(InvokeModelWithBidirectionalStreamInput event, long nanos) {
+    }
+
+    /**
+     * Bedrock side of one replayed session. Inputs are only queued as they arrive; the scheduler
+     * inspects them and sends every recorded event whose inputs are in and whose time has come.
+     */
+    class ReplayConversation implements Subscriber<InvokeModelWithBidirectionalStreamInput> {
+        private final UnicastProcessor<InvokeModelWithBidirectionalStreamOutput> output = UnicastProcessor.create();
+        private final ReplaySession session;
+        private final List<ReplayTrace.Output> outputs;
+        private final InvokeModelWithBidirectionalStreamResponseHandler responseHandler;
+        private final CompletableFuture<Void> future;
+        private final Queue<Input> inputs = new ConcurrentLinkedQueue<>();
+        private final List<Long> toolResultNanos = new CopyOnWriteArrayList<>();
+        private volatile boolean awaitingToolResult;
+        private Subscription subscription;
+
+        // Owned by the drain, which runs on one scheduler thread at a time
+        private int next;
+        private long waitingSinceNanos;
+        private long timerDueNanos = Long.MAX_VALUE;
+        private long toolUseNanos;
+        private boolean completed;
+
+        ReplayConversation(ReplaySession session, InvokeModelWithBidirectionalStreamResponseHandler responseHandler,
+                           CompletableFuture<Void> future) {
+            this.session = session;
+            this.outputs = session.getTrace().getOutputs();
+            this.responseHandler = responseHandler;
+            this.future = future;
+        }
+
+        /**
+         * Has the scheduler check for events that can go now.
+         */
+        void kick() {
+            try {
+                scheduler.execute(this::drain);
+            } catch (RejectedExecutionException e) {
+                // Replay is shutting down
+            }
+        }
+
+        @Override
+        public void onSubscribe(Subscription subscription) {
+            this.subscription = subscription;
+            subscription.request(INPUT_WINDOW);
+        }
+
+        @Override
+        public void onNext(InvokeModelWithBidirectionalStreamInput item) {
+            inputs.add(new Input(item, System.nanoTime()));
+            subscription.request(1);
+            if (awaitingToolResult) {
+                kick();
+            }
+        }
+
+        private synchronized void drain() {
+            if (completed) {
+                return;
+            }
+            takeInputs();
+            while (next < outputs.size()) {
+                ReplayTrace.Output event = outputs.get(next);
+                long now = System.nanoTime();
+                if (session.getFramesSent() < event.framesBefore()) {
+                    // The caller side kicks the drain after every frame
+                    return;
+                }
+
+                if (toolResultNanos.size() < event.toolResultsBefore()) {
+                    takeInputs();
+                }
+                long gateNanos;
+                if (toolResultNanos.size() < event.toolResultsBefore()) {
+                    if (waitingSinceNanos == 0) {
+                        waitingSinceNanos = now;
+                    }
+                    long releaseNanos = waitingSinceNanos + gateTimeout.toNanos();
+                    if (now < releaseNanos) {
+                        awaitingToolResult = true;
+                        if (!inputs.isEmpty()) {
+                            // Arrived after the last look but before the flag was up
+                            kick();
+                        }
+                        schedule(releaseNanos, now);
+                        return;
+                    }
+                    // The replayed tool call did not produce the recorded result; carry on without it
+                    logger.warn("Replay of {} sent event {} without the tool result it followed",
+                            session.getTrace().getName(), next);
+                    session.onStalledGate();
+                    toolResultNanos.add(now);
+                    gateNanos = now;
+                } else if (event.gatedOnToolResult()) {
+                    gateNanos = toolResultNanos.get(event.toolResultsBefore() - 1);
+                } else if (event.framesBefore() > 0) {
+                    gateNanos = session.getFrameSentNanos(event.framesBefore() - 1);
+                } else {
+                    gateNanos = session.getStartNanos();
+                }
+                awaitingToolResult = false;
+                waitingSinceNanos = 0;
+
+                if (!session.isFast()) {
+                    long dueNanos = gateNanos + (event.timeMicros() - event.gateTimeMicros()) * 1000;
+                    if (now < dueNanos) {
+                        schedule(dueNanos, now);
+                        return;
+                    }
+                }
+                send(event, gateNanos);
+                next++;
+            }
+        }
+
+        /**
+         * Looks through the inputs that arrived since the last look for tool results; a tool call
+         * can complete while an event is still being sent.
+         */
+        private void takeInputs() {
+            for (Input input = inputs.poll(); input != null; input = inputs.poll()) {
+                if (isToolResult(input.event())) {
+                    toolResultNanos.add(input.nanos());
+                    if (toolUseNanos != 0) {
+                        session.getReport().record("tool", input.nanos() - toolUseNanos, -1);
+                        toolUseNanos = 0;
+                    }
+                }
+            }
+        }
+
+        private void send(ReplayTrace.Output event, long gateNanos) {
+            if (event.turnStart()) {
+                // The recorded model delay is the model's share of the turn, not the server's
+                session.onTurnStart(session.isFast() ? gateNanos
+                        : gateNanos + (event.timeMicros() - event.gateTimeMicros()) * 1000);
+            }
+            long allocatedBefore = ReplayReport.threadAllocatedBytes();
+            long start = System.nanoTime();
+            if (TOOL_USE.equals(event.eventType())) {
+                toolUseNanos = start;
+            }
+            output.onNext(event.event());
+            long elapsed = System.nanoTime() - start;
+            session.getReport().record("bedrock." + event.eventType(), elapsed,
+                    ReplayReport.threadAllocatedBytes() - allocatedBefore);
+            session.onOutputSent();
+        }
+
+        private void schedule(long dueNanos, long now) {
+            if (timerDueNanos <= dueNanos && timerDueNanos > now) {
+                return;
+            }
+            timerDueNanos = dueNanos;
+            try {
+                scheduler.schedule(this::drain, dueNanos - now, TimeUnit.NANOSECONDS);
+            } catch (RejectedExecutionException e) {
+                // Replay is shutting down
+            }
+        }
+
+        private boolean isToolResult(InvokeModelWithBidirectionalStreamInput event) {
+            if (!(event instanceof BidirectionalInputPayloadPart chunk)) {
+                return false;
+            }
+            byte[] bytes = chunk.bytes().asByteArrayUnsafe();
+            // Tool results name the event in the first few bytes; audio events never do
+            outer:
+            for (int i = 0, last = Math.min(bytes.length, 64) - TOOL_RESULT_KEY.length; i <= last; i++) {
+                for (int j = 0; j < TOOL_RESULT_KEY.length; j++) {
+                    if (bytes[i + j] != TOOL_RESULT_KEY[j]) {
+                        continue outer;
+                    }
+                }
+                return true;
+            }
+            return false;
+        }
+
+        private synchronized void complete() {
+            if (completed) {
+                return;
+            }
+            completed = true;
+            output.onComplete();
+            responseHandler.complete();
+            future.complete(null);
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            synchronized (this) {
+                if (completed) {
+                    return;
+                }
+                completed = true;
+            }
+            output.onError(throwable);
+            responseHandler.exceptionOccurred(throwable);
+            future.completeExceptionally(throwable);
+        }
+
+        @Override
+        public void onComplete() {
+            complete();
+        }
+    }
+}
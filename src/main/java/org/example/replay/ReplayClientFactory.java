@@ -0,0 +1,29 @@
+package org.example.replay;
+
+import org.example.client.BedrockClientFactory;
+import org.example.config.NovaSonicProperties;
+import software.amazon.awssdk.services.bedrockruntime.BedrockRuntimeAsyncClient;
+
+/**
+ * Hands every routing endpoint the replay stream in place of a Bedrock client, so replayed sessions
+ * go through the configured router, breakers and setup policy without leaving the process.
+ */
+class ReplayClientFactory extends BedrockClientFactory {
+    private final ReplayBedrockRuntimeClient client;
+
+    ReplayClientFactory(NovaSonicProperties properties, ReplayBedrockRuntimeClient client) {
+        super(properties);
+        this.client = client;
+    }
+
+    @Override
+    public boolean isFake() {
+        // Probes use the endpoints' fake latency instead of connecting to AWS
+        return true;
+    }
+
+    @Override
+    public BedrockRuntimeAsyncClient create(NovaSonicProperties.Routing.Endpoint endpoint) {
+        return client;
+    }
+}
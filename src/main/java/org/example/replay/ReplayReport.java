@@ -0,0 +1,232 @@
+package org.example.replay;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.HistogramSnapshot;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency and allocation per stage of a replay pass, plus process-wide CPU, allocation and GC for
+ * the pass. Stages are timed on the thread that runs them, so their allocation is that thread's
+ * allocation over the stage:
+ * <ul>
+ *   <li>{@code session.setup}: connection to ready status, including admission and stream setup</li>
+ *   <li>{@code caller.audio}: one caller frame through the WebSocket handler and onto the stream</li>
+ *   <li>{@code bedrock.<event>}: one Bedrock event through the response handler to the frames it produces</li>
+ *   <li>{@code tool}: tool use event to its tool result on the stream</li>
+ *   <li>{@code turn}: the time the server adds to a turn, from the caller frame or tool result an
+ *   assistant response followed to its first audio frame on the connection, less the recorded model
+ *   delay when that is replayed</li>
+ * </ul>
+ */
+final class ReplayReport {
+    private static final double[] PERCENTILES = {0.5, 0.9, 0.99};
+    private static final com.sun.management.ThreadMXBean threads =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    private static final com.sun.management.OperatingSystemMXBean os =
+            (com.sun.management.OperatingSystemMXBean) ManagementFactory.getOperatingSystemMXBean();
+
+    private final MeterRegistry registry = new SimpleMeterRegistry();
+    private final Map<String, Stage> stages = new ConcurrentHashMap<>();
+    private final Map<String, TraceResult> traces = new ConcurrentHashMap<>();
+
+    private long startNanos;
+    private long startCpuNanos;
+    private long startAllocatedBytes;
+    private long startGcCount;
+    private long startGcMillis;
+    private long wallNanos;
+    private long cpuNanos;
+    private long allocatedBytes;
+    private long gcCount;
+    private long gcMillis;
+
+    private record Stage(Timer latency, DistributionSummary allocation) {
+    }
+
+    /**
+     * Outcome of the replays of one trace.
+     */
+    static final class TraceResult {
+        private final ReplayTrace trace;
+        private final AtomicInteger sessions = new AtomicInteger();
+        private final AtomicInteger completed = new AtomicInteger();
+        private final LongAdder stalledGates = new LongAdder();
+
+        private TraceResult(ReplayTrace trace) {
+            this.trace = trace;
+        }
+
+        void onSession(boolean complete, long stalled) {
+            sessions.incrementAndGet();
+            if (complete) {
+                completed.incrementAndGet();
+            }
+            stalledGates.add(stalled);
+        }
+    }
+
+    /**
+     * Bytes the current thread has allocated so far.
+     */
+    static long threadAllocatedBytes() {
+        return threads.getCurrentThreadAllocatedBytes();
+    }
+
+    /**
+     * Records one run of a stage.
+     *
+     * @param allocatedBytes Bytes the running thread allocated, or a negative value if not measured
+     */
+    void record(String stage, long nanos, long allocatedBytes) {
+        Stage stats = stages.computeIfAbsent(stage, this::newStage);
+        stats.latency().record(nanos, TimeUnit.NANOSECONDS);
+        if (allocatedBytes >= 0) {
+            stats.allocation().record(allocatedBytes);
+        }
+    }
+
+    TraceResult trace(ReplayTrace trace) {
+        return traces.computeIfAbsent(trace.getName(), name -> new TraceResult(trace));
+    }
+
+    void start() {
+        startNanos = System.nanoTime();
+        startCpuNanos = os.getProcessCpuTime();
+        startAllocatedBytes = totalAllocatedBytes();
+        startGcCount = gcCount();
+        startGcMillis = gcMillis();
+    }
+
+    void stop() {
+        wallNanos = System.nanoTime() - startNanos;
+        cpuNanos = os.getProcessCpuTime() - startCpuNanos;
+        allocatedBytes = totalAllocatedBytes() - startAllocatedBytes;
+        gcCount = gcCount() - startGcCount;
+        gcMillis = gcMillis() - startGcMillis;
+    }
+
+    int getSessions() {
+        return traces.values().stream().mapToInt(result -> result.sessions.get()).sum();
+    }
+
+    int getCompleted() {
+        return traces.values().stream().mapToInt(result -> result.completed.get()).sum();
+    }
+
+    JSONObject toJson(boolean fast, int concurrency) {
+        int sessions = getSessions();
+        double recordedSeconds = traces.values().stream()
+                .mapToDouble(result -> result.sessions.get() * result.trace.getDurationMicros() / 1_000_000.0).sum();
+
+        JSONObject stageJson = new JSONObject();
+        new TreeMap<>(stages).forEach((name, stage) -> stageJson.put(name, stageJson(stage)));
+        JSONArray traceJson = new JSONArray();
+        new TreeMap<>(traces).values().forEach(result -> traceJson.put(new JSONObject()
+                .put("name", result.trace.getName())
+                .put("tenantId", result.trace.getTenantId())
+                .put("sessions", result.sessions.get())
+                .put("completed", result.completed.get())
+                .put("turns", result.trace.getTurnCount())
+                .put("recordedSeconds", result.trace.getDurationMicros() / 1_000_000.0)
+                .put("stalledGates", result.stalledGates.sum())
+                .put("droppedRecords", result.trace.getDroppedRecords())));
+
+        return new JSONObject()
+                .put("pace", fast ? "fast" : "original")
+                .put("concurrency", concurrency)
+                .put("sessions", sessions)
+                .put("completed", getCompleted())
+                .put("wallMillis", TimeUnit.NANOSECONDS.toMillis(wallNanos))
+                .put("cpu", new JSONObject()
+                        .put("totalMillis", TimeUnit.NANOSECONDS.toMillis(cpuNanos))
+                        .put("perSessionMillis", sessions > 0 ? cpuNanos / 1_000_000.0 / sessions : 0)
+                        .put("perRecordedSecondMillis", recordedSeconds > 0 ? cpuNanos / 1_000_000.0 / recordedSeconds : 0))
+                .put("allocation", new JSONObject()
+                        .put("totalBytes", allocatedBytes)
+                        .put("perSessionBytes", sessions > 0 ? allocatedBytes / sessions : 0))
+                .put("gc", new JSONObject()
+                        .put("collections", gcCount)
+                        .put("millis", gcMillis))
+                .put("stages", stageJson)
+                .put("traces", traceJson);
+    }
+
+    private JSONObject stageJson(Stage stage) {
+        HistogramSnapshot latency = stage.latency().takeSnapshot();
+        JSONObject json = new JSONObject()
+                .put("count", latency.count())
+                .put("meanMicros", latency.mean(TimeUnit.MICROSECONDS))
+                .put("maxMicros", latency.max(TimeUnit.MICROSECONDS));
+        for (ValueAtPercentile value : latency.percentileValues()) {
+            json.put(percentileKey(value) + "Micros", value.value(TimeUnit.MICROSECONDS));
+        }
+        HistogramSnapshot allocation = stage.allocation().takeSnapshot();
+        if (allocation.count() > 0) {
+            json.put("allocatedBytesMean", allocation.mean());
+            for (ValueAtPercentile value : allocation.percentileValues()) {
+                json.put("allocatedBytes" + Character.toUpperCase(percentileKey(value).charAt(0))
+                        + percentileKey(value).substring(1), value.value());
+            }
+        }
+        return json;
+    }
+
+    private static String percentileKey(ValueAtPercentile value) {
+        return "p" + Math.round(value.percentile() * 100);
+    }
+
+    private Stage newStage(String name) {
+        // Statistics cover the whole pass rather than the usual rolling window
+        Duration expiry = Duration.ofDays(1);
+        return new Stage(
+                Timer.builder("replay." + name)
+                        .publishPercentiles(PERCENTILES)
+                        .distributionStatisticExpiry(expiry)
+                        .distributionStatisticBufferLength(1)
+                        .register(registry),
+                DistributionSummary.builder("replay." + name + ".allocation")
+                        .baseUnit("bytes")
+                        .publishPercentiles(PERCENTILES)
+                        .distributionStatisticExpiry(expiry)
+                        .distributionStatisticBufferLength(1)
+                        .register(registry));
+    }
+
+    /**
+     * Bytes allocated by the threads alive now; threads that ended during the pass are not counted.
+     */
+    private static long totalAllocatedBytes() {
+        long total = 0;
+        for (long allocated : threads.getThreadAllocatedBytes(threads.getAllThreadIds())) {
+            if (allocated > 0) {
+                total += allocated;
+            }
+        }
+        return total;
+    }
+
+    private static long gcCount() {
+        return ManagementFactory.getGarbageCollectorMXBeans().stream()
+                .mapToLong(GarbageCollectorMXBean::getCollectionCount).filter(count -> count > 0).sum();
+    }
+
+    private static long gcMillis() {
+        return ManagementFactory.getGarbageCollectorMXBeans().stream()
+                .mapToLong(GarbageCollectorMXBean::getCollectionTime).filter(millis -> millis > 0).sum();
+    }
+}
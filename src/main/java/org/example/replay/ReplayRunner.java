@@ -0,0 +1,290 @@
+package org.example.replay;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.admission.AdmissionController;
+import org.example.client.StreamSetupPolicy;
+import org.example.config.NovaSonicProperties;
+import org.example.handler.NovaSonicEventHandler;
+import org.example.handler.NovaWebSocketHandler;
+import org.example.recording.RecordingFormat;
+import org.example.recording.SessionRecorder;
+import org.example.routing.RegionRouter;
+import org.example.tool.ToolExecutor;
+import org.example.tool.ToolRegistry;
+import org.example.transcript.TranscriptStore;
+import org.example.usage.UsageAccountant;
+import org.json.JSONObject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.BinaryMessage;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+/**
+ * Replays recorded sessions (see {@link SessionRecorder}) through the server path and reports per
+ * stage latency and allocation, so two builds can be compared on identical input. Caller audio goes
+ * through {@link NovaWebSocketHandler} exactly as a connection's frames would, and the recorded
+ * Bedrock events come back through the response handler from {@link ReplayBedrockRuntimeClient}.
+ * The handler stack is built like the warm-up one, from the application's settings, with the replay
+ * stream behind the router and recording switched off. Enabled by {@code novasonic.replay.enabled};
+ * the application exits once the report is written.
+ */
+@Component
+public class ReplayRunner implements ApplicationRunner {
+    private static final Logger logger = LoggerFactory.getLogger(ReplayRunner.class);
+
+    private final NovaSonicProperties properties;
+    private final NovaSonicProperties.Replay settings;
+    private final ToolRegistry toolRegistry;
+    private final ToolExecutor toolExecutor;
+    private final ConfigurableApplicationContext applicationContext;
+    // Streams are bound to sessions in the order they open, so sessions start one at a time
+    private final ReentrantLock startLock = new ReentrantLock();
+    private final AtomicInteger connections = new AtomicInteger();
+
+    public ReplayRunner(NovaSonicProperties properties, ToolRegistry toolRegistry, ToolExecutor toolExecutor,
+                        ConfigurableApplicationContext applicationContext) {
+        this.properties = properties;
+        this.settings = properties.getReplay();
+        this.toolRegistry = toolRegistry;
+        this.toolExecutor = toolExecutor;
+        this.applicationContext = applicationContext;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) throws Exception {
+        if (!settings.isEnabled()) {
+            return;
+        }
+
+        int exitCode;
+        try {
+            exitCode = replay() ? 0 : 1;
+        } catch (IOException e) {
+            logger.error("Replay failed: {}", e.getMessage());
+            exitCode = 1;
+        }
+        int status = exitCode;
+        System.exit(SpringApplication.exit(applicationContext, () -> status));
+    }
+
+    /**
+     * @return True if every replayed session completed
+     */
+    private boolean replay() throws IOException, InterruptedException {
+        List<ReplayTrace> traces = loadTraces(Path.of(settings.getTraces()));
+        if (traces.isEmpty()) {
+            throw new IOException("No session recordings found at " + settings.getTraces());
+        }
+        logger.info("Replaying {} trace(s) at {} pace, {} at a time", traces.size(),
+                settings.isFast() ? "fast" : "original", settings.getConcurrency());
+
+        MeterRegistry meterRegistry = new SimpleMeterRegistry();
+        TranscriptStore transcriptStore = new TranscriptStore();
+        UsageAccountant usageAccountant = new UsageAccountant(properties, meterRegistry, transcriptStore);
+        AdmissionController admissionController = new AdmissionController(properties, meterRegistry);
+        ReplayBedrockRuntimeClient client = new ReplayBedrockRuntimeClient(
+                Runtime.getRuntime().availableProcessors(), settings.getGateTimeout());
+        ReplayClientFactory clientFactory = new ReplayClientFactory(properties, client);
+        RegionRouter regionRouter = new RegionRouter(properties, clientFactory, meterRegistry);
+        StreamSetupPolicy streamSetupPolicy = new StreamSetupPolicy(properties, regionRouter, meterRegistry);
+        NovaSonicEventHandler eventHandler = new NovaSonicEventHandler(usageAccountant, toolRegistry, toolExecutor);
+        // Replays are never recorded themselves
+        NovaWebSocketHandler handler = new NovaWebSocketHandler(eventHandler, properties, usageAccountant,
+                streamSetupPolicy, admissionController, new SessionRecorder(new NovaSonicProperties(), meterRegistry),
+                transcriptStore, meterRegistry);
+
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, settings.getConcurrency()), r -> {
+            Thread thread = new Thread(r, "replay-caller");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            for (int pass = 0; pass < settings.getWarmupPasses(); pass++) {
+                ReplayReport warmup = runPass(handler, client, executor, traces, 1);
+                logger.info("Warm-up pass {} completed {} of {} sessions", pass + 1, warmup.getCompleted(), warmup.getSessions());
+            }
+
+            ReplayReport report = runPass(handler, client, executor, traces, Math.max(1, settings.getRepeat()));
+            JSONObject json = report.toJson(settings.isFast(), settings.getConcurrency());
+            Files.writeString(Path.of(settings.getReport()), json.toString(2), StandardCharsets.UTF_8);
+            logger.info("Replayed {} of {} sessions in {} ms, {} ms CPU per session; report written to {}",
+                    report.getCompleted(), report.getSessions(), json.getLong("wallMillis"),
+                    json.getJSONObject("cpu").getDouble("perSessionMillis"), settings.getReport());
+            return report.getCompleted() == report.getSessions();
+        } finally {
+            executor.shutdownNow();
+            admissionController.shutdown();
+            streamSetupPolicy.shutdown();
+            regionRouter.shutdown();
+            client.shutdown();
+            usageAccountant.shutdown();
+        }
+    }
+
+    private static List<ReplayTrace> loadTraces(Path location) throws IOException {
+        List<Path> files = new ArrayList<>();
+        if (Files.isDirectory(location)) {
+            try (Stream<Path> entries = Files.list(location)) {
+                entries.filter(file -> file.getFileName().toString().endsWith(RecordingFormat.FILE_SUFFIX))
+                        .sorted()
+                        .forEach(files::add);
+            }
+        } else {
+            files.add(location);
+        }
+
+        List<ReplayTrace> traces = new ArrayList<>();
+        for (Path file : files) {
+            ReplayTrace trace = ReplayTrace.load(file);
+            if (trace.getDroppedRecords() > 0) {
+                logger.warn("Trace {} dropped {} records while recording; its replay may stall on missing inputs",
+                        trace.getName(), trace.getDroppedRecords());
+            }
+            traces.add(trace);
+        }
+        return traces;
+    }
+
+    private ReplayReport runPass(NovaWebSocketHandler handler, ReplayBedrockRuntimeClient client,
+                                 ExecutorService executor, List<ReplayTrace> traces, int repeat)
+            throws InterruptedException {
+        ReplayReport report = new ReplayReport();
+        List<Future<?>> sessions = new ArrayList<>();
+        report.start();
+        for (int i = 0; i < repeat; i++) {
+            for (ReplayTrace trace : traces) {
+                sessions.add(executor.submit(() -> {
+                    ReplaySession session = new ReplaySession(trace, report, settings.isFast());
+                    boolean complete = replaySession(handler, client, session);
+                    report.trace(trace).onSession(complete, session.getStalledGates());
+                    return null;
+                }));
+            }
+        }
+        for (Future<?> session : sessions) {
+            try {
+                session.get();
+            } catch (ExecutionException e) {
+                logger.warn("Replayed session failed", e.getCause());
+            }
+        }
+        report.stop();
+        return report;
+    }
+
+    /**
+     * Replays one session: opens the connection, feeds the caller frames at their recorded times
+     * (or as soon as the Bedrock events recorded before them have gone out, on a fast replay) and
+     * closes once every recorded event has been sent.
+     *
+     * @return True if the whole trace was replayed before the session timeout
+     */
+    private boolean replaySession(NovaWebSocketHandler handler, ReplayBedrockRuntimeClient client,
+                                  ReplaySession session) throws Exception {
+        ReplayTrace trace = session.getTrace();
+        int index = connections.getAndIncrement();
+        ReplayWebSocketSession connection = new ReplayWebSocketSession("replay-" + index, trace.connectionUri(),
+                remoteAddress(index), session);
+        long deadline = System.nanoTime() + settings.getSessionTimeout().toNanos();
+
+        startLock.lockInterruptibly();
+        try {
+            client.expect(session);
+            session.start();
+            handler.afterConnectionEstablished(connection);
+            if (!session.awaitStreamOpened(remainingMillis(deadline))) {
+                client.expect(null);
+            }
+        } finally {
+            startLock.unlock();
+        }
+
+        boolean complete = false;
+        try {
+            if (!connection.awaitReady(remainingMillis(deadline))) {
+                logger.warn("Replay of {} never became ready", trace.getName());
+                return false;
+            }
+            long readyNanos = System.nanoTime();
+            session.getReport().record("session.setup", readyNanos - session.getStartNanos(), -1);
+
+            // Keep the recorded spacing of the caller's audio, shifted if setup took longer than it did
+            long shiftNanos = trace.getFrameCount() > 0
+                    ? Math.max(0, readyNanos - session.getStartNanos() - trace.getFrameTimeMicros(0) * 1000) : 0;
+            for (int i = 0; i < trace.getFrameCount(); i++) {
+                if (session.isFast()) {
+                    if (!session.awaitOutputs(trace.getOutputsBeforeFrame(i), deadline)) {
+                        return false;
+                    }
+                } else {
+                    long dueNanos = session.getStartNanos() + shiftNanos + trace.getFrameTimeMicros(i) * 1000;
+                    for (long wait = dueNanos - System.nanoTime(); wait > 0; wait = dueNanos - System.nanoTime()) {
+                        LockSupport.parkNanos(wait);
+                    }
+                }
+                if (!connection.isOpen() || System.nanoTime() > deadline) {
+                    return false;
+                }
+
+                BinaryMessage frame = new BinaryMessage(trace.getFrame(i));
+                long allocatedBefore = ReplayReport.threadAllocatedBytes();
+                long start = System.nanoTime();
+                session.onFrameSending(i, start);
+                handler.handleMessage(connection, frame);
+                session.getReport().record("caller.audio", System.nanoTime() - start,
+                        ReplayReport.threadAllocatedBytes() - allocatedBefore);
+                session.onFrameSent(i);
+            }
+
+            complete = session.awaitOutputs(trace.getOutputs().size(), deadline);
+            if (!complete) {
+                logger.warn("Replay of {} timed out after {} of {} Bedrock events", trace.getName(),
+                        session.getOutputsSent(), trace.getOutputs().size());
+            }
+            return complete;
+        } finally {
+            if (connection.isOpen()) {
+                handler.handleMessage(connection, new TextMessage("close"));
+            }
+            handler.afterConnectionClosed(connection, CloseStatus.NORMAL);
+        }
+    }
+
+    /**
+     * A distinct loopback address per replayed connection, so per-address admission limits treat
+     * them as separate callers, as the recorded sessions were.
+     */
+    private static InetSocketAddress remoteAddress(int index) throws IOException {
+        byte[] address = {127, (byte) (index >> 16), (byte) (index >> 8), (byte) index};
+        return new InetSocketAddress(InetAddress.getByAddress(address), 40000);
+    }
+
+    private static long remainingMillis(long deadlineNanos) {
+        return TimeUnit.NANOSECONDS.toMillis(deadlineNanos - System.nanoTime());
+    }
+}
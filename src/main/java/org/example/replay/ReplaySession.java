@@ -0,0 +1,146 @@
+package org.example.replay;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * State shared by the caller side and the Bedrock side of one replayed session: when each caller
+ * frame went in, how many recorded Bedrock events have gone out, and the turn whose first audio
+ * frame the connection is waiting for.
+ */
+final class ReplaySession {
+    private final ReplayTrace trace;
+    private final ReplayReport report;
+    private final boolean fast;
+    private final long[] frameSentNanos;
+    private final CountDownLatch streamOpened = new CountDownLatch(1);
+    private final AtomicLong pendingTurnNanos = new AtomicLong();
+    private final LongAdder stalledGates = new LongAdder();
+    private volatile long startNanos;
+    private volatile int framesSent;
+    private volatile ReplayBedrockRuntimeClient.ReplayConversation conversation;
+    private int outputsSent;
+
+    ReplaySession(ReplayTrace trace, ReplayReport report, boolean fast) {
+        this.trace = trace;
+        this.report = report;
+        this.fast = fast;
+        this.frameSentNanos = new long[trace.getFrameCount()];
+    }
+
+    ReplayTrace getTrace() {
+        return trace;
+    }
+
+    ReplayReport getReport() {
+        return report;
+    }
+
+    boolean isFast() {
+        return fast;
+    }
+
+    void start() {
+        startNanos = System.nanoTime();
+    }
+
+    long getStartNanos() {
+        return startNanos;
+    }
+
+    void onStreamOpened(ReplayBedrockRuntimeClient.ReplayConversation conversation) {
+        this.conversation = conversation;
+        streamOpened.countDown();
+    }
+
+    /**
+     * Waits until the session's Bedrock stream is open, or the server has closed the connection.
+     */
+    boolean awaitStreamOpened(long timeoutMillis) throws InterruptedException {
+        return streamOpened.await(Math.max(timeoutMillis, 0), TimeUnit.MILLISECONDS) && conversation != null;
+    }
+
+    void onConnectionClosed() {
+        streamOpened.countDown();
+    }
+
+    /**
+     * Called just before caller frame {@code index} is handed to the WebSocket handler.
+     */
+    void onFrameSending(int index, long nanos) {
+        frameSentNanos[index] = nanos;
+    }
+
+    /**
+     * Called once caller frame {@code index} has been handled; Bedrock events waiting on it may go.
+     */
+    void onFrameSent(int index) {
+        framesSent = index + 1;
+        ReplayBedrockRuntimeClient.ReplayConversation current = conversation;
+        if (current != null) {
+            current.kick();
+        }
+    }
+
+    int getFramesSent() {
+        return framesSent;
+    }
+
+    long getFrameSentNanos(int index) {
+        return frameSentNanos[index];
+    }
+
+    synchronized void onOutputSent() {
+        outputsSent++;
+        notifyAll();
+    }
+
+    synchronized int getOutputsSent() {
+        return outputsSent;
+    }
+
+    /**
+     * Waits until {@code count} recorded Bedrock events have been replayed.
+     *
+     * @return False if the deadline passed first
+     */
+    synchronized boolean awaitOutputs(int count, long deadlineNanos) throws InterruptedException {
+        while (outputsSent < count) {
+            long remaining = deadlineNanos - System.nanoTime();
+            if (remaining <= 0) {
+                return false;
+            }
+            TimeUnit.NANOSECONDS.timedWait(this, remaining);
+        }
+        return true;
+    }
+
+    /**
+     * Starts timing a turn.
+     *
+     * @param fromNanos When the input the assistant response followed arrived, plus the recorded model delay when it is replayed
+     */
+    void onTurnStart(long fromNanos) {
+        pendingTurnNanos.compareAndSet(0, fromNanos);
+    }
+
+    /**
+     * Called for every audio frame sent to the caller; the first one of a turn ends its timing.
+     */
+    void onAudioFrame() {
+        long fromNanos = pendingTurnNanos.getAndSet(0);
+        if (fromNanos != 0) {
+            report.record("turn", System.nanoTime() - fromNanos, -1);
+        }
+    }
+
+    void onStalledGate() {
+        stalledGates.increment();
+    }
+
+    long getStalledGates() {
+        return stalledGates.sum();
+    }
+}
@@ -0,0 +1,247 @@
+package org.example.replay;
+
+import org.example.recording.RecordingFormat;
+import org.example.recording.RecordingReader;
+import org.json.JSONObject;
+import software.amazon.awssdk.core.SdkBytes;
+import software.amazon.awssdk.services.bedrockruntime.model.InvokeModelWithBidirectionalStreamOutput;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.example.constants.NovaSonicConstants.AUDIO_OUTPUT;
+import static org.example.constants.NovaSonicConstants.CONTENT_KEY;
+import static org.example.constants.NovaSonicConstants.CONTENT_START;
+import static org.example.constants.NovaSonicConstants.DEFAULT_TENANT_ID;
+import static org.example.constants.NovaSonicConstants.EVENT_KEY;
+import static org.example.constants.NovaSonicConstants.ROLE_KEY;
+
+/**
+ * A session recording prepared for replay. Caller audio keeps its recorded timing; every Bedrock
+ * event is tied to the inputs that preceded it in the recording (the caller frames and tool results
+ * sent so far), so a replay never answers audio the caller has not sent yet, and keeps the event's
+ * recorded delay after the last of those inputs when the original pace is kept. Audio output is
+ * re-encoded into audio output events up front, so replaying it costs the harness nothing.
+ */
+final class ReplayTrace {
+    private static final String TOOL_RESULT = "toolResult";
+
+    /**
+     * One recorded Bedrock event.
+     *
+     * @param eventType         Event type, such as {@code audioOutput}
+     * @param event             Stream output to replay
+     * @param timeMicros        Recorded time since the session started
+     * @param framesBefore      Caller frames sent before it
+     * @param toolResultsBefore Tool results sent before it
+     * @param gateTimeMicros    Recorded time of the last of those inputs, or zero if there were none
+     * @param gatedOnToolResult Whether that last input was a tool result rather than a caller frame
+     * @param turnStart         Whether it is the first audio of an assistant response
+     */
+    record Output(String eventType, InvokeModelWithBidirectionalStreamOutput event, long timeMicros,
+                  int framesBefore, int toolResultsBefore, long gateTimeMicros, boolean gatedOnToolResult,
+                  boolean turnStart) {
+    }
+
+    private final String name;
+    private final String tenantId;
+    private final Map<String, String> parameters;
+    private final List<byte[]> frames;
+    private final long[] frameTimeMicros;
+    private final int[] outputsBeforeFrame;
+    private final List<Output> outputs;
+    private final long droppedRecords;
+
+    private ReplayTrace(String name, String tenantId, Map<String, String> parameters, List<byte[]> frames,
+                        long[] frameTimeMicros, int[] outputsBeforeFrame, List<Output> outputs, long droppedRecords) {
+        this.name = name;
+        this.tenantId = tenantId;
+        this.parameters = parameters;
+        this.frames = frames;
+        this.frameTimeMicros = frameTimeMicros;
+        this.outputsBeforeFrame = outputsBeforeFrame;
+        this.outputs = outputs;
+        this.droppedRecords = droppedRecords;
+    }
+
+    /**
+     * Reads a recording and pairs every Bedrock event with the inputs it followed.
+     */
+    static ReplayTrace load(Path file) throws IOException {
+        String tenantId = DEFAULT_TENANT_ID;
+        Map<String, String> parameters = new LinkedHashMap<>();
+        List<byte[]> frames = new ArrayList<>();
+        List<Long> frameTimes = new ArrayList<>();
+        List<Integer> outputsBeforeFrame = new ArrayList<>();
+        List<Output> outputs = new ArrayList<>();
+        long droppedRecords = 0;
+
+        int toolResults = 0;
+        long lastFrameMicros = 0;
+        long lastToolResultMicros = 0;
+        String promptName = "";
+        String audioContentId = "";
+        String audioRole = "ASSISTANT";
+        boolean awaitingTurnAudio = false;
+
+        for (RecordingReader.Record record : RecordingReader.read(file)) {
+            switch (record.type()) {
+                case START -> tenantId = new JSONObject(utf8(record)).optString("tenantId", DEFAULT_TENANT_ID);
+                case INPUT_AUDIO -> {
+                    frames.add(record.payload());
+                    frameTimes.add(record.timeMicros());
+                    outputsBeforeFrame.add(outputs.size());
+                    lastFrameMicros = record.timeMicros();
+                }
+                case INPUT_EVENT -> {
+                    JSONObject event = new JSONObject(utf8(record)).getJSONObject(EVENT_KEY);
+                    if (event.has(TOOL_RESULT)) {
+                        toolResults++;
+                        lastToolResultMicros = record.timeMicros();
+                    } else {
+                        collectParameters(event, parameters);
+                    }
+                }
+                case OUTPUT_EVENT, OUTPUT_AUDIO -> {
+                    String payload;
+                    String eventType;
+                    if (record.type() == RecordingFormat.RecordType.OUTPUT_AUDIO) {
+                        eventType = AUDIO_OUTPUT;
+                        payload = new JSONObject().put(EVENT_KEY, new JSONObject().put(AUDIO_OUTPUT, new JSONObject()
+                                .put("promptName", promptName)
+                                .put("contentId", audioContentId)
+                                .put(ROLE_KEY, audioRole)
+                                .put(CONTENT_KEY, Base64.getEncoder().encodeToString(record.payload())))).toString();
+                    } else {
+                        payload = utf8(record);
+                        JSONObject event = new JSONObject(payload).getJSONObject(EVENT_KEY);
+                        eventType = event.keys().hasNext() ? event.keys().next() : "unknown";
+                        JSONObject body = event.optJSONObject(eventType);
+                        if (body != null) {
+                            promptName = body.optString("promptName", promptName);
+                            if (CONTENT_START.equals(eventType) && "AUDIO".equals(body.optString("type"))) {
+                                audioContentId = body.optString("contentId", audioContentId);
+                                audioRole = body.optString(ROLE_KEY, audioRole);
+                                awaitingTurnAudio = true;
+                            }
+                        }
+                    }
+                    boolean turnStart = AUDIO_OUTPUT.equals(eventType) && awaitingTurnAudio;
+                    if (turnStart) {
+                        awaitingTurnAudio = false;
+                    }
+                    boolean gatedOnToolResult = toolResults > 0 && lastToolResultMicros >= lastFrameMicros;
+                    outputs.add(new Output(eventType,
+                            InvokeModelWithBidirectionalStreamOutput.chunkBuilder().bytes(SdkBytes.fromUtf8String(payload)).build(),
+                            record.timeMicros(), frames.size(), toolResults,
+                            gatedOnToolResult ? lastToolResultMicros : lastFrameMicros, gatedOnToolResult, turnStart));
+                }
+                case END -> droppedRecords = new JSONObject(utf8(record)).optLong("droppedRecords");
+            }
+        }
+
+        String name = file.getFileName().toString();
+        if (name.endsWith(RecordingFormat.FILE_SUFFIX)) {
+            name = name.substring(0, name.length() - RecordingFormat.FILE_SUFFIX.length());
+        }
+        return new ReplayTrace(name, tenantId, parameters, frames,
+                frameTimes.stream().mapToLong(Long::longValue).toArray(),
+                outputsBeforeFrame.stream().mapToInt(Integer::intValue).toArray(),
+                outputs, droppedRecords);
+    }
+
+    /**
+     * Recovers the connection parameters the session was opened with from its setup events, so the
+     * replay sends Bedrock the same configuration.
+     */
+    private static void collectParameters(JSONObject event, Map<String, String> parameters) {
+        JSONObject sessionStart = event.optJSONObject("sessionStart");
+        if (sessionStart != null) {
+            JSONObject inference = sessionStart.optJSONObject("inferenceConfiguration");
+            if (inference != null) {
+                parameters.put("maxTokens", String.valueOf(inference.optInt("maxTokens", 1024)));
+                parameters.put("topP", String.valueOf(inference.optDouble("topP", 0.9)));
+                parameters.put("topT", String.valueOf(inference.optDouble("temperature", 0.7)));
+            }
+        }
+        JSONObject textInput = event.optJSONObject("textInput");
+        if (textInput != null && !parameters.containsKey("systemPrompt")) {
+            // The only text a session sends is its system prompt
+            parameters.put("systemPrompt", textInput.optString(CONTENT_KEY));
+        }
+    }
+
+    private static String utf8(RecordingReader.Record record) {
+        return new String(record.payload(), StandardCharsets.UTF_8);
+    }
+
+    String getName() {
+        return name;
+    }
+
+    String getTenantId() {
+        return tenantId;
+    }
+
+    /**
+     * WebSocket URI that opens a session with the recorded tenant and configuration.
+     */
+    URI connectionUri() {
+        Map<String, String> query = new LinkedHashMap<>(parameters);
+        query.put("tenantId", tenantId);
+        return URI.create("ws://localhost/ws/audio?" + query.entrySet().stream()
+                .map(e -> e.getKey() + "=" + URLEncoder.encode(e.getValue(), StandardCharsets.UTF_8))
+                .collect(Collectors.joining("&")));
+    }
+
+    int getFrameCount() {
+        return frames.size();
+    }
+
+    byte[] getFrame(int index) {
+        return frames.get(index);
+    }
+
+    long getFrameTimeMicros(int index) {
+        return frameTimeMicros[index];
+    }
+
+    /**
+     * Bedrock events recorded before the given caller frame, which a fast replay sends first.
+     */
+    int getOutputsBeforeFrame(int index) {
+        return outputsBeforeFrame[index];
+    }
+
+    List<Output> getOutputs() {
+        return outputs;
+    }
+
+    long getDroppedRecords() {
+        return droppedRecords;
+    }
+
+    /**
+     * Turns with assistant audio, the unit turn latency is reported per.
+     */
+    long getTurnCount() {
+        return outputs.stream().filter(Output::turnStart).count();
+    }
+
+    /**
+     * Recorded length of the session, up to its last record.
+     */
+    long getDurationMicros() {
+        long last = frameTimeMicros.length > 0 ? frameTimeMicros[frameTimeMicros.length - 1] : 0;
+        return outputs.isEmpty() ? last : Math.max(last, outputs.get(outputs.size() - 1).timeMicros());
+    }
+}
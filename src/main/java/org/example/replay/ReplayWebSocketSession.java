@@ -0,0 +1,145 @@
+package org.example.replay;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketExtension;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.security.Principal;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * In-memory WebSocket connection for a replayed session. Outbound frames are discarded except that
+ * the ready status is tracked, so the caller side can wait for the stream, and audio frames end the
+ * timing of the turn they answer.
+ */
+class ReplayWebSocketSession implements WebSocketSession {
+    private final String id;
+    private final URI uri;
+    private final InetSocketAddress remoteAddress;
+    private final ReplaySession replaySession;
+    private final HttpHeaders handshakeHeaders = new HttpHeaders();
+    private final Map<String, Object> attributes = new ConcurrentHashMap<>();
+    private final CountDownLatch ready = new CountDownLatch(1);
+    private volatile boolean open = true;
+
+    ReplayWebSocketSession(String id, URI uri, InetSocketAddress remoteAddress, ReplaySession replaySession) {
+        this.id = id;
+        this.uri = uri;
+        this.remoteAddress = remoteAddress;
+        this.replaySession = replaySession;
+        // NovaWebSocketHandler only accepts audio from local origins
+        handshakeHeaders.setOrigin("http://localhost:3000");
+    }
+
+    /**
+     * Waits for the ready status that follows stream setup.
+     *
+     * @return False if the timeout elapsed or the connection was closed first
+     */
+    boolean awaitReady(long timeoutMillis) throws InterruptedException {
+        return ready.await(Math.max(timeoutMillis, 0), TimeUnit.MILLISECONDS) && open;
+    }
+
+    @Override
+    public void sendMessage(WebSocketMessage<?> message) {
+        if (!(message instanceof TextMessage textMessage)) {
+            return;
+        }
+        String payload = textMessage.getPayload();
+        if (payload.startsWith("{\"type\":\"audio\"")) {
+            replaySession.onAudioFrame();
+        } else if (payload.contains("\"status\":\"ready\"")) {
+            ready.countDown();
+        }
+    }
+
+    @Override
+    public String getId() {
+        return id;
+    }
+
+    @Override
+    public URI getUri() {
+        return uri;
+    }
+
+    @Override
+    public HttpHeaders getHandshakeHeaders() {
+        return handshakeHeaders;
+    }
+
+    @Override
+    public Map<String, Object> getAttributes() {
+        return attributes;
+    }
+
+    @Override
+    public Principal getPrincipal() {
+        return null;
+    }
+
+    @Override
+    public InetSocketAddress getLocalAddress() {
+        return null;
+    }
+
+    @Override
+    public InetSocketAddress getRemoteAddress() {
+        return remoteAddress;
+    }
+
+    @Override
+    public String getAcceptedProtocol() {
+        return null;
+    }
+
+    @Override
+    public void setTextMessageSizeLimit(int messageSizeLimit) {
+    }
+
+    @Override
+    public int getTextMessageSizeLimit() {
+        return Integer.MAX_VALUE;
+    }
+
+    @Override
+    public void setBinaryMessageSizeLimit(int messageSizeLimit) {
+    }
+
+    @Override
+    public int getBinaryMessageSizeLimit() {
+        return Integer.MAX_VALUE;
+    }
+
+    @Override
+    public List<WebSocketExtension> getExtensions() {
+        return Collections.emptyList();
+    }
+
+    @Override
+    public boolean isOpen() {
+        return open;
+    }
+
+    @Override
+    public void close() {
+        close(CloseStatus.NORMAL);
+    }
+
+    @Override
+    public void close(CloseStatus status) {
+        open = false;
+        ready.countDown();
+        replaySession.onConnectionClosed();
+    }
+}
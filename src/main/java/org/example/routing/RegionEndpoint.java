@@ -0,0 +1,137 @@
+package org.example.routing;
+
+import org.example.client.StreamCircuitBreaker;
+import org.example.config.NovaSonicProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import software.amazon.awssdk.services.bedrockruntime.BedrockRuntimeAsyncClient;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * One Bedrock endpoint sessions can be routed to: its pooled clients, the circuit breaker its
+ * stream setups go through, and the health and smoothed latency measured by background probes.
+ */
+public class RegionEndpoint {
+    private static final Logger logger = LoggerFactory.getLogger(RegionEndpoint.class);
+
+    private final NovaSonicProperties.Routing.Endpoint settings;
+    private final NovaSonicProperties.Routing routing;
+    private final int order;
+    private final List<BedrockRuntimeAsyncClient> clients;
+    private final AtomicInteger nextClient = new AtomicInteger();
+    private final StreamCircuitBreaker circuitBreaker;
+
+    private volatile boolean enabled = true;
+    // Healthy until probes say otherwise, so sessions are routed before the first probe completes
+    private volatile boolean healthy = true;
+    // Smoothed probe latency in nanoseconds, negative until the first successful probe
+    private volatile long latencyNanos = -1;
+    // Written only by the endpoint's probe task
+    private int consecutiveFailures;
+    private int consecutiveSuccesses;
+
+    RegionEndpoint(NovaSonicProperties.Routing.Endpoint settings, NovaSonicProperties properties, int order,
+                   List<BedrockRuntimeAsyncClient> clients) {
+        this.settings = settings;
+        this.routing = properties.getRouting();
+        this.order = order;
+        this.clients = clients;
+        this.circuitBreaker = new StreamCircuitBreaker("bedrock-stream-" + settings.getName(), properties.getStreamSetup());
+    }
+
+    public String getName() {
+        return settings.getName();
+    }
+
+    public String getRegion() {
+        return settings.getRegion();
+    }
+
+    /**
+     * Returns the next client of this endpoint's pool. Clients are shared by many sessions and
+     * closed by the router, never by a session.
+     */
+    public BedrockRuntimeAsyncClient nextClient() {
+        return clients.get(Math.floorMod(nextClient.getAndIncrement(), clients.size()));
+    }
+
+    public StreamCircuitBreaker getCircuitBreaker() {
+        return circuitBreaker;
+    }
+
+    /**
+     * Whether the endpoint takes new sessions; an operator can take it out of rotation.
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        if (this.enabled != enabled) {
+            logger.warn("Endpoint {} {} rotation", getName(), enabled ? "returned to" : "taken out of");
+        }
+        this.enabled = enabled;
+    }
+
+    public boolean isHealthy() {
+        return healthy;
+    }
+
+    /**
+     * Smoothed probe latency, or null before the first successful probe.
+     */
+    public Duration getLatency() {
+        long latency = latencyNanos;
+        return latency < 0 ? null : Duration.ofNanos(latency);
+    }
+
+    NovaSonicProperties.Routing.Endpoint getSettings() {
+        return settings;
+    }
+
+    int getOrder() {
+        return order;
+    }
+
+    /**
+     * Latency used to rank endpoints; endpoints never measured rank last.
+     */
+    long rankingLatencyNanos() {
+        long latency = latencyNanos;
+        return latency < 0 ? Long.MAX_VALUE : latency;
+    }
+
+    void onProbeSuccess(long sampleNanos) {
+        consecutiveFailures = 0;
+        long previous = latencyNanos;
+        latencyNanos = previous < 0 ? sampleNanos
+                : (long) (routing.getLatencySmoothing() * sampleNanos + (1 - routing.getLatencySmoothing()) * previous);
+        if (!healthy && ++consecutiveSuccesses >= routing.getHealthyThreshold()) {
+            healthy = true;
+            logger.info("Endpoint {} is healthy again ({} ms)", getName(), Duration.ofNanos(latencyNanos).toMillis());
+        }
+    }
+
+    void onProbeFailure(Throwable failure) {
+        consecutiveSuccesses = 0;
+        if (healthy && ++consecutiveFailures >= routing.getUnhealthyThreshold()) {
+            healthy = false;
+            logger.warn("Endpoint {} is unhealthy after {} failed probes: {}", getName(), consecutiveFailures, failure.getMessage());
+        } else {
+            logger.debug("Probe of endpoint {} failed: {}", getName(), failure.getMessage());
+        }
+    }
+
+    void close() {
+        for (BedrockRuntimeAsyncClient client : clients) {
+            try {
+                client.close();
+            } catch (Exception e) {
+                logger.warn("Error closing client of endpoint {}: {}", getName(), e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,251 @@
+package org.example.routing;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.example.client.BedrockClientFactory;
+import org.example.config.NovaSonicProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import software.amazon.awssdk.services.bedrockruntime.BedrockRuntimeAsyncClient;
+
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.URI;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static org.example.constants.NovaSonicConstants.BEDROCK_HTTPS_PORT;
+
+/**
+ * Routes new sessions across the configured Bedrock endpoints. Every endpoint is probed in the
+ * background for health and latency; a session goes to the fastest healthy endpoint whose circuit
+ * breaker admits it, spread across endpoints within the latency tolerance of the fastest. An
+ * endpoint that fails its probes, trips its breaker or is taken out of rotation stops receiving
+ * new sessions until it recovers, and a setup that fails on one endpoint is retried on another.
+ * Sessions already streaming are not moved.
+ */
+@Component
+public class RegionRouter {
+    private static final Logger logger = LoggerFactory.getLogger(RegionRouter.class);
+
+    private final NovaSonicProperties.Routing settings;
+    private final boolean fake;
+    private final List<RegionEndpoint> endpoints = new ArrayList<>();
+    private final Map<RegionEndpoint, Counter> selections = new HashMap<>();
+    private final ScheduledExecutorService probeScheduler;
+
+    public RegionRouter(NovaSonicProperties properties, BedrockClientFactory bedrockClientFactory, MeterRegistry meterRegistry) {
+        this.settings = properties.getRouting();
+        this.fake = bedrockClientFactory.isFake();
+        if (settings.getEndpoints().isEmpty()) {
+            throw new IllegalStateException("novasonic.routing.endpoints must list at least one endpoint");
+        }
+
+        for (NovaSonicProperties.Routing.Endpoint endpointSettings : settings.getEndpoints()) {
+            List<BedrockRuntimeAsyncClient> clients = new ArrayList<>();
+            for (int i = 0; i < Math.max(1, settings.getClientPoolSize()); i++) {
+                clients.add(bedrockClientFactory.create(endpointSettings));
+            }
+            RegionEndpoint endpoint = new RegionEndpoint(endpointSettings, properties, endpoints.size(), clients);
+            endpoints.add(endpoint);
+            registerMeters(endpoint, meterRegistry);
+        }
+
+        this.probeScheduler = Executors.newScheduledThreadPool(Math.min(endpoints.size(), 4), r -> {
+            Thread thread = new Thread(r, "region-probe");
+            thread.setDaemon(true);
+            return thread;
+        });
+        // With a single endpoint there is nothing to choose between; its breaker still guards it
+        if (endpoints.size() > 1) {
+            for (RegionEndpoint endpoint : endpoints) {
+                probeScheduler.scheduleWithFixedDelay(() -> probe(endpoint), 0,
+                        settings.getProbeInterval().toMillis(), TimeUnit.MILLISECONDS);
+            }
+        }
+        logger.info("Routing sessions across {} endpoint(s): {}", endpoints.size(),
+                endpoints.stream().map(RegionEndpoint::getName).toList());
+    }
+
+    /**
+     * Picks the endpoint for a stream setup attempt and takes a permit from its circuit breaker.
+     * Healthy endpoints come before unhealthy ones and endpoints the session already tried come
+     * last, so a retry fails over while some other endpoint is left; if every probe is failing the
+     * unhealthy endpoints are still tried, since the probe path may be the part that is broken.
+     *
+     * @param tried Endpoints earlier attempts of the same setup failed on
+     * @return The endpoint, which must be reported to its breaker, or null if no enabled endpoint admits a stream
+     */
+    public RegionEndpoint select(Set<RegionEndpoint> tried) {
+        for (RegionEndpoint endpoint : rank(tried)) {
+            if (endpoint.getCircuitBreaker().tryAcquirePermission()) {
+                selections.get(endpoint).increment();
+                return endpoint;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Whether an enabled, healthy endpoint outside {@code tried} could take a stream right now,
+     * so a failed setup can fail over without backing off.
+     */
+    public boolean hasUntriedEndpoint(Set<RegionEndpoint> tried) {
+        for (RegionEndpoint endpoint : endpoints) {
+            if (endpoint.isEnabled() && endpoint.isHealthy() && !tried.contains(endpoint)
+                    && endpoint.getCircuitBreaker().getRemainingOpenTime().isZero()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Time until some enabled endpoint lets setups through again, or zero if one already does.
+     */
+    public Duration getRemainingOpenTime() {
+        Duration shortest = null;
+        for (RegionEndpoint endpoint : endpoints) {
+            if (!endpoint.isEnabled()) {
+                continue;
+            }
+            Duration remaining = endpoint.getCircuitBreaker().getRemainingOpenTime();
+            if (shortest == null || remaining.compareTo(shortest) < 0) {
+                shortest = remaining;
+            }
+        }
+        return shortest != null ? shortest : Duration.ZERO;
+    }
+
+    public List<RegionEndpoint> getEndpoints() {
+        return Collections.unmodifiableList(endpoints);
+    }
+
+    public RegionEndpoint getEndpoint(String name) {
+        for (RegionEndpoint endpoint : endpoints) {
+            if (endpoint.getName().equals(name)) {
+                return endpoint;
+            }
+        }
+        return null;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        probeScheduler.shutdownNow();
+        endpoints.forEach(RegionEndpoint::close);
+    }
+
+    private List<RegionEndpoint> rank(Set<RegionEndpoint> tried) {
+        List<RegionEndpoint> ranked = new ArrayList<>();
+        for (RegionEndpoint endpoint : endpoints) {
+            if (endpoint.isEnabled()) {
+                ranked.add(endpoint);
+            }
+        }
+        Comparator<RegionEndpoint> preference = Comparator
+                .comparing((RegionEndpoint endpoint) -> tried.contains(endpoint))
+                .thenComparing(endpoint -> !endpoint.isHealthy());
+        ranked.sort(preference
+                .thenComparingLong(RegionEndpoint::rankingLatencyNanos)
+                .thenComparingInt(RegionEndpoint::getOrder));
+        if (ranked.size() < 2) {
+            return ranked;
+        }
+
+        // Spread sessions over the endpoints about as fast as the best one, so probe jitter does
+        // not flip all traffic between two nearby regions
+        RegionEndpoint best = ranked.get(0);
+        if (best.rankingLatencyNanos() == Long.MAX_VALUE) {
+            // Nothing measured yet: keep the configured order
+            return ranked;
+        }
+        long cutoff = best.rankingLatencyNanos() + settings.getLatencyTolerance().toNanos();
+        int leaders = 1;
+        while (leaders < ranked.size()
+                && preference.compare(ranked.get(leaders), best) == 0
+                && ranked.get(leaders).rankingLatencyNanos() <= cutoff) {
+            leaders++;
+        }
+        if (leaders > 1) {
+            Collections.swap(ranked, 0, ThreadLocalRandom.current().nextInt(leaders));
+        }
+        return ranked;
+    }
+
+    private void probe(RegionEndpoint endpoint) {
+        long start = System.nanoTime();
+        try {
+            if (fake) {
+                probeFake(endpoint.getSettings());
+            } else {
+                probeConnect(endpoint.getSettings());
+            }
+            endpoint.onProbeSuccess(System.nanoTime() - start);
+        } catch (Exception e) {
+            endpoint.onProbeFailure(e);
+        }
+    }
+
+    /**
+     * Measures a TCP handshake with the endpoint: one network round trip, without credentials or
+     * a billable request.
+     */
+    private void probeConnect(NovaSonicProperties.Routing.Endpoint endpoint) throws IOException {
+        String host = "bedrock-runtime." + endpoint.getRegion() + ".amazonaws.com";
+        int port = BEDROCK_HTTPS_PORT;
+        if (endpoint.getEndpointOverride() != null) {
+            URI override = URI.create(endpoint.getEndpointOverride());
+            host = override.getHost();
+            port = override.getPort() > 0 ? override.getPort() : BEDROCK_HTTPS_PORT;
+        }
+        try (Socket socket = new Socket()) {
+            socket.connect(new InetSocketAddress(host, port), (int) settings.getProbeTimeout().toMillis());
+        }
+    }
+
+    private void probeFake(NovaSonicProperties.Routing.Endpoint endpoint) throws IOException, InterruptedException {
+        if (endpoint.getFakeLatency().compareTo(settings.getProbeTimeout()) > 0) {
+            Thread.sleep(settings.getProbeTimeout().toMillis());
+            throw new IOException("Probe timed out");
+        }
+        Thread.sleep(endpoint.getFakeLatency().toMillis());
+        if (ThreadLocalRandom.current().nextDouble() < endpoint.getFakeFailureRate()) {
+            throw new IOException("Fake endpoint " + endpoint.getName() + " is unavailable");
+        }
+    }
+
+    private void registerMeters(RegionEndpoint endpoint, MeterRegistry meterRegistry) {
+        selections.put(endpoint, Counter.builder("novasonic.routing.selections")
+                .description("Stream setup attempts routed to the endpoint")
+                .tag("endpoint", endpoint.getName())
+                .register(meterRegistry));
+        Gauge.builder("novasonic.routing.latency", endpoint,
+                        e -> e.getLatency() == null ? Double.NaN : e.getLatency().toNanos() / 1_000_000.0)
+                .description("Smoothed probe latency of the endpoint in milliseconds")
+                .tag("endpoint", endpoint.getName())
+                .register(meterRegistry);
+        Gauge.builder("novasonic.routing.healthy", endpoint, e -> e.isEnabled() && e.isHealthy() ? 1 : 0)
+                .description("Whether the endpoint is in rotation and passing its probes")
+                .tag("endpoint", endpoint.getName())
+                .register(meterRegistry);
+        Gauge.builder("novasonic.stream.circuit.state", endpoint, e -> e.getCircuitBreaker().getState().ordinal())
+                .description("Stream creation circuit breaker state: 0 closed, 1 open, 2 half-open")
+                .tag("endpoint", endpoint.getName())
+                .register(meterRegistry);
+    }
+}
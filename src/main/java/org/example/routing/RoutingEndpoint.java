@@ -0,0 +1,53 @@
+package org.example.routing;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Admin endpoint: {@code GET /actuator/regions} reports each Bedrock endpoint's health, latency and
+ * breaker state, and {@code POST /actuator/regions} with {@code {"name": ..., "enabled": false}}
+ * takes an endpoint out of rotation for new sessions, or returns it. Served on the management port only.
+ */
+@Component
+@Endpoint(id = "regions")
+public class RoutingEndpoint {
+    private final RegionRouter regionRouter;
+
+    public RoutingEndpoint(RegionRouter regionRouter) {
+        this.regionRouter = regionRouter;
+    }
+
+    @ReadOperation
+    public Map<String, Object> status() {
+        List<Map<String, Object>> endpoints = new ArrayList<>();
+        for (RegionEndpoint endpoint : regionRouter.getEndpoints()) {
+            Map<String, Object> status = new LinkedHashMap<>();
+            status.put("name", endpoint.getName());
+            status.put("region", endpoint.getRegion());
+            status.put("enabled", endpoint.isEnabled());
+            status.put("healthy", endpoint.isHealthy());
+            status.put("latencyMillis", endpoint.getLatency() != null ? endpoint.getLatency().toMillis() : null);
+            status.put("circuit", endpoint.getCircuitBreaker().getState());
+            status.put("failureRate", endpoint.getCircuitBreaker().getFailureRate());
+            endpoints.add(status);
+        }
+        return Map.of("endpoints", endpoints);
+    }
+
+    @WriteOperation
+    public Map<String, Object> setEnabled(String name, boolean enabled) {
+        RegionEndpoint endpoint = regionRouter.getEndpoint(name);
+        if (endpoint == null) {
+            throw new IllegalArgumentException("Unknown endpoint: " + name);
+        }
+        endpoint.setEnabled(enabled);
+        return status();
+    }
+}
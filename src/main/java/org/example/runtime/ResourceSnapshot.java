@@ -0,0 +1,41 @@
+package org.example.runtime;
+
+import java.util.Map;
+
+/**
+ * Point-in-time view of the JVM resources a node holds, sampled over a long run to spot leaks.
+ *
+ * @param collected Whether a full GC was requested just before the snapshot, so the heap figure is live data
+ * @param heapUsedBytes Heap in use
+ * @param nonHeapUsedBytes Metaspace, code cache and other non-heap pools in use
+ * @param directBufferBytes Memory held by direct {@link java.nio.ByteBuffer}s
+ * @param directBufferCount Number of direct buffers
+ * @param nettyDirectBytes Direct memory Netty allocated outside of {@code ByteBuffer} accounting, or -1 if unknown
+ * @param liveThreads Live threads, daemon or not
+ * @param nettyEventLoopThreads Threads running Netty event loops, for the Bedrock client or the reactive server
+ * @param threadPools Live threads by name with the trailing counter removed, such as {@code http-nio-8008-exec}
+ * @param loadedClasses Classes currently loaded
+ * @param openFileDescriptors Open file descriptors, sockets included, or -1 if the platform does not report them
+ * @param activeSessions Sessions held by the WebSocket endpoints, including detached and suspended ones
+ * @param admittedStreams Bedrock streams holding an admission permit
+ * @param queuedConnections Connections waiting for admission
+ * @param usageSessions Sessions whose usage is still being accounted
+ */
+public record ResourceSnapshot(
+        long timestamp,
+        boolean collected,
+        long heapUsedBytes,
+        long nonHeapUsedBytes,
+        long directBufferBytes,
+        long directBufferCount,
+        long nettyDirectBytes,
+        int liveThreads,
+        int nettyEventLoopThreads,
+        Map<String, Integer> threadPools,
+        int loadedClasses,
+        long openFileDescriptors,
+        int activeSessions,
+        int admittedStreams,
+        int queuedConnections,
+        int usageSessions) {
+}
@@ -0,0 +1,143 @@
+package org.example.runtime;
+
+import io.netty.util.internal.PlatformDependent;
+import org.example.admission.AdmissionController;
+import org.example.session.SessionHost;
+import org.example.usage.UsageAccountant;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.actuate.autoconfigure.endpoint.condition.ConditionalOnAvailableEndpoint;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.stereotype.Component;
+
+import java.lang.management.BufferPoolMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.management.OperatingSystemMXBean;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.regex.Pattern;
+
+/**
+ * Admin endpoint for leak hunting: {@code GET /actuator/resources} reports heap, direct memory,
+ * threads by pool, loaded classes, file descriptors and the per-session bookkeeping the node holds;
+ * {@code POST /actuator/resources} requests a full GC first, so the heap figure is live data rather
+ * than garbage. {@code soak-test.sh} samples it for hours under churn and fails on sustained growth.
+ * Off unless {@code management.endpoint.resources.enabled=true}, since every POST stops the world.
+ */
+@Component
+@ConditionalOnAvailableEndpoint(endpoint = ResourcesEndpoint.class)
+@Endpoint(id = "resources", enableByDefault = false)
+public class ResourcesEndpoint {
+    private static final Logger logger = LoggerFactory.getLogger(ResourcesEndpoint.class);
+    // Counters and separators at the end of a thread name: pool-3-thread-12, http-nio-8008-exec-4
+    private static final Pattern THREAD_COUNTER = Pattern.compile("([-#_ ]?\\d+)+$");
+    private static final Pattern NETTY_EVENT_LOOP = Pattern.compile("(?i).*(EventLoop|reactor-http-).*");
+
+    private final ObjectProvider<SessionHost> sessionHosts;
+    private final AdmissionController admissionController;
+    private final UsageAccountant usageAccountant;
+
+    public ResourcesEndpoint(ObjectProvider<SessionHost> sessionHosts, AdmissionController admissionController,
+                             UsageAccountant usageAccountant) {
+        this.sessionHosts = sessionHosts;
+        this.admissionController = admissionController;
+        this.usageAccountant = usageAccountant;
+    }
+
+    @ReadOperation
+    public ResourceSnapshot resources() {
+        return snapshot(false);
+    }
+
+    @WriteOperation
+    public ResourceSnapshot collect() {
+        // A no-op under -XX:+DisableExplicitGC, which the snapshot cannot tell
+        long startNanos = System.nanoTime();
+        System.gc();
+        logger.debug("Full GC for resource snapshot took {} ms", (System.nanoTime() - startNanos) / 1_000_000);
+        return snapshot(true);
+    }
+
+    private ResourceSnapshot snapshot(boolean collected) {
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        long directBytes = 0;
+        long directCount = 0;
+        for (BufferPoolMXBean pool : ManagementFactory.getPlatformMXBeans(BufferPoolMXBean.class)) {
+            if ("direct".equals(pool.getName())) {
+                directBytes = pool.getMemoryUsed();
+                directCount = pool.getCount();
+            }
+        }
+
+        Map<String, Integer> threadPools = new TreeMap<>();
+        int eventLoopThreads = 0;
+        for (Thread thread : liveThreads()) {
+            String name = thread.getName();
+            threadPools.merge(THREAD_COUNTER.matcher(name).replaceFirst(""), 1, Integer::sum);
+            if (NETTY_EVENT_LOOP.matcher(name).matches()) {
+                eventLoopThreads++;
+            }
+        }
+
+        int activeSessions = 0;
+        for (SessionHost host : sessionHosts) {
+            activeSessions += host.getActiveSessionCount();
+        }
+
+        return new ResourceSnapshot(
+                System.currentTimeMillis(),
+                collected,
+                memory.getHeapMemoryUsage().getUsed(),
+                memory.getNonHeapMemoryUsage().getUsed(),
+                directBytes,
+                directCount,
+                nettyDirectBytes(),
+                threadPools.values().stream().mapToInt(Integer::intValue).sum(),
+                eventLoopThreads,
+                threadPools,
+                ManagementFactory.getClassLoadingMXBean().getLoadedClassCount(),
+                openFileDescriptors(),
+                activeSessions,
+                admissionController.getActiveStreams(),
+                admissionController.getQueuedConnections(),
+                usageAccountant.getActiveSessionCount());
+    }
+
+    /**
+     * Enumerates live threads without capturing their stacks, which {@link Thread#getAllStackTraces} would.
+     */
+    private static Thread[] liveThreads() {
+        ThreadGroup root = Thread.currentThread().getThreadGroup();
+        while (root.getParent() != null) {
+            root = root.getParent();
+        }
+        Thread[] threads = new Thread[root.activeCount() * 2 + 16];
+        int count;
+        while ((count = root.enumerate(threads, true)) == threads.length) {
+            threads = new Thread[threads.length * 2];
+        }
+        Thread[] live = new Thread[count];
+        System.arraycopy(threads, 0, live, 0, count);
+        return live;
+    }
+
+    private static long nettyDirectBytes() {
+        try {
+            return PlatformDependent.usedDirectMemory();
+        } catch (LinkageError e) {
+            return -1;
+        }
+    }
+
+    private static long openFileDescriptors() {
+        OperatingSystemMXBean os = ManagementFactory.getOperatingSystemMXBean();
+        if (os instanceof com.sun.management.UnixOperatingSystemMXBean unix) {
+            return unix.getOpenFileDescriptorCount();
+        }
+        return -1;
+    }
+}
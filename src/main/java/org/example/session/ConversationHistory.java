@@ -0,0 +1,68 @@
+package org.example.session;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+import static org.example.constants.NovaSonicConstants.SESSION_HISTORY_TURN_MAX_CHARS;
+
+/**
+ * The final transcripts of a conversation, kept so a stream reopened after a suspend carries on
+ * where the last one left off. Consecutive transcripts of one role are merged into a single turn,
+ * and the oldest turns are dropped once the history exceeds its character budget.
+ */
+public class ConversationHistory {
+
+    /**
+     * What one participant said.
+     *
+     * @param role {@code USER} or {@code ASSISTANT}, as in Nova Sonic's text output
+     */
+    public record Turn(String role, String text) {
+    }
+
+    private final int maxChars;
+    private final Deque<Turn> turns = new ArrayDeque<>();
+    private int chars;
+
+    /**
+     * @param maxChars Characters kept across all turns; zero or less keeps none
+     */
+    public ConversationHistory(int maxChars) {
+        this.maxChars = maxChars;
+    }
+
+    public synchronized void add(String role, String text) {
+        if (maxChars <= 0 || text == null || text.isBlank()) {
+            return;
+        }
+        Turn last = turns.peekLast();
+        if (last != null && last.role().equals(role)) {
+            turns.pollLast();
+            chars -= last.text().length();
+            text = last.text() + " " + text;
+        }
+        // The latest words matter most when the conversation resumes
+        int limit = Math.min(maxChars, SESSION_HISTORY_TURN_MAX_CHARS);
+        if (text.length() > limit) {
+            text = text.substring(text.length() - limit);
+        }
+        turns.addLast(new Turn(role, text));
+        chars += text.length();
+        while (chars > maxChars) {
+            chars -= turns.pollFirst().text().length();
+        }
+    }
+
+    /**
+     * The turns in order, oldest first.
+     */
+    public synchronized List<Turn> getTurns() {
+        return new ArrayList<>(turns);
+    }
+
+    public synchronized int getChars() {
+        return chars;
+    }
+}
@@ -0,0 +1,129 @@
+package org.example.session;
+
+import org.example.config.NovaSonicProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.availability.AvailabilityChangeEvent;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.example.constants.NovaSonicConstants.DRAIN_POLL_INTERVAL_MILLIS;
+
+/**
+ * Takes the node out of rotation without cutting calls off. Draining switches readiness to
+ * refusing traffic, stops new connections (see {@code DrainHandshakeInterceptor}), waits for active
+ * sessions to end and, at the drain deadline, closes the rest with a reconnect hint. A drain starts
+ * from the admin endpoint or on shutdown: this lifecycle bean is stopped before the web server, so
+ * SIGTERM drains sessions before the server goes away.
+ */
+@Component
+public class DrainCoordinator implements SmartLifecycle {
+    private static final Logger logger = LoggerFactory.getLogger(DrainCoordinator.class);
+
+    private final NovaSonicProperties.Session settings;
+    private final ObjectProvider<SessionHost> sessionHosts;
+    private final ApplicationEventPublisher eventPublisher;
+    private final AtomicBoolean draining = new AtomicBoolean();
+    private final CompletableFuture<Void> drained = new CompletableFuture<>();
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "session-drain");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private volatile long drainDeadlineMillis;
+    private volatile boolean running;
+
+    public DrainCoordinator(NovaSonicProperties properties, ObjectProvider<SessionHost> sessionHosts,
+                            ApplicationEventPublisher eventPublisher) {
+        this.settings = properties.getSession();
+        this.sessionHosts = sessionHosts;
+        this.eventPublisher = eventPublisher;
+    }
+
+    /**
+     * Starts draining the node, unless it is already draining.
+     *
+     * @return Completes once every session has ended or been closed
+     */
+    public CompletableFuture<Void> drain() {
+        if (draining.compareAndSet(false, true)) {
+            drainDeadlineMillis = System.currentTimeMillis() + settings.getDrainTimeout().toMillis();
+            logger.info("Draining node: {} active sessions, deadline in {}", getActiveSessions(), settings.getDrainTimeout());
+            AvailabilityChangeEvent.publish(eventPublisher, this, ReadinessState.REFUSING_TRAFFIC);
+            scheduler.scheduleWithFixedDelay(this::checkDrained, 0, DRAIN_POLL_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+        }
+        return drained;
+    }
+
+    private void checkDrained() {
+        int active = getActiveSessions();
+        if (active == 0) {
+            logger.info("Node drained");
+        } else if (System.currentTimeMillis() >= drainDeadlineMillis) {
+            logger.warn("Drain deadline reached, closing {} remaining sessions", active);
+            sessionHosts.orderedStream().forEach(SessionHost::closeAllSessions);
+        } else {
+            return;
+        }
+        drained.complete(null);
+        scheduler.shutdown();
+    }
+
+    public boolean isDraining() {
+        return draining.get();
+    }
+
+    public int getActiveSessions() {
+        return sessionHosts.orderedStream().mapToInt(SessionHost::getActiveSessionCount).sum();
+    }
+
+    public int getMaxSessions() {
+        return settings.getMaxSessions();
+    }
+
+    /**
+     * Returns the epoch millisecond at which remaining sessions are closed, or 0 if not draining.
+     */
+    public long getDrainDeadlineMillis() {
+        return drainDeadlineMillis;
+    }
+
+    @Override
+    public void start() {
+        running = true;
+    }
+
+    @Override
+    public void stop() {
+        drain().join();
+        running = false;
+    }
+
+    @Override
+    public void stop(Runnable callback) {
+        drain().whenComplete((result, throwable) -> {
+            running = false;
+            callback.run();
+        });
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        // Stopped before the web server's graceful shutdown and stop phases
+        return SmartLifecycle.DEFAULT_PHASE;
+    }
+}
@@ -0,0 +1,40 @@
+package org.example.session;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Admin endpoint: {@code GET /actuator/drain} reports the drain state and {@code POST /actuator/drain}
+ * starts draining the node. Like every actuator endpoint it is served on {@code management.server.port},
+ * which must not be reachable by callers.
+ */
+@Component
+@Endpoint(id = "drain")
+public class DrainEndpoint {
+    private final DrainCoordinator drainCoordinator;
+
+    public DrainEndpoint(DrainCoordinator drainCoordinator) {
+        this.drainCoordinator = drainCoordinator;
+    }
+
+    @ReadOperation
+    public Map<String, Object> status() {
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("draining", drainCoordinator.isDraining());
+        status.put("activeSessions", drainCoordinator.getActiveSessions());
+        status.put("maxSessions", drainCoordinator.getMaxSessions());
+        status.put("drainDeadline", drainCoordinator.getDrainDeadlineMillis());
+        return status;
+    }
+
+    @WriteOperation
+    public Map<String, Object> drain() {
+        drainCoordinator.drain();
+        return status();
+    }
+}
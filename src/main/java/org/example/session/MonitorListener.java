@@ -0,0 +1,138 @@
+package org.example.session;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.io.IOException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * One connection listening in on a voice session. Frames are queued as the session sends them and
+ * written to the connection by a shared sender pool, so the session's own thread only ever pays for
+ * a queue offer. A listener that lets its queue fill up, or whose write takes longer than the send
+ * time limit, is closed and dropped instead of being waited for.
+ */
+public class MonitorListener {
+    private static final Logger logger = LoggerFactory.getLogger(MonitorListener.class);
+    static final CloseStatus TOO_SLOW_CLOSE_STATUS = CloseStatus.SESSION_NOT_RELIABLE.withReason("Monitor fell behind");
+
+    private final WebSocketSession connection;
+    private final ArrayBlockingQueue<TextMessage> queue;
+    private final Executor sender;
+    private final long sendTimeLimitNanos;
+    private final AtomicBoolean draining = new AtomicBoolean();
+    private final AtomicBoolean closed = new AtomicBoolean();
+    private final Runnable drainTask = this::drain;
+    // Start of the write in progress, or 0 between writes
+    private volatile long writeStartedNanos;
+    private volatile SessionMonitors monitors;
+
+    /**
+     * @param queueCapacity Frames the listener may fall behind by before it is dropped
+     * @param sender Pool the frames are written on
+     */
+    public MonitorListener(WebSocketSession connection, int queueCapacity, Executor sender, long sendTimeLimitNanos) {
+        this.connection = connection;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.sender = sender;
+        this.sendTimeLimitNanos = sendTimeLimitNanos;
+    }
+
+    public WebSocketSession getConnection() {
+        return connection;
+    }
+
+    void setMonitors(SessionMonitors monitors) {
+        this.monitors = monitors;
+    }
+
+    /**
+     * Queues a frame for the listener without blocking. The message is shared with the session's
+     * other listeners, so it is never modified.
+     *
+     * @return False if the listener is closed, or was just dropped for falling behind
+     */
+    public boolean offer(TextMessage message) {
+        if (closed.get()) {
+            return false;
+        }
+        long writeStarted = writeStartedNanos;
+        if (!queue.offer(message) || (writeStarted != 0 && System.nanoTime() - writeStarted > sendTimeLimitNanos)) {
+            logger.info("Dropping monitor {}: {} frames queued", connection.getId(), queue.size());
+            close(TOO_SLOW_CLOSE_STATUS);
+            return false;
+        }
+        if (draining.compareAndSet(false, true)) {
+            try {
+                sender.execute(drainTask);
+            } catch (RejectedExecutionException e) {
+                draining.set(false);
+                close(CloseStatus.SERVICE_OVERLOAD);
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void drain() {
+        do {
+            TextMessage message;
+            while (!closed.get() && (message = queue.poll()) != null) {
+                writeStartedNanos = System.nanoTime();
+                try {
+                    connection.sendMessage(message);
+                } catch (IOException | RuntimeException e) {
+                    logger.debug("Error writing to monitor {}: {}", connection.getId(), e.getMessage());
+                    writeStartedNanos = 0;
+                    draining.set(false);
+                    close(CloseStatus.SERVER_ERROR);
+                    return;
+                }
+                writeStartedNanos = 0;
+            }
+            draining.set(false);
+            // A frame offered after the last poll but before the flag cleared would otherwise wait for the next one
+        } while (!closed.get() && !queue.isEmpty() && draining.compareAndSet(false, true));
+    }
+
+    /**
+     * Stops forwarding frames, removes the listener from its session and closes the connection on the
+     * sender pool, so a stalled connection never blocks the caller of this method.
+     */
+    public void close(CloseStatus status) {
+        if (!closed.compareAndSet(false, true)) {
+            return;
+        }
+        queue.clear();
+        SessionMonitors current = monitors;
+        if (current != null) {
+            current.remove(this);
+        }
+        try {
+            sender.execute(() -> closeConnection(status));
+        } catch (RejectedExecutionException e) {
+            closeConnection(status);
+        }
+    }
+
+    private void closeConnection(CloseStatus status) {
+        if (!connection.isOpen()) {
+            return;
+        }
+        try {
+            connection.close(status);
+        } catch (IOException | RuntimeException e) {
+            logger.debug("Error closing monitor {}: {}", connection.getId(), e.getMessage());
+        }
+    }
+
+    public boolean isClosed() {
+        return closed.get();
+    }
+}
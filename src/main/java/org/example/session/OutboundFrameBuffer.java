@@ -0,0 +1,92 @@
+package org.example.session;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.function.Consumer;
+import java.util.function.LongFunction;
+
+/**
+ * Bounded ring of outbound frames tagged with sequence numbers, kept so a client that
+ * reconnects with its last seen sequence number can be replayed everything it missed.
+ * The oldest frames are evicted once either the frame or the byte limit is exceeded.
+ */
+public class OutboundFrameBuffer {
+    private final int maxFrames;
+    private final long maxBytes;
+    private final Deque<Frame> frames = new ArrayDeque<>();
+    private long nextSequence = 1;
+    // Written under the lock, read without it for diagnostics
+    private volatile long bufferedBytes = 0;
+    private volatile int bufferedFrames = 0;
+
+    private record Frame(long sequence, String payload) {
+    }
+
+    public OutboundFrameBuffer(int maxFrames, long maxBytes) {
+        this.maxFrames = maxFrames;
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * Assigns the next sequence number, encodes the frame with it and stores the result.
+     *
+     * @param encoder Builds the frame payload for the assigned sequence number
+     * @return The encoded frame
+     */
+    public synchronized String append(LongFunction<String> encoder) {
+        long sequence = nextSequence++;
+        String payload = encoder.apply(sequence);
+        if (maxFrames <= 0) {
+            return payload;
+        }
+        frames.addLast(new Frame(sequence, payload));
+        bufferedBytes += payload.length();
+        while (frames.size() > maxFrames || (bufferedBytes > maxBytes && frames.size() > 1)) {
+            bufferedBytes -= frames.removeFirst().payload().length();
+        }
+        bufferedFrames = frames.size();
+        return payload;
+    }
+
+    /**
+     * Passes every buffered frame newer than {@code lastSequence} to the sink, oldest first.
+     *
+     * @param lastSequence The last sequence number the client received
+     * @param sink Receives the frames to replay
+     * @return False if frames after {@code lastSequence} have already been evicted and the replay has a gap
+     */
+    public synchronized boolean replayAfter(long lastSequence, Consumer<String> sink) {
+        boolean complete = frames.isEmpty()
+                ? lastSequence >= nextSequence - 1
+                : frames.peekFirst().sequence() <= lastSequence + 1;
+        for (Frame frame : frames) {
+            if (frame.sequence() > lastSequence) {
+                sink.accept(frame.payload());
+            }
+        }
+        return complete;
+    }
+
+    public synchronized long getLastSequence() {
+        return nextSequence - 1;
+    }
+
+    public synchronized int size() {
+        return frames.size();
+    }
+
+    /**
+     * Number of frames buffered as of the last append; does not wait for a concurrent append.
+     */
+    public int getBufferedFrames() {
+        return bufferedFrames;
+    }
+
+    /**
+     * Size of the buffered frames as counted against the byte limit, as of the last append; does not
+     * wait for a concurrent append.
+     */
+    public long getBufferedBytes() {
+        return bufferedBytes;
+    }
+}
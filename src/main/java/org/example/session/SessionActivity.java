@@ -0,0 +1,130 @@
+package org.example.session;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Running counters of one voice session's traffic and the CPU time spent on it, for diagnostics.
+ * Updated lock-free from the caller's and Bedrock's threads; readers take a racy but cheap snapshot,
+ * so polling thousands of sessions never blocks their traffic.
+ */
+public class SessionActivity {
+    private static final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+    private static final boolean cpuTimeSupported = threads.isCurrentThreadCpuTimeSupported();
+
+    private final long startedAtMillis = System.currentTimeMillis();
+    private final LongAdder callerBytes = new LongAdder();
+    private final LongAdder frameBytes = new LongAdder();
+    private final LongAdder frames = new LongAdder();
+    private final LongAdder bedrockEvents = new LongAdder();
+    private final LongAdder cpuNanos = new LongAdder();
+    private final AtomicInteger pendingFrames = new AtomicInteger();
+    private volatile long lastCallerAudioMillis;
+    private volatile long lastBedrockEventMillis;
+    private volatile long lastFrameMillis;
+    private volatile int callerPeak;
+    private volatile double callerRms;
+
+    /**
+     * CPU time of the current thread so far, or 0 where the JVM cannot measure it.
+     */
+    public static long threadCpuNanos() {
+        return cpuTimeSupported ? threads.getCurrentThreadCpuTime() : 0;
+    }
+
+    /**
+     * Records a chunk of caller audio and the CPU time spent passing it to Bedrock.
+     */
+    public void onCallerAudio(int bytes, long cpuNanos) {
+        callerBytes.add(bytes);
+        this.cpuNanos.add(cpuNanos);
+        lastCallerAudioMillis = System.currentTimeMillis();
+    }
+
+    /**
+     * Records the level of the caller's latest audio chunk, as 16-bit sample magnitudes.
+     */
+    public void onCallerLevel(int peak, double rms) {
+        callerPeak = peak;
+        callerRms = rms;
+    }
+
+    /**
+     * Records a Bedrock event and the CPU time spent handling it, including the frames it sent.
+     */
+    public void onBedrockEvent(long cpuNanos) {
+        bedrockEvents.increment();
+        this.cpuNanos.add(cpuNanos);
+        lastBedrockEventMillis = System.currentTimeMillis();
+    }
+
+    /**
+     * Records a frame written to the client's connection.
+     */
+    void onFrameSent(int length) {
+        frames.increment();
+        frameBytes.add(length);
+        lastFrameMillis = System.currentTimeMillis();
+    }
+
+    void onFrameQueued() {
+        pendingFrames.incrementAndGet();
+    }
+
+    void onFrameDequeued() {
+        pendingFrames.decrementAndGet();
+    }
+
+    public long getStartedAtMillis() {
+        return startedAtMillis;
+    }
+
+    public long getCallerBytes() {
+        return callerBytes.sum();
+    }
+
+    public long getFrameBytes() {
+        return frameBytes.sum();
+    }
+
+    public long getFrames() {
+        return frames.sum();
+    }
+
+    public long getBedrockEvents() {
+        return bedrockEvents.sum();
+    }
+
+    public long getCpuNanos() {
+        return cpuNanos.sum();
+    }
+
+    /**
+     * Frames waiting behind the one being written to the connection.
+     */
+    public int getPendingFrames() {
+        return pendingFrames.get();
+    }
+
+    public long getLastCallerAudioMillis() {
+        return lastCallerAudioMillis;
+    }
+
+    public long getLastBedrockEventMillis() {
+        return lastBedrockEventMillis;
+    }
+
+    public long getLastFrameMillis() {
+        return lastFrameMillis;
+    }
+
+    public int getCallerPeak() {
+        return callerPeak;
+    }
+
+    public double getCallerRms() {
+        return callerRms;
+    }
+}
@@ -0,0 +1,33 @@
+package org.example.session;
+
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.stereotype.Component;
+
+/**
+ * Reports active sessions against the node's limit. Part of the readiness group, so a load balancer
+ * stops sending long-lived sessions to a node that is full or draining, and can use the details to
+ * spread sessions evenly.
+ */
+@Component
+public class SessionCapacityHealthIndicator implements HealthIndicator {
+    private final DrainCoordinator drainCoordinator;
+
+    public SessionCapacityHealthIndicator(DrainCoordinator drainCoordinator) {
+        this.drainCoordinator = drainCoordinator;
+    }
+
+    @Override
+    public Health health() {
+        int active = drainCoordinator.getActiveSessions();
+        int limit = drainCoordinator.getMaxSessions();
+        boolean draining = drainCoordinator.isDraining();
+        Health.Builder builder = draining || active >= limit ? Health.outOfService() : Health.up();
+        return builder
+                .withDetail("activeSessions", active)
+                .withDetail("maxSessions", limit)
+                .withDetail("availableSessions", Math.max(limit - active, 0))
+                .withDetail("draining", draining)
+                .build();
+    }
+}
@@ -0,0 +1,50 @@
+package org.example.session;
+
+/**
+ * Point-in-time view of a live voice session, for finding the sessions a hot node spends its time on.
+ *
+ * @param monitorToken Token a supervisor presents to listen in on the session through {@code /ws/monitor}
+ * @param state {@code starting} until the stream is up, then {@code active}, {@code detached} while
+ *              awaiting a resume, {@code suspended} once its stream was closed for lack of audio,
+ *              {@code resuming} while that stream reopens, or {@code idle} after a reset until the next stream
+ * @param endpoint Bedrock endpoint the stream was opened on
+ * @param callerBytes PCM bytes received from the caller
+ * @param frameBytes Size of the frames written to the caller
+ * @param inputBacklog Input events sent to the Bedrock stream that it has not taken yet
+ * @param pendingFrames Frames waiting behind the one being written to the caller
+ * @param bufferedFrames Frames kept for replay to a resuming connection
+ * @param monitors Listeners attached to the session's output
+ * @param callerPeak Peak sample magnitude of the caller's latest audio chunk, from 0 to 32768
+ * @param callerRms RMS level of the caller's latest audio chunk, from 0 to 32768
+ * @param lastCallerAudioAt Epoch millis of the last caller audio, or null if none yet
+ * @param lastBedrockEventAt Epoch millis of the last Bedrock event, or null if none yet
+ * @param lastFrameAt Epoch millis of the last frame written to the caller, or null if none yet
+ * @param retainedHeapBytes Approximate heap held by the session's buffers
+ * @param cpuMillis CPU time spent on the session's caller audio and Bedrock events
+ */
+public record SessionDiagnostics(
+        String sessionId,
+        String tenantId,
+        String monitorToken,
+        String state,
+        long ageMillis,
+        String language,
+        String voiceId,
+        String endpoint,
+        long callerBytes,
+        long frameBytes,
+        long frames,
+        long bedrockEvents,
+        long inputBacklog,
+        int pendingFrames,
+        int bufferedFrames,
+        int monitors,
+        int callerPeak,
+        double callerRms,
+        Long lastCallerAudioAt,
+        Long lastBedrockEventAt,
+        Long lastFrameAt,
+        String generationStage,
+        long retainedHeapBytes,
+        double cpuMillis) {
+}
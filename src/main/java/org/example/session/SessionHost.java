@@ -0,0 +1,43 @@
+package org.example.session;
+
+import java.util.List;
+
+/**
+ * A WebSocket endpoint or gRPC service that hosts live voice sessions, which a draining node waits
+ * for and, once the drain deadline passes, closes.
+ */
+public interface SessionHost {
+    /**
+     * Returns the number of sessions currently held, including detached sessions awaiting resume.
+     */
+    int getActiveSessionCount();
+
+    /**
+     * Closes every session with a status telling the client to reconnect, which the load balancer
+     * routes to another node.
+     */
+    void closeAllSessions();
+
+    /**
+     * Returns a snapshot of every session held. Hosts that do not track per-session activity return none.
+     */
+    default List<SessionDiagnostics> getSessionDiagnostics() {
+        return List.of();
+    }
+
+    /**
+     * Looks up a live session, including one awaiting resume. Hosts that do not keep {@link VoiceSession}s return null.
+     */
+    default VoiceSession findSession(String sessionId) {
+        return null;
+    }
+
+    /**
+     * Ends a session and closes its connection, whatever it is doing.
+     *
+     * @return False if the host holds no such session
+     */
+    default boolean terminateSession(String sessionId) {
+        return false;
+    }
+}
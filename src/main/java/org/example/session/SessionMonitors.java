@@ -0,0 +1,68 @@
+package org.example.session;
+
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+
+import java.util.Arrays;
+
+/**
+ * The listeners attached to one voice session. Publishing walks a copy-on-write array, so a session
+ * without listeners pays one volatile read per frame, and every listener receives the same message
+ * instance.
+ */
+public class SessionMonitors {
+    private static final MonitorListener[] NONE = new MonitorListener[0];
+
+    private volatile MonitorListener[] listeners = NONE;
+
+    /**
+     * Attaches a listener unless the session already has {@code maxListeners}.
+     *
+     * @return False if the session is full
+     */
+    public synchronized boolean add(MonitorListener listener, int maxListeners) {
+        MonitorListener[] current = listeners;
+        if (current.length >= maxListeners) {
+            return false;
+        }
+        MonitorListener[] updated = Arrays.copyOf(current, current.length + 1);
+        updated[current.length] = listener;
+        listener.setMonitors(this);
+        listeners = updated;
+        return true;
+    }
+
+    public synchronized void remove(MonitorListener listener) {
+        MonitorListener[] current = listeners;
+        for (int i = 0; i < current.length; i++) {
+            if (current[i] == listener) {
+                MonitorListener[] updated = Arrays.copyOf(current, current.length - 1);
+                System.arraycopy(current, i + 1, updated, i, current.length - i - 1);
+                listeners = updated;
+                return;
+            }
+        }
+    }
+
+    /**
+     * Queues the frame for every listener; never blocks on a listener's connection.
+     */
+    public void publish(TextMessage message) {
+        for (MonitorListener listener : listeners) {
+            listener.offer(message);
+        }
+    }
+
+    public int size() {
+        return listeners.length;
+    }
+
+    /**
+     * Closes every listener, for when the session ends.
+     */
+    public void closeAll(CloseStatus status) {
+        for (MonitorListener listener : listeners) {
+            listener.close(status);
+        }
+    }
+}
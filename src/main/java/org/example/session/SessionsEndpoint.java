@@ -0,0 +1,86 @@
+package org.example.session;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Admin endpoint: {@code GET /actuator/sessions} lists the live sessions with their traffic, backlog,
+ * approximate heap and CPU time, heaviest CPU users first ({@code ?sort=heap|backlog|age} and
+ * {@code ?limit=} narrow it down); {@code GET /actuator/sessions/{id}} shows one session and
+ * {@code DELETE /actuator/sessions/{id}} terminates it. Snapshots are read from per-session counters
+ * without locking, so the list is cheap to poll. Not in the default web exposure, since it hands out
+ * session ids and ends calls.
+ */
+@Component
+@Endpoint(id = "sessions")
+public class SessionsEndpoint {
+    private static final Map<String, Comparator<SessionDiagnostics>> ORDERS = Map.of(
+            "cpu", Comparator.comparingDouble(SessionDiagnostics::cpuMillis),
+            "heap", Comparator.comparingLong(SessionDiagnostics::retainedHeapBytes),
+            "backlog", Comparator.comparingLong(session -> session.inputBacklog() + session.pendingFrames()),
+            "age", Comparator.comparingLong(SessionDiagnostics::ageMillis));
+
+    private final ObjectProvider<SessionHost> sessionHosts;
+
+    public SessionsEndpoint(ObjectProvider<SessionHost> sessionHosts) {
+        this.sessionHosts = sessionHosts;
+    }
+
+    @ReadOperation
+    public Map<String, Object> sessions(@Nullable String sort, @Nullable Integer limit) {
+        Comparator<SessionDiagnostics> order = ORDERS.get(sort != null ? sort : "cpu");
+        if (order == null) {
+            throw new IllegalArgumentException("Unknown sort: " + sort + ", expected one of " + ORDERS.keySet());
+        }
+        List<SessionDiagnostics> sessions = snapshot();
+        sessions.sort(order.reversed());
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("count", sessions.size());
+        result.put("cpuMillis", sessions.stream().mapToDouble(SessionDiagnostics::cpuMillis).sum());
+        result.put("retainedHeapBytes", sessions.stream().mapToLong(SessionDiagnostics::retainedHeapBytes).sum());
+        result.put("sessions", limit != null && limit < sessions.size() ? sessions.subList(0, Math.max(0, limit)) : sessions);
+        return result;
+    }
+
+    @ReadOperation
+    public SessionDiagnostics session(@Selector String sessionId) {
+        for (SessionHost host : sessionHosts) {
+            for (SessionDiagnostics session : host.getSessionDiagnostics()) {
+                if (session.sessionId().equals(sessionId)) {
+                    return session;
+                }
+            }
+        }
+        // Null answers 404
+        return null;
+    }
+
+    @DeleteOperation
+    public Map<String, Object> terminate(@Selector String sessionId) {
+        boolean terminated = false;
+        for (SessionHost host : sessionHosts) {
+            terminated |= host.terminateSession(sessionId);
+        }
+        if (!terminated) {
+            return null;
+        }
+        return Map.of("sessionId", sessionId, "terminated", true);
+    }
+
+    private List<SessionDiagnostics> snapshot() {
+        List<SessionDiagnostics> sessions = new ArrayList<>();
+        sessionHosts.forEach(host -> sessions.addAll(host.getSessionDiagnostics()));
+        return sessions;
+    }
+}
@@ -0,0 +1,498 @@
+package org.example.session;
+
+import org.example.admission.AdmissionPermit;
+import org.example.client.NovaSonicClient;
+import org.example.jfr.OutboundFrameSentEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.LongFunction;
+
+/**
+ * A voice conversation that outlives individual WebSocket connections. It owns the Nova Sonic
+ * client and the outbound replay buffer, and is attached to at most one WebSocket at a time.
+ * Sends and re-attachment are serialised on the session so replayed frames never interleave
+ * with live ones.
+ * <p>
+ * A session whose audio has stopped can be suspended: it gives up its client and stream but keeps
+ * its conversation history, and holds the caller's audio while a new stream is opened on resume.
+ * Suspend and resume are serialised on a separate lock, so they never wait behind a slow write.
+ */
+public class VoiceSession {
+    private static final Logger logger = LoggerFactory.getLogger(VoiceSession.class);
+    // Heap held by a buffered frame besides its characters: the String, its array and the ring entry
+    private static final int FRAME_OVERHEAD_BYTES = 80;
+
+    private final String sessionId;
+    private final String resumeToken;
+    // Handed to supervisors through the sessions endpoint only, never to the caller
+    private final String monitorToken = UUID.randomUUID().toString();
+    private final String tenantId;
+    private final OutboundFrameBuffer outboundFrames;
+    private final AtomicBoolean initialized = new AtomicBoolean(false);
+    private final SessionActivity activity = new SessionActivity();
+    private final SessionMonitors monitors = new SessionMonitors();
+    private final ConversationHistory history;
+    private final Object suspendLock = new Object();
+
+    private volatile WebSocketSession webSocketSession;
+    private volatile NovaSonicClient novaSonicClient;
+    private volatile AdmissionPermit admissionPermit;
+    private volatile Map<String, String> parameters = Map.of();
+    private volatile String transcriptToken;
+    private volatile long streamStartedMillis;
+    private ScheduledFuture<?> resumeExpiry;
+
+    // Suspend state, guarded by suspendLock
+    private volatile boolean suspended;
+    private boolean resuming;
+    private long resumeStartedNanos;
+    private long resumeNotBeforeMillis;
+    private final Deque<byte[]> heldAudio = new ArrayDeque<>();
+    private int heldAudioBytes;
+
+    public VoiceSession(String sessionId, String resumeToken, String tenantId, WebSocketSession webSocketSession,
+                        OutboundFrameBuffer outboundFrames, ConversationHistory history) {
+        this.sessionId = sessionId;
+        this.resumeToken = resumeToken;
+        this.tenantId = tenantId;
+        this.webSocketSession = webSocketSession;
+        this.outboundFrames = outboundFrames;
+        this.history = history;
+    }
+
+    public String getSessionId() {
+        return sessionId;
+    }
+
+    public String getResumeToken() {
+        return resumeToken;
+    }
+
+    public String getTenantId() {
+        return tenantId;
+    }
+
+    /**
+     * Lets a supervisor listen in on the session through {@code /ws/monitor}.
+     */
+    public String getMonitorToken() {
+        return monitorToken;
+    }
+
+    public boolean isMonitorToken(String token) {
+        return token != null && MessageDigest.isEqual(monitorToken.getBytes(StandardCharsets.UTF_8),
+                token.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public WebSocketSession getWebSocketSession() {
+        return webSocketSession;
+    }
+
+    public NovaSonicClient getNovaSonicClient() {
+        return novaSonicClient;
+    }
+
+    public void setNovaSonicClient(NovaSonicClient novaSonicClient) {
+        this.novaSonicClient = novaSonicClient;
+    }
+
+    public AdmissionPermit getAdmissionPermit() {
+        return admissionPermit;
+    }
+
+    public void setAdmissionPermit(AdmissionPermit admissionPermit) {
+        this.admissionPermit = admissionPermit;
+    }
+
+    /**
+     * Reads the session's stored transcript back through the transcript API.
+     */
+    public String getTranscriptToken() {
+        return transcriptToken;
+    }
+
+    public void setTranscriptToken(String transcriptToken) {
+        this.transcriptToken = transcriptToken;
+    }
+
+    public AtomicBoolean getInitialized() {
+        return initialized;
+    }
+
+    public SessionActivity getActivity() {
+        return activity;
+    }
+
+    /**
+     * Listeners attached to the session's output, such as a supervisor listening in.
+     */
+    public SessionMonitors getMonitors() {
+        return monitors;
+    }
+
+    /**
+     * Final transcripts so far, replayed into the stream opened on resume.
+     */
+    public ConversationHistory getHistory() {
+        return history;
+    }
+
+    /**
+     * Query parameters the session was opened with, for opening its stream again.
+     */
+    public Map<String, String> getParameters() {
+        return parameters;
+    }
+
+    public void setParameters(Map<String, String> parameters) {
+        this.parameters = Map.copyOf(parameters);
+    }
+
+    /**
+     * Epoch millis at which the session's current stream became ready, or 0 if it has none.
+     */
+    public long getStreamStartedMillis() {
+        return streamStartedMillis;
+    }
+
+    public void setStreamStartedMillis(long streamStartedMillis) {
+        this.streamStartedMillis = streamStartedMillis;
+    }
+
+    /**
+     * Takes the session's client away so its stream can be closed, keeping everything else.
+     *
+     * @return The client to close, or null if the session has no ready stream to give up
+     */
+    public NovaSonicClient suspend() {
+        synchronized (suspendLock) {
+            NovaSonicClient client = novaSonicClient;
+            if (suspended || client == null || !initialized.get()) {
+                return null;
+            }
+            novaSonicClient = null;
+            initialized.set(false);
+            streamStartedMillis = 0;
+            suspended = true;
+            return client;
+        }
+    }
+
+    public boolean isSuspended() {
+        return suspended;
+    }
+
+    /**
+     * Holds caller audio while the session is suspended, dropping the oldest once more than
+     * {@code maxBytes} are held.
+     *
+     * @return False if the session is not suspended, so the audio belongs on its stream
+     */
+    public boolean holdAudio(byte[] audio, int maxBytes) {
+        synchronized (suspendLock) {
+            if (!suspended) {
+                return false;
+            }
+            heldAudio.addLast(audio);
+            heldAudioBytes += audio.length;
+            while (heldAudioBytes > maxBytes && heldAudio.size() > 1) {
+                heldAudioBytes -= heldAudio.removeFirst().length;
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Claims the reopening of a suspended session's stream, so only one is attempted at a time.
+     *
+     * @return False if the session is not suspended, is already resuming, or must wait after a rejected resume
+     */
+    public boolean beginResume() {
+        synchronized (suspendLock) {
+            if (!suspended || resuming || System.currentTimeMillis() < resumeNotBeforeMillis) {
+                return false;
+            }
+            resuming = true;
+            resumeStartedNanos = System.nanoTime();
+            return true;
+        }
+    }
+
+    /**
+     * Gives a resuming session the client that is opening its new stream, so cleanup closes it.
+     *
+     * @return False if the session stopped resuming meanwhile; the caller then owns the client and permit
+     */
+    public boolean setResumingClient(NovaSonicClient client, AdmissionPermit permit) {
+        synchronized (suspendLock) {
+            if (!suspended || !resuming) {
+                return false;
+            }
+            novaSonicClient = client;
+            admissionPermit = permit;
+            return true;
+        }
+    }
+
+    /**
+     * Puts the reopened stream in service. The audio held since the suspend is sent to it first,
+     * under the suspend lock, so audio arriving meanwhile cannot overtake it.
+     *
+     * @return Nanoseconds since the resume began, or -1 if the session was cleaned up meanwhile
+     */
+    public long completeResume(NovaSonicClient client) {
+        synchronized (suspendLock) {
+            if (!suspended || novaSonicClient != client) {
+                return -1;
+            }
+            for (byte[] audio : heldAudio) {
+                client.sendAudioChunk(ByteBuffer.wrap(audio));
+            }
+            clearHeldAudio();
+            suspended = false;
+            resuming = false;
+            streamStartedMillis = System.currentTimeMillis();
+            initialized.set(true);
+            return System.nanoTime() - resumeStartedNanos;
+        }
+    }
+
+    /**
+     * Leaves the session suspended after its stream could not be reopened. The held audio is
+     * dropped, and the caller's next audio tries again, no sooner than {@code retryAtMillis}.
+     */
+    public void failResume(long retryAtMillis) {
+        synchronized (suspendLock) {
+            resuming = false;
+            resumeNotBeforeMillis = retryAtMillis;
+            clearHeldAudio();
+        }
+    }
+
+    /**
+     * Forgets a suspend, for a session whose stream is being closed for good.
+     */
+    public void clearSuspended() {
+        synchronized (suspendLock) {
+            suspended = false;
+            resuming = false;
+            clearHeldAudio();
+        }
+    }
+
+    private void clearHeldAudio() {
+        heldAudio.clear();
+        heldAudioBytes = 0;
+    }
+
+    public long getLastSequence() {
+        return outboundFrames.getLastSequence();
+    }
+
+    public boolean isAttachedTo(WebSocketSession session) {
+        WebSocketSession current = webSocketSession;
+        return current != null && current.getId().equals(session.getId());
+    }
+
+    /**
+     * Encodes a frame with the next sequence number, buffers it for replay and sends it if a
+     * connection is attached. While detached the frame is only buffered. Monitors get the same
+     * message instance either way.
+     *
+     * @param encoder Builds the frame payload for the assigned sequence number
+     * @return True if the frame was written to an open connection
+     */
+    public boolean sendSequenced(LongFunction<String> encoder) {
+        OutboundFrameSentEvent event = new OutboundFrameSentEvent();
+        event.begin();
+        long requestedNanos = event.isEnabled() ? System.nanoTime() : 0;
+        activity.onFrameQueued();
+        synchronized (this) {
+            activity.onFrameDequeued();
+            long acquiredNanos = event.isEnabled() ? System.nanoTime() : 0;
+            TextMessage message = new TextMessage(outboundFrames.append(encoder));
+            boolean delivered = send(message, outboundFrames.getLastSequence(), event, acquiredNanos - requestedNanos);
+            monitors.publish(message);
+            return delivered;
+        }
+    }
+
+    /**
+     * Sends an unsequenced control frame (status, error) to the attached connection, if any.
+     */
+    public boolean send(String payload) {
+        OutboundFrameSentEvent event = new OutboundFrameSentEvent();
+        event.begin();
+        long requestedNanos = event.isEnabled() ? System.nanoTime() : 0;
+        activity.onFrameQueued();
+        synchronized (this) {
+            activity.onFrameDequeued();
+            long acquiredNanos = event.isEnabled() ? System.nanoTime() : 0;
+            return send(new TextMessage(payload), 0, event, acquiredNanos - requestedNanos);
+        }
+    }
+
+    /**
+     * Writes a frame while holding the session's lock and traces it.
+     *
+     * @param queueWaitNanos Time spent waiting for the lock behind the session's other frames
+     */
+    private boolean send(TextMessage message, long sequence, OutboundFrameSentEvent event, long queueWaitNanos) {
+        long writeStart = event.isEnabled() ? System.nanoTime() : 0;
+        boolean delivered = write(message);
+        long writeTime = event.isEnabled() ? System.nanoTime() - writeStart : 0;
+        event.end();
+        if (event.shouldCommit()) {
+            String payload = message.getPayload();
+            event.sessionId = sessionId;
+            event.frameType = frameType(payload);
+            event.sequence = sequence;
+            event.payloadLength = payload.length();
+            event.queueWait = queueWaitNanos;
+            event.writeTime = writeTime;
+            event.delivered = delivered;
+            event.commit();
+        }
+        return delivered;
+    }
+
+    private boolean write(TextMessage message) {
+        WebSocketSession session = webSocketSession;
+        if (session == null || !session.isOpen()) {
+            return false;
+        }
+        try {
+            session.sendMessage(message);
+            activity.onFrameSent(message.getPayload().length());
+            return true;
+        } catch (IOException e) {
+            logger.error("Error sending to session {}: {}", sessionId, e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * The {@code type} of a frame, which every frame starts with.
+     */
+    private static String frameType(String payload) {
+        int start = payload.indexOf("\"type\":\"");
+        if (start < 0) {
+            return null;
+        }
+        start += "\"type\":\"".length();
+        int end = payload.indexOf('"', start);
+        return end > start ? payload.substring(start, end) : null;
+    }
+
+    /**
+     * Snapshot of the session for diagnostics, taken without the session's lock so a slow write
+     * never holds it up.
+     */
+    public SessionDiagnostics diagnostics() {
+        NovaSonicClient client = novaSonicClient;
+        String state;
+        if (suspended) {
+            state = client == null ? "suspended" : "resuming";
+        } else if (client == null) {
+            state = "idle";
+        } else if (!initialized.get()) {
+            state = "starting";
+        } else {
+            state = webSocketSession == null ? "detached" : "active";
+        }
+        long bufferedBytes = outboundFrames.getBufferedBytes();
+        int bufferedFrames = outboundFrames.getBufferedFrames();
+        long retainedBytes = bufferedBytes + (long) bufferedFrames * FRAME_OVERHEAD_BYTES
+                + (client != null ? client.getRetainedInputBytes() : 0);
+        return new SessionDiagnostics(
+                sessionId,
+                tenantId,
+                monitorToken,
+                state,
+                System.currentTimeMillis() - activity.getStartedAtMillis(),
+                client != null ? client.getLanguage() : null,
+                client != null ? client.getVoiceId() : null,
+                client != null && client.getEndpoint() != null ? client.getEndpoint().getName() : null,
+                activity.getCallerBytes(),
+                activity.getFrameBytes(),
+                activity.getFrames(),
+                activity.getBedrockEvents(),
+                client != null ? client.getInputBacklog() : 0,
+                activity.getPendingFrames(),
+                bufferedFrames,
+                monitors.size(),
+                activity.getCallerPeak(),
+                activity.getCallerRms(),
+                timestamp(activity.getLastCallerAudioMillis()),
+                timestamp(activity.getLastBedrockEventMillis()),
+                timestamp(activity.getLastFrameMillis()),
+                client != null ? client.getGenerationStage() : null,
+                retainedBytes,
+                activity.getCpuNanos() / 1_000_000.0);
+    }
+
+    private static Long timestamp(long millis) {
+        return millis != 0 ? millis : null;
+    }
+
+    /**
+     * Attaches a new connection and replays every buffered frame after {@code lastSequence}.
+     *
+     * @return False if part of the missed output had already been evicted from the buffer
+     */
+    public synchronized boolean attach(WebSocketSession session, long lastSequence) {
+        cancelResumeExpiry();
+        WebSocketSession previous = this.webSocketSession;
+        this.webSocketSession = session;
+        if (previous != null && previous.isOpen() && !previous.getId().equals(session.getId())) {
+            try {
+                previous.close();
+            } catch (IOException e) {
+                logger.warn("Error closing superseded connection for session {}: {}", sessionId, e.getMessage());
+            }
+        }
+        return outboundFrames.replayAfter(lastSequence, this::send);
+    }
+
+    /**
+     * Detaches the given connection if it is the one currently attached.
+     *
+     * @return True if the connection was attached and has been detached
+     */
+    public synchronized boolean detach(WebSocketSession session) {
+        if (!isAttachedTo(session)) {
+            return false;
+        }
+        this.webSocketSession = null;
+        return true;
+    }
+
+    public synchronized boolean isDetached() {
+        return webSocketSession == null;
+    }
+
+    public synchronized void setResumeExpiry(ScheduledFuture<?> resumeExpiry) {
+        cancelResumeExpiry();
+        this.resumeExpiry = resumeExpiry;
+    }
+
+    public synchronized void cancelResumeExpiry() {
+        if (resumeExpiry != null) {
+            resumeExpiry.cancel(false);
+            resumeExpiry = null;
+        }
+    }
+}
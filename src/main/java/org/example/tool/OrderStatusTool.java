@@ -0,0 +1,59 @@
+package org.example.tool;
+
+import org.json.JSONObject;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDate;
+
+import static org.example.constants.NovaSonicConstants.DEFAULT_TOOL_TIMEOUT_SECONDS;
+
+/**
+ * Looks up the status of an order. This playground implementation derives a deterministic
+ * status from the order id instead of calling an order system.
+ */
+@Component
+public class OrderStatusTool implements Tool {
+    private static final String[] STATUSES = {"processing", "shipped", "out for delivery", "delivered"};
+
+    @Override
+    public String getName() {
+        return "getOrderStatus";
+    }
+
+    @Override
+    public String getDescription() {
+        return "Looks up the current status and estimated delivery date of a customer order by its order id.";
+    }
+
+    @Override
+    public String getInputSchema() {
+        return """
+            {"type":"object","properties":{"orderId":{"type":"string","description":"The order id"}},"required":["orderId"]}""";
+    }
+
+    @Override
+    public Duration getTimeout() {
+        return Duration.ofSeconds(DEFAULT_TOOL_TIMEOUT_SECONDS);
+    }
+
+    @Override
+    public Duration getCacheTtl() {
+        return Duration.ofMinutes(1);
+    }
+
+    @Override
+    public String execute(JSONObject input) {
+        String orderId = input.optString("orderId", "").trim();
+        if (orderId.isEmpty()) {
+            return new JSONObject().put("error", "orderId is required").toString();
+        }
+        int hash = Math.abs(orderId.hashCode());
+        String status = STATUSES[hash % STATUSES.length];
+        return new JSONObject()
+                .put("orderId", orderId)
+                .put("status", status)
+                .put("estimatedDelivery", LocalDate.now().plusDays(hash % 5).toString())
+                .toString();
+    }
+}
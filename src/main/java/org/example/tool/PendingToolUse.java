@@ -0,0 +1,13 @@
+package org.example.tool;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * A tool call that has been started but whose result has not yet been sent back to the model.
+ *
+ * @param toolUseId The id of the toolUse event
+ * @param toolName The name of the tool
+ * @param result Completes with the result JSON string
+ */
+public record PendingToolUse(String toolUseId, String toolName, CompletableFuture<String> result) {
+}
@@ -0,0 +1,46 @@
+package org.example.tool;
+
+import org.json.JSONObject;
+
+import java.time.Duration;
+
+/**
+ * A tool the assistant can call mid-conversation. Implementations registered as Spring beans are
+ * advertised to Nova Sonic in the prompt start event and invoked through the {@link ToolExecutor}.
+ */
+public interface Tool {
+
+    /**
+     * @return The tool name Nova Sonic uses in toolUse events
+     */
+    String getName();
+
+    /**
+     * @return A description telling the model when to use the tool
+     */
+    String getDescription();
+
+    /**
+     * @return The JSON schema of the tool input, as a JSON string
+     */
+    String getInputSchema();
+
+    /**
+     * @return How long a call may run before a timeout result is returned to the model
+     */
+    Duration getTimeout();
+
+    /**
+     * @return How long successful results may be served from cache; zero disables caching for this tool
+     */
+    Duration getCacheTtl();
+
+    /**
+     * Runs the tool. Called on a tool executor thread, never on a Bedrock response thread.
+     *
+     * @param input The tool input sent by the model
+     * @return The tool result as a JSON string; a result with a top-level {@code error} field is not cached
+     * @throws Exception If the tool fails; the failure is reported to the model as an error result
+     */
+    String execute(JSONObject input) throws Exception;
+}
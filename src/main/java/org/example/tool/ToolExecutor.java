@@ -0,0 +1,152 @@
+package org.example.tool;
+
+import org.example.config.NovaSonicProperties;
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PreDestroy;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs tool calls on a bounded pool so they never block the Bedrock response thread. Results are
+ * served from a TTL/LRU cache when possible, and every call is bounded by the tool's timeout.
+ * Failures, timeouts and rejections become error results so the model can still answer. Only
+ * successful results are cached, so a failed lookup is retried on the next call.
+ */
+@Component
+public class ToolExecutor {
+    private static final Logger logger = LoggerFactory.getLogger(ToolExecutor.class);
+
+    private final ToolRegistry toolRegistry;
+    private final ToolResultCache cache;
+    private final ThreadPoolExecutor executor;
+
+    public ToolExecutor(ToolRegistry toolRegistry, NovaSonicProperties properties) {
+        NovaSonicProperties.Tools settings = properties.getTools();
+        this.toolRegistry = toolRegistry;
+        this.cache = new ToolResultCache(settings.getCacheMaxEntries());
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(settings.getMaxConcurrency(), settings.getMaxConcurrency(),
+                60L, TimeUnit.SECONDS, new ArrayBlockingQueue<>(settings.getQueueCapacity()), r -> {
+                    Thread thread = new Thread(r, "tool-executor-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        this.executor.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Starts a tool call.
+     *
+     * @param toolName The tool name from the toolUse event
+     * @param content The tool input JSON string from the toolUse event
+     * @return A future completed with the result JSON string; it never completes exceptionally
+     */
+    public CompletableFuture<String> execute(String toolName, String content) {
+        Tool tool = toolRegistry.find(toolName);
+        if (tool == null) {
+            logger.warn("Model requested unknown tool {}", toolName);
+            return CompletableFuture.completedFuture(errorResult("Unknown tool " + toolName));
+        }
+
+        JSONObject input;
+        try {
+            input = content == null || content.isBlank() ? new JSONObject() : new JSONObject(content);
+        } catch (Exception e) {
+            return CompletableFuture.completedFuture(errorResult("Invalid tool input"));
+        }
+
+        long ttlNanos = tool.getCacheTtl().toNanos();
+        String cacheKey = ToolResultCache.key(toolName, canonical(input));
+        if (ttlNanos > 0) {
+            String cached = cache.get(cacheKey);
+            if (cached != null) {
+                logger.debug("Tool {} served from cache", toolName);
+                return CompletableFuture.completedFuture(cached);
+            }
+        }
+
+        CompletableFuture<String> result = new CompletableFuture<>();
+        Future<?> task;
+        try {
+            task = executor.submit(() -> {
+                long start = System.nanoTime();
+                try {
+                    String output = tool.execute(input);
+                    if (ttlNanos > 0 && !isErrorResult(output)) {
+                        cache.put(cacheKey, output, ttlNanos);
+                    }
+                    result.complete(output);
+                    logger.debug("Tool {} completed in {} ms", toolName, (System.nanoTime() - start) / 1_000_000);
+                } catch (Exception e) {
+                    logger.warn("Tool {} failed: {}", toolName, e.getMessage());
+                    result.complete(errorResult("Tool " + toolName + " failed"));
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            logger.warn("Tool executor saturated, rejecting call to {}", toolName);
+            return CompletableFuture.completedFuture(errorResult("Tool " + toolName + " is busy"));
+        }
+
+        return result
+                .orTimeout(tool.getTimeout().toMillis(), TimeUnit.MILLISECONDS)
+                .exceptionally(throwable -> {
+                    task.cancel(true);
+                    if (throwable instanceof TimeoutException) {
+                        logger.warn("Tool {} timed out after {}", toolName, tool.getTimeout());
+                        return errorResult("Tool " + toolName + " timed out");
+                    }
+                    return errorResult("Tool " + toolName + " failed");
+                });
+    }
+
+    /**
+     * Renders the input with sorted keys, including objects inside arrays, so equivalent inputs share a cache entry.
+     */
+    private static String canonical(Object value) {
+        if (value instanceof JSONObject object) {
+            StringBuilder sb = new StringBuilder("{");
+            object.keySet().stream().sorted().forEach(key ->
+                    sb.append(JSONObject.quote(key)).append(':').append(canonical(object.get(key))).append(','));
+            return sb.append('}').toString();
+        }
+        if (value instanceof JSONArray array) {
+            StringBuilder sb = new StringBuilder("[");
+            for (Object element : array) {
+                sb.append(canonical(element)).append(',');
+            }
+            return sb.append(']').toString();
+        }
+        return JSONObject.valueToString(value);
+    }
+
+    /**
+     * Whether a tool output is an error result, like the ones {@link #errorResult} builds.
+     */
+    private static boolean isErrorResult(String output) {
+        try {
+            return output == null || new JSONObject(output).has("error");
+        } catch (Exception e) {
+            return true;
+        }
+    }
+
+    private static String errorResult(String message) {
+        return new JSONObject().put("error", message).toString();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,59 @@
+package org.example.tool;
+
+import org.example.config.NovaSonicProperties;
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Registry of the {@link Tool} beans available to sessions.
+ */
+@Component
+public class ToolRegistry {
+    private static final Logger logger = LoggerFactory.getLogger(ToolRegistry.class);
+    private final Map<String, Tool> tools;
+    private final String toolConfiguration;
+
+    public ToolRegistry(List<Tool> tools, NovaSonicProperties properties) {
+        this.tools = !properties.getTools().isEnabled() ? Map.of() : tools.stream().collect(Collectors.toUnmodifiableMap(Tool::getName, Function.identity()));
+        this.toolConfiguration = buildToolConfiguration(this.tools.values());
+        logger.info("Registered tools: {}", this.tools.keySet());
+    }
+
+    public Tool find(String name) {
+        return tools.get(name);
+    }
+
+    public boolean isEmpty() {
+        return tools.isEmpty();
+    }
+
+    /**
+     * Returns the {@code toolConfiguration} object for the prompt start event, or null if no tools are registered.
+     */
+    public String getToolConfiguration() {
+        return toolConfiguration;
+    }
+
+    private static String buildToolConfiguration(Collection<Tool> tools) {
+        if (tools.isEmpty()) {
+            return null;
+        }
+        JSONArray specs = new JSONArray();
+        for (Tool tool : tools) {
+            specs.put(new JSONObject().put("toolSpec", new JSONObject()
+                    .put("name", tool.getName())
+                    .put("description", tool.getDescription())
+                    .put("inputSchema", new JSONObject().put("json", tool.getInputSchema()))));
+        }
+        return new JSONObject().put("tools", specs).toString();
+    }
+}
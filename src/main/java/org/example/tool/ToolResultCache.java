@@ -0,0 +1,44 @@
+package org.example.tool;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Small LRU cache of tool results with a per-entry expiry, so repeated lookups within a
+ * conversation are answered without running the tool again.
+ */
+public class ToolResultCache {
+    private final Map<String, Entry> entries;
+
+    private record Entry(String result, long expiresAtNanos) {
+    }
+
+    public ToolResultCache(int maxEntries) {
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    public synchronized String get(String key) {
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (System.nanoTime() - entry.expiresAtNanos() > 0) {
+            entries.remove(key);
+            return null;
+        }
+        return entry.result();
+    }
+
+    public synchronized void put(String key, String result, long ttlNanos) {
+        entries.put(key, new Entry(result, System.nanoTime() + ttlNanos));
+    }
+
+    public static String key(String toolName, String canonicalInput) {
+        return toolName + '\u0000' + canonicalInput;
+    }
+}
@@ -0,0 +1,12 @@
+package org.example.transcript;
+
+import java.util.List;
+
+/**
+ * A run of consecutive turns of one session.
+ *
+ * @param turns The turns, oldest first
+ * @param hasMore Whether the store holds older turns than the first one in the page
+ */
+public record TranscriptPage(List<TranscriptTurn> turns, boolean hasMore) {
+}
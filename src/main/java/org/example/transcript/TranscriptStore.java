@@ -0,0 +1,137 @@
+package org.example.transcript;
+
+import org.example.usage.UsageSnapshot;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.example.constants.NovaSonicConstants.TRANSCRIPT_MAX_TURNS_PER_SESSION;
+import static org.example.constants.NovaSonicConstants.TRANSCRIPT_STORE_MAX_SESSIONS;
+
+/**
+ * In-memory store of session records: the final usage of finished sessions, and the final
+ * transcripts of live and recently finished sessions, so clients can keep only the latest turns of a
+ * long conversation and page back through the rest. Only the most recent sessions are kept, and only
+ * the latest {@code TRANSCRIPT_MAX_TURNS_PER_SESSION} turns of each. Session ids are easy to guess,
+ * so a transcript is only read back with the token it was opened with, which only the session's
+ * client is given.
+ */
+@Component
+public class TranscriptStore {
+    private static final Logger logger = LoggerFactory.getLogger(TranscriptStore.class);
+
+    private final Map<String, UsageSnapshot> sessionUsage = new LinkedHashMap<>(16, 0.75f, false) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, UsageSnapshot> eldest) {
+            return size() > TRANSCRIPT_STORE_MAX_SESSIONS;
+        }
+    };
+
+    // In access order, so a long conversation that is still going is not evicted by newer sessions
+    private final Map<String, SessionTranscript> transcripts = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, SessionTranscript> eldest) {
+            return size() > TRANSCRIPT_STORE_MAX_SESSIONS;
+        }
+    };
+
+    private static class SessionTranscript {
+        private final byte[] token;
+        private final Deque<TranscriptTurn> turns = new ArrayDeque<>();
+        private long nextTurn;
+
+        SessionTranscript(String token) {
+            this.token = token.getBytes(StandardCharsets.UTF_8);
+        }
+    }
+
+    /**
+     * Records the final usage totals of a session.
+     *
+     * @param usage The session totals, keyed by session id
+     */
+    public synchronized void saveSessionUsage(UsageSnapshot usage) {
+        sessionUsage.put(usage.key(), usage);
+        logger.debug("Stored usage for session {}: {} tokens", usage.key(), usage.getTotalTokens());
+    }
+
+    public synchronized Optional<UsageSnapshot> findSessionUsage(String sessionId) {
+        return Optional.ofNullable(sessionUsage.get(sessionId));
+    }
+
+    /**
+     * Starts storing a session's final transcripts.
+     *
+     * @return The token the transcript is read back with
+     */
+    public synchronized String openTranscript(String sessionId) {
+        String token = UUID.randomUUID().toString();
+        transcripts.put(sessionId, new SessionTranscript(token));
+        return token;
+    }
+
+    /**
+     * Appends a final transcript to a session's conversation.
+     *
+     * @return The turn number the transcript was stored under, or -1 if the session's transcript was
+     *         never opened or has been evicted
+     */
+    public synchronized long appendTurn(String sessionId, String role, String text) {
+        SessionTranscript transcript = transcripts.get(sessionId);
+        if (transcript == null) {
+            return -1;
+        }
+        long turn = transcript.nextTurn++;
+        transcript.turns.addLast(new TranscriptTurn(turn, role, text));
+        if (transcript.turns.size() > TRANSCRIPT_MAX_TURNS_PER_SESSION) {
+            transcript.turns.pollFirst();
+        }
+        return turn;
+    }
+
+    /**
+     * Finds the turns just before a given turn.
+     *
+     * @param token The token the transcript was opened with
+     * @param before Only turns numbered below this are returned
+     * @param limit The most turns to return
+     * @return The latest {@code limit} turns before {@code before}, or empty if the session is unknown
+     *         or the token does not match
+     */
+    public synchronized Optional<TranscriptPage> findTurns(String sessionId, String token, long before, int limit) {
+        SessionTranscript transcript = transcripts.get(sessionId);
+        if (transcript == null || token == null
+                || !MessageDigest.isEqual(transcript.token, token.getBytes(StandardCharsets.UTF_8))) {
+            return Optional.empty();
+        }
+        List<TranscriptTurn> page = new ArrayList<>(Math.min(limit, transcript.turns.size()));
+        Iterator<TranscriptTurn> newestFirst = transcript.turns.descendingIterator();
+        boolean hasMore = false;
+        while (newestFirst.hasNext()) {
+            TranscriptTurn turn = newestFirst.next();
+            if (turn.turn() >= before) {
+                continue;
+            }
+            if (page.size() == limit) {
+                hasMore = true;
+                break;
+            }
+            page.add(turn);
+        }
+        Collections.reverse(page);
+        return Optional.of(new TranscriptPage(page, hasMore));
+    }
+}
@@ -0,0 +1,10 @@
+package org.example.transcript;
+
+/**
+ * One final transcript of a session, as sent to the client.
+ *
+ * @param turn The transcript's position in the session, counting from zero; never reused
+ * @param role {@code USER} or {@code ASSISTANT}
+ */
+public record TranscriptTurn(long turn, String role, String text) {
+}
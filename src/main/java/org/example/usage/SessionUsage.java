@@ -0,0 +1,37 @@
+package org.example.usage;
+
+/**
+ * Usage counters for a single live session, tagged with the tenant it is billed to.
+ */
+public class SessionUsage extends UsageCounters {
+    private final String sessionId;
+    private final String tenantId;
+    private final TenantUsage tenant;
+    private final long startedAtMillis = System.currentTimeMillis();
+
+    SessionUsage(String sessionId, String tenantId, TenantUsage tenant) {
+        this.sessionId = sessionId;
+        this.tenantId = tenantId;
+        this.tenant = tenant;
+    }
+
+    public String getSessionId() {
+        return sessionId;
+    }
+
+    public String getTenantId() {
+        return tenantId;
+    }
+
+    TenantUsage getTenant() {
+        return tenant;
+    }
+
+    public long getStartedAtMillis() {
+        return startedAtMillis;
+    }
+
+    public UsageSnapshot snapshot() {
+        return snapshot(sessionId);
+    }
+}
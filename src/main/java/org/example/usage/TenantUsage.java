@@ -0,0 +1,15 @@
+package org.example.usage;
+
+import io.micrometer.core.instrument.Meter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Usage counters of one tenant, kept while it has live sessions. The session count and meters are
+ * only touched inside the accountant's map operations for the tenant, which serialise them.
+ */
+class TenantUsage extends UsageCounters {
+    final List<Meter> meters = new ArrayList<>();
+    int liveSessions;
+}
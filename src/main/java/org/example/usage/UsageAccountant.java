@@ -0,0 +1,232 @@
+package org.example.usage;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.example.config.NovaSonicProperties;
+import org.example.transcript.TranscriptStore;
+import org.json.JSONObject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.ToDoubleFunction;
+
+import static org.example.constants.NovaSonicConstants.*;
+
+/**
+ * Per-session, per-tenant and per-minute accounting of tokens (from Bedrock usageEvent payloads)
+ * and audio seconds in each direction. Recording is lock-free; finished sessions are handed to
+ * the {@link TranscriptStore} on a background thread so response threads never wait on it.
+ * <p>
+ * Tenant ids come from clients, so only the configured ones are kept apart; every other id is
+ * accounted as the default tenant. A tenant's counters and meters are dropped when its last live
+ * session finishes, so its totals cover the sessions since it last went idle.
+ */
+@Component
+public class UsageAccountant {
+    private static final Logger logger = LoggerFactory.getLogger(UsageAccountant.class);
+
+    private final Map<String, SessionUsage> sessions = new ConcurrentHashMap<>();
+    private final Map<String, TenantUsage> tenants = new ConcurrentHashMap<>();
+    private final Set<String> knownTenants;
+    private final UsageWindows windows = new UsageWindows(USAGE_WINDOW_MINUTES);
+    private final MeterRegistry meterRegistry;
+    private final TranscriptStore transcriptStore;
+    private final ThreadPoolExecutor storeExecutor;
+
+    public UsageAccountant(NovaSonicProperties properties, MeterRegistry meterRegistry, TranscriptStore transcriptStore) {
+        this.knownTenants = Set.copyOf(properties.getUsage().getTenants());
+        this.meterRegistry = meterRegistry;
+        this.transcriptStore = transcriptStore;
+        this.storeExecutor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(USAGE_STORE_QUEUE_CAPACITY), r -> {
+                    Thread thread = new Thread(r, "usage-store-writer");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        Gauge.builder("novasonic.usage.sessions.active", sessions, Map::size)
+                .description("Sessions currently being accounted")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Maps the tenant id a client claims to the one its session is billed and admitted under.
+     *
+     * @param tenantId The claimed tenant id, or null if none was given
+     * @return The id if it is configured in {@code novasonic.usage.tenants}, otherwise the default tenant
+     */
+    public String resolveTenant(String tenantId) {
+        return tenantId != null && knownTenants.contains(tenantId) ? tenantId : DEFAULT_TENANT_ID;
+    }
+
+    /**
+     * Starts accounting for a session.
+     *
+     * @param sessionId The session id
+     * @param tenantId The tenant the session is billed to, as returned by {@link #resolveTenant}
+     */
+    public void startSession(String sessionId, String tenantId) {
+        sessions.computeIfAbsent(sessionId, id -> new SessionUsage(id, tenantId, acquireTenant(tenantId)));
+    }
+
+    /**
+     * Adds the token deltas of a Bedrock usageEvent to the session, its tenant and the current window.
+     *
+     * @param sessionId The session the event belongs to
+     * @param usageEvent The {@code usageEvent} JSON object
+     */
+    public void recordUsageEvent(String sessionId, JSONObject usageEvent) {
+        SessionUsage usage = sessions.get(sessionId);
+        if (usage == null) {
+            return;
+        }
+        JSONObject details = usageEvent.optJSONObject("details");
+        JSONObject delta = details != null ? details.optJSONObject("delta") : null;
+        if (delta == null) {
+            logger.debug("Usage event without delta for session {}: {}", sessionId, usageEvent);
+            return;
+        }
+        JSONObject input = delta.optJSONObject("input", new JSONObject());
+        JSONObject output = delta.optJSONObject("output", new JSONObject());
+        long inputSpeech = input.optLong("speechTokens");
+        long inputText = input.optLong("textTokens");
+        long outputSpeech = output.optLong("speechTokens");
+        long outputText = output.optLong("textTokens");
+
+        usage.addTokens(inputSpeech, inputText, outputSpeech, outputText);
+        usage.getTenant().addTokens(inputSpeech, inputText, outputSpeech, outputText);
+        windows.current().addTokens(inputSpeech, inputText, outputSpeech, outputText);
+    }
+
+    /**
+     * Records raw PCM audio received from the client.
+     *
+     * @param sessionId The session id
+     * @param bytes Number of PCM bytes
+     * @param bytesPerSecond Byte rate of the input format
+     */
+    public void recordAudioIn(String sessionId, long bytes, int bytesPerSecond) {
+        addAudio(sessionId, bytes * 1_000_000L / bytesPerSecond, true);
+    }
+
+    /**
+     * Records base64-encoded PCM audio produced by Nova Sonic.
+     *
+     * @param sessionId The session id
+     * @param base64Length Length of the base64 payload
+     * @param bytesPerSecond Byte rate of the output format
+     */
+    public void recordAudioOut(String sessionId, int base64Length, int bytesPerSecond) {
+        long bytes = base64Length / 4L * 3L;
+        addAudio(sessionId, bytes * 1_000_000L / bytesPerSecond, false);
+    }
+
+    private void addAudio(String sessionId, long micros, boolean inbound) {
+        SessionUsage usage = sessions.get(sessionId);
+        if (usage == null) {
+            return;
+        }
+        audioAdder(usage, inbound).add(micros);
+        audioAdder(usage.getTenant(), inbound).add(micros);
+        audioAdder(windows.current(), inbound).add(micros);
+    }
+
+    private static LongAdder audioAdder(UsageCounters counters, boolean inbound) {
+        return inbound ? counters.audioInMicros : counters.audioOutMicros;
+    }
+
+    /**
+     * Stops accounting for a session and hands its totals to the transcript store asynchronously.
+     *
+     * @param sessionId The session id
+     */
+    public void finishSession(String sessionId) {
+        SessionUsage usage = sessions.remove(sessionId);
+        if (usage == null) {
+            return;
+        }
+        releaseTenant(usage.getTenantId());
+        UsageSnapshot totals = usage.snapshot();
+        logger.info("Session {} used {} tokens, {}s audio in, {}s audio out",
+                sessionId, totals.getTotalTokens(), totals.audioInSeconds(), totals.audioOutSeconds());
+        try {
+            storeExecutor.execute(() -> transcriptStore.saveSessionUsage(totals));
+        } catch (RejectedExecutionException e) {
+            logger.warn("Usage store queue full, dropping totals for session {}", sessionId);
+        }
+    }
+
+    public Optional<UsageSnapshot> getSessionUsage(String sessionId) {
+        SessionUsage usage = sessions.get(sessionId);
+        return usage != null ? Optional.of(usage.snapshot()) : transcriptStore.findSessionUsage(sessionId);
+    }
+
+    public int getActiveSessionCount() {
+        return sessions.size();
+    }
+
+    public List<UsageSnapshot> getTenantUsage() {
+        List<UsageSnapshot> result = new ArrayList<>(tenants.size());
+        tenants.forEach((tenantId, counters) -> result.add(counters.snapshot(tenantId)));
+        return result;
+    }
+
+    public List<UsageSnapshot> getRecentWindows(int minutes) {
+        return windows.recent(minutes);
+    }
+
+    private TenantUsage acquireTenant(String tenantId) {
+        return tenants.compute(tenantId, (id, counters) -> {
+            TenantUsage tenant = counters != null ? counters : registerTenant(id);
+            tenant.liveSessions++;
+            return tenant;
+        });
+    }
+
+    private void releaseTenant(String tenantId) {
+        tenants.computeIfPresent(tenantId, (id, tenant) -> {
+            if (--tenant.liveSessions > 0) {
+                return tenant;
+            }
+            // Idle: a late event for one of its sessions only reaches the detached counters
+            tenant.meters.forEach(meterRegistry::remove);
+            return null;
+        });
+    }
+
+    private TenantUsage registerTenant(String tenantId) {
+        TenantUsage counters = new TenantUsage();
+        registerCounter("novasonic.usage.tokens", tenantId, "input", "speech", counters, c -> c.inputSpeechTokens.sum());
+        registerCounter("novasonic.usage.tokens", tenantId, "input", "text", counters, c -> c.inputTextTokens.sum());
+        registerCounter("novasonic.usage.tokens", tenantId, "output", "speech", counters, c -> c.outputSpeechTokens.sum());
+        registerCounter("novasonic.usage.tokens", tenantId, "output", "text", counters, c -> c.outputTextTokens.sum());
+        registerCounter("novasonic.usage.audio.seconds", tenantId, "input", "audio", counters, c -> c.audioInMicros.sum() / 1_000_000.0);
+        registerCounter("novasonic.usage.audio.seconds", tenantId, "output", "audio", counters, c -> c.audioOutMicros.sum() / 1_000_000.0);
+        return counters;
+    }
+
+    private void registerCounter(String name, String tenantId, String direction, String type,
+                                 TenantUsage counters, ToDoubleFunction<UsageCounters> value) {
+        counters.meters.add(FunctionCounter.builder(name, counters, value)
+                .tags("tenant", tenantId, "direction", direction, "type", type)
+                .register(meterRegistry));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        storeExecutor.shutdown();
+    }
+}
@@ -0,0 +1,43 @@
+package org.example.usage;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free token and audio counters. Writers from many response threads only contend on
+ * {@link LongAdder} cells; readers sum the cells when a snapshot is taken.
+ */
+public class UsageCounters {
+    final LongAdder inputSpeechTokens = new LongAdder();
+    final LongAdder inputTextTokens = new LongAdder();
+    final LongAdder outputSpeechTokens = new LongAdder();
+    final LongAdder outputTextTokens = new LongAdder();
+    final LongAdder audioInMicros = new LongAdder();
+    final LongAdder audioOutMicros = new LongAdder();
+
+    void addTokens(long inputSpeech, long inputText, long outputSpeech, long outputText) {
+        if (inputSpeech != 0) inputSpeechTokens.add(inputSpeech);
+        if (inputText != 0) inputTextTokens.add(inputText);
+        if (outputSpeech != 0) outputSpeechTokens.add(outputSpeech);
+        if (outputText != 0) outputTextTokens.add(outputText);
+    }
+
+    void reset() {
+        inputSpeechTokens.reset();
+        inputTextTokens.reset();
+        outputSpeechTokens.reset();
+        outputTextTokens.reset();
+        audioInMicros.reset();
+        audioOutMicros.reset();
+    }
+
+    public UsageSnapshot snapshot(String key) {
+        return new UsageSnapshot(
+                key,
+                inputSpeechTokens.sum(),
+                inputTextTokens.sum(),
+                outputSpeechTokens.sum(),
+                outputTextTokens.sum(),
+                audioInMicros.sum() / 1_000_000.0,
+                audioOutMicros.sum() / 1_000_000.0);
+    }
+}
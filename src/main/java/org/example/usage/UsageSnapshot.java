@@ -0,0 +1,20 @@
+package org.example.usage;
+
+/**
+ * Point-in-time totals for a session, tenant or time window.
+ *
+ * @param key The session id, tenant id or window start the totals belong to
+ */
+public record UsageSnapshot(
+        String key,
+        long inputSpeechTokens,
+        long inputTextTokens,
+        long outputSpeechTokens,
+        long outputTextTokens,
+        double audioInSeconds,
+        double audioOutSeconds) {
+
+    public long getTotalTokens() {
+        return inputSpeechTokens + inputTextTokens + outputSpeechTokens + outputTextTokens;
+    }
+}
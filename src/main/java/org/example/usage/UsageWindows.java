@@ -0,0 +1,55 @@
+package org.example.usage;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Fixed ring of one-minute usage buckets covering the most recent hour. A bucket is claimed for
+ * a new minute with a CAS on its epoch minute and reset by the winner; writes racing with the
+ * reset may land in either minute, which is acceptable for capacity dashboards.
+ */
+class UsageWindows {
+    private static final long MINUTE_MILLIS = 60_000L;
+
+    private final Bucket[] buckets;
+
+    private static final class Bucket {
+        final AtomicLong epochMinute = new AtomicLong(-1);
+        final UsageCounters counters = new UsageCounters();
+    }
+
+    UsageWindows(int minutes) {
+        this.buckets = new Bucket[minutes];
+        for (int i = 0; i < minutes; i++) {
+            buckets[i] = new Bucket();
+        }
+    }
+
+    UsageCounters current() {
+        long minute = System.currentTimeMillis() / MINUTE_MILLIS;
+        Bucket bucket = buckets[(int) (minute % buckets.length)];
+        long claimed = bucket.epochMinute.get();
+        if (claimed != minute && bucket.epochMinute.compareAndSet(claimed, minute)) {
+            bucket.counters.reset();
+        }
+        return bucket.counters;
+    }
+
+    /**
+     * Returns the buckets for the last {@code minutes} minutes, newest first. Minutes with no
+     * activity are omitted.
+     */
+    List<UsageSnapshot> recent(int minutes) {
+        long now = System.currentTimeMillis() / MINUTE_MILLIS;
+        int count = Math.min(minutes, buckets.length);
+        List<UsageSnapshot> result = new ArrayList<>(count);
+        for (long minute = now; minute > now - count; minute--) {
+            Bucket bucket = buckets[(int) (minute % buckets.length)];
+            if (bucket.epochMinute.get() == minute) {
+                result.add(bucket.counters.snapshot(String.valueOf(minute * MINUTE_MILLIS)));
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,53 @@
+package org.example.util;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Decimates a stream of base64 16-bit little-endian PCM chunks, as Nova Sonic's audio output
+ * events carry, into chunks of the same form at the lower rate. The conversion buffers grow to the
+ * largest chunk seen and are then reused. Not thread-safe: use one per stream.
+ */
+public class Base64PcmDecimator {
+    private final PcmDecimator decimator;
+    private short[] samples = new short[0];
+    private short[] decimated = new short[0];
+    private byte[] pcm = new byte[0];
+
+    public Base64PcmDecimator(int factor) {
+        this.decimator = new PcmDecimator(factor);
+    }
+
+    /**
+     * Decimates one chunk.
+     *
+     * @return The decimated chunk in base64, or null if the chunk was too short to produce a sample
+     */
+    public String process(String audioData) {
+        byte[] input = Base64.getDecoder().decode(audioData);
+        int count = input.length / 2;
+        if (samples.length < count) {
+            samples = new short[count];
+            decimated = new short[decimator.maxOutput(count)];
+            pcm = new byte[decimated.length * 2];
+        }
+        PcmKernels kernels = PcmKernels.get();
+        kernels.decode(ByteBuffer.wrap(input, 0, count * 2), ByteOrder.LITTLE_ENDIAN, samples, 0);
+        int written = decimator.process(samples, 0, count, decimated, 0);
+        if (written == 0) {
+            return null;
+        }
+        kernels.encode(decimated, 0, written, ByteBuffer.wrap(pcm), ByteOrder.LITTLE_ENDIAN);
+        ByteBuffer encoded = Base64.getEncoder().encode(ByteBuffer.wrap(pcm, 0, written * 2));
+        return new String(encoded.array(), 0, encoded.remaining(), StandardCharsets.ISO_8859_1);
+    }
+
+    /**
+     * Forgets the stream so far, as at a new response.
+     */
+    public void reset() {
+        decimator.reset();
+    }
+}
@@ -0,0 +1,155 @@
+package org.example.util;
+
+/**
+ * ITU-T G.711 companding, as telephony gateways send it: one byte per sample at 8 kHz. Decoding is a
+ * 256-entry table lookup and encoding a lookup on the top 14 (μ-law) or 13 (A-law) bits of the
+ * sample, the precision G.711 defines, so neither allocates or branches per sample.
+ */
+public enum G711 {
+    MU_LAW("audio/x-mulaw", (byte) 0xFF, 14),
+    A_LAW("audio/x-alaw", (byte) 0xD5, 13);
+
+    private final String mediaType;
+    private final byte silence;
+    private final int shift;
+    private final short[] decodeTable = new short[256];
+    private final byte[] encodeTable;
+
+    G711(String mediaType, byte silence, int bits) {
+        this.mediaType = mediaType;
+        this.silence = silence;
+        this.shift = 16 - bits;
+        this.encodeTable = new byte[1 << bits];
+        for (int code = 0; code < 256; code++) {
+            decodeTable[code] = bits == 14 ? ulawToLinear(code) : alawToLinear(code);
+        }
+        for (int index = 0; index < encodeTable.length; index++) {
+            // The index is the sample's top bits; sign-extend them back to a 16-bit sample
+            int sample = (index << (32 - bits)) >> 16;
+            encodeTable[index] = (byte) (bits == 14 ? linearToUlaw(sample) : linearToAlaw(sample));
+        }
+    }
+
+    /**
+     * The law for a media type such as {@code audio/x-mulaw}, or null if it is neither law.
+     */
+    public static G711 forMediaType(String mediaType) {
+        for (G711 law : values()) {
+            if (law.mediaType.equalsIgnoreCase(mediaType)) {
+                return law;
+            }
+        }
+        return null;
+    }
+
+    public String getMediaType() {
+        return mediaType;
+    }
+
+    /**
+     * The code of a zero sample.
+     */
+    public byte getSilence() {
+        return silence;
+    }
+
+    /**
+     * Decodes {@code count} codes into 16-bit samples.
+     */
+    public void decode(byte[] codes, int offset, int count, short[] samples, int sampleOffset) {
+        short[] table = decodeTable;
+        for (int i = 0; i < count; i++) {
+            samples[sampleOffset + i] = table[codes[offset + i] & 0xFF];
+        }
+    }
+
+    /**
+     * Decodes {@code count} codes into little-endian 16-bit PCM, {@code 2 * count} bytes from {@code pcmOffset}.
+     */
+    public void decodeToPcm(byte[] codes, int offset, int count, byte[] pcm, int pcmOffset) {
+        short[] table = decodeTable;
+        for (int i = 0; i < count; i++) {
+            short sample = table[codes[offset + i] & 0xFF];
+            pcm[pcmOffset + 2 * i] = (byte) sample;
+            pcm[pcmOffset + 2 * i + 1] = (byte) (sample >> 8);
+        }
+    }
+
+    /**
+     * Encodes {@code count} 16-bit samples into codes.
+     */
+    public void encode(short[] samples, int offset, int count, byte[] codes, int codeOffset) {
+        byte[] table = encodeTable;
+        int mask = table.length - 1;
+        for (int i = 0; i < count; i++) {
+            codes[codeOffset + i] = table[(samples[offset + i] >> shift) & mask];
+        }
+    }
+
+    // Reference conversions from the ITU-T G.711 tables, used to fill the lookup tables
+
+    private static short ulawToLinear(int code) {
+        int u = ~code;
+        int t = ((u & 0x0F) << 3) + 0x84;
+        t <<= (u & 0x70) >> 4;
+        return (short) ((u & 0x80) != 0 ? 0x84 - t : t - 0x84);
+    }
+
+    private static short alawToLinear(int code) {
+        int a = code ^ 0x55;
+        int t = (a & 0x0F) << 4;
+        int segment = (a & 0x70) >> 4;
+        if (segment == 0) {
+            t += 8;
+        } else {
+            t = (t + 0x108) << (segment - 1);
+        }
+        return (short) ((a & 0x80) != 0 ? t : -t);
+    }
+
+    private static int linearToUlaw(int sample) {
+        int value = sample >> 2;
+        int mask;
+        if (value < 0) {
+            value = -value;
+            mask = 0x7F;
+        } else {
+            mask = 0xFF;
+        }
+        value = Math.min(value, 8159) + (0x84 >> 2);
+        int segment = segment(value, 0x3F);
+        if (segment >= 8) {
+            return 0x7F ^ mask;
+        }
+        return ((segment << 4) | ((value >> (segment + 1)) & 0x0F)) ^ mask;
+    }
+
+    private static int linearToAlaw(int sample) {
+        int value = sample >> 3;
+        int mask;
+        if (value >= 0) {
+            mask = 0xD5;
+        } else {
+            mask = 0x55;
+            value = -value - 1;
+        }
+        int segment = segment(value, 0x1F);
+        if (segment >= 8) {
+            return 0x7F ^ mask;
+        }
+        int code = segment << 4;
+        code |= segment < 2 ? (value >> 1) & 0x0F : (value >> segment) & 0x0F;
+        return code ^ mask;
+    }
+
+    /**
+     * The segment a magnitude falls in: segment {@code n} ends at {@code ((firstEnd + 1) << n) - 1}.
+     */
+    private static int segment(int value, int firstEnd) {
+        int segment = 0;
+        for (int end = firstEnd; segment < 8 && value > end; end = (end << 1) | 1) {
+            segment++;
+        }
+        return segment;
+    }
+}
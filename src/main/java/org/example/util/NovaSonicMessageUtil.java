@@ -1,18 +1,20 @@
 package org.example.util;
 
 import org.example.constants.NovaSonicConstants;
+import org.json.JSONObject;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import static org.example.constants.NovaSonicConstants.OUTPUT_AUDIO_CHANNEL;
+import static org.example.constants.NovaSonicConstants.OUTPUT_AUDIO_SAMPLE_RATE;
+import static org.example.constants.NovaSonicConstants.OUTPUT_AUDIO_SAMPLE_SIZE_IN_BITS;
+
 /**
  * Utility class for creating Nova Sonic API messages using string literals.
  * This approach is more efficient than building JSONObjects.
  */
 public final class NovaSonicMessageUtil {
         private static final Logger logger = LoggerFactory.getLogger(NovaSonicMessageUtil.class);
-    private static final int OUTPUT_AUDIO_SAMPLE_RATE = 24000;
-    private static final int OUTPUT_AUDIO_SAMPLE_SIZE_IN_BITS = 16;
-    private static final int OUTPUT_AUDIO_CHANNEL = 1;
 
     private NovaSonicMessageUtil() {
         // Private constructor to prevent instantiation
@@ -49,6 +51,13 @@ public final class NovaSonicMessageUtil {
      * @return A string containing the prompt start event JSON
      */
     public static String getPromptStartEvent(final String promptName, final String language, final boolean useFeminineVoice) {
+        return getPromptStartEvent(promptName, language, useFeminineVoice, null);
+    }
+
+    /**
+     * Returns the voice the model speaks with for a language and voice preference.
+     */
+    public static String getVoiceId(final String language, final boolean useFeminineVoice) {
         String voiceKey;
         if (language.equals(NovaSonicConstants.LANG_EN_GB)) {
             voiceKey = NovaSonicConstants.LANG_EN_GB;  // GB English always uses amy
@@ -56,7 +65,49 @@ public final class NovaSonicMessageUtil {
         } else {
             voiceKey = language + (useFeminineVoice ? "_F" : "_M");
         }
-        String voiceId = NovaSonicConstants.VOICE_IDS.getOrDefault(voiceKey, NovaSonicConstants.VOICE_IDS.get(NovaSonicConstants.LANG_EN_US + "_M"));
+        return NovaSonicConstants.VOICE_IDS.getOrDefault(voiceKey, NovaSonicConstants.VOICE_IDS.get(NovaSonicConstants.LANG_EN_US + "_M"));
+    }
+
+    /**
+     * Returns the default system prompt for a language, or the English prompt for a language without one.
+     */
+    public static String getSystemPrompt(final String language) {
+        return switch (language) {
+            case NovaSonicConstants.LANG_EN_US, NovaSonicConstants.LANG_EN_GB -> NovaSonicConstants.ENGLISH_SYSTEM_PROMPT;
+            case NovaSonicConstants.LANG_ES -> NovaSonicConstants.SPANISH_SYSTEM_PROMPT;
+            case NovaSonicConstants.LANG_FR -> NovaSonicConstants.FRENCH_SYSTEM_PROMPT;
+            case NovaSonicConstants.LANG_IT -> NovaSonicConstants.ITALIAN_SYSTEM_PROMPT;
+            case NovaSonicConstants.LANG_DE -> NovaSonicConstants.GERMAN_SYSTEM_PROMPT;
+            default -> {
+                logger.warn("Unsupported language code: {}. Falling back to default English prompt.", language);
+                yield NovaSonicConstants.DEFAULT_SYSTEM_PROMPT;
+            }
+        };
+    }
+
+    /**
+     * Creates a prompt start event message that advertises tools to the model.
+     *
+     * @param promptName The name of the prompt
+     * @param toolConfiguration The {@code toolConfiguration} JSON object, or null for no tools
+     * @return A string containing the prompt start event JSON
+     */
+    public static String getPromptStartEvent(final String promptName, final String language, final boolean useFeminineVoice,
+                                             final String toolConfiguration) {
+        return getPromptStartEvent(promptName, language, useFeminineVoice, toolConfiguration, OUTPUT_AUDIO_SAMPLE_RATE);
+    }
+
+    /**
+     * Creates a prompt start event message that advertises tools and asks for audio output at a given rate.
+     *
+     * @param promptName The name of the prompt
+     * @param toolConfiguration The {@code toolConfiguration} JSON object, or null for no tools
+     * @param outputSampleRate The sample rate of the response audio, one of those Nova Sonic supports
+     * @return A string containing the prompt start event JSON
+     */
+    public static String getPromptStartEvent(final String promptName, final String language, final boolean useFeminineVoice,
+                                             final String toolConfiguration, final int outputSampleRate) {
+        String voiceId = getVoiceId(language, useFeminineVoice);
         return String.format(
                 "{\n"
                         + "  \"event\": {\n"
@@ -73,11 +124,16 @@ public final class NovaSonicMessageUtil {
                         + "        \"voiceId\": \"%s\",\n"
                         + "        \"encoding\": \"base64\",\n"
                         + "        \"audioType\": \"SPEECH\"\n"
-                        + "      }\n"
+                        + "      }%s\n"
                         + "    }\n"
                         + "  }\n"
                         + "}",
-                promptName, OUTPUT_AUDIO_SAMPLE_RATE, OUTPUT_AUDIO_SAMPLE_SIZE_IN_BITS, OUTPUT_AUDIO_CHANNEL, voiceId);
+                promptName, outputSampleRate, OUTPUT_AUDIO_SAMPLE_SIZE_IN_BITS, OUTPUT_AUDIO_CHANNEL, voiceId,
+                toolConfiguration == null ? "" : ",\n"
+                        + "      \"toolUseOutputConfiguration\": {\n"
+                        + "        \"mediaType\": \"application/json\"\n"
+                        + "      },\n"
+                        + "      \"toolConfiguration\": " + toolConfiguration);
     }
 
     /**
@@ -116,8 +172,20 @@ public final class NovaSonicMessageUtil {
      */
     public static String getSystemTextInput(
             final String promptName, final String contentName, final String systemPrompt) {
-        // Escape special characters in the system prompt
-        String escapedPrompt = systemPrompt.replace("\"", "\\\"")
+        return getTextInputEvent(promptName, contentName, systemPrompt);
+    }
+
+    /**
+     * Creates a text input event message.
+     *
+     * @param promptName The name of the prompt
+     * @param contentName The name of the content
+     * @param text The text
+     * @return A string containing the text input event JSON
+     */
+    public static String getTextInputEvent(final String promptName, final String contentName, final String text) {
+        // Escape special characters in the text
+        String escapedPrompt = text.replace("\"", "\\\"")
                                          .replace("\n", "\\n")
                                          .replace("\r", "\\r")
                                          .replace("\t", "\\t");
@@ -135,6 +203,34 @@ public final class NovaSonicMessageUtil {
                 promptName, contentName, escapedPrompt);
     }
 
+    /**
+     * Creates the content start event of a past turn, replayed as non-interactive text so the model
+     * picks up an earlier conversation.
+     *
+     * @param promptName The name of the prompt
+     * @param contentName The name of the content
+     * @param role USER or ASSISTANT
+     * @return A string containing the history content start event JSON
+     */
+    public static String getHistoryContentStart(final String promptName, final String contentName, final String role) {
+        return String.format(
+                "{\n"
+                        + "  \"event\": {\n"
+                        + "    \"contentStart\": {\n"
+                        + "      \"promptName\": \"%s\",\n"
+                        + "      \"contentName\": \"%s\",\n"
+                        + "      \"type\": \"TEXT\",\n"
+                        + "      \"interactive\": false,\n"
+                        + "      \"role\": \"%s\",\n"
+                        + "      \"textInputConfiguration\": {\n"
+                        + "        \"mediaType\": \"text/plain\"\n"
+                        + "      }\n"
+                        + "    }\n"
+                        + "  }\n"
+                        + "}",
+                promptName, contentName, role);
+    }
+
     /**
      * Creates a content end event message.
      *
@@ -219,6 +315,60 @@ public final class NovaSonicMessageUtil {
         return sb.toString();
     }
 
+    /**
+     * Creates a tool result content start event message.
+     *
+     * @param promptName The name of the prompt
+     * @param contentName The name of the content
+     * @param toolUseId The id of the toolUse event being answered
+     * @return A string containing the tool content start event JSON
+     */
+    public static String getToolContentStartEvent(
+            final String promptName, final String contentName, final String toolUseId) {
+        return String.format(
+                "{\n"
+                        + "  \"event\": {\n"
+                        + "    \"contentStart\": {\n"
+                        + "      \"promptName\": \"%s\",\n"
+                        + "      \"contentName\": \"%s\",\n"
+                        + "      \"interactive\": false,\n"
+                        + "      \"type\": \"TOOL\",\n"
+                        + "      \"role\": \"TOOL\",\n"
+                        + "      \"toolResultInputConfiguration\": {\n"
+                        + "        \"toolUseId\": \"%s\",\n"
+                        + "        \"type\": \"TEXT\",\n"
+                        + "        \"textInputConfiguration\": {\n"
+                        + "          \"mediaType\": \"text/plain\"\n"
+                        + "        }\n"
+                        + "      }\n"
+                        + "    }\n"
+                        + "  }\n"
+                        + "}",
+                promptName, contentName, toolUseId);
+    }
+
+    /**
+     * Creates a tool result event message.
+     *
+     * @param promptName The name of the prompt
+     * @param contentName The name of the content
+     * @param result The tool result JSON, sent to the model as a string
+     * @return A string containing the tool result event JSON
+     */
+    public static String getToolResultEvent(final String promptName, final String contentName, final String result) {
+        return String.format(
+                "{\n"
+                        + "  \"event\": {\n"
+                        + "    \"toolResult\": {\n"
+                        + "      \"promptName\": \"%s\",\n"
+                        + "      \"contentName\": \"%s\",\n"
+                        + "      \"content\": %s\n"
+                        + "    }\n"
+                        + "  }\n"
+                        + "}",
+                promptName, contentName, JSONObject.quote(result));
+    }
+
     /**
      * Creates a prompt end event message.
      *
@@ -0,0 +1,114 @@
+package org.example.util;
+
+import java.util.Arrays;
+
+/**
+ * Lowers the sample rate of a 16-bit PCM stream by an integer factor, such as Nova Sonic's 24 kHz
+ * output to 8 kHz for telephony. A windowed-sinc low-pass filter keeps what the lower rate cannot
+ * carry from aliasing, and only the samples that are kept are filtered. The filter state carries
+ * over between calls, so a stream can be fed in chunks of any length. Not thread-safe: use one per
+ * stream.
+ */
+public class PcmDecimator {
+    // Filter length per unit of factor; sets the width of the transition band
+    private static final int TAPS_PER_FACTOR = 24;
+    // Passband edge as a fraction of the output Nyquist frequency
+    private static final double CUTOFF = 0.85;
+
+    private final int factor;
+    private final float[] taps;
+    // The last taps.length - 1 input samples, then the samples of the chunk being processed
+    private float[] window;
+    // Index in the window of the newest input sample of the next output sample
+    private int next;
+
+    public PcmDecimator(int factor) {
+        if (factor < 1) {
+            throw new IllegalArgumentException("Factor must be at least 1: " + factor);
+        }
+        this.factor = factor;
+        this.taps = lowPass(factor == 1 ? 1 : TAPS_PER_FACTOR * factor + 1, CUTOFF / factor);
+        this.window = new float[taps.length - 1 + 1024];
+        this.next = taps.length - 1;
+    }
+
+    /**
+     * Windowed-sinc low-pass taps with a Hamming window, normalised to unity gain.
+     *
+     * @param cutoff Cutoff as a fraction of the input Nyquist frequency
+     */
+    private static float[] lowPass(int length, double cutoff) {
+        float[] taps = new float[length];
+        if (length == 1) {
+            taps[0] = 1;
+            return taps;
+        }
+        double middle = (length - 1) / 2.0;
+        double sum = 0;
+        double[] values = new double[length];
+        for (int i = 0; i < length; i++) {
+            double x = i - middle;
+            double sinc = x == 0 ? cutoff : Math.sin(Math.PI * cutoff * x) / (Math.PI * x);
+            values[i] = sinc * (0.54 - 0.46 * Math.cos(2 * Math.PI * i / (length - 1)));
+            sum += values[i];
+        }
+        for (int i = 0; i < length; i++) {
+            taps[i] = (float) (values[i] / sum);
+        }
+        return taps;
+    }
+
+    public int getFactor() {
+        return factor;
+    }
+
+    /**
+     * The most output samples {@link #process} can write for {@code inputCount} input samples.
+     */
+    public int maxOutput(int inputCount) {
+        return inputCount / factor + 1;
+    }
+
+    /**
+     * Filters and decimates {@code count} input samples.
+     *
+     * @param output Receives up to {@link #maxOutput} samples from {@code outputOffset}
+     * @return The number of output samples written
+     */
+    public int process(short[] input, int offset, int count, short[] output, int outputOffset) {
+        int history = taps.length - 1;
+        int total = history + count;
+        if (window.length < total) {
+            float[] grown = new float[Math.max(total, window.length * 2)];
+            System.arraycopy(window, 0, grown, 0, history);
+            window = grown;
+        }
+        float[] window = this.window;
+        for (int i = 0; i < count; i++) {
+            window[history + i] = input[offset + i];
+        }
+
+        float[] taps = this.taps;
+        int written = 0;
+        int position = next;
+        for (; position < total; position += factor) {
+            float sum = 0;
+            for (int k = 0, j = position; k < taps.length; k++, j--) {
+                sum += taps[k] * window[j];
+            }
+            output[outputOffset + written++] = ScalarPcmKernels.saturate(Math.round(sum));
+        }
+        // Keep the tail as the next chunk's history
+        System.arraycopy(window, total - history, window, 0, history);
+        next = position - count;
+        return written;
+    }
+
+    /**
+     * Forgets the stream so far, as at a new response after an interruption.
+     */
+    public void reset() {
+        Arrays.fill(window, 0, taps.length - 1, 0f);
+        next = taps.length - 1;
+    }
+}
@@ -0,0 +1,194 @@
+package org.example.util;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+
+/**
+ * Per-sample kernels for 16-bit PCM: byte-order conversion, gain, level metering and conversion
+ * to and from float. None of them allocate, and none move a buffer's position or change its order;
+ * byte buffers are read from position to limit in the byte order given.
+ * <p>
+ * {@link #get()} returns the Vector API implementation when the JVM runs with
+ * {@code --add-modules jdk.incubator.vector} and the CPU has SIMD registers of 128 bits or more,
+ * and the scalar one otherwise. Both give the same results, except that the vector RMS sums in
+ * float precision.
+ */
+public abstract class PcmKernels {
+    private static final Logger logger = LoggerFactory.getLogger(PcmKernels.class);
+    private static final PcmKernels SCALAR = new ScalarPcmKernels();
+
+    // Initialized on first use, so the vector module is only probed when audio is processed
+    private static final class Selected {
+        static final PcmKernels INSTANCE = select();
+    }
+
+    /**
+     * The fastest implementation available on this JVM and CPU.
+     */
+    public static PcmKernels get() {
+        return Selected.INSTANCE;
+    }
+
+    /**
+     * The portable implementation.
+     */
+    public static PcmKernels scalar() {
+        return SCALAR;
+    }
+
+    /**
+     * The Vector API implementation, or null if the JVM or CPU cannot run it.
+     */
+    public static PcmKernels vector() {
+        try {
+            if (!VectorPcmKernels.isSupported()) {
+                return null;
+            }
+            PcmKernels vector = new VectorPcmKernels();
+            return agreesWithScalar(vector) ? vector : null;
+        } catch (LinkageError e) {
+            // jdk.incubator.vector is not in the module graph, or this JDK's Vector API differs
+            logger.debug("Vector API unavailable: {}", e.toString());
+            return null;
+        }
+    }
+
+    private static PcmKernels select() {
+        PcmKernels vector = vector();
+        if (vector != null) {
+            logger.info("PCM kernels: {}", vector);
+            return vector;
+        }
+        logger.info("PCM kernels: scalar (start the JVM with --add-modules jdk.incubator.vector for SIMD)");
+        return SCALAR;
+    }
+
+    /**
+     * Runs every kernel of {@code candidate} against the scalar one on a short test signal, with
+     * lengths that exercise both the vector loops and their tails.
+     */
+    private static boolean agreesWithScalar(PcmKernels candidate) {
+        int count = 515;
+        short[] samples = new short[count];
+        for (int i = 0; i < count; i++) {
+            samples[i] = (short) ((i * 7919 + (i % 3) * Short.MIN_VALUE) ^ (i << 9));
+        }
+        samples[3] = Short.MIN_VALUE;
+        samples[4] = Short.MAX_VALUE;
+        ByteBuffer pcm = ByteBuffer.allocate(count * 2 + 1).position(1);
+        SCALAR.encode(samples, 0, count, pcm, ByteOrder.LITTLE_ENDIAN);
+
+        for (ByteOrder order : new ByteOrder[]{ByteOrder.LITTLE_ENDIAN, ByteOrder.BIG_ENDIAN}) {
+            short[] expected = new short[count];
+            short[] actual = new short[count];
+            SCALAR.decode(pcm, order, expected, 0);
+            candidate.decode(pcm, order, actual, 0);
+            if (!Arrays.equals(expected, actual)
+                    || SCALAR.peak(pcm, order) != candidate.peak(pcm, order)
+                    || !close(SCALAR.rms(pcm, order), candidate.rms(pcm, order))) {
+                return false;
+            }
+            ByteBuffer encoded = ByteBuffer.allocate(count * 2);
+            candidate.encode(samples, 0, count, encoded, order);
+            ByteBuffer reference = ByteBuffer.allocate(count * 2);
+            SCALAR.encode(samples, 0, count, reference, order);
+            if (!encoded.equals(reference)) {
+                return false;
+            }
+        }
+
+        ByteBuffer swapped = ByteBuffer.allocate(count * 2);
+        candidate.encode(samples, 0, count, swapped, ByteOrder.LITTLE_ENDIAN);
+        candidate.swapByteOrder(swapped);
+        ByteBuffer reference = ByteBuffer.allocate(count * 2);
+        SCALAR.encode(samples, 0, count, reference, ByteOrder.BIG_ENDIAN);
+        if (!swapped.equals(reference)) {
+            return false;
+        }
+
+        short[] expected = samples.clone();
+        short[] actual = samples.clone();
+        SCALAR.applyGain(expected, 1, count - 1, 1.7f);
+        candidate.applyGain(actual, 1, count - 1, 1.7f);
+        if (!Arrays.equals(expected, actual)
+                || SCALAR.peak(samples, 2, count - 2) != candidate.peak(samples, 2, count - 2)
+                || !close(SCALAR.rms(samples, 2, count - 2), candidate.rms(samples, 2, count - 2))) {
+            return false;
+        }
+
+        float[] expectedFloats = new float[count];
+        float[] actualFloats = new float[count];
+        SCALAR.toFloat(samples, 0, expectedFloats, 0, count);
+        candidate.toFloat(samples, 0, actualFloats, 0, count);
+        if (!Arrays.equals(expectedFloats, actualFloats)) {
+            return false;
+        }
+        // Out of range values saturate
+        for (int i = 0; i < count; i++) {
+            expectedFloats[i] *= 1.5f;
+        }
+        SCALAR.toPcm16(expectedFloats, 0, expected, 0, count);
+        candidate.toPcm16(expectedFloats, 0, actual, 0, count);
+        return Arrays.equals(expected, actual);
+    }
+
+    private static boolean close(double expected, double actual) {
+        return Math.abs(expected - actual) <= 1e-4 * Math.max(1, expected);
+    }
+
+    /**
+     * Decodes the samples between the buffer's position and limit.
+     *
+     * @param samples Receives {@code pcm.remaining() / 2} samples from {@code offset}
+     */
+    public abstract void decode(ByteBuffer pcm, ByteOrder order, short[] samples, int offset);
+
+    /**
+     * Encodes samples into the buffer from its position, which needs room for {@code count * 2} bytes.
+     */
+    public abstract void encode(short[] samples, int offset, int count, ByteBuffer pcm, ByteOrder order);
+
+    /**
+     * Swaps the bytes of every sample between the buffer's position and limit in place.
+     */
+    public abstract void swapByteOrder(ByteBuffer pcm);
+
+    /**
+     * Multiplies samples by {@code gain}, saturating at the 16-bit range.
+     */
+    public abstract void applyGain(short[] samples, int offset, int count, float gain);
+
+    /**
+     * Largest absolute sample value, from 0 to 32768.
+     */
+    public abstract int peak(short[] samples, int offset, int count);
+
+    /**
+     * Root mean square of the samples, from 0 to 32768; 0 for no samples.
+     */
+    public abstract double rms(short[] samples, int offset, int count);
+
+    /**
+     * Largest absolute sample value between the buffer's position and limit, from 0 to 32768.
+     */
+    public abstract int peak(ByteBuffer pcm, ByteOrder order);
+
+    /**
+     * Root mean square of the samples between the buffer's position and limit, from 0 to 32768.
+     */
+    public abstract double rms(ByteBuffer pcm, ByteOrder order);
+
+    /**
+     * Converts samples to floats in [-1, 1).
+     */
+    public abstract void toFloat(short[] samples, int offset, float[] floats, int floatOffset, int count);
+
+    /**
+     * Converts floats in [-1, 1) to samples, saturating outside that range and truncating toward zero.
+     */
+    public abstract void toPcm16(float[] floats, int floatOffset, short[] samples, int offset, int count);
+}
@@ -0,0 +1,140 @@
+package org.example.util;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Portable {@link PcmKernels}, one sample at a time. Also handles the tails the vector kernels
+ * leave, and buffers they cannot load from.
+ */
+final class ScalarPcmKernels extends PcmKernels {
+
+    @Override
+    public void decode(ByteBuffer pcm, ByteOrder order, short[] samples, int offset) {
+        decode(pcm, pcm.position(), pcm.remaining() / 2, order, samples, offset);
+    }
+
+    /**
+     * Decodes {@code count} samples starting at byte {@code index} of the buffer.
+     */
+    void decode(ByteBuffer pcm, int index, int count, ByteOrder order, short[] samples, int offset) {
+        boolean swap = order != pcm.order();
+        for (int i = 0; i < count; i++) {
+            short sample = pcm.getShort(index + i * 2);
+            samples[offset + i] = swap ? Short.reverseBytes(sample) : sample;
+        }
+    }
+
+    @Override
+    public void encode(short[] samples, int offset, int count, ByteBuffer pcm, ByteOrder order) {
+        encode(samples, offset, count, pcm, pcm.position(), order);
+    }
+
+    /**
+     * Encodes {@code count} samples starting at byte {@code index} of the buffer.
+     */
+    void encode(short[] samples, int offset, int count, ByteBuffer pcm, int index, ByteOrder order) {
+        boolean swap = order != pcm.order();
+        for (int i = 0; i < count; i++) {
+            short sample = samples[offset + i];
+            pcm.putShort(index + i * 2, swap ? Short.reverseBytes(sample) : sample);
+        }
+    }
+
+    @Override
+    public void swapByteOrder(ByteBuffer pcm) {
+        swapByteOrder(pcm, pcm.position(), pcm.remaining() / 2);
+    }
+
+    void swapByteOrder(ByteBuffer pcm, int index, int count) {
+        for (int i = index, end = index + count * 2; i < end; i += 2) {
+            pcm.putShort(i, Short.reverseBytes(pcm.getShort(i)));
+        }
+    }
+
+    @Override
+    public void applyGain(short[] samples, int offset, int count, float gain) {
+        for (int i = offset, end = offset + count; i < end; i++) {
+            samples[i] = saturate(samples[i] * gain);
+        }
+    }
+
+    @Override
+    public int peak(short[] samples, int offset, int count) {
+        int peak = 0;
+        for (int i = offset, end = offset + count; i < end; i++) {
+            peak = Math.max(peak, Math.abs(samples[i]));
+        }
+        return peak;
+    }
+
+    @Override
+    public double rms(short[] samples, int offset, int count) {
+        return count > 0 ? Math.sqrt(sumOfSquares(samples, offset, count) / count) : 0;
+    }
+
+    double sumOfSquares(short[] samples, int offset, int count) {
+        long sum = 0;
+        for (int i = offset, end = offset + count; i < end; i++) {
+            sum += samples[i] * samples[i];
+        }
+        return sum;
+    }
+
+    @Override
+    public int peak(ByteBuffer pcm, ByteOrder order) {
+        return peak(pcm, pcm.position(), pcm.remaining() / 2, order);
+    }
+
+    int peak(ByteBuffer pcm, int index, int count, ByteOrder order) {
+        boolean swap = order != pcm.order();
+        int peak = 0;
+        for (int i = 0; i < count; i++) {
+            short sample = pcm.getShort(index + i * 2);
+            peak = Math.max(peak, Math.abs(swap ? Short.reverseBytes(sample) : sample));
+        }
+        return peak;
+    }
+
+    @Override
+    public double rms(ByteBuffer pcm, ByteOrder order) {
+        int count = pcm.remaining() / 2;
+        return count > 0 ? Math.sqrt(sumOfSquares(pcm, pcm.position(), count, order) / count) : 0;
+    }
+
+    double sumOfSquares(ByteBuffer pcm, int index, int count, ByteOrder order) {
+        boolean swap = order != pcm.order();
+        long sum = 0;
+        for (int i = 0; i < count; i++) {
+            short sample = pcm.getShort(index + i * 2);
+            if (swap) {
+                sample = Short.reverseBytes(sample);
+            }
+            sum += sample * sample;
+        }
+        return sum;
+    }
+
+    @Override
+    public void toFloat(short[] samples, int offset, float[] floats, int floatOffset, int count) {
+        for (int i = 0; i < count; i++) {
+            floats[floatOffset + i] = samples[offset + i] * (1f / 32768);
+        }
+    }
+
+    @Override
+    public void toPcm16(float[] floats, int floatOffset, short[] samples, int offset, int count) {
+        for (int i = 0; i < count; i++) {
+            samples[offset + i] = saturate(floats[floatOffset + i] * 32768);
+        }
+    }
+
+    static short saturate(float sample) {
+        return (short) (int) Math.max(Short.MIN_VALUE, Math.min(Short.MAX_VALUE, sample));
+    }
+
+    @Override
+    public String toString() {
+        return "scalar";
+    }
+}
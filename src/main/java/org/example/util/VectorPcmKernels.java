@@ -0,0 +1,225 @@
+package org.example.util;
+
+import jdk.incubator.vector.ByteVector;
+import jdk.incubator.vector.FloatVector;
+import jdk.incubator.vector.ShortVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorShape;
+import jdk.incubator.vector.VectorShuffle;
+import jdk.incubator.vector.VectorSpecies;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * {@link PcmKernels} on the incubating Vector API, in the CPU's preferred vector width. Byte
+ * buffers are loaded through their backing array, so direct and read-only buffers, and the tail
+ * of every loop, go through the scalar kernels. {@link PcmKernels} only uses it once it has loaded
+ * and agreed with the scalar kernels, since the incubating API can change between JDK releases.
+ */
+final class VectorPcmKernels extends PcmKernels {
+    private static final VectorSpecies<Byte> BYTES = ByteVector.SPECIES_PREFERRED;
+    private static final VectorSpecies<Short> SHORTS = ShortVector.SPECIES_PREFERRED;
+    private static final VectorSpecies<Float> FLOATS = FloatVector.SPECIES_PREFERRED;
+    // As many shorts as FLOATS has lanes, for conversions between the two
+    private static final VectorSpecies<Short> HALF_SHORTS =
+            VectorSpecies.of(short.class, VectorShape.forBitSize(FLOATS.vectorBitSize() / 2));
+    private static final VectorShuffle<Byte> SWAP_BYTES = VectorShuffle.fromOp(BYTES, i -> i ^ 1);
+    // Byte order in which a byte vector reinterprets as shorts
+    private static final ByteOrder LANE_ORDER = laneOrder();
+
+    private final ScalarPcmKernels scalar = new ScalarPcmKernels();
+
+    /**
+     * False where vectors are too narrow to beat the scalar kernels.
+     */
+    static boolean isSupported() {
+        return FLOATS.vectorBitSize() >= 128;
+    }
+
+    private static ByteOrder laneOrder() {
+        byte[] bytes = new byte[BYTES.length()];
+        bytes[0] = 1;
+        return ByteVector.fromArray(BYTES, bytes, 0).reinterpretAsShorts().lane(0) == 1
+                ? ByteOrder.LITTLE_ENDIAN : ByteOrder.BIG_ENDIAN;
+    }
+
+    @Override
+    public void decode(ByteBuffer pcm, ByteOrder order, short[] samples, int offset) {
+        int count = pcm.remaining() / 2;
+        if (!pcm.hasArray()) {
+            scalar.decode(pcm, order, samples, offset);
+            return;
+        }
+        byte[] bytes = pcm.array();
+        int base = pcm.arrayOffset() + pcm.position();
+        boolean swap = order != LANE_ORDER;
+        int i = 0;
+        for (int bound = SHORTS.loopBound(count); i < bound; i += SHORTS.length()) {
+            load(bytes, base + i * 2, swap).intoArray(samples, offset + i);
+        }
+        scalar.decode(pcm, pcm.position() + i * 2, count - i, order, samples, offset + i);
+    }
+
+    @Override
+    public void encode(short[] samples, int offset, int count, ByteBuffer pcm, ByteOrder order) {
+        if (!pcm.hasArray()) {
+            scalar.encode(samples, offset, count, pcm, order);
+            return;
+        }
+        byte[] bytes = pcm.array();
+        int base = pcm.arrayOffset() + pcm.position();
+        boolean swap = order != LANE_ORDER;
+        int i = 0;
+        for (int bound = SHORTS.loopBound(count); i < bound; i += SHORTS.length()) {
+            ByteVector encoded = ShortVector.fromArray(SHORTS, samples, offset + i).reinterpretAsBytes();
+            (swap ? encoded.rearrange(SWAP_BYTES) : encoded).intoArray(bytes, base + i * 2);
+        }
+        scalar.encode(samples, offset + i, count - i, pcm, pcm.position() + i * 2, order);
+    }
+
+    @Override
+    public void swapByteOrder(ByteBuffer pcm) {
+        int count = pcm.remaining() / 2;
+        if (!pcm.hasArray()) {
+            scalar.swapByteOrder(pcm);
+            return;
+        }
+        byte[] bytes = pcm.array();
+        int base = pcm.arrayOffset() + pcm.position();
+        int i = 0;
+        for (int bound = SHORTS.loopBound(count); i < bound; i += SHORTS.length()) {
+            ByteVector.fromArray(BYTES, bytes, base + i * 2).rearrange(SWAP_BYTES).intoArray(bytes, base + i * 2);
+        }
+        scalar.swapByteOrder(pcm, pcm.position() + i * 2, count - i);
+    }
+
+    @Override
+    public void applyGain(short[] samples, int offset, int count, float gain) {
+        int i = 0;
+        for (int bound = HALF_SHORTS.loopBound(count); i < bound; i += HALF_SHORTS.length()) {
+            FloatVector scaled = toFloats(ShortVector.fromArray(HALF_SHORTS, samples, offset + i)).mul(gain);
+            toShorts(scaled).intoArray(samples, offset + i);
+        }
+        scalar.applyGain(samples, offset + i, count - i, gain);
+    }
+
+    @Override
+    public int peak(short[] samples, int offset, int count) {
+        ShortVector max = ShortVector.zero(SHORTS);
+        ShortVector min = ShortVector.zero(SHORTS);
+        int i = 0;
+        for (int bound = SHORTS.loopBound(count); i < bound; i += SHORTS.length()) {
+            ShortVector vector = ShortVector.fromArray(SHORTS, samples, offset + i);
+            max = max.max(vector);
+            min = min.min(vector);
+        }
+        return Math.max(peak(max, min), scalar.peak(samples, offset + i, count - i));
+    }
+
+    @Override
+    public double rms(short[] samples, int offset, int count) {
+        if (count <= 0) {
+            return 0;
+        }
+        FloatVector sum = FloatVector.zero(FLOATS);
+        int i = 0;
+        for (int bound = HALF_SHORTS.loopBound(count); i < bound; i += HALF_SHORTS.length()) {
+            FloatVector vector = toFloats(ShortVector.fromArray(HALF_SHORTS, samples, offset + i));
+            sum = vector.fma(vector, sum);
+        }
+        double sumOfSquares = sum.reduceLanes(VectorOperators.ADD) + scalar.sumOfSquares(samples, offset + i, count - i);
+        return Math.sqrt(sumOfSquares / count);
+    }
+
+    @Override
+    public int peak(ByteBuffer pcm, ByteOrder order) {
+        int count = pcm.remaining() / 2;
+        if (!pcm.hasArray()) {
+            return scalar.peak(pcm, order);
+        }
+        byte[] bytes = pcm.array();
+        int base = pcm.arrayOffset() + pcm.position();
+        boolean swap = order != LANE_ORDER;
+        ShortVector max = ShortVector.zero(SHORTS);
+        ShortVector min = ShortVector.zero(SHORTS);
+        int i = 0;
+        for (int bound = SHORTS.loopBound(count); i < bound; i += SHORTS.length()) {
+            ShortVector vector = load(bytes, base + i * 2, swap);
+            max = max.max(vector);
+            min = min.min(vector);
+        }
+        return Math.max(peak(max, min), scalar.peak(pcm, pcm.position() + i * 2, count - i, order));
+    }
+
+    @Override
+    public double rms(ByteBuffer pcm, ByteOrder order) {
+        int count = pcm.remaining() / 2;
+        if (!pcm.hasArray()) {
+            return scalar.rms(pcm, order);
+        }
+        if (count == 0) {
+            return 0;
+        }
+        byte[] bytes = pcm.array();
+        int base = pcm.arrayOffset() + pcm.position();
+        boolean swap = order != LANE_ORDER;
+        FloatVector sum = FloatVector.zero(FLOATS);
+        int i = 0;
+        for (int bound = SHORTS.loopBound(count); i < bound; i += SHORTS.length()) {
+            ShortVector vector = load(bytes, base + i * 2, swap);
+            // A full-width short vector holds two float vectors' worth of samples
+            FloatVector low = (FloatVector) vector.convertShape(VectorOperators.S2F, FLOATS, 0);
+            FloatVector high = (FloatVector) vector.convertShape(VectorOperators.S2F, FLOATS, 1);
+            sum = high.fma(high, low.fma(low, sum));
+        }
+        double sumOfSquares = sum.reduceLanes(VectorOperators.ADD)
+                + scalar.sumOfSquares(pcm, pcm.position() + i * 2, count - i, order);
+        return Math.sqrt(sumOfSquares / count);
+    }
+
+    @Override
+    public void toFloat(short[] samples, int offset, float[] floats, int floatOffset, int count) {
+        int i = 0;
+        for (int bound = HALF_SHORTS.loopBound(count); i < bound; i += HALF_SHORTS.length()) {
+            toFloats(ShortVector.fromArray(HALF_SHORTS, samples, offset + i)).mul(1f / 32768)
+                    .intoArray(floats, floatOffset + i);
+        }
+        scalar.toFloat(samples, offset + i, floats, floatOffset + i, count - i);
+    }
+
+    @Override
+    public void toPcm16(float[] floats, int floatOffset, short[] samples, int offset, int count) {
+        int i = 0;
+        for (int bound = FLOATS.loopBound(count); i < bound; i += FLOATS.length()) {
+            toShorts(FloatVector.fromArray(FLOATS, floats, floatOffset + i).mul(32768)).intoArray(samples, offset + i);
+        }
+        scalar.toPcm16(floats, floatOffset + i, samples, offset + i, count - i);
+    }
+
+    private static ShortVector load(byte[] bytes, int index, boolean swap) {
+        ByteVector vector = ByteVector.fromArray(BYTES, bytes, index);
+        return (swap ? vector.rearrange(SWAP_BYTES) : vector).reinterpretAsShorts();
+    }
+
+    private static FloatVector toFloats(ShortVector samples) {
+        return (FloatVector) samples.convertShape(VectorOperators.S2F, FLOATS, 0);
+    }
+
+    /**
+     * Saturates to the 16-bit range and truncates toward zero, like {@link ScalarPcmKernels#saturate}.
+     */
+    private static ShortVector toShorts(FloatVector samples) {
+        return (ShortVector) samples.max(Short.MIN_VALUE).min(Short.MAX_VALUE)
+                .convertShape(VectorOperators.F2S, HALF_SHORTS, 0);
+    }
+
+    private static int peak(ShortVector max, ShortVector min) {
+        return Math.max(max.reduceLanes(VectorOperators.MAX), -min.reduceLanes(VectorOperators.MIN));
+    }
+
+    @Override
+    public String toString() {
+        return "vector " + SHORTS.length() + " x 16-bit";
+    }
+}
@@ -0,0 +1,182 @@
+package org.example.warmup;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.admission.AdmissionController;
+import org.example.client.BedrockClientFactory;
+import org.example.client.StreamSetupPolicy;
+import org.example.config.NovaSonicProperties;
+import org.example.handler.NovaSonicEventHandler;
+import org.example.handler.NovaWebSocketHandler;
+import org.example.recording.SessionRecorder;
+import org.example.routing.RegionRouter;
+import org.example.tool.ToolExecutor;
+import org.example.tool.ToolRegistry;
+import org.example.transcript.TranscriptStore;
+import org.example.usage.UsageAccountant;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.NativeDetector;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.BinaryMessage;
+import org.springframework.web.socket.CloseStatus;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.example.constants.NovaSonicConstants.DEFAULT_AUDIO_FORMAT;
+import static org.example.constants.NovaSonicConstants.WARMUP_TENANT_ID;
+
+/**
+ * Runs synthetic sessions through the whole server path (WebSocket handler, message encoding,
+ * stream publishing, event parsing, tool calls, usage accounting and frame sending) against the
+ * in-process fake Bedrock stream before the application reports ready. Spring Boot only switches
+ * readiness to accepting traffic once application runners complete, so load balancers watching
+ * {@code /actuator/health/readiness} never route callers to a cold JVM.
+ */
+@Component
+public class WarmupRunner implements ApplicationRunner {
+    private static final Logger logger = LoggerFactory.getLogger(WarmupRunner.class);
+    private static final long FRAME_MILLIS = 20;
+    private static final Duration TURN_AUDIO = Duration.ofMillis(500);
+    // Each turn produces a user and an assistant transcript
+    private static final int TRANSCRIPTS_PER_TURN = 2;
+
+    private final NovaSonicProperties.Warmup settings;
+    private final ToolRegistry toolRegistry;
+    private final ToolExecutor toolExecutor;
+    private final ConfigurableApplicationContext applicationContext;
+
+    public WarmupRunner(NovaSonicProperties properties, ToolRegistry toolRegistry, ToolExecutor toolExecutor,
+                        ConfigurableApplicationContext applicationContext) {
+        this.settings = properties.getWarmup();
+        this.toolRegistry = toolRegistry;
+        this.toolExecutor = toolExecutor;
+        this.applicationContext = applicationContext;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) throws InterruptedException {
+        if (!settings.isEnabled()) {
+            logger.info("JIT warm-up disabled");
+        } else if (NativeDetector.inNativeImage()) {
+            logger.info("Skipping JIT warm-up in a native image");
+        } else {
+            warmUp();
+        }
+
+        if (settings.isExitOnCompletion()) {
+            logger.info("Exiting after warm-up");
+            System.exit(SpringApplication.exit(applicationContext, () -> 0));
+        }
+    }
+
+    private void warmUp() throws InterruptedException {
+        long start = System.nanoTime();
+        long deadline = start + settings.getTimeout().toNanos();
+
+        // Same components as the real endpoint, but with a fast fake stream, no resume grace period or suspend
+        // and usage accounted to a throwaway registry so warm-up never shows up in metrics
+        NovaSonicProperties warmupProperties = new NovaSonicProperties();
+        warmupProperties.getSession().setResumeGracePeriod(Duration.ZERO);
+        warmupProperties.getSession().setSuspendAfter(Duration.ZERO);
+        warmupProperties.getBedrock().setMode("fake");
+        warmupProperties.getBedrock().setFakeTurnAudio(TURN_AUDIO);
+        warmupProperties.getBedrock().setFakeResponseDelay(Duration.ZERO);
+        MeterRegistry meterRegistry = new SimpleMeterRegistry();
+        TranscriptStore transcriptStore = new TranscriptStore();
+        UsageAccountant usageAccountant = new UsageAccountant(warmupProperties, meterRegistry, transcriptStore);
+        AdmissionController admissionController = new AdmissionController(warmupProperties, meterRegistry);
+        BedrockClientFactory bedrockClientFactory = new BedrockClientFactory(warmupProperties);
+        RegionRouter regionRouter = new RegionRouter(warmupProperties, bedrockClientFactory, meterRegistry);
+        StreamSetupPolicy streamSetupPolicy = new StreamSetupPolicy(warmupProperties, regionRouter, meterRegistry);
+        NovaSonicEventHandler eventHandler = new NovaSonicEventHandler(usageAccountant, toolRegistry, toolExecutor);
+        // Recording is off in the default properties, so warm-up sessions are never recorded
+        NovaWebSocketHandler handler = new NovaWebSocketHandler(eventHandler, warmupProperties, usageAccountant,
+                streamSetupPolicy, admissionController, new SessionRecorder(warmupProperties, meterRegistry), transcriptStore,
+                meterRegistry);
+
+        ExecutorService executor = Executors.newFixedThreadPool(settings.getSessions(), r -> {
+            Thread thread = new Thread(r, "jit-warmup");
+            thread.setDaemon(true);
+            return thread;
+        });
+        int completedTurns = 0;
+        try {
+            List<Future<Integer>> sessions = new ArrayList<>();
+            for (int i = 0; i < settings.getSessions(); i++) {
+                int index = i;
+                sessions.add(executor.submit(() -> runSession(handler, index, deadline)));
+            }
+            for (Future<Integer> session : sessions) {
+                try {
+                    completedTurns += session.get(Math.max(deadline - System.nanoTime(), 0), TimeUnit.NANOSECONDS);
+                } catch (ExecutionException e) {
+                    logger.warn("Warm-up session failed: {}", e.getCause().getMessage());
+                } catch (java.util.concurrent.TimeoutException e) {
+                    logger.warn("Warm-up timed out after {}", settings.getTimeout());
+                    break;
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+            admissionController.shutdown();
+            streamSetupPolicy.shutdown();
+            regionRouter.shutdown();
+            bedrockClientFactory.shutdown();
+            usageAccountant.shutdown();
+        }
+
+        logger.info("JIT warm-up completed {} of {} turns in {} ms", completedTurns,
+                settings.getSessions() * settings.getTurnsPerSession(),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+
+    /**
+     * Streams audio through one synthetic connection, a turn at a time.
+     *
+     * @return The number of turns that completed
+     */
+    private int runSession(NovaWebSocketHandler handler, int index, long deadline) throws Exception {
+        WarmupWebSocketSession session = new WarmupWebSocketSession("warmup-" + index,
+                URI.create("ws://localhost/ws/audio?tenantId=" + WARMUP_TENANT_ID));
+        int frameBytes = (int) (DEFAULT_AUDIO_FORMAT.getFrameRate() * DEFAULT_AUDIO_FORMAT.getFrameSize() * FRAME_MILLIS / 1000);
+        // Noise rather than silence, so base64 encoding sees realistic input
+        byte[] frame = new byte[frameBytes];
+        new Random(index).nextBytes(frame);
+        long framesPerTurn = TURN_AUDIO.toMillis() / FRAME_MILLIS + 1;
+
+        handler.afterConnectionEstablished(session);
+        int turns = 0;
+        try {
+            if (!session.awaitReady(TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime()))) {
+                return 0;
+            }
+            while (turns < settings.getTurnsPerSession()) {
+                for (int i = 0; i < framesPerTurn; i++) {
+                    handler.handleMessage(session, new BinaryMessage(frame));
+                }
+                long remainingMillis = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+                if (!session.awaitTranscripts(TRANSCRIPTS_PER_TURN, remainingMillis)) {
+                    break;
+                }
+                turns++;
+            }
+        } finally {
+            handler.afterConnectionClosed(session, CloseStatus.NORMAL);
+        }
+        return turns;
+    }
+}
@@ -0,0 +1,146 @@
+package org.example.warmup;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketExtension;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.security.Principal;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * In-memory WebSocket connection for synthetic warm-up sessions. Outbound frames are discarded
+ * except that the ready status and transcription frames are tracked, so the caller can wait for
+ * the stream to open and for turns to complete.
+ */
+class WarmupWebSocketSession implements WebSocketSession {
+    private final String id;
+    private final URI uri;
+    private final HttpHeaders handshakeHeaders = new HttpHeaders();
+    private final Map<String, Object> attributes = new ConcurrentHashMap<>();
+    private final CountDownLatch ready = new CountDownLatch(1);
+    private final Semaphore transcripts = new Semaphore(0);
+    private volatile boolean open = true;
+
+    WarmupWebSocketSession(String id, URI uri) {
+        this.id = id;
+        this.uri = uri;
+        // NovaWebSocketHandler only accepts audio from local origins
+        handshakeHeaders.setOrigin("http://localhost:3000");
+    }
+
+    /**
+     * Waits for the ready status that follows stream setup.
+     */
+    boolean awaitReady(long timeoutMillis) throws InterruptedException {
+        return ready.await(Math.max(timeoutMillis, 0), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Waits for {@code count} transcription frames to be sent to this connection.
+     */
+    boolean awaitTranscripts(int count, long timeoutMillis) throws InterruptedException {
+        return transcripts.tryAcquire(count, Math.max(timeoutMillis, 0), TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void sendMessage(WebSocketMessage<?> message) {
+        if (!(message instanceof TextMessage textMessage)) {
+            return;
+        }
+        String payload = textMessage.getPayload();
+        if (payload.contains("\"type\":\"transcription\"")) {
+            transcripts.release();
+        } else if (payload.contains("\"status\":\"ready\"")) {
+            ready.countDown();
+        }
+    }
+
+    @Override
+    public String getId() {
+        return id;
+    }
+
+    @Override
+    public URI getUri() {
+        return uri;
+    }
+
+    @Override
+    public HttpHeaders getHandshakeHeaders() {
+        return handshakeHeaders;
+    }
+
+    @Override
+    public Map<String, Object> getAttributes() {
+        return attributes;
+    }
+
+    @Override
+    public Principal getPrincipal() {
+        return null;
+    }
+
+    @Override
+    public InetSocketAddress getLocalAddress() {
+        return null;
+    }
+
+    @Override
+    public InetSocketAddress getRemoteAddress() {
+        return null;
+    }
+
+    @Override
+    public String getAcceptedProtocol() {
+        return null;
+    }
+
+    @Override
+    public void setTextMessageSizeLimit(int messageSizeLimit) {
+    }
+
+    @Override
+    public int getTextMessageSizeLimit() {
+        return Integer.MAX_VALUE;
+    }
+
+    @Override
+    public void setBinaryMessageSizeLimit(int messageSizeLimit) {
+    }
+
+    @Override
+    public int getBinaryMessageSizeLimit() {
+        return Integer.MAX_VALUE;
+    }
+
+    @Override
+    public List<WebSocketExtension> getExtensions() {
+        return Collections.emptyList();
+    }
+
+    @Override
+    public boolean isOpen() {
+        return open;
+    }
+
+    @Override
+    public void close() {
+        open = false;
+    }
+
+    @Override
+    public void close(CloseStatus status) {
+        open = false;
+    }
+}
@@ -0,0 +1,126 @@
+#!/bin/bash
+
+# Stream fault test: runs the server against the fake Bedrock stream with injected stream-creation
+# failures and checks the resilience layer.
+#   1. 20% throttling and 10% 503s: setups are retried with backoff and nearly every session gets ready.
+#   2. 100% throttling: the circuit breaker opens, later setups fail fast, and callers receive a
+#      structured stream_unavailable error.
+#
+# Needs curl and python3, plus the server and load generator builds:
+#   mvn install -DskipTests && mvn -f loadgen/pom.xml package
+
+set -euo pipefail
+
+GREEN='\033[0;32m'
+BLUE='\033[0;34m'
+RED='\033[0;31m'
+NC='\033[0m' # No Color
+
+JVM_JAR=target/NovaSonicPlayground-1.0-SNAPSHOT-exec.jar
+LOADGEN_JAR=loadgen/target/NovaSonicLoadGenerator-1.0-SNAPSHOT-jar-with-dependencies.jar
+PORT=${PORT:-8103}
+MANAGEMENT_PORT=${MANAGEMENT_PORT:-$((PORT + 100))}
+SESSIONS=${SESSIONS:-40}
+WORK_DIR=$(mktemp -d)
+SERVER_PID=
+
+function cleanup {
+    if [ -n "$SERVER_PID" ]; then
+        kill "$SERVER_PID" 2>/dev/null || true
+    fi
+    rm -rf "$WORK_DIR"
+}
+trap cleanup EXIT
+
+for artifact in "$JVM_JAR" "$LOADGEN_JAR"; do
+    if [ ! -e "$artifact" ]; then
+        echo -e "${RED}Error: $artifact not found, see the build steps at the top of this script${NC}"
+        exit 1
+    fi
+done
+
+# 4 seconds of 16 kHz 16-bit mono silence; the fake stream answers every 2 seconds of audio
+python3 - "$WORK_DIR/utterance.wav" <<'PY'
+import sys, wave
+with wave.open(sys.argv[1], "wb") as out:
+    out.setnchannels(1)
+    out.setsampwidth(2)
+    out.setframerate(16000)
+    out.writeframes(b"\0\0" * 16000 * 4)
+PY
+
+function start_server {
+    java -jar "$JVM_JAR" --server.port=$PORT --management.server.port=$MANAGEMENT_PORT \
+        --novasonic.bedrock.mode=fake --novasonic.warmup.enabled=false \
+        --novasonic.admission.max-streams-per-address=0 "$@" > "$WORK_DIR/server-$PORT.log" 2>&1 &
+    SERVER_PID=$!
+    until curl -sf "http://localhost:$MANAGEMENT_PORT/actuator/health/readiness" > /dev/null; do
+        sleep 0.5
+    done
+}
+
+function stop_server {
+    kill "$SERVER_PID"
+    wait "$SERVER_PID" 2>/dev/null || true
+    SERVER_PID=
+}
+
+# Prints the value of a counter, optionally filtered by one tag (name:value)
+function counter {
+    local query=""
+    if [ -n "${2:-}" ]; then
+        query="?tag=$2"
+    fi
+    curl -s "http://localhost:$MANAGEMENT_PORT/actuator/metrics/$1$query" \
+        | python3 -c 'import json,sys; print(int(json.load(sys.stdin)["measurements"][0]["value"]))'
+}
+
+function run_load {
+    java -jar "$LOADGEN_JAR" --url "ws://localhost:$PORT/ws/audio" --wav "$WORK_DIR/utterance.wav" \
+        --sessions "$SESSIONS" --duration 15s --interval 5s --ready-timeout 15s \
+        --report "$1" > "$WORK_DIR/loadgen.log" 2>&1 || true
+}
+
+function report_total {
+    python3 -c 'import json,sys; print(json.load(open(sys.argv[1]))["totals"]["counts"][sys.argv[2]])' "$1" "$2"
+}
+
+echo -e "${BLUE}Phase 1: 20% throttling and 10% service unavailable${NC}"
+# Failure-rate threshold raised so this phase exercises retries rather than the breaker
+start_server --novasonic.bedrock.fake-throttle-rate=0.2 --novasonic.bedrock.fake-server-error-rate=0.1 \
+    --novasonic.stream-setup.breaker-failure-rate=0.9
+run_load "$WORK_DIR/retry-report.json"
+throttled=$(counter novasonic.stream.setup.attempts outcome:throttled)
+unavailable=$(counter novasonic.stream.setup.attempts outcome:unavailable)
+succeeded=$(counter novasonic.stream.setup.attempts outcome:success)
+started=$(report_total "$WORK_DIR/retry-report.json" sessionsStarted)
+rejected=$(report_total "$WORK_DIR/retry-report.json" sessionsRejected)
+stop_server
+echo "Attempts: success=$succeeded throttled=$throttled unavailable=$unavailable; sessions rejected=$rejected of $started"
+if [ "$throttled" -eq 0 ] || [ "$unavailable" -eq 0 ]; then
+    echo -e "${RED}No injected failures were seen${NC}"
+    exit 1
+fi
+if [ $(( rejected * 10 )) -gt "$started" ]; then
+    echo -e "${RED}Too many sessions failed despite retries${NC}"
+    exit 1
+fi
+
+echo -e "${BLUE}Phase 2: 100% throttling${NC}"
+start_server --novasonic.bedrock.fake-throttle-rate=1.0
+run_load "$WORK_DIR/breaker-report.json"
+short_circuited=$(counter novasonic.stream.setup.short_circuited)
+succeeded=$(counter novasonic.stream.setup.attempts outcome:success)
+started=$(report_total "$WORK_DIR/breaker-report.json" sessionsStarted)
+rejected=$(report_total "$WORK_DIR/breaker-report.json" sessionsRejected)
+stop_server
+echo "Setups failed fast by the open circuit: $short_circuited; sessions rejected=$rejected of $started"
+if [ "$short_circuited" -eq 0 ]; then
+    echo -e "${RED}Circuit breaker never opened${NC}"
+    exit 1
+fi
+if [ "$succeeded" -ne 0 ] || [ "$rejected" -eq 0 ]; then
+    echo -e "${RED}Expected callers to receive stream_unavailable errors and no stream to open${NC}"
+    exit 1
+fi
+echo -e "${GREEN}Stream setup retries and circuit breaker behaved as expected${NC}"